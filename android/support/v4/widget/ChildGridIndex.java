@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 子view的均匀网格索引,供{@link ViewDragHelper#findTopChildUnder(int, int)}使用.
+ * 把所有子view的边界按Z序放进网格,每个格子里按从顶到底的顺序保存和它相交的子view,
+ * 命中测试只需要检查一个格子,而不是遍历所有子view.
+ *
+ * 拖曳或者settle移动了某个子view时,不重建网格,只把它标记为"松散"的:查询时松散的子view直接读取它当前的边界.
+ * 松散的子view太多,或者父view重新布局后,下一次查询时整体重建.
+ *
+ * Uniform grid over the bounds of a parent's children, used by
+ * {@link ViewDragHelper#findTopChildUnder(int, int)}. Each cell lists the children
+ * overlapping it from top to bottom in Z order, so a hit test looks at a single cell
+ * instead of every child. A child moved by a drag or settle is not re-inserted; it
+ * is marked loose and tested against its live bounds instead. The grid is rebuilt
+ * lazily after {@link #invalidate()} or once too many children are loose.
+ */
+final class ChildGridIndex {
+    // Average number of children per cell the grid is sized for
+    private static final int CHILDREN_PER_CELL = 4;
+    private static final int MAX_LOOSE_CHILDREN = 8;
+
+    private final ViewGroup mParent;
+    private final ViewDragHelper.Callback mCallback;
+    private boolean mValid;
+
+    // 下标是Z序中的位置(0在最底层),保存重建时的子view和它的边界
+    private int mCount;
+    private View[] mChildren = new View[0];
+    private int[] mLeft = new int[0];
+    private int[] mTop = new int[0];
+    private int[] mRight = new int[0];
+    private int[] mBottom = new int[0];
+
+    private boolean[] mLoose = new boolean[0];
+    private final int[] mLooseList = new int[MAX_LOOSE_CHILDREN];
+    private int mLooseCount;
+    private View mLastMovedChild;
+    private int mLastMovedPosition;
+
+    private int mOriginX;
+    private int mOriginY;
+    private int mCellWidth;
+    private int mCellHeight;
+    private int mColumns;
+    private int mRows;
+    // 第c个格子的内容是mCellEntries[mCellStart[c]..mCellStart[c + 1]),按Z序从顶到底排列
+    private int[] mCellStart = new int[1];
+    private int[] mCellEntries = new int[0];
+
+    ChildGridIndex(ViewGroup parent, ViewDragHelper.Callback callback) {
+        mParent = parent;
+        mCallback = callback;
+    }
+
+    /**
+     * 标记索引失效,下次查询时重建.父view布局变化,或者子view被ViewDragHelper以外的代码移动时调用.
+     * Marks the index stale so that it is rebuilt on the next query.
+     */
+    void invalidate() {
+        mValid = false;
+        mLastMovedChild = null;
+    }
+
+    /**
+     * 子view被移动后调用.不重建网格,只让之后的查询读取这个子view当前的边界.
+     * Records that a child moved, so that later queries use its live bounds.
+     */
+    void onChildMoved(View child) {
+        if (!mValid) {
+            return;
+        }
+        int position = -1;
+        if (child == mLastMovedChild) {
+            position = mLastMovedPosition;
+        } else {
+            for (int i = 0; i < mCount; i++) {
+                if (mChildren[i] == child) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                invalidate();
+                return;
+            }
+            mLastMovedChild = child;
+            mLastMovedPosition = position;
+        }
+        if (mLoose[position]) {
+            return;
+        }
+        if (mLooseCount == MAX_LOOSE_CHILDREN) {
+            invalidate();
+            return;
+        }
+        mLoose[position] = true;
+        mLooseList[mLooseCount++] = position;
+    }
+
+    /**
+     * 返回(x, y)下最顶层的子view,结果和逐个遍历子view一致.
+     * Returns the topmost child under (x, y), or null.
+     */
+    View findTopChildUnder(int x, int y) {
+        return findTopChildUnder(x, y, null);
+    }
+
+    /**
+     * 和{@link #findTopChildUnder(int, int)}一样,同时在region里返回结果保持不变的区域
+     * {left, top, right, bottom}:所在的格子和命中的子view的边界的交集,去掉上面盖住它的子view.
+     * 没有子view移动,索引也没有失效时,这个区域里的任何一点都得到同样的结果.
+     *
+     * Like {@link #findTopChildUnder(int, int)}, and also stores in <code>region</code>
+     * a rectangle {left, top, right, bottom} around (x, y) where the result holds: the
+     * cell, within the bounds of the child found, less the children above it. Any
+     * point of the region gives the same result until a child moves or the index is
+     * invalidated.
+     */
+    View findTopChildUnder(int x, int y, int[] region) {
+        if (!mValid) {
+            rebuild();
+        }
+        int best = -1;
+        int cell = -1;
+        final int column = x - mOriginX;
+        final int row = y - mOriginY;
+        if (column >= 0 && row >= 0) {
+            final int c = column / mCellWidth;
+            final int r = row / mCellHeight;
+            if (c < mColumns && r < mRows) {
+                cell = r * mColumns + c;
+                for (int k = mCellStart[cell], end = mCellStart[cell + 1]; k < end; k++) {
+                    final int position = mCellEntries[k];
+                    if (!mLoose[position] && x >= mLeft[position] && x < mRight[position]
+                            && y >= mTop[position] && y < mBottom[position]) {
+                        best = position;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < mLooseCount; i++) {
+            final int position = mLooseList[i];
+            if (position > best) {
+                final View child = mChildren[position];
+                if (x >= child.getLeft() && x < child.getRight()
+                        && y >= child.getTop() && y < child.getBottom()) {
+                    best = position;
+                }
+            }
+        }
+        if (region != null) {
+            computeRegion(x, y, cell, best, region);
+        }
+        return best >= 0 ? mChildren[best] : null;
+    }
+
+    // 计算(x, y)的查询结果保持不变的区域.cell是(x, y)所在的格子,不在网格里时是-1;best是结果的Z序位置
+    private void computeRegion(int x, int y, int cell, int best, int[] region) {
+        if (cell < 0) {
+            // Outside the grid only loose children can be hit; keep to this point
+            region[0] = x;
+            region[1] = y;
+            region[2] = x + 1;
+            region[3] = y + 1;
+        } else {
+            region[0] = mOriginX + (cell % mColumns) * mCellWidth;
+            region[1] = mOriginY + (cell / mColumns) * mCellHeight;
+            region[2] = region[0] + mCellWidth;
+            region[3] = region[1] + mCellHeight;
+        }
+        if (best >= 0) {
+            if (mLoose[best]) {
+                final View child = mChildren[best];
+                intersectRegion(region, child.getLeft(), child.getTop(), child.getRight(),
+                        child.getBottom());
+            } else {
+                intersectRegion(region, mLeft[best], mTop[best], mRight[best], mBottom[best]);
+            }
+        }
+        if (cell >= 0) {
+            // Entries are topmost first, so the ones above the result come first
+            for (int k = mCellStart[cell], end = mCellStart[cell + 1]; k < end; k++) {
+                final int position = mCellEntries[k];
+                if (position <= best) {
+                    break;
+                }
+                if (!mLoose[position]) {
+                    excludeFromRegion(region, x, y, mLeft[position], mTop[position],
+                            mRight[position], mBottom[position]);
+                }
+            }
+        }
+        for (int i = 0; i < mLooseCount; i++) {
+            final int position = mLooseList[i];
+            if (position > best) {
+                final View child = mChildren[position];
+                excludeFromRegion(region, x, y, child.getLeft(), child.getTop(),
+                        child.getRight(), child.getBottom());
+            }
+        }
+    }
+
+    // 把region限制在(left, top, right, bottom)里
+    static void intersectRegion(int[] region, int left, int top, int right, int bottom) {
+        region[0] = Math.max(region[0], left);
+        region[1] = Math.max(region[1], top);
+        region[2] = Math.min(region[2], right);
+        region[3] = Math.min(region[3], bottom);
+    }
+
+    // 从region里去掉和(left, top, right, bottom)相交的部分,保留(x, y)所在的一侧.
+    // 这个矩形不包含(x, y),所以(x, y)总在它的某一侧
+    static void excludeFromRegion(int[] region, int x, int y, int left, int top, int right,
+            int bottom) {
+        if (right <= left || bottom <= top || right <= region[0] || left >= region[2]
+                || bottom <= region[1] || top >= region[3]) {
+            return;
+        }
+        if (right <= x) {
+            region[0] = right;
+        } else if (left > x) {
+            region[2] = left;
+        } else if (bottom <= y) {
+            region[1] = bottom;
+        } else {
+            region[3] = top;
+        }
+    }
+
+    private void rebuild() {
+        final int count = mParent.getChildCount();
+        if (mChildren.length < count) {
+            mChildren = new View[count];
+            mLeft = new int[count];
+            mTop = new int[count];
+            mRight = new int[count];
+            mBottom = new int[count];
+            mLoose = new boolean[count];
+        } else {
+            for (int i = count; i < mCount; i++) {
+                mChildren[i] = null;
+            }
+        }
+        mCount = count;
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            final View child = mParent.getChildAt(mCallback.getOrderedChildIndex(i));
+            mChildren[i] = child;
+            mLeft[i] = child.getLeft();
+            mTop[i] = child.getTop();
+            mRight[i] = child.getRight();
+            mBottom[i] = child.getBottom();
+            mLoose[i] = false;
+            if (mRight[i] > mLeft[i] && mBottom[i] > mTop[i]) {
+                minX = Math.min(minX, mLeft[i]);
+                minY = Math.min(minY, mTop[i]);
+                maxX = Math.max(maxX, mRight[i]);
+                maxY = Math.max(maxY, mBottom[i]);
+            }
+        }
+        mLooseCount = 0;
+        mLastMovedChild = null;
+
+        if (minX >= maxX) {
+            // No child with a non-empty area
+            mOriginX = mOriginY = 0;
+            mCellWidth = mCellHeight = 1;
+            mColumns = mRows = 0;
+            mCellStart = new int[1];
+            mValid = true;
+            return;
+        }
+
+        // Aim for square cells holding a few children each
+        final long width = (long) maxX - minX;
+        final long height = (long) maxY - minY;
+        final int cells = Math.max(1, count / CHILDREN_PER_CELL);
+        int columns = (int) Math.round(Math.sqrt((double) cells * width / height));
+        columns = Math.max(1, Math.min(columns, cells));
+        final int rows = Math.max(1, cells / columns);
+        mOriginX = minX;
+        mOriginY = minY;
+        mColumns = columns;
+        mRows = rows;
+        mCellWidth = (int) ((width + columns - 1) / columns);
+        mCellHeight = (int) ((height + rows - 1) / rows);
+
+        final int cellCount = columns * rows;
+        if (mCellStart.length < cellCount + 1) {
+            mCellStart = new int[cellCount + 1];
+        } else {
+            for (int c = 0; c <= cellCount; c++) {
+                mCellStart[c] = 0;
+            }
+        }
+        // Count the children of each cell, then turn the counts into start offsets
+        for (int i = 0; i < count; i++) {
+            if (mRight[i] <= mLeft[i] || mBottom[i] <= mTop[i]) continue;
+            final int c0 = (mLeft[i] - minX) / mCellWidth;
+            final int c1 = (mRight[i] - 1 - minX) / mCellWidth;
+            final int r0 = (mTop[i] - minY) / mCellHeight;
+            final int r1 = (mBottom[i] - 1 - minY) / mCellHeight;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    mCellStart[r * columns + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cellCount; c++) {
+            mCellStart[c + 1] += mCellStart[c];
+        }
+        final int total = mCellStart[cellCount];
+        if (mCellEntries.length < total) {
+            mCellEntries = new int[total];
+        }
+        final int[] fill = new int[cellCount];
+        System.arraycopy(mCellStart, 0, fill, 0, cellCount);
+        // Topmost first, so that the first hit in a cell is the answer
+        for (int i = count - 1; i >= 0; i--) {
+            if (mRight[i] <= mLeft[i] || mBottom[i] <= mTop[i]) continue;
+            final int c0 = (mLeft[i] - minX) / mCellWidth;
+            final int c1 = (mRight[i] - 1 - minX) / mCellWidth;
+            final int r0 = (mTop[i] - minY) / mCellHeight;
+            final int r1 = (mBottom[i] - 1 - minY) / mCellHeight;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    mCellEntries[fill[r * columns + c]++] = i;
+                }
+            }
+        }
+        mValid = true;
+    }
+}
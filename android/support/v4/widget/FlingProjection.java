@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+/**
+ * 预测fling终点用的对数减速模型,供{@link ViewDragHelper#predictSettleTarget(int, float, int[])}使用.
+ * 和平台Scroller的fling是同一个模型:u = 起始张力 * |v| / ALPHA,距离 = ALPHA * u^(减速率 / (减速率 - 1)).
+ * 这里自己实现而不调用android.widget.Scroller,因为支持库要运行在各个版本的平台上,
+ * 平台的Scroller没有可供调用的预测方法.ALPHA按dp/s给出,设置模型时按屏幕密度换算成像素,
+ * 预测时只做一次pow,不分配内存.
+ *
+ * Log-based fling model used by {@link ViewDragHelper#predictSettleTarget(int, float, int[])}
+ * to project where a release would come to rest. It is the model of the platform
+ * Scroller's flings: with u = start tension * |v| / ALPHA, the distance is
+ * ALPHA * u^(rate / (rate - 1)). It is implemented here rather than called on
+ * android.widget.Scroller because the support library runs on platform versions whose
+ * Scroller exposes no such prediction. ALPHA is given in dp per second and scaled to
+ * pixels by the display density when the model is set, so a projection costs one pow
+ * and allocates nothing.
+ */
+final class FlingProjection {
+    // 和平台Scroller一致的默认参数
+    static final float DEFAULT_DECELERATION_RATE = (float) (Math.log(0.75) / Math.log(0.9));
+    static final float DEFAULT_ALPHA = 800; // dp / second
+    static final float DEFAULT_START_TENSION = 0.4f;
+
+    private final float mDensity;
+    private float mDecelerationRate;
+    private float mAlpha;
+    private float mStartTension;
+    // 按密度换算成像素的ALPHA,和距离的指数
+    private float mScaledAlpha;
+    private double mDistanceExponent;
+
+    FlingProjection(float density) {
+        mDensity = density;
+        setModel(DEFAULT_DECELERATION_RATE, DEFAULT_ALPHA, DEFAULT_START_TENSION);
+    }
+
+    // 设置模型参数,alpha按dp/s给出.参数不合法时抛出IllegalArgumentException
+    void setModel(float decelerationRate, float alpha, float startTension) {
+        if (!(decelerationRate > 1.0f)) {
+            throw new IllegalArgumentException("deceleration rate must be > 1: "
+                    + decelerationRate);
+        }
+        if (!(alpha > 0)) {
+            throw new IllegalArgumentException("alpha must be positive: " + alpha);
+        }
+        if (!(startTension > 0.0f && startTension < 1.0f)) {
+            throw new IllegalArgumentException("start tension must be in (0, 1): "
+                    + startTension);
+        }
+        mDecelerationRate = decelerationRate;
+        mAlpha = alpha;
+        mStartTension = startTension;
+        mScaledAlpha = alpha * mDensity;
+        mDistanceExponent = decelerationRate / (decelerationRate - 1.0);
+    }
+
+    float getDecelerationRate() {
+        return mDecelerationRate;
+    }
+
+    float getAlpha() {
+        return mAlpha;
+    }
+
+    float getStartTension() {
+        return mStartTension;
+    }
+
+    // 预测从start开始,速度为velocity(px/s)的fling停在哪里
+    int projectFinal(int start, float velocity) {
+        final double u = mStartTension * Math.abs(velocity) / mScaledAlpha;
+        if (u == 0) {
+            return start;
+        }
+        final int distance = (int) (mScaledAlpha * Math.pow(u, mDistanceExponent));
+        return velocity < 0 ? start - distance : start + distance;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+/**
+ * ViewDragHelper内置的速度估计器.每个pointer槽位有一个固定大小的环形缓冲区,保存最近的采样(时间, x, y),
+ * 计算速度时对最近{@link #HORIZON_MS}毫秒内的采样做最小二乘拟合(二次多项式,采样不够时退化为一次),
+ * 取最新采样处的导数.所有数组预先分配,只有槽位表扩容时才会重新分配,手势之间不需要获取和回收任何对象.
+ *
+ * Velocity estimator built into {@link ViewDragHelper}. Each pointer slot owns a
+ * fixed-size ring buffer of recent (time, x, y) samples. Velocity is the derivative
+ * at the newest sample of a least-squares fit over the samples from the last
+ * {@link #HORIZON_MS} milliseconds: quadratic, or linear when there are too few
+ * samples for a quadratic. All arrays are preallocated and only grow with the slot
+ * table, so no object is obtained or recycled across gestures.
+ */
+final class PointerVelocityEstimator {
+    // 每个槽位保存的采样数
+    static final int HISTORY_SIZE = 20;
+    // 只拟合这么多毫秒之内的采样
+    static final long HORIZON_MS = 100;
+    // 两个采样间隔超过这个时间就认为pointer中途停下过,更早的采样不再参与拟合
+    static final long ASSUME_STOPPED_MS = 40;
+
+    private int mSlotCount;
+    // 第slot个槽位的采样在下标[slot * HISTORY_SIZE, (slot + 1) * HISTORY_SIZE)
+    private long[] mTime;
+    private float[] mX;
+    private float[] mY;
+    // 最新采样在环形缓冲区里的位置,和采样数
+    private int[] mHead;
+    private int[] mCount;
+    // computeCurrentVelocity的结果,单位px/s
+    private float[] mVelocityX;
+    private float[] mVelocityY;
+
+    PointerVelocityEstimator(int slotCount) {
+        ensureSlots(slotCount);
+    }
+
+    /**
+     * 保证至少有slotCount个槽位,保留已有的采样.
+     * Grows the per-slot buffers to at least <code>slotCount</code> slots.
+     */
+    void ensureSlots(int slotCount) {
+        if (slotCount <= mSlotCount) {
+            return;
+        }
+        final long[] time = new long[slotCount * HISTORY_SIZE];
+        final float[] x = new float[slotCount * HISTORY_SIZE];
+        final float[] y = new float[slotCount * HISTORY_SIZE];
+        final int[] head = new int[slotCount];
+        final int[] count = new int[slotCount];
+        final float[] vx = new float[slotCount];
+        final float[] vy = new float[slotCount];
+        if (mSlotCount > 0) {
+            System.arraycopy(mTime, 0, time, 0, mTime.length);
+            System.arraycopy(mX, 0, x, 0, mX.length);
+            System.arraycopy(mY, 0, y, 0, mY.length);
+            System.arraycopy(mHead, 0, head, 0, mSlotCount);
+            System.arraycopy(mCount, 0, count, 0, mSlotCount);
+            System.arraycopy(mVelocityX, 0, vx, 0, mSlotCount);
+            System.arraycopy(mVelocityY, 0, vy, 0, mSlotCount);
+        }
+        mTime = time;
+        mX = x;
+        mY = y;
+        mHead = head;
+        mCount = count;
+        mVelocityX = vx;
+        mVelocityY = vy;
+        mSlotCount = slotCount;
+    }
+
+    /**
+     * 清空槽位的采样和速度.
+     * Forgets the samples and velocity of <code>slot</code>.
+     */
+    void clear(int slot) {
+        mCount[slot] = 0;
+        mVelocityX[slot] = 0;
+        mVelocityY[slot] = 0;
+    }
+
+    /**
+     * 添加一个采样.时间比最新的采样还早的采样会被忽略.
+     * Adds a sample to <code>slot</code>. Samples older than the newest one are ignored.
+     */
+    void addSample(int slot, long timeMillis, float x, float y) {
+        final int base = slot * HISTORY_SIZE;
+        int head = mHead[slot];
+        if (mCount[slot] > 0) {
+            final long newest = mTime[base + head];
+            if (timeMillis < newest) {
+                return;
+            }
+            if (timeMillis == newest) {
+                // Same timestamp, keep the latest position only
+                mX[base + head] = x;
+                mY[base + head] = y;
+                return;
+            }
+            head = head + 1 == HISTORY_SIZE ? 0 : head + 1;
+        } else {
+            head = 0;
+        }
+        mHead[slot] = head;
+        mTime[base + head] = timeMillis;
+        mX[base + head] = x;
+        mY[base + head] = y;
+        if (mCount[slot] < HISTORY_SIZE) {
+            mCount[slot]++;
+        }
+    }
+
+    /**
+     * 计算前slotCount个槽位的速度,单位px/s,每个分量的绝对值不超过maxVelocity.
+     * 和{@link android.view.VelocityTracker#computeCurrentVelocity(int, float)}一样,
+     * 之后用{@link #getXVelocity(int)}和{@link #getYVelocity(int)}读取结果.
+     *
+     * Computes the velocity in pixels per second of the first <code>slotCount</code>
+     * slots, clamping each component to <code>maxVelocity</code>. Like
+     * {@link android.view.VelocityTracker#computeCurrentVelocity(int, float)}, results
+     * are read back with {@link #getXVelocity(int)} and {@link #getYVelocity(int)}.
+     */
+    void computeCurrentVelocity(int slotCount, float maxVelocity) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (mCount[slot] < 2) {
+                mVelocityX[slot] = 0;
+                mVelocityY[slot] = 0;
+            } else {
+                computeSlot(slot, maxVelocity);
+            }
+        }
+    }
+
+    float getXVelocity(int slot) {
+        return mVelocityX[slot];
+    }
+
+    float getYVelocity(int slot) {
+        return mVelocityY[slot];
+    }
+
+    private void computeSlot(int slot, float maxVelocity) {
+        final int base = slot * HISTORY_SIZE;
+        final int count = mCount[slot];
+        int index = mHead[slot];
+        final long newest = mTime[base + index];
+        final float newestX = mX[base + index];
+        final float newestY = mY[base + index];
+
+        // 以最新的采样为原点,时间单位是秒,在原点处的一次项系数就是速度.
+        // 只累加正规方程需要的和,不保存中间数组
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double sx = 0, stx = 0, st2x = 0;
+        double sy = 0, sty = 0, st2y = 0;
+        int n = 0;
+        long previous = newest;
+        for (int k = 0; k < count; k++) {
+            final long time = mTime[base + index];
+            if (newest - time > HORIZON_MS || previous - time > ASSUME_STOPPED_MS) {
+                break;
+            }
+            previous = time;
+            final double t = (time - newest) * 0.001;
+            final double t2 = t * t;
+            final double x = mX[base + index] - newestX;
+            final double y = mY[base + index] - newestY;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sx += x;
+            stx += t * x;
+            st2x += t2 * x;
+            sy += y;
+            sty += t * y;
+            st2y += t2 * y;
+            n++;
+            index = index == 0 ? HISTORY_SIZE - 1 : index - 1;
+        }
+
+        double vx = 0;
+        double vy = 0;
+        boolean solved = false;
+        if (n >= 3) {
+            // 二次拟合x = b0 + b1 t + b2 t^2,用克莱姆法则解3x3的正规方程,只需要b1
+            final double det = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s2 * s3)
+                    + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-18) {
+                vx = (n * (stx * s4 - s3 * st2x) - sx * (s1 * s4 - s2 * s3)
+                        + s2 * (s1 * st2x - s2 * stx)) / det;
+                vy = (n * (sty * s4 - s3 * st2y) - sy * (s1 * s4 - s2 * s3)
+                        + s2 * (s1 * st2y - s2 * sty)) / det;
+                solved = true;
+            }
+        }
+        if (!solved && n >= 2) {
+            // 一次拟合x = b0 + b1 t
+            final double det = n * s2 - s1 * s1;
+            if (det > 1e-12) {
+                vx = (n * stx - s1 * sx) / det;
+                vy = (n * sty - s1 * sy) / det;
+            }
+        }
+        mVelocityX[slot] = clamp((float) vx, maxVelocity);
+        mVelocityY[slot] = clamp((float) vy, maxVelocity);
+    }
+
+    private static float clamp(float value, float max) {
+        return value > max ? max : value < -max ? -max : value;
+    }
+}
@@ -18,6 +18,7 @@
 package android.support.v4.widget;
 
 import android.content.Context;
+import android.os.Build;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.VelocityTrackerCompat;
 import android.support.v4.view.ViewCompat;
@@ -26,6 +27,8 @@ import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.animation.AnimationUtils;
 import android.view.animation.Interpolator;
 
 import java.util.Arrays;
@@ -123,11 +126,16 @@ public class ViewDragHelper {
 
     //将边缘大小定位20dp
     private static final int EDGE_SIZE = 20; // dp
+    // 边缘的个数,边缘标记1 << i对应下标i
+    private static final int EDGE_COUNT = 4;
 
     //时间值
     private static final int BASE_SETTLE_DURATION = 256; // ms
     private static final int MAX_SETTLE_DURATION = 600; // ms
 
+    // 预先分配的pointer槽位数,足够一般的多指手势使用
+    private static final int DEFAULT_POINTER_SLOTS = 10;
+
     // 当前的拖曳状态,值为idle, dragging or settling.
     // Current drag state; idle, dragging or settling
     private int mDragState;
@@ -139,6 +147,10 @@ public class ViewDragHelper {
     // 上一次的位置或点
     // Last known position/pointer tracking
     private int mActivePointerId = INVALID_POINTER;
+    // 下面这些数组的下标是槽位,不是pointer id.每个按下的pointer占一个槽位,mSlotPointerId记录
+    // 槽位属于哪个pointer,空闲的是INVALID_POINTER.pointer抬起后槽位留给下一个按下的pointer,
+    // 所以手势过程中不会重新分配数组,pointer id也可以是任意大小
+    private int[] mSlotPointerId;
     //初始化的X坐标
     private float[] mInitialMotionX;
     //初始化的Y坐标
@@ -149,26 +161,95 @@ public class ViewDragHelper {
     private int[] mInitialEdgesTouched;
     private int[] mEdgeDragsInProgress;
     private int[] mEdgeDragsLocked;
-    private int mPointersDown;
+    // 每个pointer上一次命中测试的结果,和结果保持不变的矩形区域[left, right) x [top, bottom).
+    // pointer还在这个区域里并且mHitTestEpoch没有变时直接使用结果
+    private int[] mHitTestLeft;
+    private int[] mHitTestTop;
+    private int[] mHitTestRight;
+    private int[] mHitTestBottom;
+    private int[] mHitTestGeneration;
+    private View[] mHitTestResult;
+    // 子view可能移动时加一,让所有缓存的命中测试失效.0保留给"没有缓存"
+    private int mHitTestEpoch = 1;
+    private final int[] mHitRegion = new int[4];
+    // 多view拖曳时每个pointer捕获的view,和它拖曳时不足一个像素的位移
+    private View[] mSlotCapturedView;
+    private float[] mSlotDragRemainderX;
+    private float[] mSlotDragRemainderY;
 
     private VelocityTracker mVelocityTracker;
+    // 内置的速度估计器,开启后代替mVelocityTracker,按pointer槽位记录采样
+    private PointerVelocityEstimator mVelocityEstimator;
+    private boolean mUseVelocityEstimator;
     private float mMaxVelocity;
     private float mMinVelocity;
-    //边缘的大小,单位px
+    //边缘的大小,单位px.各个边缘大小不同时是其中最大的一个
     private int mEdgeSize;
     private int mTrackingEdges;
+    // 每个边缘各自的大小,沿边缘方向的范围和自定义形状,下标i对应边缘标记1 << i
+    private final int[] mEdgeSizes = new int[EDGE_COUNT];
+    private final boolean[] mEdgeRangeLimited = new boolean[EDGE_COUNT];
+    private final int[] mEdgeRangeStart = new int[EDGE_COUNT];
+    private final int[] mEdgeRangeEnd = new int[EDGE_COUNT];
+    private final EdgeShape[] mEdgeShapes = new EdgeShape[EDGE_COUNT];
+    private boolean mHasEdgeShapes;
+    // 按父view的位置算好的边缘矩形,左和上包含,右和下不包含.父view布局后失效,下次使用时重新计算
+    private final int[] mEdgeRectLeft = new int[EDGE_COUNT];
+    private final int[] mEdgeRectTop = new int[EDGE_COUNT];
+    private final int[] mEdgeRectRight = new int[EDGE_COUNT];
+    private final int[] mEdgeRectBottom = new int[EDGE_COUNT];
+    private boolean mEdgeRectsValid;
 
     //兼容新API所提供的Scroller
     private ScrollerCompat mScroller;
+    // 预测fling终点用的模型,按屏幕密度换算成像素
+    private final FlingProjection mFlingProjection;
     
     //内部抽象类,提供一些规范的接口方法
     private final Callback mCallback;
 
     private View mCapturedView;
     private boolean mReleaseInProgress;
+    // 拖曳时还没有应用到view上的不足一个像素的位移
+    private float mDragRemainderX;
+    private float mDragRemainderY;
+
+    // 按帧合并拖曳:开启后移动事件的位移先累加,每个显示帧只调用一次dragTo
+    private boolean mCoalesceDrags;
+    private boolean mDragFramePosted;
+    private int mPendingDragDx;
+    private int mPendingDragDy;
+    private int mCoalescedDragEvents;
+    private int mDispatchedDrags;
 
     private final ViewGroup mParentView;
 
+    // 可选的子view网格索引,开启后findTopChildUnder不再遍历所有子view
+    private ChildGridIndex mChildIndex;
+    private ViewTreeObserver.OnGlobalLayoutListener mLayoutListener;
+    private View.OnAttachStateChangeListener mAttachListener;
+    // 需要布局回调时为true;父view附加到window期间,监听注册在mLayoutObserver上
+    private boolean mWatchingLayout;
+    private ViewTreeObserver mLayoutObserver;
+    private boolean mLayoutListenerRegistered;
+
+    // 多view拖曳:开启后每个pointer各自捕获和拖曳一个view,松开的view都交给mSettleAnimator一起settle
+    private boolean mMultiCapture;
+    private int mMultiCapturedCount;
+    private ViewSettleAnimator mSettleAnimator;
+    // 多view拖曳时正在onViewReleased里释放的view和pointer
+    private View mReleasingView;
+    private int mReleasingPointerId = INVALID_POINTER;
+    // 这个helper在mSettleAnimator里的条目数,mSettleAnimator可能和其他helper共用
+    private int mSettlingViewCount;
+
+    // 共用的settle驱动器.挂上后settle不再经过mScroller,由驱动器每帧推进
+    private ViewDragSettleScheduler mSettleScheduler;
+    // 单view模式下当前的settle是否交给了驱动器
+    private boolean mScheduledSettle;
+    // 上一次驱动器的帧之后是否移动过view
+    private boolean mScheduledMove;
+
     /**
      * 这个Callback是作为通信接口,当ViewDragHelper返回父view时使用."on"为首的方法是重要事件的回调方法,几个
      * 接口方法用于提供更多关于请求父view的状态的信息给ViewDragHelper.这个抽象类同时提供子view拖曳的一些细节信息.
@@ -388,11 +469,32 @@ public class ViewDragHelper {
         }
     }
 
+    /**
+     * 自定义边缘区域的形状.边缘的矩形(由大小和范围决定)先做快速排除,只有落在矩形里的点才交给EdgeShape判断,
+     * 所以形状应该在矩形之内.
+     *
+     * Custom shape of an edge region. Points are first tested against the edge's
+     * rectangle, given by its size and range, and only points inside it are passed to
+     * the shape, so the shape should lie within that rectangle.
+     *
+     * @see #setEdgeShape(int, EdgeShape)
+     */
+    public interface EdgeShape {
+        /**
+         * @param edge The edge being tested, one of {@link #EDGE_LEFT}, {@link #EDGE_TOP},
+         *             {@link #EDGE_RIGHT} or {@link #EDGE_BOTTOM}
+         * @param x X position in the same coordinate system as the edge rectangles
+         * @param y Y position in the same coordinate system as the edge rectangles
+         * @return true if the point lies in the edge region
+         */
+        boolean contains(int edge, int x, int y);
+    }
+
     /**
      * 定义曲线动画的插值器
      * Interpolator defining the animation curve for mScroller
      */
-    private static final Interpolator sInterpolator = new Interpolator() {
+    static final Interpolator sInterpolator = new Interpolator() {
         public float getInterpolation(float t) {
             t -= 1.0f;
             return t * t * t * t * t + 1.0f;
@@ -406,6 +508,23 @@ public class ViewDragHelper {
         }
     };
 
+    private final Runnable mDragFrameRunnable = new Runnable() {
+        public void run() {
+            mDragFramePosted = false;
+            flushPendingDrag();
+        }
+    };
+
+    private final ViewSettleAnimator.Listener mSettleListener = new ViewSettleAnimator.Listener() {
+        public void onSettleMoved(View view, int left, int top) {
+            moveSettlingView(view, left, top);
+        }
+
+        public void onSettleFinished(View view) {
+            mSettlingViewCount--;
+        }
+    };
+
     /**
      * 创建ViewDragHelper的工厂方法
      * Factory method to create a new ViewDragHelper.
@@ -457,11 +576,54 @@ public class ViewDragHelper {
         final ViewConfiguration vc = ViewConfiguration.get(context);
         final float density = context.getResources().getDisplayMetrics().density;
         mEdgeSize = (int) (EDGE_SIZE * density + 0.5f);
+        Arrays.fill(mEdgeSizes, mEdgeSize);
+        mFlingProjection = new FlingProjection(density);
 
         mTouchSlop = vc.getScaledTouchSlop();
         mMaxVelocity = vc.getScaledMaximumFlingVelocity();
         mMinVelocity = vc.getScaledMinimumFlingVelocity();
         mScroller = ScrollerCompat.create(context, sInterpolator);
+        allocatePointerSlots(DEFAULT_POINTER_SLOTS);
+    }
+
+    /**
+     * 不依赖Context的构造方法,所有和配置有关的参数都由调用者直接传入.用于在没有设备的环境里
+     * (比如普通Linux机器上的基准测试)驱动ViewDragHelper.
+     *
+     * Creates a helper without reading any configuration from a Context, so that it
+     * can be driven off-device, for example by a benchmark on a plain JVM.
+     *
+     * @param forParent Parent view to monitor
+     * @param cb Callback to provide information and receive events
+     * @param scroller Scroller used to settle captured views
+     * @param touchSlop Distance in pixels a touch can wander before it is a drag
+     * @param minVelocity Minimum fling velocity in pixels per second
+     * @param maxVelocity Maximum fling velocity in pixels per second
+     * @param edgeSize Size of the edge regions in pixels
+     * @param density Display density, used to scale the fling model to pixels
+     */
+    ViewDragHelper(ViewGroup forParent, Callback cb, ScrollerCompat scroller,
+            int touchSlop, float minVelocity, float maxVelocity, int edgeSize, float density) {
+        if (forParent == null) {
+            throw new IllegalArgumentException("Parent view may not be null");
+        }
+        if (cb == null) {
+            throw new IllegalArgumentException("Callback may not be null");
+        }
+        if (scroller == null) {
+            throw new IllegalArgumentException("Scroller may not be null");
+        }
+
+        mParentView = forParent;
+        mCallback = cb;
+        mScroller = scroller;
+        mTouchSlop = touchSlop;
+        mMinVelocity = minVelocity;
+        mMaxVelocity = maxVelocity;
+        mEdgeSize = edgeSize;
+        Arrays.fill(mEdgeSizes, edgeSize);
+        mFlingProjection = new FlingProjection(density);
+        allocatePointerSlots(DEFAULT_POINTER_SLOTS);
     }
 
     /**
@@ -509,6 +671,14 @@ public class ViewDragHelper {
      * {@link Callback#onEdgeDragStarted(int, int)} methods will only be invoked
      * for edges for which edge tracking has been enabled.
      *
+     * <p>边缘矩形在父view布局后重新计算,为此只在父view附加到window期间监听布局;
+     * 分离后或者没有附加回调的平台上,每个手势开始时重新计算一次.</p>
+     *
+     * <p>The edge rectangles are recomputed after the parent lays out. The layout
+     * listener this needs is only registered while the parent is attached to a
+     * window; otherwise the rectangles are recomputed once at the start of each
+     * gesture.</p>
+     *
      * @param edgeFlags Combination of edge flags describing the edges to watch
      * @see #EDGE_LEFT
      * @see #EDGE_TOP
@@ -517,12 +687,16 @@ public class ViewDragHelper {
      */
     public void setEdgeTrackingEnabled(int edgeFlags) {
         mTrackingEdges = edgeFlags;
+        updateLayoutListener();
     }
 
     /**
      * 返回边缘大小的值.单位为px.这个值是该view边缘可以被监测或追踪的值的范围.
+     * 各个边缘用{@link #setEdgeSize(int, int)}设置了不同的大小时,返回其中最大的一个.
      * Return the size of an edge. This is the range in pixels along the edges of this view
      * that will actively detect edge touches or drags if edge tracking is enabled.
+     * When {@link #setEdgeSize(int, int)} gave the edges different sizes, this is the
+     * largest of them; use {@link #getEdgeSize(int)} for a single edge.
      *
      * @return The size of an edge in pixels
      * @see #setEdgeTrackingEnabled(int)
@@ -531,6 +705,608 @@ public class ViewDragHelper {
         return mEdgeSize;
     }
 
+    /**
+     * 设置指定边缘的大小,单位px.不同的边缘可以有不同的大小,比如左边的抽屉用宽一些的边缘.
+     * Sets the size in pixels of the given edges, so that each edge can detect
+     * touches over a different depth.
+     *
+     * @param edgeFlags Combination of edge flags describing the edges to change
+     * @param size Size of the edges in pixels
+     */
+    public void setEdgeSize(int edgeFlags, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Edge size may not be negative: " + size);
+        }
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            if ((edgeFlags & (1 << i)) != 0) {
+                mEdgeSizes[i] = size;
+            }
+        }
+        int largest = 0;
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            largest = Math.max(largest, mEdgeSizes[i]);
+        }
+        mEdgeSize = largest;
+        mEdgeRectsValid = false;
+    }
+
+    /**
+     * @param edge One of {@link #EDGE_LEFT}, {@link #EDGE_TOP}, {@link #EDGE_RIGHT} or
+     *             {@link #EDGE_BOTTOM}
+     * @return The size of the given edge in pixels
+     * @see #setEdgeSize(int, int)
+     */
+    public int getEdgeSize(int edge) {
+        return mEdgeSizes[edgeIndex(edge)];
+    }
+
+    /**
+     * 把边缘限制在沿边缘方向的一段范围内,而不是整条边.左右边缘的范围从父view的顶部算起,
+     * 上下边缘的范围从父view的左侧算起,比如只让左边缘的下半部分触发抽屉.
+     *
+     * Limits the given edges to part of their length instead of the whole side. The
+     * range of the left and right edges is measured from the parent's top, and the
+     * range of the top and bottom edges from the parent's left.
+     *
+     * @param edgeFlags Combination of edge flags describing the edges to limit
+     * @param start Start of the range in pixels, inclusive
+     * @param end End of the range in pixels, exclusive
+     * @see #clearEdgeRange(int)
+     */
+    public void setEdgeRange(int edgeFlags, int start, int end) {
+        if (end < start) {
+            throw new IllegalArgumentException("Edge range end " + end + " is before start "
+                    + start);
+        }
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            if ((edgeFlags & (1 << i)) != 0) {
+                mEdgeRangeLimited[i] = true;
+                mEdgeRangeStart[i] = start;
+                mEdgeRangeEnd[i] = end;
+            }
+        }
+        mEdgeRectsValid = false;
+    }
+
+    /**
+     * 让边缘恢复为整条边.
+     * Makes the given edges cover their whole side again.
+     *
+     * @param edgeFlags Combination of edge flags describing the edges to reset
+     */
+    public void clearEdgeRange(int edgeFlags) {
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            if ((edgeFlags & (1 << i)) != 0) {
+                mEdgeRangeLimited[i] = false;
+            }
+        }
+        mEdgeRectsValid = false;
+    }
+
+    /**
+     * 给边缘设置自定义形状,传null恢复为矩形.
+     * Sets a custom shape for the given edges, or restores the plain rectangle when
+     * <code>shape</code> is null.
+     *
+     * @param edgeFlags Combination of edge flags describing the edges to change
+     * @param shape Shape refining the edges' rectangles, or null
+     */
+    public void setEdgeShape(int edgeFlags, EdgeShape shape) {
+        boolean hasShapes = false;
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            if ((edgeFlags & (1 << i)) != 0) {
+                mEdgeShapes[i] = shape;
+            }
+            hasShapes |= mEdgeShapes[i] != null;
+        }
+        mHasEdgeShapes = hasShapes;
+    }
+
+    /**
+     * 让缓存的边缘矩形失效.边缘矩形在父view布局后自动重新计算;父view不经过布局被移动时调用.
+     * Recomputes the cached edge rectangles on next use. They are refreshed
+     * automatically after the parent lays out; call this if the parent moves without
+     * a layout pass.
+     */
+    public void invalidateEdgeRegions() {
+        mEdgeRectsValid = false;
+    }
+
+    // 返回单个边缘标记对应的下标
+    private static int edgeIndex(int edge) {
+        if (edge == 0 || (edge & ~EDGE_ALL) != 0 || (edge & (edge - 1)) != 0) {
+            throw new IllegalArgumentException("Not a single edge: " + edge);
+        }
+        return Integer.numberOfTrailingZeros(edge);
+    }
+
+    /**
+     * 开启或关闭子view的网格索引.子view很多(比如上千个可拖曳的子view)时,{@link #findTopChildUnder(int, int)}
+     * 每次都遍历所有子view会拖慢触摸响应;开启后命中测试只检查一个网格.索引在父view重新布局后自动失效重建,
+     * 被拖曳或settle移动的子view会增量更新.如果子view被其他代码直接移动(不经过布局),要调用
+     * {@link #invalidateChildIndex()}.
+     *
+     * Enables or disables a uniform grid index over the parent's children for
+     * {@link #findTopChildUnder(int, int)}. With thousands of children, walking every
+     * child on each hit test dominates touch handling; with the index a hit test only
+     * looks at one grid cell. The index is rebuilt after the parent lays out and is
+     * updated incrementally for views moved by drags and settles. Call
+     * {@link #invalidateChildIndex()} if children are moved or reordered by other
+     * means without a layout pass.
+     *
+     * @param enabled true to maintain the index
+     */
+    public void setChildIndexEnabled(boolean enabled) {
+        if (enabled == (mChildIndex != null)) {
+            return;
+        }
+        mChildIndex = enabled ? new ChildGridIndex(mParentView, mCallback) : null;
+        updateLayoutListener();
+    }
+
+    // 开启子view索引或者追踪边缘时监听父view的布局,两者都不需要时移除监听.
+    // 布局监听只在父view附加到window期间注册,分离时移除,这样window的ViewTreeObserver不会一直持有helper.
+    private void updateLayoutListener() {
+        final boolean needed = mChildIndex != null || mTrackingEdges != 0;
+        if (needed == mWatchingLayout) {
+            return;
+        }
+        mWatchingLayout = needed;
+        mEdgeRectsValid = false;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB_MR1) {
+            // No attach callbacks: follow the observer the parent has now
+            if (needed) {
+                registerLayoutListener();
+            } else {
+                unregisterLayoutListener();
+            }
+            return;
+        }
+        if (mAttachListener == null) {
+            mAttachListener = new View.OnAttachStateChangeListener() {
+                public void onViewAttachedToWindow(View v) {
+                    registerLayoutListener();
+                }
+
+                public void onViewDetachedFromWindow(View v) {
+                    unregisterLayoutListener();
+                }
+            };
+        }
+        if (needed) {
+            mParentView.addOnAttachStateChangeListener(mAttachListener);
+            if (mParentView.getWindowToken() != null) {
+                registerLayoutListener();
+            }
+        } else {
+            mParentView.removeOnAttachStateChangeListener(mAttachListener);
+            unregisterLayoutListener();
+        }
+    }
+
+    // 在父view当前的ViewTreeObserver上注册布局监听.注册之前错过的布局都当作发生过.
+    private void registerLayoutListener() {
+        if (mLayoutListenerRegistered) {
+            return;
+        }
+        if (mLayoutListener == null) {
+            mLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+                public void onGlobalLayout() {
+                    onParentLayout();
+                }
+            };
+        }
+        mLayoutObserver = mParentView.getViewTreeObserver();
+        mLayoutObserver.addOnGlobalLayoutListener(mLayoutListener);
+        mLayoutListenerRegistered = true;
+        onParentLayout();
+    }
+
+    // 从注册时的ViewTreeObserver上移除布局监听
+    @SuppressWarnings("deprecation")
+    private void unregisterLayoutListener() {
+        if (!mLayoutListenerRegistered) {
+            return;
+        }
+        // The parent's current observer may be a different one by now
+        final ViewTreeObserver observer = mLayoutObserver.isAlive()
+                ? mLayoutObserver : mParentView.getViewTreeObserver();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            observer.removeOnGlobalLayoutListener(mLayoutListener);
+        } else {
+            observer.removeGlobalOnLayoutListener(mLayoutListener);
+        }
+        mLayoutObserver = null;
+        mLayoutListenerRegistered = false;
+        // Layouts are no longer seen, so nothing cached can be trusted
+        onParentLayout();
+    }
+
+    /**
+     * @return true if the child grid index is enabled
+     * @see #setChildIndexEnabled(boolean)
+     */
+    public boolean isChildIndexEnabled() {
+        return mChildIndex != null;
+    }
+
+    /**
+     * 让子view索引和按下的pointer缓存的命中测试失效,下一次命中测试时重新计算.
+     * 子view在没有重新布局的情况下被移动,添加或者改变Z序后调用.
+     * Marks the child index and the hit tests cached for the pointers that are down
+     * stale. Call this after children are moved, added or reordered without a layout
+     * pass. Without the index only the cached hit tests are dropped.
+     */
+    public void invalidateChildIndex() {
+        invalidateHitTests();
+        if (mChildIndex != null) {
+            mChildIndex.invalidate();
+        }
+    }
+
+    /**
+     * 开启或关闭按帧合并拖曳.输入事件的频率比屏幕刷新率高(比如240Hz的触摸屏配60Hz的屏幕)时,
+     * 每个移动事件都移动view并回调{@link Callback#onViewPositionChanged(View, int, int, int, int)}
+     * 会多做几倍的布局和重绘.开启后拖曳的位移先累加起来,每个显示帧只调用一次.释放,取消和中止前
+     * 会先把累加的位移应用上去,所以{@link Callback#onViewReleased(View, float, float)}看到的是最终位置.
+     *
+     * Enables or disables frame-coalesced dragging. When touch input arrives faster
+     * than the display refreshes, moving the captured view and calling
+     * {@link Callback#onViewPositionChanged(View, int, int, int, int)} on every move event
+     * does several times the layout and invalidation work a frame needs. With
+     * coalescing enabled, drag motion is accumulated and applied once per animation
+     * frame. Pending motion is applied before a release, cancel or abort, so
+     * {@link Callback#onViewReleased(View, float, float)} sees the final position.
+     *
+     * @param enabled true to coalesce drag motion per frame
+     * @see #getCoalescedDragEventCount()
+     * @see #getDispatchedDragCount()
+     */
+    public void setDragCoalescingEnabled(boolean enabled) {
+        if (!enabled) {
+            flushPendingDrag();
+        }
+        mCoalesceDrags = enabled;
+    }
+
+    /**
+     * @return true if drag motion is coalesced per frame
+     * @see #setDragCoalescingEnabled(boolean)
+     */
+    public boolean isDragCoalescingEnabled() {
+        return mCoalesceDrags;
+    }
+
+    /**
+     * 返回被合并到之后一次dragTo里的移动事件数.
+     * @return The number of drag move events whose motion was merged into a later
+     *         dispatch instead of moving the view on their own.
+     * @see #resetDragCounters()
+     */
+    public int getCoalescedDragEventCount() {
+        return mCoalescedDragEvents;
+    }
+
+    /**
+     * 返回拖曳时真正移动view的次数.
+     * @return The number of times drag motion was applied to the captured view.
+     * @see #resetDragCounters()
+     */
+    public int getDispatchedDragCount() {
+        return mDispatchedDrags;
+    }
+
+    /**
+     * 把拖曳的计数清零.
+     * Resets the counters returned by {@link #getCoalescedDragEventCount()} and
+     * {@link #getDispatchedDragCount()}.
+     */
+    public void resetDragCounters() {
+        mCoalescedDragEvents = 0;
+        mDispatchedDrags = 0;
+    }
+
+    // 拖曳一段位移.开启按帧合并时只累加,等下一帧再应用
+    private void dragBy(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        if (!mCoalesceDrags) {
+            mDispatchedDrags++;
+            dragTo(mCapturedView, mCapturedView.getLeft() + dx, mCapturedView.getTop() + dy,
+                    dx, dy);
+            return;
+        }
+        if (mPendingDragDx != 0 || mPendingDragDy != 0) {
+            mCoalescedDragEvents++;
+        }
+        mPendingDragDx += dx;
+        mPendingDragDy += dy;
+        if (!mDragFramePosted) {
+            mDragFramePosted = true;
+            ViewCompat.postOnAnimation(mParentView, mDragFrameRunnable);
+        }
+    }
+
+    // 把累加的拖曳位移应用到view上
+    private void flushPendingDrag() {
+        final int dx = mPendingDragDx;
+        final int dy = mPendingDragDy;
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        mPendingDragDx = mPendingDragDy = 0;
+        if (mDragState == STATE_DRAGGING && mCapturedView != null) {
+            mDispatchedDrags++;
+            dragTo(mCapturedView, mCapturedView.getLeft() + dx, mCapturedView.getTop() + dy,
+                    dx, dy);
+        }
+    }
+
+    /**
+     * 开启或关闭多view同时拖曳.开启后每个按下的pointer各自捕获自己下面的view,多个view可以同时被拖曳,
+     * 每个view松开时各自回调{@link Callback#onViewReleased(View, float, float)},速度取自释放它的pointer.
+     * 在这个回调里调用{@link #settleCapturedViewAt(int, int)}或者{@link #flingCapturedView(int, int, int, int)}
+     * 会settle被释放的view,所有settle中的view在同一次{@link #continueSettling(boolean)}里一起推进.
+     * 只要有一个view被拖曳,状态就是{@link #STATE_DRAGGING};没有拖曳但还有view在settle时是{@link #STATE_SETTLING}.
+     *
+     * <p>这个模式下{@link #getCapturedView()}返回null,请使用{@link #getCapturedView(int)};
+     * 不支持按帧合并拖曳.只能在空闲状态下切换.</p>
+     *
+     * Enables or disables multi-view capture. When enabled, every pointer that goes
+     * down captures the view under it, so several views can be dragged at once. Each
+     * view is released on its own through {@link Callback#onViewReleased(View, float, float)}
+     * with the velocity of the pointer that held it; calling
+     * {@link #settleCapturedViewAt(int, int)} or {@link #flingCapturedView(int, int, int, int)}
+     * from that callback settles or flings the released view, and all settling views
+     * advance together in one {@link #continueSettling(boolean)} call. The state is
+     * {@link #STATE_DRAGGING} while any view is dragged and {@link #STATE_SETTLING} while
+     * any view settles.
+     *
+     * <p>In this mode {@link #getCapturedView()} returns null; use
+     * {@link #getCapturedView(int)} instead. Drag coalescing is not supported. The mode
+     * can only change while idle.</p>
+     *
+     * @param enabled true to let each pointer capture its own view
+     */
+    public void setMultiCaptureEnabled(boolean enabled) {
+        if (enabled == mMultiCapture) {
+            return;
+        }
+        if (mDragState != STATE_IDLE) {
+            throw new IllegalStateException("Cannot change multi-capture mode while dragging " +
+                    "or settling");
+        }
+        mMultiCapture = enabled;
+        if (enabled && mSettleAnimator == null) {
+            mSettleAnimator = new ViewSettleAnimator(sInterpolator);
+        }
+    }
+
+    /**
+     * @return true if each pointer can capture its own view
+     * @see #setMultiCaptureEnabled(boolean)
+     */
+    public boolean isMultiCaptureEnabled() {
+        return mMultiCapture;
+    }
+
+    /**
+     * 返回pointer捕获的view.
+     * @param pointerId ID of a pointer that is down
+     * @return The view captured by the pointer, or null. Outside multi-capture mode this
+     *         is the captured view if <code>pointerId</code> is the active pointer.
+     * @see #setMultiCaptureEnabled(boolean)
+     */
+    public View getCapturedView(int pointerId) {
+        if (!mMultiCapture) {
+            return pointerId == mActivePointerId && mDragState == STATE_DRAGGING
+                    ? mCapturedView : null;
+        }
+        final int slot = slotForPointer(pointerId);
+        return slot >= 0 ? mSlotCapturedView[slot] : null;
+    }
+
+    /**
+     * 返回正在被拖曳的view的个数.
+     * @return The number of views currently being dragged
+     */
+    public int getCapturedViewCount() {
+        if (!mMultiCapture) {
+            return mDragState == STATE_DRAGGING ? 1 : 0;
+        }
+        return mMultiCapturedCount;
+    }
+
+    /**
+     * 开启或关闭内置的速度估计器.默认使用{@link VelocityTracker},每个手势都要获取和回收一个对象.
+     * 开启后每个pointer槽位用一个预先分配的环形缓冲区保存最近的采样(包括批量送来的历史采样),
+     * 释放view时对最近100毫秒的采样做最小二乘拟合得到速度,整个手势过程不分配内存.
+     * 切换时正在进行的手势的速度采样会丢失,最好在空闲时切换.
+     *
+     * Enables or disables the built-in velocity estimator. By default velocity comes
+     * from a {@link VelocityTracker} obtained and recycled for every gesture. When
+     * enabled, each pointer slot records its recent samples, including batched
+     * historical ones, in a preallocated ring buffer, and release velocity is a
+     * least-squares fit over the last 100 ms of samples. Nothing is allocated during a
+     * gesture. Samples of a gesture in progress are lost when switching, so switch
+     * while idle.
+     *
+     * @param enabled true to estimate velocity without a VelocityTracker
+     */
+    public void setVelocityEstimatorEnabled(boolean enabled) {
+        if (enabled == mUseVelocityEstimator) {
+            return;
+        }
+        mUseVelocityEstimator = enabled;
+        if (enabled) {
+            if (mVelocityEstimator == null) {
+                mVelocityEstimator = new PointerVelocityEstimator(mSlotPointerId.length);
+            }
+            if (mVelocityTracker != null) {
+                mVelocityTracker.recycle();
+                mVelocityTracker = null;
+            }
+        }
+    }
+
+    /**
+     * @return true if velocity comes from the built-in estimator
+     * @see #setVelocityEstimatorEnabled(boolean)
+     */
+    public boolean isVelocityEstimatorEnabled() {
+        return mUseVelocityEstimator;
+    }
+
+    // 把事件交给速度估计.内置估计器开启时按槽位记录采样,按下的pointer在这里就占用槽位并清空旧的采样
+    private void addMovement(MotionEvent ev, int action, int actionIndex) {
+        if (!mUseVelocityEstimator) {
+            if (mVelocityTracker == null) {
+                mVelocityTracker = VelocityTracker.obtain();
+            }
+            mVelocityTracker.addMovement(ev);
+            return;
+        }
+        final PointerVelocityEstimator estimator = mVelocityEstimator;
+        final boolean down = action == MotionEvent.ACTION_DOWN
+                || action == MotionEventCompat.ACTION_POINTER_DOWN;
+        final int pointerCount = MotionEventCompat.getPointerCount(ev);
+        final int historySize = ev.getHistorySize();
+        for (int i = 0; i < pointerCount; i++) {
+            final int pointerId = MotionEventCompat.getPointerId(ev, i);
+            final int slot;
+            if (down && i == actionIndex) {
+                slot = obtainSlot(pointerId);
+                estimator.clear(slot);
+            } else {
+                slot = slotForPointer(pointerId);
+                if (slot < 0) {
+                    continue;
+                }
+            }
+            for (int h = 0; h < historySize; h++) {
+                estimator.addSample(slot, ev.getHistoricalEventTime(h),
+                        MotionEventCompat.getHistoricalX(ev, i, h),
+                        MotionEventCompat.getHistoricalY(ev, i, h));
+            }
+            estimator.addSample(slot, ev.getEventTime(), MotionEventCompat.getX(ev, i),
+                    MotionEventCompat.getY(ev, i));
+        }
+    }
+
+    // 计算所有pointer当前的速度,单位px/s
+    private void computeCurrentVelocity() {
+        if (mUseVelocityEstimator) {
+            mVelocityEstimator.computeCurrentVelocity(mSlotPointerId.length, mMaxVelocity);
+        } else {
+            mVelocityTracker.computeCurrentVelocity(1000, mMaxVelocity);
+        }
+    }
+
+    // 读取computeCurrentVelocity()算出的速度
+    private float getXVelocity(int pointerId) {
+        if (mUseVelocityEstimator) {
+            final int slot = slotForPointer(pointerId);
+            return slot >= 0 ? mVelocityEstimator.getXVelocity(slot) : 0;
+        }
+        return VelocityTrackerCompat.getXVelocity(mVelocityTracker, pointerId);
+    }
+
+    private float getYVelocity(int pointerId) {
+        if (mUseVelocityEstimator) {
+            final int slot = slotForPointer(pointerId);
+            return slot >= 0 ? mVelocityEstimator.getYVelocity(slot) : 0;
+        }
+        return VelocityTrackerCompat.getYVelocity(mVelocityTracker, pointerId);
+    }
+
+    /**
+     * 把这个helper挂到共用的settle驱动器上,传null时恢复由自己的ScrollerCompat settle.
+     * 挂上之后{@link #settleCapturedViewAt(int, int)}和{@link #smoothSlideViewTo(View, int, int)}
+     * 开始的settle由驱动器每帧推进,父view不再需要为它们调用{@link #continueSettling(boolean)};
+     * 多view拖曳时{@link #flingCapturedView(int, int, int, int)}也由驱动器推进;单view模式下的fling
+     * 仍然使用自己的ScrollerCompat.只能在空闲状态下切换.
+     *
+     * Attaches this helper to a settle scheduler shared with other helpers, or detaches
+     * it when <code>scheduler</code> is null. Settles started by
+     * {@link #settleCapturedViewAt(int, int)} or {@link #smoothSlideViewTo(View, int, int)}
+     * are then advanced by the scheduler's frame tick, and the parent no longer needs
+     * to call {@link #continueSettling(boolean)} for them. So are flings in multi-capture
+     * mode; a single-view fling still runs on this helper's own ScrollerCompat. The
+     * scheduler can only change while idle.
+     *
+     * @param scheduler Scheduler to settle views with, or null
+     */
+    public void setSettleScheduler(ViewDragSettleScheduler scheduler) {
+        if (scheduler == mSettleScheduler) {
+            return;
+        }
+        if (mDragState != STATE_IDLE) {
+            throw new IllegalStateException("Cannot change the settle scheduler while " +
+                    "dragging or settling");
+        }
+        mSettleScheduler = scheduler;
+        if (scheduler != null) {
+            mSettleAnimator = scheduler.getAnimator();
+        } else {
+            mSettleAnimator = mMultiCapture ? new ViewSettleAnimator(sInterpolator) : null;
+        }
+    }
+
+    /**
+     * @return The shared settle scheduler, or null if this helper settles on its own
+     * @see #setSettleScheduler(ViewDragSettleScheduler)
+     */
+    public ViewDragSettleScheduler getSettleScheduler() {
+        return mSettleScheduler;
+    }
+
+    ViewGroup getTrackedParent() {
+        return mParentView;
+    }
+
+    // 驱动器的一帧结束后调用:这一帧移动过view时返回父view,否则返回null
+    ViewGroup consumeScheduledMoveParent() {
+        if (!mScheduledMove) {
+            return null;
+        }
+        mScheduledMove = false;
+        return mParentView;
+    }
+
+    // 驱动器的一帧结束后调用,settle都结束时更新状态.还有view在settle时返回true
+    boolean onScheduledFrame() {
+        if (mSettlingViewCount > 0) {
+            return true;
+        }
+        if (mMultiCapture) {
+            updateMultiDragState();
+        } else if (mScheduledSettle) {
+            mScheduledSettle = false;
+            if (mDragState == STATE_SETTLING) {
+                setDragState(STATE_IDLE);
+            }
+        }
+        return false;
+    }
+
+    // 单view模式下停止交给驱动器的settle,view停在当前位置
+    private void cancelScheduledSettle() {
+        if (mScheduledSettle) {
+            mScheduledSettle = false;
+            mSettleAnimator.remove(mCapturedView);
+        }
+    }
+
+    // 父view完成了一次布局
+    private void onParentLayout() {
+        mEdgeRectsValid = false;
+        invalidateHitTests();
+        if (mChildIndex != null) {
+            mChildIndex.invalidate();
+        }
+    }
+
     /**
      * 在父view内捕获指定的子view用于拖曳.同时callback对象会被通知.但{@link Callback#tryCaptureView(android.view.View, int)}
      * 不会被要求获取权限来捕获该view.
@@ -547,9 +1323,21 @@ public class ViewDragHelper {
             throw new IllegalArgumentException("captureChildView: parameter must be a descendant " +
                     "of the ViewDragHelper's tracked parent view (" + mParentView + ")");
         }
+        if (mMultiCapture) {
+            if (activePointerId < 0) {
+                throw new IllegalArgumentException("captureChildView: multi-capture mode " +
+                        "requires a valid pointer ID");
+            }
+            captureForSlot(childView, obtainSlot(activePointerId), activePointerId);
+            return;
+        }
 
+        // Motion accumulated for the previous capture belongs to the previous view
+        flushPendingDrag();
+        cancelScheduledSettle();
         mCapturedView = childView;
         mActivePointerId = activePointerId;
+        mDragRemainderX = mDragRemainderY = 0;
         mCallback.onViewCaptured(childView, activePointerId);
         setDragState(STATE_DRAGGING);
     }
@@ -585,6 +1373,7 @@ public class ViewDragHelper {
      * {@link #processTouchEvent(android.view.MotionEvent)} receiving an ACTION_CANCEL event.
      */
     public void cancel() {
+        flushPendingDrag();
         mActivePointerId = INVALID_POINTER;
         clearMotionHistory();
 
@@ -592,6 +1381,16 @@ public class ViewDragHelper {
             mVelocityTracker.recycle();
             mVelocityTracker = null;
         }
+        if (mMultiCapture) {
+            // Views still held by a pointer were dropped along with the slots
+            updateMultiDragState();
+        }
+        if (!mLayoutListenerRegistered) {
+            // Without layout callbacks, refresh the edge rectangles and hit tests once
+            // per gesture
+            mEdgeRectsValid = false;
+            invalidateHitTests();
+        }
     }
 
     /**
@@ -601,7 +1400,12 @@ public class ViewDragHelper {
      */
     public void abort() {
         cancel();
-        if (mDragState == STATE_SETTLING) {
+        if (mMultiCapture) {
+            mSettleAnimator.finish(mSettleListener);
+        } else if (mScheduledSettle) {
+            mScheduledSettle = false;
+            mSettleAnimator.finish(mSettleListener);
+        } else if (mDragState == STATE_SETTLING) {
             final int oldX = mScroller.getCurrX();
             final int oldY = mScroller.getCurrY();
             mScroller.abortAnimation();
@@ -637,6 +1441,12 @@ public class ViewDragHelper {
      * @return true if animation should continue through {@link #continueSettling(boolean)} calls
      */
     public boolean smoothSlideViewTo(View child, int finalLeft, int finalTop) {
+        if (mMultiCapture) {
+            return settleViewAt(child, finalLeft, finalTop, 0, 0);
+        }
+        if (child != mCapturedView) {
+            cancelScheduledSettle();
+        }
         mCapturedView = child;
         mActivePointerId = INVALID_POINTER;
 
@@ -672,10 +1482,138 @@ public class ViewDragHelper {
             throw new IllegalStateException("Cannot settleCapturedViewAt outside of a call to " +
                     "Callback#onViewReleased");
         }
-
-        return forceSettleCapturedViewAt(finalLeft, finalTop,
-                (int) VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
-                (int) VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId));
+        if (mMultiCapture) {
+            final int pointerId = mReleasingPointerId;
+            return settleViewAt(mReleasingView, finalLeft, finalTop,
+                    (int) getXVelocity(pointerId), (int) getYVelocity(pointerId));
+        }
+
+        return forceSettleCapturedViewAt(finalLeft, finalTop,
+                (int) getXVelocity(mActivePointerId), (int) getYVelocity(mActivePointerId));
+    }
+
+    /**
+     * 设置预测fling终点用的对数减速模型,默认和平台Scroller的fling一致.
+     * 只影响{@link #predictSettleTarget(int, float, int[])}和
+     * {@link #settleCapturedViewAtAnchor(int[], int[])}的预测,fling本身仍然由ScrollerCompat完成.
+     * alpha按dp/s理解(160dpi下的像素),预测时乘以屏幕密度:同一个手势在不同密度的屏幕上
+     * 预测出的像素距离和密度成正比,时长不变,和平台按ppi换算的fling一致.
+     *
+     * Sets the log-based fling model used to project release motion in
+     * {@link #predictSettleTarget(int, float, int[])} and
+     * {@link #settleCapturedViewAtAnchor(int[], int[])}. The default matches the
+     * platform Scroller's flings, which still run on ScrollerCompat. A release at
+     * velocity v travels alpha * u^(rate / (rate - 1)) with
+     * u = startTension * |v| / alpha. Alpha is taken in dp per second and scaled by
+     * the display density, so the same gesture projects a pixel distance proportional
+     * to the density and the same duration on every screen, as the platform's
+     * ppi-scaled flings do.
+     *
+     * @param decelerationRate Deceleration rate, greater than 1. Larger values give
+     *        shorter flings.
+     * @param alpha Reference speed of the model in dp per second, positive
+     * @param startTension Tension at the start of the fling curve, in (0, 1)
+     */
+    public void setFlingModel(float decelerationRate, float alpha, float startTension) {
+        mFlingProjection.setModel(decelerationRate, alpha, startTension);
+    }
+
+    /**
+     * 预测一个速度为velocity的fling(按屏幕密度换算)会把位置start带到哪里,返回离这个位置最近的锚点.
+     * 锚点必须按升序排列.抽屉的打开和关闭位置,bottom sheet的几个停靠高度都可以作为锚点.
+     *
+     * Projects where a fling starting at <code>start</code> with <code>velocity</code>
+     * would come to rest under the current fling physics, scaled to the display
+     * density, and returns the anchor nearest to that point. Drawers and bottom
+     * sheets declare their open, closed and intermediate positions as anchors.
+     *
+     * @param start Current position along one axis
+     * @param velocity Release velocity along the same axis in pixels per second
+     * @param anchors Candidate resting positions, sorted in ascending order
+     * @return The anchor nearest to the projected resting position
+     */
+    public int predictSettleTarget(int start, float velocity, int[] anchors) {
+        if (anchors == null || anchors.length == 0) {
+            throw new IllegalArgumentException("anchors may not be empty");
+        }
+        return nearestAnchor(anchors, mFlingProjection.projectFinal(start, velocity));
+    }
+
+    /**
+     * 在{@link Callback#onViewReleased(View, float, float)}里调用,把被释放的view settle到预测的锚点.
+     * 每个方向用{@link #predictSettleTarget(int, float, int[])}选出锚点,该方向的锚点为null时保持当前位置.
+     * settle曲线是五次的ease-out,起始速度是5 * 距离 / 时间,所以时间取5 * 距离 / 释放速度,
+     * view会以手指离开时的速度开始减速,不会突然变快或变慢;速度为0或者和目标方向相反时退回默认的时间计算.
+     * 所有计算只在释放时做一次.
+     *
+     * Settles the released view at the anchors its release velocity projects to. Call
+     * this from {@link Callback#onViewReleased(View, float, float)}. Each axis picks its
+     * anchor with {@link #predictSettleTarget(int, float, int[])}; an axis whose anchors
+     * are null keeps its position. The settle curve is a quintic ease-out whose
+     * initial speed is 5 * distance / duration, so the duration is 5 * distance /
+     * release speed, capped at the maximum settle duration, and the view continues
+     * at the speed it was released with. When the release speed is zero or points
+     * away from the anchor the default duration heuristic is used. Everything is
+     * computed once here; nothing is added per frame.
+     *
+     * @param leftAnchors Sorted anchors for the left edge, or null to keep it
+     * @param topAnchors Sorted anchors for the top edge, or null to keep it
+     * @return true if animation should continue through {@link #continueSettling(boolean)} calls
+     */
+    public boolean settleCapturedViewAtAnchor(int[] leftAnchors, int[] topAnchors) {
+        if (!mReleaseInProgress) {
+            throw new IllegalStateException("Cannot settleCapturedViewAtAnchor outside of a " +
+                    "call to Callback#onViewReleased");
+        }
+        final View child = mMultiCapture ? mReleasingView : mCapturedView;
+        final int pointerId = mMultiCapture ? mReleasingPointerId : mActivePointerId;
+        final float xvel = clampMag(getXVelocity(pointerId), mMinVelocity, mMaxVelocity);
+        final float yvel = clampMag(getYVelocity(pointerId), mMinVelocity, mMaxVelocity);
+
+        final int startLeft = child.getLeft();
+        final int startTop = child.getTop();
+        final int finalLeft = leftAnchors != null
+                ? predictSettleTarget(startLeft, xvel, leftAnchors) : startLeft;
+        final int finalTop = topAnchors != null
+                ? predictSettleTarget(startTop, yvel, topAnchors) : startTop;
+
+        final int xduration = computeAnchorDuration(finalLeft - startLeft, xvel);
+        final int yduration = computeAnchorDuration(finalTop - startTop, yvel);
+        final int duration = xduration < 0 || yduration < 0 ? -1 : Math.max(xduration, yduration);
+        if (mMultiCapture) {
+            return settleViewAt(child, finalLeft, finalTop, (int) xvel, (int) yvel, duration);
+        }
+        return forceSettleCapturedViewAt(finalLeft, finalTop, (int) xvel, (int) yvel, duration);
+    }
+
+    // 让五次ease-out的起始速度等于释放速度的时间.速度不能用时返回-1
+    private int computeAnchorDuration(int delta, float velocity) {
+        if (delta == 0) {
+            return 0;
+        }
+        if (velocity == 0 || (delta > 0) != (velocity > 0)) {
+            return -1;
+        }
+        final float duration = 5000f * delta / velocity;
+        return Math.max(1, Math.min(Math.round(duration), MAX_SETTLE_DURATION));
+    }
+
+    // 在升序排列的锚点里二分查找离value最近的一个,距离相同时取较小的
+    private static int nearestAnchor(int[] anchors, int value) {
+        final int index = Arrays.binarySearch(anchors, value);
+        if (index >= 0) {
+            return value;
+        }
+        final int insertion = -index - 1;
+        if (insertion == 0) {
+            return anchors[0];
+        }
+        if (insertion == anchors.length) {
+            return anchors[anchors.length - 1];
+        }
+        final int below = anchors[insertion - 1];
+        final int above = anchors[insertion];
+        return (long) value - below <= (long) above - value ? below : above;
     }
 
     /**
@@ -691,6 +1629,12 @@ public class ViewDragHelper {
      * 		- settleing的过程中会一直返回true,否则返回false表示结束.
      */
     private boolean forceSettleCapturedViewAt(int finalLeft, int finalTop, int xvel, int yvel) {
+        return forceSettleCapturedViewAt(finalLeft, finalTop, xvel, yvel, -1);
+    }
+
+    // duration小于0时由computeSettleDuration根据距离和速度计算
+    private boolean forceSettleCapturedViewAt(int finalLeft, int finalTop, int xvel, int yvel,
+            int duration) {
         final int startLeft = mCapturedView.getLeft();
         final int startTop = mCapturedView.getTop();
         final int dx = finalLeft - startLeft;
@@ -699,18 +1643,68 @@ public class ViewDragHelper {
         if (dx == 0 && dy == 0) {
             // Nothing to do. Send callbacks, be done.
             mScroller.abortAnimation();
+            cancelScheduledSettle();
             setDragState(STATE_IDLE);
             return false;
         }
         // 仔细看computeSettleDuration()这个计算时间的方法,其实挺复杂的.使用了相当多的运算处理.因此可以不看该方法的实现;
         // 除非要继承ViewDrarHelper实现子类,实现更多效果...
-        final int duration = computeSettleDuration(mCapturedView, dx, dy, xvel, yvel);
-        mScroller.startScroll(startLeft, startTop, dx, dy, duration);
+        if (duration < 0) {
+            duration = computeSettleDuration(mCapturedView, dx, dy, xvel, yvel);
+        }
+        if (mSettleScheduler != null) {
+            mScroller.abortAnimation();
+            mScheduledSettle = true;
+            startSettleEntry(mCapturedView, startLeft, startTop, dx, dy, duration);
+        } else {
+            mScroller.startScroll(startLeft, startTop, dx, dy, duration);
+        }
 
         setDragState(STATE_SETTLING);
         return true;
     }
 
+    // 多view拖曳时settle一个view,加入mSettleAnimator,和其他settle中的view一起推进
+    private boolean settleViewAt(View child, int finalLeft, int finalTop, int xvel, int yvel) {
+        return settleViewAt(child, finalLeft, finalTop, xvel, yvel, -1);
+    }
+
+    private boolean settleViewAt(View child, int finalLeft, int finalTop, int xvel, int yvel,
+            int duration) {
+        final int startLeft = child.getLeft();
+        final int startTop = child.getTop();
+        final int dx = finalLeft - startLeft;
+        final int dy = finalTop - startTop;
+
+        if (dx == 0 && dy == 0) {
+            mSettleAnimator.remove(child);
+            updateMultiDragState();
+            return false;
+        }
+        if (duration < 0) {
+            duration = computeSettleDuration(child, dx, dy, xvel, yvel);
+        }
+        startSettleEntry(child, startLeft, startTop, dx, dy, duration);
+        updateMultiDragState();
+        return true;
+    }
+
+    // 在mSettleAnimator里开始settle一个view.挂在驱动器上时从驱动器的帧时间开始,
+    // 并让驱动器安排下一帧
+    private void startSettleEntry(View child, int startLeft, int startTop, int dx, int dy,
+            int duration) {
+        final long startTime = mSettleScheduler != null
+                ? mSettleScheduler.getSettleStartTime()
+                : AnimationUtils.currentAnimationTimeMillis();
+        if (mSettleAnimator.start(mSettleListener, child, startLeft, startTop, dx, dy, duration,
+                startTime)) {
+            mSettlingViewCount++;
+        }
+        if (mSettleScheduler != null) {
+            mSettleScheduler.onSettleStarted(this);
+        }
+    }
+
     //该方法计算settle的时间
     private int computeSettleDuration(View child, int dx, int dy, int xvel, int yvel) {
     	//clampMag(...)方法保证水平和垂直速度值不大于最大值, 也不小于最小值.
@@ -802,9 +1796,12 @@ public class ViewDragHelper {
     /**
      * 该方法类似上面的forceSettleCapturedViewAt(...),可参考之.
      * 
+     * 多view拖曳时fling的是正在被释放的view.
+     *
      * Settle the captured view based on standard free-moving fling behavior.
      * The caller should invoke {@link #continueSettling(boolean)} on each subsequent frame
-     * to continue the motion until it returns false.
+     * to continue the motion until it returns false. In multi-capture mode this flings
+     * the view being released.
      *
      * @param minLeft Minimum X position for the view's left edge
      * @param minTop Minimum Y position for the view's top edge
@@ -816,10 +1813,25 @@ public class ViewDragHelper {
             throw new IllegalStateException("Cannot flingCapturedView outside of a call to " +
                     "Callback#onViewReleased");
         }
+        if (mMultiCapture) {
+            // 被释放的view作为fling条目和其他settle中的view一起推进
+            final View child = mReleasingView;
+            final int pointerId = mReleasingPointerId;
+            if (mSettleAnimator.startFling(mSettleListener, child, mParentView.getContext(),
+                    child.getLeft(), child.getTop(), (int) getXVelocity(pointerId),
+                    (int) getYVelocity(pointerId), minLeft, maxLeft, minTop, maxTop)) {
+                mSettlingViewCount++;
+            }
+            if (mSettleScheduler != null) {
+                mSettleScheduler.onSettleStarted(this);
+            }
+            updateMultiDragState();
+            return;
+        }
+        cancelScheduledSettle();
 
         mScroller.fling(mCapturedView.getLeft(), mCapturedView.getTop(),
-                (int) VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
-                (int) VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId),
+                (int) getXVelocity(mActivePointerId), (int) getYVelocity(mActivePointerId),
                 minLeft, maxLeft, minTop, maxTop);
 
         setDragState(STATE_SETTLING);
@@ -843,6 +1855,13 @@ public class ViewDragHelper {
      * @return true if settle is still in progress
      */
     public boolean continueSettling(boolean deferCallbacks) {
+        if (mMultiCapture) {
+            return continueSettlingViews(deferCallbacks);
+        }
+        if (mScheduledSettle) {
+            // The shared scheduler advances this settle
+            return mDragState == STATE_SETTLING;
+        }
         if (mDragState == STATE_SETTLING) {
         	// 由于整个settle的过程都借助Scroller去实现,
             // 因此keepGoing这个值也来自mScroller.computeScrollOffset();
@@ -850,21 +1869,9 @@ public class ViewDragHelper {
             boolean keepGoing = mScroller.computeScrollOffset();
             final int x = mScroller.getCurrX();
             final int y = mScroller.getCurrY();
-            final int dx = x - mCapturedView.getLeft();
-            final int dy = y - mCapturedView.getTop();
-
-            if (dx != 0) {
-                mCapturedView.offsetLeftAndRight(dx);
-            }
-            if (dy != 0) {
-                mCapturedView.offsetTopAndBottom(dy);
-            }
-
-            if (dx != 0 || dy != 0) {
-            	// 可见该方法在整个settle的过程中,由于位置的不断变化
-            	// 会一直回调mCallback.onViewPositionChanged(...)的方法
-                mCallback.onViewPositionChanged(mCapturedView, x, y, dx, dy);
-            }
+            // 可见该方法在整个settle的过程中,由于位置的不断变化
+            // 会一直回调mCallback.onViewPositionChanged(...)的方法
+            moveSettlingView(mCapturedView, x, y);
             
             //这里很明显,当view已经去到最终位置,XY的坐标均相等时,即使keepGoing依然为true,系统以为
             //该view依旧处于滑动中,但很显然,应该结束了.于是方法里面强制调用Scroller.abortAnimation()去中止动画,并
@@ -891,6 +1898,43 @@ public class ViewDragHelper {
         return mDragState == STATE_SETTLING;
     }
 
+    // 多view拖曳时的continueSettling:所有settle中的view用同一个时间戳在一个循环里推进
+    private boolean continueSettlingViews(boolean deferCallbacks) {
+        if (mSettleScheduler == null && mSettlingViewCount > 0) {
+            mSettleAnimator.advance(AnimationUtils.currentAnimationTimeMillis());
+            if (mSettlingViewCount == 0 && mMultiCapturedCount == 0) {
+                if (deferCallbacks) {
+                    mParentView.post(mSetIdleRunnable);
+                } else {
+                    setDragState(STATE_IDLE);
+                }
+            }
+        }
+        return mSettlingViewCount > 0;
+    }
+
+    // 把settle中的view移动到(left, top)
+    private void moveSettlingView(View view, int left, int top) {
+        final int dx = left - view.getLeft();
+        final int dy = top - view.getTop();
+
+        if (dx != 0) {
+            view.offsetLeftAndRight(dx);
+        }
+        if (dy != 0) {
+            view.offsetTopAndBottom(dy);
+        }
+
+        if (dx != 0 || dy != 0) {
+            mScheduledMove = true;
+            invalidateHitTests();
+            if (mChildIndex != null) {
+                mChildIndex.onChildMoved(view);
+            }
+            mCallback.onViewPositionChanged(view, left, top, dx, dy);
+        }
+    }
+
     /**
      * (该方法是当完成settle过程后释放捕获到的view对象, 内部方法,不必了解详细过程.)
      * 正如所有接口事件的方法,这个方法也必须在UI主线程中使用.在释放的过程中,只会调用一次
@@ -902,6 +1946,7 @@ public class ViewDragHelper {
      * or {@link #flingCapturedView(int, int, int, int)}.
      */
     private void dispatchViewReleased(float xvel, float yvel) {
+        flushPendingDrag();
         mReleaseInProgress = true;
         mCallback.onViewReleased(mCapturedView, xvel, yvel);
         mReleaseInProgress = false;
@@ -914,86 +1959,158 @@ public class ViewDragHelper {
 
     //下面几个"clear"为首的方法都是清空历史记录了
     private void clearMotionHistory() {
-        if (mInitialMotionX == null) {
-            return;
+        for (int slot = 0; slot < mSlotPointerId.length; slot++) {
+            clearSlot(slot);
         }
-        Arrays.fill(mInitialMotionX, 0);
-        Arrays.fill(mInitialMotionY, 0);
-        Arrays.fill(mLastMotionX, 0);
-        Arrays.fill(mLastMotionY, 0);
-        Arrays.fill(mInitialEdgesTouched, 0);
-        Arrays.fill(mEdgeDragsInProgress, 0);
-        Arrays.fill(mEdgeDragsLocked, 0);
-        mPointersDown = 0;
     }
 
     private void clearMotionHistory(int pointerId) {
-        if (mInitialMotionX == null) {
-            return;
+        final int slot = slotForPointer(pointerId);
+        if (slot >= 0) {
+            clearSlot(slot);
         }
-        mInitialMotionX[pointerId] = 0;
-        mInitialMotionY[pointerId] = 0;
-        mLastMotionX[pointerId] = 0;
-        mLastMotionY[pointerId] = 0;
-        mInitialEdgesTouched[pointerId] = 0;
-        mEdgeDragsInProgress[pointerId] = 0;
-        mEdgeDragsLocked[pointerId] = 0;
-        mPointersDown &= ~(1 << pointerId);
     }
-    
-    //这个方法很明显是内部调用的,在saveInitialMotion(...)中调用.
-    //因为mInitialMotionX数组里面保存有触摸X坐标的缓存信息,该方法确保mInitialMotionX一直保存最新的pointerId值
-    private void ensureMotionHistorySizeForId(int pointerId) {
-        if (mInitialMotionX == null || mInitialMotionX.length <= pointerId) {
-            float[] imx = new float[pointerId + 1];
-            float[] imy = new float[pointerId + 1];
-            float[] lmx = new float[pointerId + 1];
-            float[] lmy = new float[pointerId + 1];
-            int[] iit = new int[pointerId + 1];
-            int[] edip = new int[pointerId + 1];
-            int[] edl = new int[pointerId + 1];
-            
-            //这个过程,将触摸的X,Y坐标,上次触摸的X,Y坐标等信息复制过去
-            if (mInitialMotionX != null) {
-            	//这里调用本地C方法去将mInitialMotionX的内存复制给imx数组,没源码...
-                System.arraycopy(mInitialMotionX, 0, imx, 0, mInitialMotionX.length);
-                System.arraycopy(mInitialMotionY, 0, imy, 0, mInitialMotionY.length);
-                System.arraycopy(mLastMotionX, 0, lmx, 0, mLastMotionX.length);
-                System.arraycopy(mLastMotionY, 0, lmy, 0, mLastMotionY.length);
-                System.arraycopy(mInitialEdgesTouched, 0, iit, 0, mInitialEdgesTouched.length);
-                System.arraycopy(mEdgeDragsInProgress, 0, edip, 0, mEdgeDragsInProgress.length);
-                System.arraycopy(mEdgeDragsLocked, 0, edl, 0, mEdgeDragsLocked.length);
+
+    private void clearSlot(int slot) {
+        mSlotPointerId[slot] = INVALID_POINTER;
+        mInitialMotionX[slot] = 0;
+        mInitialMotionY[slot] = 0;
+        mLastMotionX[slot] = 0;
+        mLastMotionY[slot] = 0;
+        mInitialEdgesTouched[slot] = 0;
+        mEdgeDragsInProgress[slot] = 0;
+        mEdgeDragsLocked[slot] = 0;
+        mHitTestGeneration[slot] = 0;
+        mHitTestResult[slot] = null;
+        if (mVelocityEstimator != null) {
+            mVelocityEstimator.clear(slot);
+        }
+        if (mSlotCapturedView[slot] != null) {
+            mSlotCapturedView[slot] = null;
+            mMultiCapturedCount--;
+        }
+    }
+
+    // 返回pointer占用的槽位,这个pointer没有按下时返回-1.槽位很少,线性查找比哈希更快
+    int slotForPointer(int pointerId) {
+        if (pointerId < 0) {
+            return -1;
+        }
+        final int[] ids = mSlotPointerId;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] == pointerId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // 槽位表的大小,只有同时按下的pointer比它多时才会变
+    int getPointerSlotCapacity() {
+        return mSlotPointerId.length;
+    }
+
+    // 返回pointer的槽位,没有就占用一个空闲的.只有同时按下的pointer比槽位还多时才会扩容
+    private int obtainSlot(int pointerId) {
+        final int existing = slotForPointer(pointerId);
+        if (existing >= 0) {
+            return existing;
+        }
+        final int[] ids = mSlotPointerId;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] == INVALID_POINTER) {
+                ids[slot] = pointerId;
+                return slot;
             }
+        }
+        final int slot = ids.length;
+        allocatePointerSlots(slot * 2);
+        mSlotPointerId[slot] = pointerId;
+        return slot;
+    }
+
+    // 把槽位表扩大到capacity,保留已有的内容
+    private void allocatePointerSlots(int capacity) {
+        final int old = mSlotPointerId != null ? mSlotPointerId.length : 0;
+        final int[] ids = new int[capacity];
+        float[] imx = new float[capacity];
+        float[] imy = new float[capacity];
+        float[] lmx = new float[capacity];
+        float[] lmy = new float[capacity];
+        int[] iit = new int[capacity];
+        int[] edip = new int[capacity];
+        int[] edl = new int[capacity];
+        int[] htl = new int[capacity];
+        int[] htt = new int[capacity];
+        int[] htrt = new int[capacity];
+        int[] htb = new int[capacity];
+        int[] htg = new int[capacity];
+        View[] htr = new View[capacity];
+        View[] scv = new View[capacity];
+        float[] sdrx = new float[capacity];
+        float[] sdry = new float[capacity];
+        Arrays.fill(ids, old, capacity, INVALID_POINTER);
+
+        if (old > 0) {
+            System.arraycopy(mSlotPointerId, 0, ids, 0, old);
+            System.arraycopy(mInitialMotionX, 0, imx, 0, old);
+            System.arraycopy(mInitialMotionY, 0, imy, 0, old);
+            System.arraycopy(mLastMotionX, 0, lmx, 0, old);
+            System.arraycopy(mLastMotionY, 0, lmy, 0, old);
+            System.arraycopy(mInitialEdgesTouched, 0, iit, 0, old);
+            System.arraycopy(mEdgeDragsInProgress, 0, edip, 0, old);
+            System.arraycopy(mEdgeDragsLocked, 0, edl, 0, old);
+            System.arraycopy(mHitTestLeft, 0, htl, 0, old);
+            System.arraycopy(mHitTestTop, 0, htt, 0, old);
+            System.arraycopy(mHitTestRight, 0, htrt, 0, old);
+            System.arraycopy(mHitTestBottom, 0, htb, 0, old);
+            System.arraycopy(mHitTestGeneration, 0, htg, 0, old);
+            System.arraycopy(mHitTestResult, 0, htr, 0, old);
+            System.arraycopy(mSlotCapturedView, 0, scv, 0, old);
+            System.arraycopy(mSlotDragRemainderX, 0, sdrx, 0, old);
+            System.arraycopy(mSlotDragRemainderY, 0, sdry, 0, old);
+        }
 
-            mInitialMotionX = imx;
-            mInitialMotionY = imy;
-            mLastMotionX = lmx;
-            mLastMotionY = lmy;
-            mInitialEdgesTouched = iit;
-            mEdgeDragsInProgress = edip;
-            mEdgeDragsLocked = edl;
+        mSlotPointerId = ids;
+        mInitialMotionX = imx;
+        mInitialMotionY = imy;
+        mLastMotionX = lmx;
+        mLastMotionY = lmy;
+        mInitialEdgesTouched = iit;
+        mEdgeDragsInProgress = edip;
+        mEdgeDragsLocked = edl;
+        mHitTestLeft = htl;
+        mHitTestTop = htt;
+        mHitTestRight = htrt;
+        mHitTestBottom = htb;
+        mHitTestGeneration = htg;
+        mHitTestResult = htr;
+        mSlotCapturedView = scv;
+        mSlotDragRemainderX = sdrx;
+        mSlotDragRemainderY = sdry;
+        if (mVelocityEstimator != null) {
+            mVelocityEstimator.ensureSlots(capacity);
         }
     }
 
-    // 在这里,连同pointerId,保存X,Y轴坐标信息
-    // 也许看到这里,你已经猜到,pointerId这个值是递增的,由系统自动分配.
-    private void saveInitialMotion(float x, float y, int pointerId) {
-        ensureMotionHistorySizeForId(pointerId);
-        mInitialMotionX[pointerId] = mLastMotionX[pointerId] = x;
-        mInitialMotionY[pointerId] = mLastMotionY[pointerId] = y;
-        mInitialEdgesTouched[pointerId] = getEdgesTouched((int) x, (int) y);
-        // 或运算后再进行左移运算. 
-        mPointersDown |= 1 << pointerId;
+    // 在这里,连同pointerId,保存X,Y轴坐标信息,返回pointer的槽位
+    private int saveInitialMotion(float x, float y, int pointerId) {
+        final int slot = obtainSlot(pointerId);
+        mInitialMotionX[slot] = mLastMotionX[slot] = x;
+        mInitialMotionY[slot] = mLastMotionY[slot] = y;
+        mInitialEdgesTouched[slot] = getEdgesTouched((int) x, (int) y);
+        return slot;
     }
 
     private void saveLastMotion(MotionEvent ev) {
         final int pointerCount = MotionEventCompat.getPointerCount(ev);
         for (int i = 0; i < pointerCount; i++) {
-            final int pointerId = MotionEventCompat.getPointerId(ev, i);
-            final float x = MotionEventCompat.getX(ev, i);
-            final float y = MotionEventCompat.getY(ev, i);
-            mLastMotionX[pointerId] = x;
-            mLastMotionY[pointerId] = y;
+            final int slot = slotForPointer(MotionEventCompat.getPointerId(ev, i));
+            if (slot < 0) {
+                continue;
+            }
+            mLastMotionX[slot] = MotionEventCompat.getX(ev, i);
+            mLastMotionY[slot] = MotionEventCompat.getY(ev, i);
         }
     }
 
@@ -1016,11 +2133,14 @@ public class ViewDragHelper {
      * @return true if the pointer with the given ID is still down
      */
     public boolean isPointerDown(int pointerId) {
-        return (mPointersDown & 1 << pointerId) != 0;
+        return slotForPointer(pointerId) >= 0;
     }
 
     void setDragState(int state) {
         mParentView.removeCallbacks(mSetIdleRunnable);
+        if (state != STATE_DRAGGING) {
+            flushPendingDrag();
+        }
         if (mDragState != state) {
             mDragState = state;
             mCallback.onViewDragStateChanged(state);
@@ -1108,17 +2228,19 @@ public class ViewDragHelper {
             cancel();
         }
 
-        if (mVelocityTracker == null) {
-            mVelocityTracker = VelocityTracker.obtain();
+        addMovement(ev, action, actionIndex);
+
+        if (mMultiCapture) {
+            processMultiTouchEvent(ev, action, actionIndex, true);
+            return mDragState == STATE_DRAGGING;
         }
-        mVelocityTracker.addMovement(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
                 final float x = ev.getX();
                 final float y = ev.getY();
                 final int pointerId = MotionEventCompat.getPointerId(ev, 0);
-                saveInitialMotion(x, y, pointerId);
+                final int slot = saveInitialMotion(x, y, pointerId);
 
                 final View toCapture = findTopChildUnder((int) x, (int) y);
 
@@ -1127,7 +2249,7 @@ public class ViewDragHelper {
                     tryCaptureViewForDrag(toCapture, pointerId);
                 }
 
-                final int edgesTouched = mInitialEdgesTouched[pointerId];
+                final int edgesTouched = mInitialEdgesTouched[slot];
                 if ((edgesTouched & mTrackingEdges) != 0) {
                     mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                 }
@@ -1139,11 +2261,11 @@ public class ViewDragHelper {
                 final float x = MotionEventCompat.getX(ev, actionIndex);
                 final float y = MotionEventCompat.getY(ev, actionIndex);
 
-                saveInitialMotion(x, y, pointerId);
+                final int slot = saveInitialMotion(x, y, pointerId);
 
                 // A ViewDragHelper can only manipulate one view at a time.
                 if (mDragState == STATE_IDLE) {
-                    final int edgesTouched = mInitialEdgesTouched[pointerId];
+                    final int edgesTouched = mInitialEdgesTouched[slot];
                     if ((edgesTouched & mTrackingEdges) != 0) {
                         mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                     }
@@ -1159,46 +2281,11 @@ public class ViewDragHelper {
 
             case MotionEvent.ACTION_MOVE: {
                 // First to cross a touch slop over a draggable view wins. Also report edge drags.
-                final int pointerCount = MotionEventCompat.getPointerCount(ev);
-                for (int i = 0; i < pointerCount; i++) {
-                    final int pointerId = MotionEventCompat.getPointerId(ev, i);
-                    final float x = MotionEventCompat.getX(ev, i);
-                    final float y = MotionEventCompat.getY(ev, i);
-                    final float dx = x - mInitialMotionX[pointerId];
-                    final float dy = y - mInitialMotionY[pointerId];
-
-                    final View toCapture = findTopChildUnder((int) x, (int) y);
-                    final boolean pastSlop = toCapture != null && checkTouchSlop(toCapture, dx, dy);
-                    if (pastSlop) {
-                        // check the callback's
-                        // getView[Horizontal|Vertical]DragRange methods to know
-                        // if you can move at all along an axis, then see if it
-                        // would clamp to the same value. If you can't move at
-                        // all in every dimension with a nonzero range, bail.
-                        final int oldLeft = toCapture.getLeft();
-                        final int targetLeft = oldLeft + (int) dx;
-                        final int newLeft = mCallback.clampViewPositionHorizontal(toCapture,
-                                targetLeft, (int) dx);
-                        final int oldTop = toCapture.getTop();
-                        final int targetTop = oldTop + (int) dy;
-                        final int newTop = mCallback.clampViewPositionVertical(toCapture, targetTop,
-                                (int) dy);
-                        final int horizontalDragRange = mCallback.getViewHorizontalDragRange(
-                                toCapture);
-                        final int verticalDragRange = mCallback.getViewVerticalDragRange(toCapture);
-                        if ((horizontalDragRange == 0 || horizontalDragRange > 0
-                                && newLeft == oldLeft) && (verticalDragRange == 0
-                                || verticalDragRange > 0 && newTop == oldTop)) {
-                            break;
-                        }
-                    }
-                    reportNewEdgeDrags(dx, dy, pointerId);
-                    if (mDragState == STATE_DRAGGING) {
-                        // Callback might have started an edge drag
-                        break;
-                    }
-
-                    if (pastSlop && tryCaptureViewForDrag(toCapture, pointerId)) {
+                // Samples batched into this event are checked oldest first, as in
+                // processTouchEvent, so a fast flick is judged where it crossed the slop.
+                final int historySize = ev.getHistorySize();
+                for (int h = 0; h <= historySize; h++) {
+                    if (checkPointersForIntercept(ev, h < historySize ? h : -1)) {
                         break;
                     }
                 }
@@ -1239,10 +2326,12 @@ public class ViewDragHelper {
             cancel();
         }
 
-        if (mVelocityTracker == null) {
-            mVelocityTracker = VelocityTracker.obtain();
+        addMovement(ev, action, actionIndex);
+
+        if (mMultiCapture) {
+            processMultiTouchEvent(ev, action, actionIndex, false);
+            return;
         }
-        mVelocityTracker.addMovement(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
@@ -1251,14 +2340,14 @@ public class ViewDragHelper {
                 final int pointerId = MotionEventCompat.getPointerId(ev, 0);
                 final View toCapture = findTopChildUnder((int) x, (int) y);
 
-                saveInitialMotion(x, y, pointerId);
+                final int slot = saveInitialMotion(x, y, pointerId);
 
                 // Since the parent is already directly processing this touch event,
                 // there is no reason to delay for a slop before dragging.
                 // Start immediately if possible.
                 tryCaptureViewForDrag(toCapture, pointerId);
 
-                final int edgesTouched = mInitialEdgesTouched[pointerId];
+                final int edgesTouched = mInitialEdgesTouched[slot];
                 if ((edgesTouched & mTrackingEdges) != 0) {
                     mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                 }
@@ -1270,7 +2359,7 @@ public class ViewDragHelper {
                 final float x = MotionEventCompat.getX(ev, actionIndex);
                 final float y = MotionEventCompat.getY(ev, actionIndex);
 
-                saveInitialMotion(x, y, pointerId);
+                final int slot = saveInitialMotion(x, y, pointerId);
 
                 // A ViewDragHelper can only manipulate one view at a time.
                 if (mDragState == STATE_IDLE) {
@@ -1279,7 +2368,7 @@ public class ViewDragHelper {
                     final View toCapture = findTopChildUnder((int) x, (int) y);
                     tryCaptureViewForDrag(toCapture, pointerId);
 
-                    final int edgesTouched = mInitialEdgesTouched[pointerId];
+                    final int edgesTouched = mInitialEdgesTouched[slot];
                     if ((edgesTouched & mTrackingEdges) != 0) {
                         mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
                     }
@@ -1296,33 +2385,30 @@ public class ViewDragHelper {
             case MotionEvent.ACTION_MOVE: {
                 if (mDragState == STATE_DRAGGING) {
                     final int index = MotionEventCompat.findPointerIndex(ev, mActivePointerId);
-                    final float x = MotionEventCompat.getX(ev, index);
-                    final float y = MotionEventCompat.getY(ev, index);
-                    final int idx = (int) (x - mLastMotionX[mActivePointerId]);
-                    final int idy = (int) (y - mLastMotionY[mActivePointerId]);
-
-                    dragTo(mCapturedView.getLeft() + idx, mCapturedView.getTop() + idy, idx, idy);
+                    final int slot = slotForPointer(mActivePointerId);
+                    if (index >= 0 && slot >= 0) {
+                        // 最新采样相对上一个事件的位移已经包含了批量送来的历史采样,一个事件只调用一次dragTo.
+                        // 取整剩下的小数部分留到下一个事件,高采样率下每个事件不到一个像素的移动也不会丢失
+                        final float fdx = MotionEventCompat.getX(ev, index) - mLastMotionX[slot]
+                                + mDragRemainderX;
+                        final float fdy = MotionEventCompat.getY(ev, index) - mLastMotionY[slot]
+                                + mDragRemainderY;
+                        final int idx = (int) fdx;
+                        final int idy = (int) fdy;
+                        mDragRemainderX = fdx - idx;
+                        mDragRemainderY = fdy - idy;
+
+                        dragBy(idx, idy);
+                    }
 
                     saveLastMotion(ev);
                 } else {
-                    // Check to see if any pointer is now over a draggable view.
-                    final int pointerCount = MotionEventCompat.getPointerCount(ev);
-                    for (int i = 0; i < pointerCount; i++) {
-                        final int pointerId = MotionEventCompat.getPointerId(ev, i);
-                        final float x = MotionEventCompat.getX(ev, i);
-                        final float y = MotionEventCompat.getY(ev, i);
-                        final float dx = x - mInitialMotionX[pointerId];
-                        final float dy = y - mInitialMotionY[pointerId];
-
-                        reportNewEdgeDrags(dx, dy, pointerId);
-                        if (mDragState == STATE_DRAGGING) {
-                            // Callback might have started an edge drag.
-                            break;
-                        }
-
-                        final View toCapture = findTopChildUnder((int) x, (int) y);
-                        if (checkTouchSlop(toCapture, dx, dy) &&
-                                tryCaptureViewForDrag(toCapture, pointerId)) {
+                    // Check to see if any pointer is now over a draggable view. Samples
+                    // batched into this event are checked oldest first, so the view captured
+                    // is the one under the point where the slop was crossed.
+                    final int historySize = ev.getHistorySize();
+                    for (int h = 0; h <= historySize; h++) {
+                        if (checkPointersForCapture(ev, h < historySize ? h : -1)) {
                             break;
                         }
                     }
@@ -1380,44 +2466,322 @@ public class ViewDragHelper {
         }
     }
     
+    // 多view拖曳时处理触摸事件.每个pointer的命中测试只在按下和越过slop时做一次,
+    // 已经捕获了view的pointer直接拖曳它.intercepting为true时来自shouldInterceptTouchEvent,
+    // 按下时只接住正在settle的view,其他view等越过slop再捕获
+    private void processMultiTouchEvent(MotionEvent ev, int action, int actionIndex,
+            boolean intercepting) {
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEventCompat.ACTION_POINTER_DOWN: {
+                final int pointerId = MotionEventCompat.getPointerId(ev, actionIndex);
+                final float x = MotionEventCompat.getX(ev, actionIndex);
+                final float y = MotionEventCompat.getY(ev, actionIndex);
+                final int slot = saveInitialMotion(x, y, pointerId);
+
+                final View toCapture = findTopChildUnderPointer(slot, (int) x, (int) y);
+                if (toCapture != null
+                        && (!intercepting || mSettleAnimator.contains(toCapture))) {
+                    tryCaptureViewForSlot(toCapture, slot, pointerId);
+                }
+
+                final int edgesTouched = mInitialEdgesTouched[slot];
+                if ((edgesTouched & mTrackingEdges) != 0) {
+                    mCallback.onEdgeTouched(edgesTouched & mTrackingEdges, pointerId);
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                final int pointerCount = MotionEventCompat.getPointerCount(ev);
+                for (int i = 0; i < pointerCount; i++) {
+                    final int pointerId = MotionEventCompat.getPointerId(ev, i);
+                    final int slot = slotForPointer(pointerId);
+                    if (slot < 0) {
+                        continue;
+                    }
+                    final float x = MotionEventCompat.getX(ev, i);
+                    final float y = MotionEventCompat.getY(ev, i);
+
+                    final View captured = mSlotCapturedView[slot];
+                    if (captured != null) {
+                        final float fdx = x - mLastMotionX[slot] + mSlotDragRemainderX[slot];
+                        final float fdy = y - mLastMotionY[slot] + mSlotDragRemainderY[slot];
+                        final int idx = (int) fdx;
+                        final int idy = (int) fdy;
+                        mSlotDragRemainderX[slot] = fdx - idx;
+                        mSlotDragRemainderY[slot] = fdy - idy;
+                        if (idx != 0 || idy != 0) {
+                            dragTo(captured, captured.getLeft() + idx, captured.getTop() + idy,
+                                    idx, idy);
+                        }
+                        continue;
+                    }
+
+                    final float dx = x - mInitialMotionX[slot];
+                    final float dy = y - mInitialMotionY[slot];
+                    if (dx * dx + dy * dy <= mTouchSlop * mTouchSlop) {
+                        continue;
+                    }
+                    reportNewEdgeDrags(dx, dy, slot, pointerId);
+                    if (mSlotCapturedView[slot] != null) {
+                        // Callback captured a view for this edge drag
+                        continue;
+                    }
+                    final View toCapture = findTopChildUnderPointer(slot, (int) x, (int) y);
+                    if (checkTouchSlop(toCapture, dx, dy)) {
+                        tryCaptureViewForSlot(toCapture, slot, pointerId);
+                    }
+                }
+                saveLastMotion(ev);
+                break;
+            }
+
+            case MotionEventCompat.ACTION_POINTER_UP: {
+                final int pointerId = MotionEventCompat.getPointerId(ev, actionIndex);
+                final int slot = slotForPointer(pointerId);
+                if (slot >= 0) {
+                    releaseSlots(slot, true);
+                }
+                clearMotionHistory(pointerId);
+                break;
+            }
+
+            case MotionEvent.ACTION_UP: {
+                releaseSlots(-1, true);
+                cancel();
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL: {
+                releaseSlots(-1, false);
+                cancel();
+                break;
+            }
+        }
+    }
+
+    // 让slot上的pointer捕获view.view已经被另一个pointer捕获,或者Callback不允许时返回false
+    private boolean tryCaptureViewForSlot(View toCapture, int slot, int pointerId) {
+        if (toCapture == null) {
+            return false;
+        }
+        final View[] captured = mSlotCapturedView;
+        for (int i = 0; i < captured.length; i++) {
+            if (captured[i] == toCapture) {
+                return i == slot;
+            }
+        }
+        if (!mCallback.tryCaptureView(toCapture, pointerId)) {
+            return false;
+        }
+        captureForSlot(toCapture, slot, pointerId);
+        return true;
+    }
+
+    // 把view交给slot上的pointer拖曳.view正在settle时就地停下,被其他pointer捕获时转交过来
+    private void captureForSlot(View childView, int slot, int pointerId) {
+        final View[] captured = mSlotCapturedView;
+        for (int i = 0; i < captured.length; i++) {
+            if (captured[i] == childView && i != slot) {
+                captured[i] = null;
+                mMultiCapturedCount--;
+            }
+        }
+        if (captured[slot] == null) {
+            mMultiCapturedCount++;
+        }
+        mSettleAnimator.remove(childView);
+        captured[slot] = childView;
+        mSlotDragRemainderX[slot] = mSlotDragRemainderY[slot] = 0;
+        mCallback.onViewCaptured(childView, pointerId);
+        setDragState(STATE_DRAGGING);
+    }
+
+    // 释放slot上捕获的view,slot为-1时释放所有的.一个事件里的速度只计算一次
+    private void releaseSlots(int onlySlot, boolean withVelocity) {
+        boolean velocityComputed = false;
+        final View[] captured = mSlotCapturedView;
+        for (int slot = 0; slot < captured.length; slot++) {
+            final View view = captured[slot];
+            if (view == null || onlySlot >= 0 && slot != onlySlot) {
+                continue;
+            }
+            final int pointerId = mSlotPointerId[slot];
+            float xvel = 0;
+            float yvel = 0;
+            if (withVelocity) {
+                if (!velocityComputed) {
+                    computeCurrentVelocity();
+                    velocityComputed = true;
+                }
+                xvel = clampMag(getXVelocity(pointerId), mMinVelocity, mMaxVelocity);
+                yvel = clampMag(getYVelocity(pointerId), mMinVelocity, mMaxVelocity);
+            }
+            captured[slot] = null;
+            mMultiCapturedCount--;
+
+            mReleasingView = view;
+            mReleasingPointerId = pointerId;
+            mReleaseInProgress = true;
+            mCallback.onViewReleased(view, xvel, yvel);
+            mReleaseInProgress = false;
+            mReleasingView = null;
+            mReleasingPointerId = INVALID_POINTER;
+        }
+        updateMultiDragState();
+    }
+
+    // 多view拖曳时由捕获和settle中的view决定状态
+    private void updateMultiDragState() {
+        if (mMultiCapturedCount > 0) {
+            setDragState(STATE_DRAGGING);
+        } else if (mSettlingViewCount > 0) {
+            setDragState(STATE_SETTLING);
+        } else {
+            setDragState(STATE_IDLE);
+        }
+    }
+
+    // shouldInterceptTouchEvent里检查一个采样的所有pointer.history是历史采样的下标,-1表示事件的当前采样.
+    // 返回true时这个事件不用再检查后面的采样(开始了拖曳,或者遇到了不能拖动的view)
+    private boolean checkPointersForIntercept(MotionEvent ev, int history) {
+        final int pointerCount = MotionEventCompat.getPointerCount(ev);
+        for (int i = 0; i < pointerCount; i++) {
+            final int pointerId = MotionEventCompat.getPointerId(ev, i);
+            final int slot = slotForPointer(pointerId);
+            if (slot < 0) {
+                // Never saw this pointer go down
+                continue;
+            }
+            final float x = history < 0 ? MotionEventCompat.getX(ev, i)
+                    : MotionEventCompat.getHistoricalX(ev, i, history);
+            final float y = history < 0 ? MotionEventCompat.getY(ev, i)
+                    : MotionEventCompat.getHistoricalY(ev, i, history);
+            final float dx = x - mInitialMotionX[slot];
+            final float dy = y - mInitialMotionY[slot];
+
+            // 还在slop之内时,这个pointer既不能捕获view也不能开始边缘拖曳,
+            // 不用做命中测试,也不用调用clamp和drag range回调
+            if (dx * dx + dy * dy <= mTouchSlop * mTouchSlop) {
+                if (mDragState == STATE_DRAGGING) {
+                    return true;
+                }
+                continue;
+            }
+
+            final View toCapture = findTopChildUnderPointer(slot, (int) x, (int) y);
+            final boolean pastSlop = toCapture != null && checkTouchSlop(toCapture, dx, dy);
+            if (pastSlop) {
+                // check the callback's
+                // getView[Horizontal|Vertical]DragRange methods to know
+                // if you can move at all along an axis, then see if it
+                // would clamp to the same value. If you can't move at
+                // all in every dimension with a nonzero range, bail.
+                final int oldLeft = toCapture.getLeft();
+                final int targetLeft = oldLeft + (int) dx;
+                final int newLeft = mCallback.clampViewPositionHorizontal(toCapture,
+                        targetLeft, (int) dx);
+                final int oldTop = toCapture.getTop();
+                final int targetTop = oldTop + (int) dy;
+                final int newTop = mCallback.clampViewPositionVertical(toCapture, targetTop,
+                        (int) dy);
+                final int horizontalDragRange = mCallback.getViewHorizontalDragRange(
+                        toCapture);
+                final int verticalDragRange = mCallback.getViewVerticalDragRange(toCapture);
+                if ((horizontalDragRange == 0 || horizontalDragRange > 0
+                        && newLeft == oldLeft) && (verticalDragRange == 0
+                        || verticalDragRange > 0 && newTop == oldTop)) {
+                    return true;
+                }
+            }
+            reportNewEdgeDrags(dx, dy, slot, pointerId);
+            if (mDragState == STATE_DRAGGING) {
+                // Callback might have started an edge drag
+                return true;
+            }
+
+            if (pastSlop && tryCaptureViewForDrag(toCapture, pointerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 检查一个采样里的所有pointer,看是否开始了边缘拖曳或者捕获了view.history是历史采样的下标,
+    // -1表示事件的当前采样.开始拖曳时返回true
+    private boolean checkPointersForCapture(MotionEvent ev, int history) {
+        final int pointerCount = MotionEventCompat.getPointerCount(ev);
+        for (int i = 0; i < pointerCount; i++) {
+            final int pointerId = MotionEventCompat.getPointerId(ev, i);
+            final int slot = slotForPointer(pointerId);
+            if (slot < 0) {
+                continue;
+            }
+            final float x = history < 0 ? MotionEventCompat.getX(ev, i)
+                    : MotionEventCompat.getHistoricalX(ev, i, history);
+            final float y = history < 0 ? MotionEventCompat.getY(ev, i)
+                    : MotionEventCompat.getHistoricalY(ev, i, history);
+            final float dx = x - mInitialMotionX[slot];
+            final float dy = y - mInitialMotionY[slot];
+            if (dx * dx + dy * dy <= mTouchSlop * mTouchSlop) {
+                // Within slop nothing below can capture or start an edge drag
+                continue;
+            }
+
+            reportNewEdgeDrags(dx, dy, slot, pointerId);
+            if (mDragState == STATE_DRAGGING) {
+                // Callback might have started an edge drag.
+                return true;
+            }
+
+            final View toCapture = findTopChildUnderPointer(slot, (int) x, (int) y);
+            if (checkTouchSlop(toCapture, dx, dy) &&
+                    tryCaptureViewForDrag(toCapture, pointerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     //更新边缘拖曳标记
-    private void reportNewEdgeDrags(float dx, float dy, int pointerId) {
+    private void reportNewEdgeDrags(float dx, float dy, int slot, int pointerId) {
         int dragsStarted = 0;
-        if (checkNewEdgeDrag(dx, dy, pointerId, EDGE_LEFT)) {
+        if (checkNewEdgeDrag(dx, dy, slot, EDGE_LEFT)) {
             dragsStarted |= EDGE_LEFT;
         }
-        if (checkNewEdgeDrag(dy, dx, pointerId, EDGE_TOP)) {
+        if (checkNewEdgeDrag(dy, dx, slot, EDGE_TOP)) {
             dragsStarted |= EDGE_TOP;
         }
-        if (checkNewEdgeDrag(dx, dy, pointerId, EDGE_RIGHT)) {
+        if (checkNewEdgeDrag(dx, dy, slot, EDGE_RIGHT)) {
             dragsStarted |= EDGE_RIGHT;
         }
-        if (checkNewEdgeDrag(dy, dx, pointerId, EDGE_BOTTOM)) {
+        if (checkNewEdgeDrag(dy, dx, slot, EDGE_BOTTOM)) {
             dragsStarted |= EDGE_BOTTOM;
         }
 
         if (dragsStarted != 0) {
-            mEdgeDragsInProgress[pointerId] |= dragsStarted;
+            mEdgeDragsInProgress[slot] |= dragsStarted;
             mCallback.onEdgeDragStarted(dragsStarted, pointerId);
         }
     }
     
     //内部调用方法,计算是否新的拖曳标记
-    private boolean checkNewEdgeDrag(float delta, float odelta, int pointerId, int edge) {
+    private boolean checkNewEdgeDrag(float delta, float odelta, int slot, int edge) {
         final float absDelta = Math.abs(delta);
         final float absODelta = Math.abs(odelta);
 
-        if ((mInitialEdgesTouched[pointerId] & edge) != edge  || (mTrackingEdges & edge) == 0 ||
-                (mEdgeDragsLocked[pointerId] & edge) == edge ||
-                (mEdgeDragsInProgress[pointerId] & edge) == edge ||
+        if ((mInitialEdgesTouched[slot] & edge) != edge  || (mTrackingEdges & edge) == 0 ||
+                (mEdgeDragsLocked[slot] & edge) == edge ||
+                (mEdgeDragsInProgress[slot] & edge) == edge ||
                 (absDelta <= mTouchSlop && absODelta <= mTouchSlop)) {
             return false;
         }
         if (absDelta < absODelta * 0.5f && mCallback.onEdgeLock(edge)) {
-            mEdgeDragsLocked[pointerId] |= edge;
+            mEdgeDragsLocked[slot] |= edge;
             return false;
         }
-        return (mEdgeDragsInProgress[pointerId] & edge) == 0 && absDelta > mTouchSlop;
+        return (mEdgeDragsInProgress[slot] & edge) == 0 && absDelta > mTouchSlop;
     }
 
     /**
@@ -1474,10 +2838,10 @@ public class ViewDragHelper {
      * @return true if the slop threshold has been crossed, false otherwise
      */
     public boolean checkTouchSlop(int directions) {
-        final int count = mInitialMotionX.length;
-        //mInitialMotionX装着触摸事件的所有坐标(所有pointer),因此循环去检验,只要有一个点超出临界值,就返回true.
-        for (int i = 0; i < count; i++) {
-            if (checkTouchSlop(directions, i)) {
+        final int count = mSlotPointerId.length;
+        //槽位里装着所有按下的pointer,因此循环去检验,只要有一个点超出临界值,就返回true.
+        for (int slot = 0; slot < count; slot++) {
+            if (mSlotPointerId[slot] != INVALID_POINTER && checkSlotTouchSlop(directions, slot)) {
                 return true;
             }
         }
@@ -1506,15 +2870,16 @@ public class ViewDragHelper {
      * @return true if the slop threshold has been crossed, false otherwise
      */
     public boolean checkTouchSlop(int directions, int pointerId) {
-        if (!isPointerDown(pointerId)) {
-            return false;
-        }
+        final int slot = slotForPointer(pointerId);
+        return slot >= 0 && checkSlotTouchSlop(directions, slot);
+    }
 
+    private boolean checkSlotTouchSlop(int directions, int slot) {
         final boolean checkHorizontal = (directions & DIRECTION_HORIZONTAL) == DIRECTION_HORIZONTAL;
         final boolean checkVertical = (directions & DIRECTION_VERTICAL) == DIRECTION_VERTICAL;
 
-        final float dx = mLastMotionX[pointerId] - mInitialMotionX[pointerId];
-        final float dy = mLastMotionY[pointerId] - mInitialMotionY[pointerId];
+        final float dx = mLastMotionX[slot] - mInitialMotionX[slot];
+        final float dy = mLastMotionY[slot] - mInitialMotionY[slot];
 
         if (checkHorizontal && checkVertical) {
         	//如果是同时水平和垂直的运动,就检测X和Y轴坐标的平方的和.(直角三角形,两条直角边的平方的和等于第三边的平方.)
@@ -1543,9 +2908,10 @@ public class ViewDragHelper {
      * @return true if any of the edges specified were initially touched in the current gesture
      */
     public boolean isEdgeTouched(int edges) {
-        final int count = mInitialEdgesTouched.length;
-        for (int i = 0; i < count; i++) {
-            if (isEdgeTouched(edges, i)) {
+        final int count = mSlotPointerId.length;
+        for (int slot = 0; slot < count; slot++) {
+            if (mSlotPointerId[slot] != INVALID_POINTER
+                    && (mInitialEdgesTouched[slot] & edges) != 0) {
                 return true;
             }
         }
@@ -1571,44 +2937,47 @@ public class ViewDragHelper {
      * @return true if any of the edges specified were initially touched in the current gesture
      */
     public boolean isEdgeTouched(int edges, int pointerId) {
-        return isPointerDown(pointerId) && (mInitialEdgesTouched[pointerId] & edges) != 0;
+        final int slot = slotForPointer(pointerId);
+        return slot >= 0 && (mInitialEdgesTouched[slot] & edges) != 0;
     }
 
     //跟dispatchViewReleased(...)方法是类似的,当pointer消失时回收view. 
     private void releaseViewForPointerUp() {
     	//computeCurrentVelocity()方法是根据当前收集到的pointer去计算速度
-        mVelocityTracker.computeCurrentVelocity(1000, mMaxVelocity);
-        final float xvel = clampMag(
-                VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId),
-                mMinVelocity, mMaxVelocity);
-        final float yvel = clampMag(
-                VelocityTrackerCompat.getYVelocity(mVelocityTracker, mActivePointerId),
-                mMinVelocity, mMaxVelocity);
+        computeCurrentVelocity();
+        final float xvel = clampMag(getXVelocity(mActivePointerId), mMinVelocity, mMaxVelocity);
+        final float yvel = clampMag(getYVelocity(mActivePointerId), mMinVelocity, mMaxVelocity);
         dispatchViewReleased(xvel, yvel);
     }
 
     //拖曳的方法
-    private void dragTo(int left, int top, int dx, int dy) {
+    private void dragTo(View child, int left, int top, int dx, int dy) {
         int clampedX = left;
         int clampedY = top;
-        final int oldLeft = mCapturedView.getLeft();
-        final int oldTop = mCapturedView.getTop();
+        final int oldLeft = child.getLeft();
+        final int oldTop = child.getTop();
         if (dx != 0) {
-            clampedX = mCallback.clampViewPositionHorizontal(mCapturedView, left, dx);
+            clampedX = mCallback.clampViewPositionHorizontal(child, left, dx);
             //设置水平偏移值
-            mCapturedView.offsetLeftAndRight(clampedX - oldLeft);
+            child.offsetLeftAndRight(clampedX - oldLeft);
         }
         if (dy != 0) {
-            clampedY = mCallback.clampViewPositionVertical(mCapturedView, top, dy);
+            clampedY = mCallback.clampViewPositionVertical(child, top, dy);
             //设置垂直偏移值
-            mCapturedView.offsetTopAndBottom(clampedY - oldTop);
+            child.offsetTopAndBottom(clampedY - oldTop);
         }
 
         if (dx != 0 || dy != 0) {
             final int clampedDx = clampedX - oldLeft;
             final int clampedDy = clampedY - oldTop;
+            if (clampedDx != 0 || clampedDy != 0) {
+                invalidateHitTests();
+                if (mChildIndex != null) {
+                    mChildIndex.onChildMoved(child);
+                }
+            }
             //既然拖曳肯定发送位置变更,就回调该接口方法
-            mCallback.onViewPositionChanged(mCapturedView, clampedX, clampedY,
+            mCallback.onViewPositionChanged(child, clampedX, clampedY,
                     clampedDx, clampedDy);
         }
     }
@@ -1667,6 +3036,9 @@ public class ViewDragHelper {
      * @return The topmost child view under (x, y) or null if none found. - 如果没找到这个最顶层子view则返回null.
      */
     public View findTopChildUnder(int x, int y) {
+        if (mChildIndex != null) {
+            return mChildIndex.findTopChildUnder(x, y);
+        }
         final int childCount = mParentView.getChildCount();
         //应该不难理解,直接从i最大的位置开始遍历,第一个就是最顶层.同时还要保证该point的X,Y值都在该子view之内.
         for (int i = childCount - 1; i >= 0; i--) {
@@ -1678,20 +3050,127 @@ public class ViewDragHelper {
         }
         return null;
     }
+
+    // 和findTopChildUnder一样,但pointer还在上一次命中测试得到的区域里,并且之后没有子view移动过时,
+    // 直接返回上一次的结果.区域是命中的子view的边界(开启索引时再限制在所在的格子里)去掉上面盖住它的子view,
+    // 在这个区域里结果不会变.多指移动时,在子view上移动的手指不用每个事件都重新做命中测试.slot是pointer的槽位
+    View findTopChildUnderPointer(int slot, int x, int y) {
+        if (mHitTestGeneration[slot] == mHitTestEpoch
+                && x >= mHitTestLeft[slot] && x < mHitTestRight[slot]
+                && y >= mHitTestTop[slot] && y < mHitTestBottom[slot]) {
+            return mHitTestResult[slot];
+        }
+        final int[] region = mHitRegion;
+        final View result = mChildIndex != null
+                ? mChildIndex.findTopChildUnder(x, y, region)
+                : findTopChildUnder(x, y, region);
+        mHitTestLeft[slot] = region[0];
+        mHitTestTop[slot] = region[1];
+        mHitTestRight[slot] = region[2];
+        mHitTestBottom[slot] = region[3];
+        mHitTestGeneration[slot] = mHitTestEpoch;
+        mHitTestResult[slot] = result;
+        return result;
+    }
+
+    // 遍历子view的命中测试,同时在region里返回结果保持不变的区域{left, top, right, bottom}
+    private View findTopChildUnder(int x, int y, int[] region) {
+        region[0] = Integer.MIN_VALUE;
+        region[1] = Integer.MIN_VALUE;
+        region[2] = Integer.MAX_VALUE;
+        region[3] = Integer.MAX_VALUE;
+        final int childCount = mParentView.getChildCount();
+        for (int i = childCount - 1; i >= 0; i--) {
+            final View child = mParentView.getChildAt(mCallback.getOrderedChildIndex(i));
+            final int left = child.getLeft();
+            final int top = child.getTop();
+            final int right = child.getRight();
+            final int bottom = child.getBottom();
+            if (x >= left && x < right && y >= top && y < bottom) {
+                ChildGridIndex.intersectRegion(region, left, top, right, bottom);
+                return child;
+            }
+            ChildGridIndex.excludeFromRegion(region, x, y, left, top, right, bottom);
+        }
+        return null;
+    }
+
+    // 子view可能移动了,让所有pointer缓存的命中测试失效
+    private void invalidateHitTests() {
+        if (++mHitTestEpoch == 0) {
+            mHitTestEpoch = 1;
+        }
+    }
     
     //获取边缘大小
     private int getEdgesTouched(int x, int y) {
-        int result = 0; 
-        // 因为子view是处于屏幕内,view的坐标轴原点是在左上角.向下为X轴正方形,向右为Y轴正方向.
-        // 因此,左侧和顶部都需要加mEdgeSize,而底部和右侧则是减去mEdgeSize,如果X或者Y轴坐标处于加上或减去mEdgeSize
-        // 的范围内,则对result和诸如EDGE_LEFT这样的值进行按位或运算,然后赋值给result再返回.
-        // 结合上面整个类,到了这里不禁要想为何这里和前面的一些方法都进行按位运算,好简单的理由呵呵:
-        // 因为EDGE_LEFT,EDGE_TOP等这些值本身就是二进制取值的.
-        if (x < mParentView.getLeft() + mEdgeSize) result |= EDGE_LEFT;
-        if (y < mParentView.getTop() + mEdgeSize) result |= EDGE_TOP;
-        if (x > mParentView.getRight() - mEdgeSize) result |= EDGE_RIGHT;
-        if (y > mParentView.getBottom() - mEdgeSize) result |= EDGE_BOTTOM;
-
+        // 边缘矩形在父view布局后才重新计算,这里只读数组,不调用父view的getter
+        if (!mEdgeRectsValid) {
+            computeEdgeRects();
+        }
+        int result = 0;
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            if (x >= mEdgeRectLeft[i] && x < mEdgeRectRight[i]
+                    && y >= mEdgeRectTop[i] && y < mEdgeRectBottom[i]) {
+                result |= 1 << i;
+            }
+        }
+        if (mHasEdgeShapes && result != 0) {
+            for (int i = 0; i < EDGE_COUNT; i++) {
+                final int edge = 1 << i;
+                final EdgeShape shape = mEdgeShapes[i];
+                if ((result & edge) != 0 && shape != null && !shape.contains(edge, x, y)) {
+                    result &= ~edge;
+                }
+            }
+        }
         return result;
     }
+
+    // 按父view当前的位置计算四个边缘的矩形.
+    // 因为子view是处于屏幕内,view的坐标轴原点是在左上角.向下为Y轴正方向,向右为X轴正方向.
+    // 因此,左侧和顶部的边缘是父view的left和top加上边缘大小以内,而右侧和底部则是right和bottom减去边缘大小以外.
+    // 不限制范围时,边缘在另一个方向上没有边界
+    private void computeEdgeRects() {
+        final int left = mParentView.getLeft();
+        final int top = mParentView.getTop();
+        final int right = mParentView.getRight();
+        final int bottom = mParentView.getBottom();
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            final int edge = 1 << i;
+            final int size = mEdgeSizes[i];
+            int l = Integer.MIN_VALUE;
+            int t = Integer.MIN_VALUE;
+            int r = Integer.MAX_VALUE;
+            int b = Integer.MAX_VALUE;
+            switch (edge) {
+                case EDGE_LEFT:
+                    r = left + size;
+                    break;
+                case EDGE_TOP:
+                    b = top + size;
+                    break;
+                case EDGE_RIGHT:
+                    l = right - size + 1;
+                    break;
+                case EDGE_BOTTOM:
+                    t = bottom - size + 1;
+                    break;
+            }
+            if (mEdgeRangeLimited[i]) {
+                if (edge == EDGE_LEFT || edge == EDGE_RIGHT) {
+                    t = top + mEdgeRangeStart[i];
+                    b = top + mEdgeRangeEnd[i];
+                } else {
+                    l = left + mEdgeRangeStart[i];
+                    r = left + mEdgeRangeEnd[i];
+                }
+            }
+            mEdgeRectLeft[i] = l;
+            mEdgeRectTop[i] = t;
+            mEdgeRectRight[i] = r;
+            mEdgeRectBottom[i] = b;
+        }
+        mEdgeRectsValid = true;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.support.v4.view.ViewCompat;
+import android.view.ViewGroup;
+import android.view.animation.AnimationUtils;
+
+import java.util.ArrayList;
+
+/**
+ * 多个ViewDragHelper共用的settle驱动器.每个helper各自有ScrollerCompat,各自在父view的computeScroll里
+ * 调用continueSettling时,每个helper都要单独读一次时间,单独请求一次重绘.把helper通过
+ * {@link ViewDragHelper#setSettleScheduler(ViewDragSettleScheduler)}挂到同一个驱动器上后,
+ * 所有helper settle中的view放在一起,每帧只由{@link #tick(long)}用同一个时间戳推进一次,
+ * 然后只让这一帧真正移动过view的父view重绘.没有view在settle的helper不在驱动器的列表里,不产生任何开销.
+ *
+ * <p>驱动器在有view开始settle时通过{@link ViewCompat#postOnAnimation(android.view.View, Runnable)}
+ * 安排自己的下一帧,所以父view不需要在computeScroll里调用continueSettling.多view拖曳时的fling也由驱动器推进;
+ * 单view模式下的fling仍然由helper的ScrollerCompat完成,需要照旧调用continueSettling.
+ * 所有方法都必须在UI线程调用.</p>
+ *
+ * Settle driver shared by many {@link ViewDragHelper} instances. Without it each
+ * helper settles through its own ScrollerCompat from its parent's computeScroll,
+ * reading the clock and invalidating separately. Helpers attached with
+ * {@link ViewDragHelper#setSettleScheduler(ViewDragSettleScheduler)} hand their
+ * settling views to this scheduler instead; one {@link #tick(long)} per frame
+ * advances all of them against a single timestamp and then invalidates only the
+ * parents whose children moved. Helpers with nothing settling are not tracked and
+ * cost nothing per frame.
+ *
+ * <p>The scheduler posts its own frame callback with
+ * {@link ViewCompat#postOnAnimation(android.view.View, Runnable)} when a settle starts,
+ * so parents do not need to call continueSettling for scheduled settles. Flings of
+ * multi-capture helpers are scheduled too; a single-view fling still runs on its
+ * helper's ScrollerCompat and needs continueSettling as before. All methods must be
+ * called on the UI thread.</p>
+ */
+public class ViewDragSettleScheduler {
+    private final ViewSettleAnimator mAnimator =
+            new ViewSettleAnimator(ViewDragHelper.sInterpolator);
+
+    // 有view在settle的helper,按开始的先后排列
+    private final ArrayList<ViewDragHelper> mActiveHelpers = new ArrayList<ViewDragHelper>();
+
+    // 上一次tick中移动过子view的父view
+    private ViewGroup[] mDirtyParents = new ViewGroup[4];
+    private int mDirtyParentCount;
+
+    // 上一次tick的帧时间,驱动器运行时开始的settle从这个时间算起
+    private long mFrameTimeMillis;
+
+    private boolean mFramePosted;
+    private final Runnable mFrameRunnable = new Runnable() {
+        public void run() {
+            mFramePosted = false;
+            final boolean running = tick(AnimationUtils.currentAnimationTimeMillis());
+            for (int i = 0; i < mDirtyParentCount; i++) {
+                ViewCompat.postInvalidateOnAnimation(mDirtyParents[i]);
+            }
+            if (running) {
+                postFrame();
+            }
+        }
+    };
+
+    ViewSettleAnimator getAnimator() {
+        return mAnimator;
+    }
+
+    /**
+     * 用同一个时间戳推进所有helper settle中的view,结束的helper回到空闲状态并离开列表.
+     * 之后可以用{@link #getDirtyParentCount()}和{@link #getDirtyParent(int)}取得需要重绘的父view.
+     * 驱动器自己安排的帧会调用这个方法并让这些父view重绘,自己维护帧循环时也可以直接调用.
+     *
+     * Advances every settling view of every attached helper to
+     * <code>frameTimeMillis</code>. Helpers whose settles finished go idle and stop
+     * being tracked. The parents that need invalidation are then available from
+     * {@link #getDirtyParentCount()} and {@link #getDirtyParent(int)}. The scheduler's
+     * own frame callback calls this and invalidates those parents; apps running their
+     * own frame loop may call it directly.
+     *
+     * <p>驱动器运行时开始的settle从上一次tick的时间算起,
+     * 所以两帧之间开始的settle和已经在settle的view在同一条时间线上.</p>
+     *
+     * <p>Settles started while the scheduler runs count from the time of the last tick,
+     * so a view started between two frames shares the timeline of the views already
+     * settling.</p>
+     *
+     * @param frameTimeMillis Frame time in the {@link AnimationUtils#currentAnimationTimeMillis()}
+     *                        time base
+     * @return true if any view is still settling
+     */
+    public boolean tick(long frameTimeMillis) {
+        for (int i = 0; i < mDirtyParentCount; i++) {
+            mDirtyParents[i] = null;
+        }
+        mDirtyParentCount = 0;
+        mFrameTimeMillis = frameTimeMillis;
+        if (mActiveHelpers.isEmpty()) {
+            return false;
+        }
+
+        mAnimator.advance(frameTimeMillis);
+
+        final ArrayList<ViewDragHelper> helpers = mActiveHelpers;
+        int i = 0;
+        while (i < helpers.size()) {
+            final ViewDragHelper helper = helpers.get(i);
+            final ViewGroup dirty = helper.consumeScheduledMoveParent();
+            if (dirty != null) {
+                addDirtyParent(dirty);
+            }
+            if (helper.onScheduledFrame()) {
+                i++;
+            } else {
+                // 和最后一个交换后移除,列表里不留空闲的helper
+                final int last = helpers.size() - 1;
+                helpers.set(i, helpers.get(last));
+                helpers.remove(last);
+            }
+        }
+        return !helpers.isEmpty();
+    }
+
+    /**
+     * @return The number of parents whose children moved in the last {@link #tick(long)}
+     */
+    public int getDirtyParentCount() {
+        return mDirtyParentCount;
+    }
+
+    /**
+     * 返回上一次tick中需要重绘的第index个父view.
+     * @param index Index between 0 and {@link #getDirtyParentCount()} - 1
+     * @return A parent whose children moved in the last {@link #tick(long)}
+     */
+    public ViewGroup getDirtyParent(int index) {
+        if (index < 0 || index >= mDirtyParentCount) {
+            throw new IndexOutOfBoundsException("index " + index + ", count "
+                    + mDirtyParentCount);
+        }
+        return mDirtyParents[index];
+    }
+
+    /**
+     * @return The number of helpers that currently have views settling
+     */
+    public int getActiveHelperCount() {
+        return mActiveHelpers.size();
+    }
+
+    /**
+     * @return true if any view is settling
+     */
+    public boolean isRunning() {
+        return !mActiveHelpers.isEmpty();
+    }
+
+    // 返回要开始的settle的起始时间:驱动器运行时是上一次tick的时间,空闲时是现在的动画时间
+    long getSettleStartTime() {
+        return mActiveHelpers.isEmpty()
+                ? AnimationUtils.currentAnimationTimeMillis() : mFrameTimeMillis;
+    }
+
+    // helper开始了一次settle.驱动器从空闲开始运行时,下一帧之前开始的settle都从现在算起
+    void onSettleStarted(ViewDragHelper helper) {
+        if (mActiveHelpers.isEmpty()) {
+            mFrameTimeMillis = AnimationUtils.currentAnimationTimeMillis();
+        }
+        if (!mActiveHelpers.contains(helper)) {
+            mActiveHelpers.add(helper);
+        }
+        postFrame();
+    }
+
+    private void postFrame() {
+        if (mFramePosted || mActiveHelpers.isEmpty()) {
+            return;
+        }
+        mFramePosted = true;
+        ViewCompat.postOnAnimation(mActiveHelpers.get(0).getTrackedParent(), mFrameRunnable);
+    }
+
+    private void addDirtyParent(ViewGroup parent) {
+        for (int i = 0; i < mDirtyParentCount; i++) {
+            if (mDirtyParents[i] == parent) {
+                return;
+            }
+        }
+        if (mDirtyParentCount == mDirtyParents.length) {
+            final ViewGroup[] parents = new ViewGroup[mDirtyParentCount * 2];
+            System.arraycopy(mDirtyParents, 0, parents, 0, mDirtyParentCount);
+            mDirtyParents = parents;
+        }
+        mDirtyParents[mDirtyParentCount++] = parent;
+    }
+}
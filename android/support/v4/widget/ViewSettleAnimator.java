@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.content.Context;
+import android.view.View;
+import android.view.animation.Interpolator;
+
+/**
+ * 同时把很多个view滑动(settle)到各自的目标位置.每个正在settle的view是一个条目,状态放在几组平行数组里
+ * (structure-of-arrays),每帧用同一个时间戳在一个循环里推进所有条目,结束的条目和最后一个交换后移除,
+ * 不分配内存.view的实际移动交给条目的{@link Listener}去做,所以一个实例可以被多个ViewDragHelper共用.
+ * fling的条目用自己的ScrollerCompat计算位置,条目移除后ScrollerCompat留在数组里给下一个fling复用.
+ *
+ * Settles any number of views towards their target positions at once. Each settling
+ * view is one entry whose state lives in parallel arrays; {@link #advance(long)}
+ * moves every entry against a single timestamp in one loop and removes finished
+ * entries by swapping in the last one, without allocating. Moving the view is left
+ * to the entry's {@link Listener}, so one instance can be shared by several helpers.
+ * Fling entries are computed by a ScrollerCompat of their own, which stays in the
+ * arrays after the entry is removed so the next fling can reuse it.
+ */
+final class ViewSettleAnimator {
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * 条目的view在这一帧应该到达的位置由Listener负责应用.
+     * Applies the positions computed for an entry.
+     */
+    interface Listener {
+        /**
+         * 条目的view在这一帧应该到达(left, top).
+         * Called when the view of an entry should move to (left, top).
+         */
+        void onSettleMoved(View view, int left, int top);
+
+        /**
+         * 条目到达终点,被移除,或者被另一个Listener的条目替换.
+         * Called once when an entry finishes, is removed or is taken over by another
+         * listener.
+         */
+        void onSettleFinished(View view);
+    }
+
+    private final Interpolator mInterpolator;
+
+    private int mCount;
+    private Listener[] mListener = new Listener[INITIAL_CAPACITY];
+    private View[] mView = new View[INITIAL_CAPACITY];
+    private int[] mStartLeft = new int[INITIAL_CAPACITY];
+    private int[] mStartTop = new int[INITIAL_CAPACITY];
+    private int[] mDx = new int[INITIAL_CAPACITY];
+    private int[] mDy = new int[INITIAL_CAPACITY];
+    private long[] mStartTime = new long[INITIAL_CAPACITY];
+    private float[] mDurationReciprocal = new float[INITIAL_CAPACITY];
+    private boolean[] mFling = new boolean[INITIAL_CAPACITY];
+    // 下标不小于mCount的元素是空闲条目留下的ScrollerCompat,可以复用
+    private ScrollerCompat[] mScroller = new ScrollerCompat[INITIAL_CAPACITY];
+
+    ViewSettleAnimator(Interpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * @return true if any entry is still settling
+     */
+    boolean isRunning() {
+        return mCount > 0;
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 开始把view从(startLeft, startTop)移动(dx, dy).view已经在settle时替换原来的条目,
+     * 原来的条目属于另一个Listener时通知它结束.
+     *
+     * Starts settling <code>view</code> from (startLeft, startTop) by (dx, dy),
+     * replacing any entry already settling the same view. An entry replaced for a
+     * different listener is reported finished to its old listener.
+     *
+     * @return true if this added an entry for <code>listener</code>, false if it
+     *         only restarted one the listener already had
+     */
+    boolean start(Listener listener, View view, int startLeft, int startTop, int dx, int dy,
+            int duration, long startTime) {
+        final int i = obtainEntry(listener, view);
+        final boolean added = i < 0;
+        setEntry(i < 0 ? -i - 1 : i, startLeft, startTop, dx, dy, duration, startTime);
+        return added;
+    }
+
+    /**
+     * 开始让view从(startLeft, startTop)以速度(xvel, yvel)fling,停在给定的范围内.
+     * 和{@link #start}一样替换这个view原来的条目.fling的条目在{@link #advance(long)}里由
+     * ScrollerCompat计算位置,ScrollerCompat按{@link android.view.animation.AnimationUtils}
+     * 的时间推进,在帧回调里这就是这一帧的时间.
+     *
+     * Starts flinging <code>view</code> from (startLeft, startTop) with the given
+     * velocity, coming to rest within the given range, and replaces any entry already
+     * settling the view like {@link #start} does. The entry is computed by a
+     * ScrollerCompat during {@link #advance(long)}; the scroller reads the animation
+     * clock itself, which inside a frame callback is that frame's time.
+     *
+     * @param context Context to create the entry's ScrollerCompat with if no idle one
+     *                is left to reuse
+     * @return true if this added an entry for <code>listener</code>, false if it
+     *         only restarted one the listener already had
+     */
+    boolean startFling(Listener listener, View view, Context context, int startLeft,
+            int startTop, int xvel, int yvel, int minLeft, int maxLeft, int minTop,
+            int maxTop) {
+        int i = obtainEntry(listener, view);
+        final boolean added = i < 0;
+        if (added) {
+            i = -i - 1;
+        }
+        setEntry(i, startLeft, startTop, 0, 0, 0, 0);
+        ScrollerCompat scroller = mScroller[i];
+        if (scroller == null) {
+            scroller = ScrollerCompat.create(context);
+            mScroller[i] = scroller;
+        }
+        scroller.fling(startLeft, startTop, xvel, yvel, minLeft, maxLeft, minTop, maxTop);
+        mFling[i] = true;
+        return added;
+    }
+
+    // 找到view的条目并交给listener,没有时新建一个.新建时返回-(下标 + 1)
+    private int obtainEntry(Listener listener, View view) {
+        int i = indexOf(view);
+        if (i < 0) {
+            ensureCapacity(mCount + 1);
+            i = mCount++;
+            mListener[i] = listener;
+            mView[i] = view;
+            return -i - 1;
+        }
+        final Listener old = mListener[i];
+        mListener[i] = listener;
+        if (old != listener) {
+            old.onSettleFinished(view);
+            return -i - 1;
+        }
+        return i;
+    }
+
+    private void setEntry(int i, int startLeft, int startTop, int dx, int dy, int duration,
+            long startTime) {
+        if (mFling[i]) {
+            mFling[i] = false;
+            mScroller[i].abortAnimation();
+        }
+        mStartLeft[i] = startLeft;
+        mStartTop[i] = startTop;
+        mDx[i] = dx;
+        mDy[i] = dy;
+        mStartTime[i] = startTime;
+        mDurationReciprocal[i] = duration > 0 ? 1.0f / duration : Float.POSITIVE_INFINITY;
+    }
+
+    boolean contains(View view) {
+        return indexOf(view) >= 0;
+    }
+
+    /**
+     * 停止settle这个view,位置保持不变.
+     * Stops settling <code>view</code> where it is. Returns false if it was not settling.
+     */
+    boolean remove(View view) {
+        final int i = indexOf(view);
+        if (i < 0) {
+            return false;
+        }
+        final Listener listener = mListener[i];
+        if (mFling[i]) {
+            mScroller[i].abortAnimation();
+        }
+        removeAt(i);
+        listener.onSettleFinished(view);
+        return true;
+    }
+
+    /**
+     * 把属于listener的所有条目直接移动到终点并移除.
+     * Moves every entry of <code>listener</code> to its final position and removes it.
+     */
+    void finish(Listener listener) {
+        int i = 0;
+        while (i < mCount) {
+            if (mListener[i] != listener) {
+                i++;
+                continue;
+            }
+            final View view = mView[i];
+            final int left;
+            final int top;
+            if (mFling[i]) {
+                final ScrollerCompat scroller = mScroller[i];
+                scroller.abortAnimation();
+                left = scroller.getFinalX();
+                top = scroller.getFinalY();
+            } else {
+                left = mStartLeft[i] + mDx[i];
+                top = mStartTop[i] + mDy[i];
+            }
+            removeAt(i);
+            listener.onSettleMoved(view, left, top);
+            listener.onSettleFinished(view);
+        }
+    }
+
+    /**
+     * 用同一个时间戳推进所有条目.
+     * Advances every entry to <code>currentTimeMillis</code>.
+     *
+     * @return true if any entry is still settling
+     */
+    boolean advance(long currentTimeMillis) {
+        final Interpolator interpolator = mInterpolator;
+        int i = 0;
+        while (i < mCount) {
+            final View view = mView[i];
+            final Listener listener = mListener[i];
+            if (mFling[i]) {
+                final ScrollerCompat scroller = mScroller[i];
+                boolean keepGoing = scroller.computeScrollOffset();
+                final int left = scroller.getCurrX();
+                final int top = scroller.getCurrY();
+                if (keepGoing && left == scroller.getFinalX() && top == scroller.getFinalY()) {
+                    // 和ViewDragHelper#continueSettling一样,到了终点就算结束
+                    scroller.abortAnimation();
+                    keepGoing = false;
+                }
+                if (!keepGoing) {
+                    removeAt(i);
+                }
+                listener.onSettleMoved(view, left, top);
+                if (keepGoing) {
+                    i++;
+                } else {
+                    listener.onSettleFinished(view);
+                }
+                continue;
+            }
+            final float t = (currentTimeMillis - mStartTime[i]) * mDurationReciprocal[i];
+            if (t >= 1.0f) {
+                final int left = mStartLeft[i] + mDx[i];
+                final int top = mStartTop[i] + mDy[i];
+                // 和最后一个交换位置后移除,i不变,下一轮处理换过来的那个
+                removeAt(i);
+                listener.onSettleMoved(view, left, top);
+                listener.onSettleFinished(view);
+                continue;
+            }
+            final float coef = t > 0 ? interpolator.getInterpolation(t) : 0;
+            listener.onSettleMoved(view, mStartLeft[i] + Math.round(coef * mDx[i]),
+                    mStartTop[i] + Math.round(coef * mDy[i]));
+            i++;
+        }
+        return mCount > 0;
+    }
+
+    private int indexOf(View view) {
+        for (int i = 0; i < mCount; i++) {
+            if (mView[i] == view) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int i) {
+        final int last = --mCount;
+        mListener[i] = mListener[last];
+        mView[i] = mView[last];
+        mStartLeft[i] = mStartLeft[last];
+        mStartTop[i] = mStartTop[last];
+        mDx[i] = mDx[last];
+        mDy[i] = mDy[last];
+        mStartTime[i] = mStartTime[last];
+        mDurationReciprocal[i] = mDurationReciprocal[last];
+        mFling[i] = mFling[last];
+        mFling[last] = false;
+        // 移除的条目的ScrollerCompat换到空闲的位置上留着复用
+        final ScrollerCompat scroller = mScroller[i];
+        mScroller[i] = mScroller[last];
+        mScroller[last] = scroller;
+        mListener[last] = null;
+        mView[last] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mView.length >= capacity) {
+            return;
+        }
+        final int size = Math.max(capacity, mView.length * 2);
+        final Listener[] listener = new Listener[size];
+        final View[] view = new View[size];
+        final int[] startLeft = new int[size];
+        final int[] startTop = new int[size];
+        final int[] dx = new int[size];
+        final int[] dy = new int[size];
+        final long[] startTime = new long[size];
+        final float[] durationReciprocal = new float[size];
+        final boolean[] fling = new boolean[size];
+        final ScrollerCompat[] scrollers = new ScrollerCompat[size];
+        System.arraycopy(mListener, 0, listener, 0, mCount);
+        System.arraycopy(mView, 0, view, 0, mCount);
+        System.arraycopy(mStartLeft, 0, startLeft, 0, mCount);
+        System.arraycopy(mStartTop, 0, startTop, 0, mCount);
+        System.arraycopy(mDx, 0, dx, 0, mCount);
+        System.arraycopy(mDy, 0, dy, 0, mCount);
+        System.arraycopy(mStartTime, 0, startTime, 0, mCount);
+        System.arraycopy(mDurationReciprocal, 0, durationReciprocal, 0, mCount);
+        System.arraycopy(mFling, 0, fling, 0, mCount);
+        System.arraycopy(mScroller, 0, scrollers, 0, mScroller.length);
+        mListener = listener;
+        mView = view;
+        mStartLeft = startLeft;
+        mStartTop = startTop;
+        mDx = dx;
+        mDy = dy;
+        mStartTime = startTime;
+        mDurationReciprocal = durationReciprocal;
+        mFling = fling;
+        mScroller = scrollers;
+    }
+}
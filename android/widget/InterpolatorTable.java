@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.view.animation.Interpolator;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+/**
+ * 插值器的查找表.把任意插值器在[0, 1]上等间距采样,之后每帧只需要查表,再做线性或三次(Catmull-Rom)插值,
+ * 不再经过接口调用,默认的粘性流体曲线也不用每帧算Math.exp.同一个插值器对象只采样一次,按对象缓存.
+ * 缓存按对象身份(==)而不是equals/hashCode查找,弱引用插值器,插值器被回收后表也随之释放.
+ * 只适用于无状态的插值器:采样之后插值器自身的改动不会反映到表里.
+ *
+ * Lookup table compiled from an {@link Interpolator}. The interpolator is sampled
+ * at evenly spaced points on [0, 1] once, and each frame is then evaluated with a
+ * table read and either linear or cubic (Catmull-Rom) interpolation instead of an
+ * interface call, or instead of the exponentials in {@link Scroller}'s default
+ * viscous fluid curve. Tables are cached per interpolator instance, which must be
+ * stateless: changes to the interpolator after it is sampled are not seen. The cache
+ * compares instances by identity, not with equals and hashCode, which an interpolator
+ * may override to compare configurations or to change as it is reconfigured, and holds
+ * them weakly, so a table is released together with its interpolator.
+ */
+final class InterpolatorTable {
+    static final int DEFAULT_SIZE = 256;
+
+    private static final HashMap<IdentityKey, InterpolatorTable> sCache =
+            new HashMap<IdentityKey, InterpolatorTable>();
+    private static final ReferenceQueue<Interpolator> sCleared =
+            new ReferenceQueue<Interpolator>();
+
+    private final int mSize;
+    private final float[] mValues;
+
+    private InterpolatorTable(int size, float[] values) {
+        mSize = size;
+        mValues = values;
+    }
+
+    /**
+     * 返回插值器对应的表,第一次调用时采样,之后从缓存里取.
+     * Returns the cached table for the interpolator, sampling it on first use.
+     */
+    static InterpolatorTable forInterpolator(Interpolator interpolator) {
+        synchronized (sCache) {
+            expungeCleared();
+            final IdentityKey key = new IdentityKey(interpolator, null);
+            InterpolatorTable table = sCache.get(key);
+            if (table == null) {
+                table = compile(interpolator, DEFAULT_SIZE);
+                sCache.put(new IdentityKey(interpolator, sCleared), table);
+            }
+            return table;
+        }
+    }
+
+    // 删掉插值器已经被回收的缓存项.调用时需持有sCache的锁.
+    private static void expungeCleared() {
+        Reference<? extends Interpolator> cleared;
+        while ((cleared = sCleared.poll()) != null) {
+            sCache.remove(cleared);
+        }
+    }
+
+    /**
+     * 缓存的键:弱引用插值器,按对象身份比较.被回收后只和自身相等,这样还能从缓存里删掉.
+     * Cache key that holds an interpolator weakly and compares it by identity. Once
+     * cleared, a key is only equal to itself, so that it can still be removed.
+     */
+    private static final class IdentityKey extends WeakReference<Interpolator> {
+        private final int mHash;
+
+        IdentityKey(Interpolator interpolator, ReferenceQueue<Interpolator> queue) {
+            super(interpolator, queue);
+            mHash = System.identityHashCode(interpolator);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+            final Interpolator interpolator = get();
+            return interpolator != null && interpolator == ((IdentityKey) o).get();
+        }
+    }
+
+    /**
+     * 按指定的区间数采样插值器,不经过缓存.
+     * Samples the interpolator into a new table with the given number of intervals,
+     * bypassing the cache.
+     */
+    static InterpolatorTable compile(Interpolator interpolator, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        final float[] values = new float[size + 1];
+        for (int i = 0; i <= size; i++) {
+            values[i] = interpolator.getInterpolation((float) i / size);
+        }
+        return new InterpolatorTable(size, values);
+    }
+
+    int getSize() {
+        return mSize;
+    }
+
+    /**
+     * 线性插值.t在[0, 1]之外时取端点的值.
+     * Returns the linearly interpolated value at <code>t</code>, clamped to [0, 1].
+     */
+    float getLinear(float t) {
+        final float s = t * mSize;
+        final int index = (int) s;
+        if (index >= mSize) {
+            return mValues[mSize];
+        }
+        if (s <= 0) {
+            return mValues[0];
+        }
+        final float v0 = mValues[index];
+        return v0 + (s - index) * (mValues[index + 1] - v0);
+    }
+
+    /**
+     * 三次Catmull-Rom插值,曲线平滑,一阶导数连续.t在[0, 1]之外时取端点的值.
+     * Returns the Catmull-Rom interpolated value at <code>t</code>, clamped to [0, 1].
+     */
+    float getCubic(float t) {
+        final float s = t * mSize;
+        final int index = (int) s;
+        if (index >= mSize) {
+            return mValues[mSize];
+        }
+        if (s <= 0) {
+            return mValues[0];
+        }
+        final float[] v = mValues;
+        final float p1 = v[index];
+        final float p2 = v[index + 1];
+        // Mirror the end samples so that the end tangents are one-sided differences
+        final float p0 = index > 0 ? v[index - 1] : 2 * p1 - p2;
+        final float p3 = index + 2 <= mSize ? v[index + 2] : 2 * p2 - p1;
+        final float u = s - index;
+        return p1 + 0.5f * u * (p2 - p0 + u * (2 * p0 - 5 * p1 + 4 * p2 - p3
+                + u * (3 * (p1 - p2) + p3 - p0)));
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.util.FloatMath;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
+
+/**
+ * 任意多个轴的Scroller.Scroller只有X/Y两个轴,平移加缩放加旋转的动画只能叠几个Scroller,
+ * 每个都要读一次时间,算一次插值.这里每个轴的起点,位移和终点都放在float数组里,
+ * 每帧只读一次时间,只算一次插值(或fling曲线),再乘到所有轴上.滑动(SCROLL)和fling的语义和Scroller一致.
+ *
+ * Animates any number of axes, for example pan X and Y plus zoom and rotation, as one
+ * scroll. Start, delta and final values are kept per axis in float arrays, and each
+ * frame reads the time once and evaluates the interpolator (or the fling curve) once
+ * for all axes. Scrolls and flings follow the curves of {@link Scroller}; a fling's
+ * velocity is a vector over all axes, so its duration and distance depend on the
+ * combined speed, as with X and Y in {@link Scroller#fling}.
+ */
+public class MultiAxisScroller {
+    private static final int DEFAULT_DURATION = 250;
+    private static final int SCROLL_MODE = 0;
+    private static final int FLING_MODE = 1;
+
+    private final int mAxisCount;
+    private final Interpolator mInterpolator;
+    private Scroller.TimeSource mTimeSource;
+    private ScrollerPhysics mPhysics = ScrollerPhysics.DEFAULT;
+
+    private int mMode;
+    private boolean mFinished;
+    private long mStartTime;
+    private int mDuration;
+    private float mDurationReciprocal;
+    private float mVelocity;
+
+    // 下标是轴.fling时mDelta是不受边界限制的位移,mFinal是限制在[mMin, mMax]之内的终点
+    private final float[] mStart;
+    private final float[] mDelta;
+    private final float[] mFinal;
+    private final float[] mCurr;
+    private final float[] mMin;
+    private final float[] mMax;
+
+    /**
+     * 创建一个有axisCount个轴的scroller,滑动模式使用默认的(viscous)插值器.
+     * Create a scroller animating <code>axisCount</code> axes with the default
+     * (viscous) interpolator.
+     */
+    public MultiAxisScroller(int axisCount) {
+        this(axisCount, null);
+    }
+
+    /**
+     * 创建一个有axisCount个轴的scroller.如果插值器为空,则会使用默认的插值器.
+     * Create a scroller animating <code>axisCount</code> axes. If the interpolator is
+     * null, the default (viscous) interpolator will be used for scrolls.
+     */
+    public MultiAxisScroller(int axisCount, Interpolator interpolator) {
+        if (axisCount <= 0) {
+            throw new IllegalArgumentException("axisCount must be positive: " + axisCount);
+        }
+        mAxisCount = axisCount;
+        mInterpolator = interpolator;
+        mFinished = true;
+        mStart = new float[axisCount];
+        mDelta = new float[axisCount];
+        mFinal = new float[axisCount];
+        mCurr = new float[axisCount];
+        mMin = new float[axisCount];
+        mMax = new float[axisCount];
+    }
+
+    /**
+     * 设置读取时间的时间源,传入null则使用{@link AnimationUtils#currentAnimationTimeMillis()}.
+     * Sets the clock read when an animation starts or is advanced. Passing null restores
+     * {@link AnimationUtils#currentAnimationTimeMillis()}.
+     *
+     * @see Scroller#setTimeSource(Scroller.TimeSource)
+     */
+    public final void setTimeSource(Scroller.TimeSource timeSource) {
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * 设置物理参数预设,传入null恢复默认值.要在动画没有运行时设置.
+     * Sets the physics preset. Passing null restores {@link ScrollerPhysics#DEFAULT}.
+     * Set it while the scroller is finished, since a running animation would switch
+     * to the new curves part way through.
+     *
+     * @see Scroller#setPhysics(ScrollerPhysics)
+     */
+    public final void setPhysics(ScrollerPhysics physics) {
+        mPhysics = physics != null ? physics : ScrollerPhysics.DEFAULT;
+    }
+
+    /**
+     * @return The physics preset used by this scroller.
+     */
+    public final ScrollerPhysics getPhysics() {
+        return mPhysics;
+    }
+
+    private long currentTimeMillis() {
+        return mTimeSource != null ? mTimeSource.currentTimeMillis()
+                : AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    /**
+     * @return The number of axes animated by this scroller.
+     */
+    public final int getAxisCount() {
+        return mAxisCount;
+    }
+
+    /**
+     * 返回scroller是否已经完成滑动.
+     * @return True if the scroller has finished scrolling, false otherwise.
+     */
+    public final boolean isFinished() {
+        return mFinished;
+    }
+
+    /**
+     * 强制设置完成状态,位置保持不变.
+     * Force the finished field to a particular value.
+     */
+    public final void forceFinished(boolean finished) {
+        mFinished = finished;
+    }
+
+    /**
+     * @return The duration of the animation in milliseconds.
+     */
+    public final int getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * 返回一个轴的当前值.
+     * @return The current value of the given axis.
+     */
+    public final float getCurr(int axis) {
+        return mCurr[axis];
+    }
+
+    /**
+     * 把所有轴的当前值复制到out里,不分配内存.
+     * Copies the current value of every axis into <code>out</code>, which must hold at
+     * least {@link #getAxisCount()} elements.
+     */
+    public final void getCurr(float[] out) {
+        System.arraycopy(mCurr, 0, out, 0, mAxisCount);
+    }
+
+    /**
+     * @return The start value of the given axis.
+     */
+    public final float getStart(int axis) {
+        return mStart[axis];
+    }
+
+    /**
+     * @return The value the given axis will end at.
+     */
+    public final float getFinal(int axis) {
+        return mFinal[axis];
+    }
+
+    /**
+     * @return The speed the last fling started with, in units per second.
+     */
+    public final float getStartVelocity() {
+        return mVelocity;
+    }
+
+    /**
+     * 返回fling时一个轴的当前速率,单位是每秒.只对fling有效,滑动(SCROLL)时返回0.
+     * Returns the current velocity of an axis during a fling, in units per second.
+     * Scrolls return 0.
+     */
+    public float getCurrVelocity(int axis) {
+        if (mMode != FLING_MODE || mFinished) {
+            return 0;
+        }
+        final float curr = mCurr[axis];
+        if (curr == mMin[axis] || curr == mMax[axis]) {
+            // Stopped at a bound
+            return 0;
+        }
+        final float t = Math.min(1.0f, timePassed() * mDurationReciprocal);
+        return mPhysics.getSpline().getVelocity(t) * mDelta[axis] * mDurationReciprocal * 1000.0f;
+    }
+
+    /**
+     * 当你想知道最新的值时调用这个方法.如果它返回true,代表动画还没结束.
+     * Call this when you want to know the new values. If it returns true, the
+     * animation is not yet finished.
+     */
+    public boolean computeScrollOffset() {
+        if (mFinished) {
+            return false;
+        }
+        return computeScrollOffset(currentTimeMillis());
+    }
+
+    /**
+     * 和{@link #computeScrollOffset()}一样,只是由调用者传入当前帧的时间.
+     * Same as {@link #computeScrollOffset()}, but evaluates the animation at the given
+     * frame time instead of reading the time source.
+     *
+     * @param currentTimeMillis The frame time, in the time base of the time source.
+     * @return true if the animation is not yet finished.
+     */
+    public boolean computeScrollOffset(long currentTimeMillis) {
+        if (mFinished) {
+            return false;
+        }
+
+        final int timePassed = (int) (currentTimeMillis - mStartTime);
+        final float[] start = mStart;
+        final float[] curr = mCurr;
+        final int n = mAxisCount;
+        if (timePassed < mDuration) {
+            // 所有轴共用一次插值
+            final float t = timePassed * mDurationReciprocal;
+            final float coef;
+            if (mMode == FLING_MODE) {
+                coef = mPhysics.getSpline().getPosition(t);
+            } else {
+                coef = mInterpolator == null ? mPhysics.viscousFluid(t)
+                        : mInterpolator.getInterpolation(t);
+            }
+            final float[] delta = mDelta;
+            final float[] min = mMin;
+            final float[] max = mMax;
+            boolean atFinal = mMode == FLING_MODE;
+            for (int i = 0; i < n; i++) {
+                // Pin to min <= curr <= max
+                final float value = Math.max(min[i], Math.min(max[i], start[i] + coef * delta[i]));
+                curr[i] = value;
+                atFinal &= value == mFinal[i];
+            }
+            // 所有轴都停在终点(停在边界上)时fling提前结束,和Scroller一致
+            if (atFinal) {
+                mFinished = true;
+            }
+        } else {
+            System.arraycopy(mFinal, 0, curr, 0, n);
+            mFinished = true;
+        }
+        return true;
+    }
+
+    /**
+     * 用默认的250ms开始滑动.
+     * Start scrolling every axis using the default duration of 250 milliseconds.
+     *
+     * @see #startScroll(float[], float[], int)
+     */
+    public void startScroll(float[] start, float[] delta) {
+        startScroll(start, delta, DEFAULT_DURATION);
+    }
+
+    /**
+     * 提供每个轴的起点和位移来开始滑动.
+     * Start scrolling by providing the start value and the distance to travel of each
+     * axis.
+     *
+     * @param start Start value of each axis.
+     * @param delta Distance to travel on each axis.
+     * @param duration Duration of the scroll in milliseconds.
+     */
+    public void startScroll(float[] start, float[] delta, int duration) {
+        checkLength(start);
+        checkLength(delta);
+        mMode = SCROLL_MODE;
+        mFinished = false;
+        mDuration = duration;
+        mDurationReciprocal = 1.0f / (float) duration;
+        mStartTime = currentTimeMillis();
+        for (int i = 0; i < mAxisCount; i++) {
+            mStart[i] = start[i];
+            mDelta[i] = delta[i];
+            mFinal[i] = start[i] + delta[i];
+            mCurr[i] = start[i];
+            mMin[i] = Float.NEGATIVE_INFINITY;
+            mMax[i] = Float.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * 基于fling手势开始滑动.速率是所有轴组成的向量,时长和距离由它的大小决定,再按各轴的分量分配.
+     * 每个轴按原本的距离走fling曲线,每一帧的位置限制在[min, max]之内:碰到边界的轴以原来的速度停在边界上,
+     * 而不是把整条曲线压缩到边界以内.
+     *
+     * Start a fling over every axis. The velocities form one vector whose magnitude
+     * sets the duration and the distance, which is then split between the axes in
+     * proportion to their velocity. Each axis follows the curve of its natural
+     * distance and every evaluated value is pinned to its bounds, so an axis that
+     * reaches a bound stops there at the speed it had, rather than the whole curve
+     * being squeezed to fit.
+     *
+     * @param start Start value of each axis.
+     * @param velocity Initial velocity of each axis, in units per second.
+     * @param min Minimum value of each axis, or null for no minimum.
+     * @param max Maximum value of each axis, or null for no maximum.
+     */
+    public void fling(float[] start, float[] velocity, float[] min, float[] max) {
+        checkLength(start);
+        checkLength(velocity);
+        if (min != null) checkLength(min);
+        if (max != null) checkLength(max);
+        final int n = mAxisCount;
+        float sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += velocity[i] * velocity[i];
+        }
+        final float speed = FloatMath.sqrt(sum);
+        final int totalDistance = speed == 0 ? 0 : mPhysics.computeFlingDistance(speed);
+
+        mMode = FLING_MODE;
+        mFinished = false;
+        mVelocity = speed;
+        mDuration = speed == 0 ? 0 : mPhysics.computeFlingDuration(speed);
+        mDurationReciprocal = 1.0f / mDuration;
+        mStartTime = currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            final float coeff = speed == 0 ? 0 : velocity[i] / speed;
+            final float delta = totalDistance * coeff;
+            mMin[i] = min != null ? min[i] : Float.NEGATIVE_INFINITY;
+            mMax[i] = max != null ? max[i] : Float.POSITIVE_INFINITY;
+            mStart[i] = start[i];
+            mDelta[i] = delta;
+            // Pin to min <= final <= max
+            mFinal[i] = Math.max(mMin[i], Math.min(mMax[i], start[i] + delta));
+            mCurr[i] = start[i];
+        }
+    }
+
+    private void checkLength(float[] values) {
+        if (values.length < mAxisCount) {
+            throw new IllegalArgumentException("expected " + mAxisCount + " axes, got "
+                    + values.length);
+        }
+    }
+
+    /**
+     * 中止动画,所有轴移动到结束值.
+     * Stops the animation and moves every axis to its final value.
+     */
+    public void abortAnimation() {
+        System.arraycopy(mFinal, 0, mCurr, 0, mAxisCount);
+        mFinished = true;
+    }
+
+    /**
+     * 延长动画时间.
+     * Extend the animation. This allows a running animation to go further and longer
+     * when used with {@link #setFinal(int, float)}.
+     *
+     * @param extend Additional time in milliseconds.
+     */
+    public void extendDuration(int extend) {
+        int passed = timePassed();
+        mDuration = passed + extend;
+        mDurationReciprocal = 1.0f / mDuration;
+        mFinished = false;
+    }
+
+    /**
+     * 返回从开始动画(到当前)经过的时间.单位是ms.
+     * @return The elapsed time in milliseconds.
+     */
+    public int timePassed() {
+        return (int) (currentTimeMillis() - mStartTime);
+    }
+
+    /**
+     * 设置一个轴的结束值.这个轴不再受fling的边界限制.
+     * Sets the final value of an axis. The axis is no longer pinned to the bounds of
+     * a fling.
+     *
+     * @see #extendDuration(int)
+     */
+    public void setFinal(int axis, float value) {
+        mFinal[axis] = value;
+        mDelta[axis] = value - mStart[axis];
+        mMin[axis] = Float.NEGATIVE_INFINITY;
+        mMax[axis] = Float.POSITIVE_INFINITY;
+        mFinished = false;
+    }
+}
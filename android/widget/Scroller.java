@@ -24,6 +24,8 @@ import android.view.ViewConfiguration;
 import android.view.animation.AnimationUtils;
 import android.view.animation.Interpolator;
 
+import java.util.Arrays;
+
 
 /**
  * 这个类封装了滑动(scrolling)动作的工具类.滑动的时间能被传递进构造器,并且可以指定滑动动画的最大时间值.
@@ -50,6 +52,18 @@ public class Scroller  {
 
     private int mCurrX;
     private int mCurrY;
+
+    // 亚像素(浮点)精度的位置,整数位置由它们四舍五入得到
+    private float mStartXf;
+    private float mStartYf;
+    private float mFinalXf;
+    private float mFinalYf;
+    private float mCurrXf;
+    private float mCurrYf;
+    // fling曲线本身的终点.开启回弹时它可以越过边界,mFinalXf/mFinalYf则是最终停下的位置
+    private float mFlingEndXf;
+    private float mFlingEndYf;
+
     private long mStartTime;
     private int mDuration;
     private float mDurationReciprocal;
@@ -58,52 +72,109 @@ public class Scroller  {
     private boolean mFinished;
     private Interpolator mInterpolator;
     private boolean mFlywheel;
+    private TimeSource mTimeSource = DEFAULT_TIME_SOURCE;
+    private boolean mAnalyticFling;
+    // 开始fling时锁定的mAnalyticFling,fling进行中切换设置不会换曲线
+    private boolean mFlingAnalytic;
+    private int mInterpolatorTableMode = INTERPOLATOR_TABLE_NONE;
+    private InterpolatorTable mInterpolatorTable;
+    private ScrollerTrace mTrace;
+
+    // computeScrollOffsetForFrame()的帧统计
+    private long mLastPresentationTime;
+    private boolean mHasLastPresentationTime;
+    private int mDroppedFrames;
+    private int mFrameCount;
+    private float mLastFrameLookAhead;
+    private float mMaxFrameLookAhead;
+
+    // 越界回弹(SPRING_MODE)的状态,下标0为X轴,1为Y轴
+    private boolean mSpringBackEnabled;
+    private float mSpringFrequency = DEFAULT_SPRING_FREQUENCY;
+    private final boolean[] mSpringing = new boolean[2];
+    private final boolean[] mSpringSettled = new boolean[2];
+    private final int[] mSpringBound = new int[2];
+    private final float[] mSpringStartOffset = new float[2];
+    private final float[] mSpringStartVelocity = new float[2];
+    private final long[] mSpringStartTime = new long[2];
 
     private float mVelocity;
 
+    /**
+     * 滑动时直接调用插值器,不查表.
+     * Scrolls call the interpolator directly every frame.
+     */
+    public static final int INTERPOLATOR_TABLE_NONE = 0;
+
+    /**
+     * 滑动时查插值器的表,相邻两个采样点之间线性插值.
+     * Scrolls read a precompiled table of the interpolator with linear interpolation.
+     */
+    public static final int INTERPOLATOR_TABLE_LINEAR = 1;
+
+    /**
+     * 滑动时查插值器的表,用三次曲线插值.
+     * Scrolls read a precompiled table of the interpolator with cubic interpolation.
+     */
+    public static final int INTERPOLATOR_TABLE_CUBIC = 2;
+
     private static final int DEFAULT_DURATION = 250;
+    // 吸附fling为了对上手指速率最多拖这么久(ms)
+    private static final int MAX_SNAP_DURATION = 3000;
     private static final int SCROLL_MODE = 0;
     private static final int FLING_MODE = 1;
+    private static final int SPRING_MODE = 2;
 
-    private static float DECELERATION_RATE = (float) (Math.log(0.75) / Math.log(0.9));
-    private static float ALPHA = 800; // pixels / seconds
-    private static float START_TENSION = 0.4f; // Tension at start: (0.4 * total T, 1.0 * Distance)
-    private static float END_TENSION = 1.0f - START_TENSION;
-    private static final int NB_SAMPLES = 100;
-    private static final float[] SPLINE = new float[NB_SAMPLES + 1];
+    // 临界阻尼弹簧的角频率,单位rad/s
+    private static final float DEFAULT_SPRING_FREQUENCY = 12.0f;
+
+    // 原来的DECELERATION_RATE,ALPHA,START_TENSION和粘性流体系数都放到了物理参数预设里
+    private ScrollerPhysics mPhysics = ScrollerPhysics.DEFAULT;
 
     private float mDeceleration;
     private final float mPpi;
 
-    static {
-        float x_min = 0.0f;
-        for (int i = 0; i <= NB_SAMPLES; i++) {
-            final float t = (float) i / NB_SAMPLES;
-            float x_max = 1.0f;
-            float x, tx, coef;
-            while (true) {
-                x = x_min + (x_max - x_min) / 2.0f;
-                coef = 3.0f * x * (1.0f - x);
-                tx = coef * ((1.0f - x) * START_TENSION + x * END_TENSION) + x * x * x;
-                if (Math.abs(tx - t) < 1E-5) break;
-                if (tx > t) x_max = x;
-                else x_min = x;
-            }
-            final float d = coef + x * x * x;
-            SPLINE[i] = d;
+    /**
+     * 时间源.Scroller需要读取当前时间的地方(开始滑动,计算偏移,经过的时间)都通过它来获取.
+     * 默认使用{@link AnimationUtils#currentAnimationTimeMillis()};测试或回放时可以换成自己的实现,
+     * 这样就能在没有设备的环境下按任意速度重放记录下来的fling.
+     *
+     * Source of the current time used by a Scroller when starting, advancing or measuring
+     * a scroll. The default reads {@link AnimationUtils#currentAnimationTimeMillis()};
+     * benchmarks and replay tools can supply their own clock to drive a Scroller
+     * deterministically and faster than real time.
+     */
+    public interface TimeSource {
+        /**
+         * @return The current time in milliseconds, in the same time base for every call.
+         */
+        long currentTimeMillis();
+    }
+
+    private static final TimeSource DEFAULT_TIME_SOURCE = new TimeSource() {
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
         }
-        SPLINE[NB_SAMPLES] = 1.0f;
+    };
 
-        // This controls the viscous fluid effect (how much of it)
-        sViscousFluidScale = 8.0f;
-        // must be set to 1.0 (used in viscousFluid())
-        sViscousFluidNormalize = 1.0f;
-        sViscousFluidNormalize = 1.0f / viscousFluid(1.0f);
+    /**
+     * 吸附函数.给出一个轴上fling本来会停下的位置,返回真正要停下的位置(比如最近的一页).
+     * 用于{@link #flingToSnap(int, int, int, int, int, int, int, int, SnapFunction, SnapFunction)}.
+     *
+     * Chooses where a fling should come to rest along one axis, for example the nearest
+     * page boundary. Used by
+     * {@link #flingToSnap(int, int, int, int, int, int, int, int, SnapFunction, SnapFunction)}.
+     */
+    public interface SnapFunction {
+        /**
+         * @param start Starting position of the fling on this axis.
+         * @param naturalFinal Where an unsnapped fling with the same velocity would end.
+         * @param velocity Initial velocity on this axis, in pixels per second.
+         * @return The position the fling should end at.
+         */
+        int snap(int start, int naturalFinal, float velocity);
     }
 
-    private static float sViscousFluidScale;
-    private static float sViscousFluidNormalize;
-
     /**
      * Create a Scroller with the default duration and interpolator.
      */
@@ -145,7 +216,188 @@ public class Scroller  {
     public final void setFriction(float friction) {
         mDeceleration = computeDeceleration(friction);
     }
+
+    /**
+     * 设置物理参数预设(摩擦系数,fling模型,起始张力,粘性流体系数,采样数).不同的界面可以用不同的手感,
+     * 而由预设推导出的表只在预设里存一份.会覆盖{@link #setFriction(float)}设置的摩擦系数.
+     * 要在滑动开始前设置.传入null恢复默认值.
+     *
+     * Sets the physics preset used by this scroller. Tables derived from the preset
+     * are shared by every scroller using it. The preset's friction replaces any value
+     * set with {@link #setFriction(float)}. Set it while the scroller is finished; a
+     * running animation would switch to the new curves part way through.
+     *
+     * @param physics The preset to use, or null for {@link ScrollerPhysics#DEFAULT}.
+     */
+    public final void setPhysics(ScrollerPhysics physics) {
+        mPhysics = physics != null ? physics : ScrollerPhysics.DEFAULT;
+        mDeceleration = computeDeceleration(mPhysics.getFriction());
+        if (mInterpolatorTable != null && mInterpolator == null) {
+            mInterpolatorTable = mPhysics.getViscousFluidTable();
+        }
+    }
+
+    /**
+     * @return The physics preset used by this scroller.
+     */
+    public final ScrollerPhysics getPhysics() {
+        return mPhysics;
+    }
     
+    /**
+     * 设置时间源.传入null则恢复默认的{@link AnimationUtils#currentAnimationTimeMillis()}.
+     * 要在滑动开始前设置,否则开始时间和之后读到的时间不在同一个时间基准上.
+     *
+     * Sets the clock used by this scroller. Passing null restores the default
+     * {@link AnimationUtils#currentAnimationTimeMillis()} clock. Change it only while the
+     * scroller is finished, since the start time of a running scroll is kept in the time
+     * base of the previous source.
+     *
+     * @param timeSource The clock to use, or null for the default.
+     */
+    public final void setTimeSource(TimeSource timeSource) {
+        mTimeSource = timeSource != null ? timeSource : DEFAULT_TIME_SOURCE;
+    }
+
+    /**
+     * @return The clock used by this scroller.
+     */
+    public final TimeSource getTimeSource() {
+        return mTimeSource;
+    }
+
+    /**
+     * 设置fling是否使用解析(闭式)曲线.默认的fling每帧要查SPLINE表;开启后位移按
+     * d(t) = 1 - (1 - t)^2.5 计算,速度按 v(t) = v0 * (1 - t)^1.5 计算,不查表也不分配内存.
+     * 指数2.5 = 1 / START_TENSION,所以初速度,时长和总距离都和fling()里的对数模型一致,只是中间的形状略有不同.
+     * 只影响之后开始的fling,正在进行的fling保持开始时的曲线.
+     *
+     * Sets whether flings are evaluated with a closed-form curve instead of the sampled
+     * spline. The analytic curve is <code>d(t) = 1 - (1 - t)^2.5</code> with velocity
+     * <code>v0 * (1 - t)^1.5</code>, where <code>t</code> is the normalized time. The
+     * exponent is <code>1 / START_TENSION</code>, so the initial velocity, duration and
+     * distance match the log-based model used by {@link #fling}; only the shape in
+     * between differs from the spline, by at most about 5% of the distance.
+     * Takes effect for flings started after the call; a fling in progress keeps the
+     * curve it started with.
+     *
+     * @param analytic true to use the closed-form curve, false for the spline.
+     */
+    public final void setAnalyticFlingEnabled(boolean analytic) {
+        mAnalyticFling = analytic;
+    }
+
+    /**
+     * @return true if flings are evaluated with the closed-form curve.
+     * @see #setAnalyticFlingEnabled(boolean)
+     */
+    public final boolean isAnalyticFlingEnabled() {
+        return mAnalyticFling;
+    }
+
+    /**
+     * 设置滑动(startScroll)时插值器的求值方式.开启后插值器(没有插值器时是默认的粘性流体曲线)会被预先采样成
+     * 一张256段的表,同一个插值器对象只采样一次,之后每帧只是查表,不再通过接口调用插值器,也不用算Math.exp.
+     * 插值器必须是无状态的.
+     *
+     * Sets how the interpolator is evaluated for {@link #startScroll} animations. With a
+     * table mode, the interpolator, or the default viscous fluid curve when there is
+     * none, is sampled once into a 256-interval table shared by every scroller using
+     * the same interpolator instance, and each frame becomes a table read instead of
+     * an interface call. Only suitable for stateless interpolators.
+     *
+     * @param mode One of {@link #INTERPOLATOR_TABLE_NONE}, {@link #INTERPOLATOR_TABLE_LINEAR}
+     *        or {@link #INTERPOLATOR_TABLE_CUBIC}.
+     */
+    public final void setInterpolatorTableMode(int mode) {
+        switch (mode) {
+        case INTERPOLATOR_TABLE_NONE:
+            mInterpolatorTable = null;
+            break;
+        case INTERPOLATOR_TABLE_LINEAR:
+        case INTERPOLATOR_TABLE_CUBIC:
+            mInterpolatorTable = mInterpolator == null ? mPhysics.getViscousFluidTable()
+                    : InterpolatorTable.forInterpolator(mInterpolator);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown interpolator table mode: " + mode);
+        }
+        mInterpolatorTableMode = mode;
+    }
+
+    /**
+     * @return The current interpolator table mode.
+     * @see #setInterpolatorTableMode(int)
+     */
+    public final int getInterpolatorTableMode() {
+        return mInterpolatorTableMode;
+    }
+
+    /**
+     * 设置轨迹记录器.之后每次{@link #computeScrollOffset()}都会把时间,模式,位置和速率记到里面,
+     * 不分配内存.速率是曲线在那一刻的实际速率(前后1毫秒的位置差分),动画结束那一帧取曲线末端的速率.
+     * 传入null停止记录.
+     *
+     * Attaches a recorder that captures the time, mode, position and speed of every
+     * {@link #computeScrollOffset()} call, without allocating. The speed is that of the
+     * curve being followed, from the position difference over the two milliseconds
+     * around the sample; the last sample of a scroll or fling has the speed at the end
+     * of its curve. Pass null to stop recording.
+     *
+     * @param trace The recorder to fill, or null.
+     */
+    public final void setTrace(ScrollerTrace trace) {
+        mTrace = trace;
+    }
+
+    /**
+     * @return The attached recorder, or null.
+     */
+    public final ScrollerTrace getTrace() {
+        return mTrace;
+    }
+
+    /**
+     * 设置是否开启越界回弹.开启后fling不再在边界处直接停住,而是越过边界,在同一次
+     * {@link #computeScrollOffset()}里自动切换成临界阻尼的弹簧运动,再回到边界上停下.
+     * 不需要再额外跑一个动画,也不会分配内存.
+     *
+     * Sets whether flings may overscroll. When enabled, an axis that reaches
+     * its bound during a fling carries on past it and switches, in the same
+     * {@link #computeScrollOffset()} call, to a critically damped spring that brings
+     * it back to the bound. {@link #getFinalX()} and {@link #getFinalY()} still report
+     * the resting position inside the bounds. Takes effect for flings started after
+     * the call.
+     *
+     * @param enabled true to overscroll and spring back at the bounds.
+     * @see #springBack(int, int, int, int, int, int)
+     */
+    public final void setSpringBackEnabled(boolean enabled) {
+        mSpringBackEnabled = enabled;
+    }
+
+    /**
+     * @return true if flings overscroll and spring back at the bounds.
+     */
+    public final boolean isSpringBackEnabled() {
+        return mSpringBackEnabled;
+    }
+
+    /**
+     * 设置回弹弹簧的角频率,越大回弹越快,越界的距离也越短.默认值是12 rad/s.
+     * Sets the natural frequency of the spring-back spring. Higher values return to
+     * the bound faster and overscroll less. The default is 12 radians per second.
+     *
+     * @param radiansPerSecond The natural frequency, must be positive.
+     */
+    public final void setSpringBackFrequency(float radiansPerSecond) {
+        if (radiansPerSecond <= 0) {
+            throw new IllegalArgumentException("frequency must be positive: "
+                    + radiansPerSecond);
+        }
+        mSpringFrequency = radiansPerSecond;
+    }
+
     private float computeDeceleration(float friction) {
         return SensorManager.GRAVITY_EARTH   // g (m/s^2)
                       * 39.37f               // inch/meter
@@ -202,6 +454,28 @@ public class Scroller  {
     public final int getCurrY() {
         return mCurrY;
     }
+
+    /**
+     * 返回当前X轴的偏移值,带亚像素精度.{@link #getCurrX()}就是它四舍五入后的值.
+     * Returns the current X offset in the scroll with sub-pixel precision.
+     * {@link #getCurrX()} is this value rounded to the nearest pixel.
+     *
+     * @return The new X offset as an absolute distance from the origin.
+     */
+    public final float getCurrXf() {
+        return mCurrXf;
+    }
+
+    /**
+     * 返回当前Y轴的偏移值,带亚像素精度.{@link #getCurrY()}就是它四舍五入后的值.
+     * Returns the current Y offset in the scroll with sub-pixel precision.
+     * {@link #getCurrY()} is this value rounded to the nearest pixel.
+     *
+     * @return The new Y offset as an absolute distance from the origin.
+     */
+    public final float getCurrYf() {
+        return mCurrYf;
+    }
     
     /**
      * 返回当前的滑动速率.(初始的速率可以是明显的减速,而最终的速率可能是相反的.)
@@ -211,7 +485,63 @@ public class Scroller  {
      * negative.
      */
     public float getCurrVelocity() {
-        return mVelocity - mDeceleration * timePassed() / 2000.0f;
+        return computeCurrVelocity(timePassed());
+    }
+
+    private float computeCurrVelocity(int timePassed) {
+        if (mMode == FLING_MODE && mFlingAnalytic) {
+            // v(t) = v0 * (1 - t)^1.5
+            final float t = Math.min(1.0f, Math.max(0.0f, timePassed * mDurationReciprocal));
+            return mVelocity * analyticSlopePower(1.0f - t);
+        }
+        return mVelocity - mDeceleration * timePassed / 2000.0f;
+    }
+
+    /**
+     * 预测某个时刻(通常是下一帧)X轴的位置,不修改任何状态.可以在这一帧还没结束时就提前布局下一帧.
+     * 滑动和fling(包括flywheel叠加后的fling,以及越界回弹)都适用;动画已经结束时返回当前位置.
+     *
+     * Predicts the X position at the given time, typically the next frame, without
+     * changing any state, so that the next frame can be laid out ahead of time. Works
+     * for scrolls and flings, including flywheel continuations and spring-back; once
+     * the animation is finished this returns the current position.
+     *
+     * @param timeMillis The time to evaluate, in the time base of {@link #getTimeSource()}.
+     * @return The X position at that time, with sub-pixel precision.
+     */
+    public float getPositionXAt(long timeMillis) {
+        return mFinished ? mCurrXf : computePositionAt(0, timeMillis);
+    }
+
+    /**
+     * 预测某个时刻Y轴的位置,不修改任何状态.
+     * Predicts the Y position at the given time without changing any state.
+     *
+     * @param timeMillis The time to evaluate, in the time base of {@link #getTimeSource()}.
+     * @return The Y position at that time, with sub-pixel precision.
+     * @see #getPositionXAt(long)
+     */
+    public float getPositionYAt(long timeMillis) {
+        return mFinished ? mCurrYf : computePositionAt(1, timeMillis);
+    }
+
+    /**
+     * 预测某个时刻的速率,不修改任何状态.所有模式都用前后1毫秒的位置差分(和{@link ScrollerTrace}
+     * 记录的速率是同一个定义),所以越界回弹,被边界挡住的轴和任意插值器都包括在内.
+     * 曲线结束之后取结束那一刻的速率.返回值总是非负的.
+     *
+     * Predicts the speed at the given time without changing any state. Every mode uses
+     * the position difference over the two milliseconds around <code>timeMillis</code>,
+     * the same definition {@link ScrollerTrace} records, so spring-back, axes held at a
+     * bound and any interpolator are accounted for. Past the end of a scroll or fling
+     * curve, the speed at its end is returned. Unlike {@link #getCurrVelocity()}, which
+     * the flywheel uses, the result is never negative.
+     *
+     * @param timeMillis The time to evaluate, in the time base of {@link #getTimeSource()}.
+     * @return The speed in pixels per second, or 0 once the animation is finished.
+     */
+    public float getVelocityAt(long timeMillis) {
+        return mFinished ? 0 : computeSpeedAt(timeMillis);
     }
 
     /**
@@ -264,42 +594,85 @@ public class Scroller  {
         if (mFinished) {
             return false;
         }
+        return computeScrollOffset(mTimeSource.currentTimeMillis());
+    }
+
+    /**
+     * 和{@link #computeScrollOffset()}一样,只是由调用者传入当前帧的时间,而不是每次都去读时间源.
+     * 这样一帧里的所有滑动都可以按同一个时间戳去计算.
+     *
+     * Same as {@link #computeScrollOffset()}, but evaluates the scroll at the given frame
+     * time instead of reading the time source, so that every scroll in a frame can be
+     * computed against one timestamp.
+     *
+     * @param currentTimeMillis The frame time, in the time base of {@link #getTimeSource()}.
+     * @return true if the animation is not yet finished.
+     */
+    public boolean computeScrollOffset(long currentTimeMillis) {
+        if (mFinished) {
+            return false;
+        }
+
+        int timePassed = (int)(currentTimeMillis - mStartTime);
 
-        int timePassed = (int)(AnimationUtils.currentAnimationTimeMillis() - mStartTime);
+        if (mMode == SPRING_MODE) {
+            // 回弹模式下两个轴各自独立:正在回弹的轴按弹簧公式计算,另一个轴继续原来的fling曲线
+            final float coef = timePassed < mDuration ? computeDistanceCoef(timePassed) : 1.0f;
+            mCurrXf = computeFlingAxis(0, currentTimeMillis, timePassed, coef,
+                    mStartXf, mFlingEndXf, mMinX, mMaxX, true);
+            mCurrYf = computeFlingAxis(1, currentTimeMillis, timePassed, coef,
+                    mStartYf, mFlingEndYf, mMinY, mMaxY, true);
+            mCurrX = Math.round(mCurrXf);
+            mCurrY = Math.round(mCurrYf);
+            if (!mSpringing[0] && !mSpringing[1]
+                    && (timePassed >= mDuration || mCurrX == mFinalX && mCurrY == mFinalY)) {
+                mCurrX = mFinalX;
+                mCurrY = mFinalY;
+                mCurrXf = mFinalXf;
+                mCurrYf = mFinalYf;
+                mFinished = true;
+            }
+            if (mTrace != null) {
+                recordTrace(currentTimeMillis);
+            }
+            return true;
+        }
     
-        if (timePassed < mDuration) {
+        // fling的终点越过了边界时,曲线结束后还要从越界的那一刻开始回弹,不能直接停在终点
+        final boolean flingEndsOutside = mMode == FLING_MODE && mSpringBackEnabled
+                && (mFlingEndXf < mMinX || mFlingEndXf > mMaxX
+                        || mFlingEndYf < mMinY || mFlingEndYf > mMaxY);
+        if (timePassed < mDuration || flingEndsOutside) {
             switch (mMode) {
             case SCROLL_MODE:
-                float x = timePassed * mDurationReciprocal;
-    
-                if (mInterpolator == null)
-                    x = viscousFluid(x); 
-                else
-                    x = mInterpolator.getInterpolation(x);
+                final float x = computeDistanceCoef(timePassed);
     
-                mCurrX = mStartX + Math.round(x * mDeltaX);
-                mCurrY = mStartY + Math.round(x * mDeltaY);
+                mCurrXf = mStartXf + x * mDeltaX;
+                mCurrYf = mStartYf + x * mDeltaY;
+                mCurrX = Math.round(mCurrXf);
+                mCurrY = Math.round(mCurrYf);
                 break;
             case FLING_MODE:
-                final float t = (float) timePassed / mDuration;
-                final int index = (int) (NB_SAMPLES * t);
-                final float t_inf = (float) index / NB_SAMPLES;
-                final float t_sup = (float) (index + 1) / NB_SAMPLES;
-                final float d_inf = SPLINE[index];
-                final float d_sup = SPLINE[index + 1];
-                final float distanceCoef = d_inf + (t - t_inf) / (t_sup - t_inf) * (d_sup - d_inf);
+                final float distanceCoef = timePassed < mDuration
+                        ? computeDistanceCoef(timePassed) : 1.0f;
                 
-                mCurrX = mStartX + Math.round(distanceCoef * (mFinalX - mStartX));
-                // Pin to mMinX <= mCurrX <= mMaxX
-                mCurrX = Math.min(mCurrX, mMaxX);
-                mCurrX = Math.max(mCurrX, mMinX);
+                // Pin to mMinX <= mCurrX <= mMaxX, or start springing back past it
+                mCurrXf = computeFlingAxis(0, currentTimeMillis, timePassed, distanceCoef,
+                        mStartXf, mFlingEndXf, mMinX, mMaxX, true);
+                mCurrX = Math.round(mCurrXf);
                 
-                mCurrY = mStartY + Math.round(distanceCoef * (mFinalY - mStartY));
-                // Pin to mMinY <= mCurrY <= mMaxY
-                mCurrY = Math.min(mCurrY, mMaxY);
-                mCurrY = Math.max(mCurrY, mMinY);
+                // Pin to mMinY <= mCurrY <= mMaxY, or start springing back past it
+                mCurrYf = computeFlingAxis(1, currentTimeMillis, timePassed, distanceCoef,
+                        mStartYf, mFlingEndYf, mMinY, mMaxY, true);
+                mCurrY = Math.round(mCurrYf);
 
-                if (mCurrX == mFinalX && mCurrY == mFinalY) {
+                // 终点越过了边界时,取整后到了边界也还没越界,不能提前结束
+                if (mMode == FLING_MODE && (timePassed >= mDuration
+                        || !flingEndsOutside && mCurrX == mFinalX && mCurrY == mFinalY)) {
+                    mCurrX = mFinalX;
+                    mCurrY = mFinalY;
+                    mCurrXf = mFinalXf;
+                    mCurrYf = mFinalYf;
                     mFinished = true;
                 }
 
@@ -309,10 +682,289 @@ public class Scroller  {
         else {
             mCurrX = mFinalX;
             mCurrY = mFinalY;
+            mCurrXf = mFinalXf;
+            mCurrYf = mFinalYf;
             mFinished = true;
         }
+        if (mTrace != null) {
+            recordTrace(currentTimeMillis);
+        }
         return true;
     }
+
+    private void recordTrace(long currentTimeMillis) {
+        mTrace.record(currentTimeMillis, mMode, mCurrXf, mCurrYf,
+                computeSpeedAt(currentTimeMillis));
+    }
+
+    // 用前后1毫秒的位置差分计算某个时刻的速率(px/s),所有模式都一样.只读取状态,不做任何修改.
+    // 滑动和fling的曲线结束之后取结束那一刻的斜率(向后差分),而不是直接给0.
+    private float computeSpeedAt(long time) {
+        long before = time - 1;
+        long after = time + 1;
+        if (mMode != SPRING_MODE && after > mStartTime + mDuration) {
+            after = Math.min(time, mStartTime + mDuration);
+            before = after - 2;
+        }
+        if (before < mStartTime) {
+            before = mStartTime;
+            after = before + 2;
+        }
+        final float dx = computePositionAt(0, after) - computePositionAt(0, before);
+        final float dy = computePositionAt(1, after) - computePositionAt(1, before);
+        return FloatMath.sqrt(dx * dx + dy * dy) * 500.0f;
+    }
+
+    /**
+     * 计算fling(或回弹)时一个轴的位置.axis为0表示X轴,1表示Y轴.coef是这一时刻fling曲线的距离比例.
+     * commit为true时,越过边界会真正切换到回弹状态;为false时只做计算,不修改任何状态.
+     */
+    private float computeFlingAxis(int axis, long currentTimeMillis, int timePassed, float coef,
+            float start, float end, int min, int max, boolean commit) {
+        if (mSpringing[axis]) {
+            // Critically damped: x(t) = (x0 + (v0 + w * x0) * t) * e^(-w * t)
+            final float w = mSpringFrequency;
+            final float t = (currentTimeMillis - mSpringStartTime[axis]) / 1000.0f;
+            final float x0 = mSpringStartOffset[axis];
+            final float offset = (x0 + (mSpringStartVelocity[axis] + w * x0) * t)
+                    * (float) Math.exp(-w * t);
+            if (t * w >= 1.0f && Math.abs(offset) < 0.5f) {
+                if (commit) {
+                    mSpringing[axis] = false;
+                    mSpringSettled[axis] = true;
+                }
+                return mSpringBound[axis];
+            }
+            return mSpringBound[axis] + offset;
+        }
+        if (mSpringSettled[axis]) {
+            return Math.max(min, Math.min(max, end));
+        }
+
+        // 曲线结束后停在终点;终点越过了边界时,这个轴在越界的那一刻就该开始回弹了
+        final float pos = timePassed >= mDuration ? end : start + coef * (end - start);
+        if (pos >= min && pos <= max) {
+            return pos;
+        }
+        if (!mSpringBackEnabled) {
+            return Math.max(min, Math.min(max, pos));
+        }
+        final int bound = pos < min ? min : max;
+        if (!commit) {
+            return predictSpring(timePassed, start, end, bound);
+        }
+        // 越过了边界:从越界那一毫秒的越界距离和速度开始回弹,而不是从这一帧开始.
+        // 帧来得晚时,这一帧的越界距离可能已经很大,从这里开始会和预测的轨迹对不上
+        final float distance = end - start;
+        final int crossing = findBoundCrossing(timePassed, start, end, bound);
+        final float offset = start + computeDistanceCoef(crossing) * distance - bound;
+        final float velocity = computeVelocityCoef(crossing) * distance
+                * mDurationReciprocal * 1000.0f;
+        startAxisSpring(axis, bound, offset, velocity, mStartTime + crossing);
+        mMode = SPRING_MODE;
+        return computeFlingAxis(axis, currentTimeMillis, timePassed, coef, start, end,
+                min, max, true);
+    }
+
+    // 用二分法找到fling曲线越过边界bound的第一个毫秒.只读取状态.
+    // 曲线在timePassed(最多到fling的时长)时已经越过了边界
+    private int findBoundCrossing(int timePassed, float start, float end, int bound) {
+        final float distance = end - start;
+        int inside = 0;
+        int outside = Math.min(timePassed, mDuration);
+        while (outside - inside > 1) {
+            final int mid = (inside + outside) >>> 1;
+            final float pos = start + computeDistanceCoef(mid) * distance;
+            if ((pos - bound) * distance > 0) {
+                outside = mid;
+            } else {
+                inside = mid;
+            }
+        }
+        return outside;
+    }
+
+    // 预测还没开始的回弹:找到fling曲线越过边界的时刻,从那里按弹簧公式推到timePassed.只读取状态.
+    // timePassed可以超过fling的时长,曲线在时长之内就已经越过了边界.
+    private float predictSpring(int timePassed, float start, float end, int bound) {
+        final float distance = end - start;
+        final int outside = findBoundCrossing(timePassed, start, end, bound);
+        final float x0 = start + computeDistanceCoef(outside) * distance - bound;
+        final float v0 = computeVelocityCoef(outside) * distance * mDurationReciprocal * 1000.0f;
+        final float w = mSpringFrequency;
+        final float t = (timePassed - outside) / 1000.0f;
+        final float offset = (x0 + (v0 + w * x0) * t) * (float) Math.exp(-w * t);
+        if (t * w >= 1.0f && Math.abs(offset) < 0.5f) {
+            return bound;
+        }
+        return bound + offset;
+    }
+
+    private void startAxisSpring(int axis, int bound, float offset, float velocity,
+            long startTime) {
+        mSpringing[axis] = true;
+        mSpringSettled[axis] = false;
+        mSpringBound[axis] = bound;
+        mSpringStartOffset[axis] = offset;
+        mSpringStartVelocity[axis] = velocity;
+        mSpringStartTime[axis] = startTime;
+    }
+
+    // 返回距离比例对归一化时间的导数,乘以距离再除以时长就是速度.只读取状态,不做任何修改.
+    private float computeVelocityCoef(int timePassed) {
+        final float t = timePassed * mDurationReciprocal;
+        if (mFlingAnalytic) {
+            // d'(t) = 2.5 * (1 - t)^1.5
+            return mPhysics.getFlingSlope() * analyticSlopePower(1.0f - t);
+        }
+        return mPhysics.getSpline().getVelocity(t);
+    }
+
+    // 解析曲线是d(t) = 1 - w^k,w = 1 - t,k = 1 / 起始张力.默认k = 2.5,用sqrt代替pow.
+    // 返回w^(k - 1),即速度相对于初速度的比例.
+    private float analyticSlopePower(float w) {
+        final float k = mPhysics.getFlingSlope();
+        return k == 2.5f ? w * FloatMath.sqrt(w) : (float) Math.pow(w, k - 1.0f);
+    }
+
+    // 返回经过timePassed毫秒时已完成的距离比例.只读取状态,不做任何修改.
+    private float computeDistanceCoef(int timePassed) {
+        final float t = timePassed * mDurationReciprocal;
+        if (mMode == SCROLL_MODE) {
+            if (mInterpolatorTable != null) {
+                return mInterpolatorTableMode == INTERPOLATOR_TABLE_CUBIC
+                        ? mInterpolatorTable.getCubic(t) : mInterpolatorTable.getLinear(t);
+            }
+            return mInterpolator == null ? mPhysics.viscousFluid(t)
+                    : mInterpolator.getInterpolation(t);
+        }
+        if (mFlingAnalytic) {
+            // d(t) = 1 - (1 - t)^2.5, no table lookup
+            final float w = 1.0f - t;
+            return 1.0f - w * analyticSlopePower(w);
+        }
+        return mPhysics.getSpline().getPosition(t);
+    }
+
+    /**
+     * 按帧的预计显示时间计算位置.调用者传入这一帧真正显示到屏幕上的时间(比如下一个vsync),
+     * Scroller把位置外推到那个时间点,而不是取现在读到的时间,这样掉帧或者晚到的帧也不会抖动.
+     * 同时会统计掉帧数和每帧的外推距离(外推位置和按当前时间计算的位置之间的距离,也就是不外推时
+     * 这一帧会差多远),见{@link #getDroppedFrameCount()}和{@link #getLastFrameLookAhead()}.
+     *
+     * Computes the position the content should have when this frame is presented.
+     * The caller supplies the expected presentation time, for example the next vsync,
+     * and the scroll is extrapolated to that time instead of to the time at which the
+     * frame happens to be computed. Gaps of more than one and a half frame intervals
+     * between consecutive presentation times are counted as dropped frames. The
+     * distance between the extrapolated position and the position at the current
+     * time of the time source is recorded as the frame's look-ahead: how far the
+     * frame would have been off had it used the current time. It is not an error of
+     * the extrapolation itself, which is exact for the scroll's own curve.
+     *
+     * @param presentationTimeMillis Expected presentation time of the frame, in the time
+     *        base of {@link #getTimeSource()}.
+     * @param frameIntervalMillis The display's frame interval, in milliseconds.
+     * @return true if the animation is not yet finished.
+     */
+    public boolean computeScrollOffsetForFrame(long presentationTimeMillis,
+            long frameIntervalMillis) {
+        if (mFinished) {
+            mHasLastPresentationTime = false;
+            return false;
+        }
+
+        if (mHasLastPresentationTime && frameIntervalMillis > 0) {
+            final long gap = presentationTimeMillis - mLastPresentationTime;
+            if (gap * 2 > frameIntervalMillis * 3) {
+                mDroppedFrames += (int) ((gap + frameIntervalMillis / 2) / frameIntervalMillis) - 1;
+            }
+        }
+        mLastPresentationTime = presentationTimeMillis;
+        mHasLastPresentationTime = true;
+        mFrameCount++;
+
+        // 先按当前时间算出"如果不外推"的位置,用来统计外推距离
+        final long now = mTimeSource.currentTimeMillis();
+        final float nowX = computePositionAt(0, now);
+        final float nowY = computePositionAt(1, now);
+
+        computeScrollOffset(presentationTimeMillis);
+
+        final float ex = mCurrXf - nowX;
+        final float ey = mCurrYf - nowY;
+        mLastFrameLookAhead = FloatMath.sqrt(ex * ex + ey * ey);
+        if (mLastFrameLookAhead > mMaxFrameLookAhead) {
+            mMaxFrameLookAhead = mLastFrameLookAhead;
+        }
+        return true;
+    }
+
+    // 计算某个时刻一个轴的位置,axis为0表示X轴,1表示Y轴.只读取状态,不做任何修改.
+    private float computePositionAt(int axis, long time) {
+        final int timePassed = Math.max(0, (int) (time - mStartTime));
+        final float start = axis == 0 ? mStartXf : mStartYf;
+        if (mMode == SCROLL_MODE) {
+            if (timePassed >= mDuration) {
+                return axis == 0 ? mFinalXf : mFinalYf;
+            }
+            return start + computeDistanceCoef(timePassed) * (axis == 0 ? mDeltaX : mDeltaY);
+        }
+        final float coef = timePassed < mDuration ? computeDistanceCoef(timePassed) : 1.0f;
+        if (axis == 0) {
+            return computeFlingAxis(0, time, timePassed, coef, start, mFlingEndXf,
+                    mMinX, mMaxX, false);
+        }
+        return computeFlingAxis(1, time, timePassed, coef, start, mFlingEndYf,
+                mMinY, mMaxY, false);
+    }
+
+    /**
+     * 返回通过{@link #computeScrollOffsetForFrame(long, long)}统计到的掉帧数.
+     * @return The number of frames detected as dropped by
+     *         {@link #computeScrollOffsetForFrame(long, long)} since the last reset.
+     */
+    public int getDroppedFrameCount() {
+        return mDroppedFrames;
+    }
+
+    /**
+     * 返回通过{@link #computeScrollOffsetForFrame(long, long)}计算过的帧数.
+     * @return The number of frames computed with
+     *         {@link #computeScrollOffsetForFrame(long, long)} since the last reset.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * 返回最近一帧的外推距离:外推位置和按当前时间计算的位置之间的距离,单位px.
+     * @return The distance in pixels between the position extrapolated for the last frame
+     *         and the position at the time it was computed, that is how far ahead the
+     *         frame looked.
+     */
+    public float getLastFrameLookAhead() {
+        return mLastFrameLookAhead;
+    }
+
+    /**
+     * 返回统计以来最大的单帧外推距离,单位px.
+     * @return The largest per-frame look-ahead, in pixels, since the last reset.
+     */
+    public float getMaxFrameLookAhead() {
+        return mMaxFrameLookAhead;
+    }
+
+    /**
+     * 清空掉帧和外推距离的统计.
+     * Clears the frame metrics collected by {@link #computeScrollOffsetForFrame(long, long)}.
+     */
+    public void resetFrameMetrics() {
+        mDroppedFrames = 0;
+        mFrameCount = 0;
+        mLastFrameLookAhead = 0;
+        mMaxFrameLookAhead = 0;
+    }
     
     /**
      * 通提供一个X,Y轴的初始值和距离来滑动.滑动会使用250ms作为默认的时间.
@@ -348,14 +1000,48 @@ public class Scroller  {
      * @param duration Duration of the scroll in milliseconds.
      */
     public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        startScroll((float) startX, (float) startY, (float) dx, (float) dy, duration);
+    }
+
+    /**
+     * 浮点版本的startScroll,起点和距离可以不是整数,内部保持亚像素精度.
+     * Start scrolling by providing a starting point and the distance to travel, with
+     * sub-pixel precision. The scroll will use the default duration of 250 milliseconds.
+     *
+     * @see #startScroll(int, int, int, int)
+     * @see #getCurrXf()
+     */
+    public void startScroll(float startX, float startY, float dx, float dy) {
+        startScroll(startX, startY, dx, dy, DEFAULT_DURATION);
+    }
+
+    /**
+     * 浮点版本的startScroll,起点和距离可以不是整数,内部保持亚像素精度.
+     * Start scrolling by providing a starting point and the distance to travel, with
+     * sub-pixel precision.
+     *
+     * @param startX Starting horizontal scroll offset in pixels.
+     * @param startY Starting vertical scroll offset in pixels.
+     * @param dx Horizontal distance to travel.
+     * @param dy Vertical distance to travel.
+     * @param duration Duration of the scroll in milliseconds.
+     * @see #startScroll(int, int, int, int, int)
+     * @see #getCurrXf()
+     */
+    public void startScroll(float startX, float startY, float dx, float dy, int duration) {
         mMode = SCROLL_MODE;
         mFinished = false;
+        mHasLastPresentationTime = false;
         mDuration = duration;
-        mStartTime = AnimationUtils.currentAnimationTimeMillis();
-        mStartX = startX;
-        mStartY = startY;
-        mFinalX = startX + dx;
-        mFinalY = startY + dy;
+        mStartTime = mTimeSource.currentTimeMillis();
+        mStartXf = startX;
+        mStartYf = startY;
+        mFinalXf = startX + dx;
+        mFinalYf = startY + dy;
+        mStartX = Math.round(mStartXf);
+        mStartY = Math.round(mStartYf);
+        mFinalX = Math.round(mFinalXf);
+        mFinalY = Math.round(mFinalYf);
         mDeltaX = dx;
         mDeltaY = dy;
         mDurationReciprocal = 1.0f / (float) mDuration;
@@ -383,12 +1069,26 @@ public class Scroller  {
      */
     public void fling(int startX, int startY, int velocityX, int velocityY,
             int minX, int maxX, int minY, int maxY) {
+        fling((float) startX, (float) startY, (float) velocityX, (float) velocityY,
+                minX, maxX, minY, maxY);
+    }
+
+    /**
+     * 浮点版本的fling,起点和速率可以不是整数,内部保持亚像素精度.
+     * Start scrolling based on a fling gesture, with a sub-pixel starting point and
+     * velocity. The bounds are whole pixels.
+     *
+     * @see #fling(int, int, int, int, int, int, int, int)
+     * @see #getCurrXf()
+     */
+    public void fling(float startX, float startY, float velocityX, float velocityY,
+            int minX, int maxX, int minY, int maxY) {
         // Continue a scroll or fling in progress
-        if (mFlywheel && !mFinished) {
+        if (mFlywheel && !mFinished && mMode != SPRING_MODE) {
             float oldVel = getCurrVelocity();
 
-            float dx = (float) (mFinalX - mStartX);
-            float dy = (float) (mFinalY - mStartY);
+            float dx = mFinalXf - mStartXf;
+            float dy = mFinalYf - mStartYf;
             float hyp = FloatMath.sqrt(dx * dx + dy * dy);
 
             float ndx = dx / hyp;
@@ -404,51 +1104,389 @@ public class Scroller  {
         }
 
         mMode = FLING_MODE;
+        mFlingAnalytic = mAnalyticFling;
         mFinished = false;
+        mHasLastPresentationTime = false;
+        resetSpring();
 
         float velocity = FloatMath.sqrt(velocityX * velocityX + velocityY * velocityY);
      
         mVelocity = velocity;
-        final double l = Math.log(START_TENSION * velocity / ALPHA);
-        mDuration = (int) (1000.0 * Math.exp(l / (DECELERATION_RATE - 1.0)));
-        mStartTime = AnimationUtils.currentAnimationTimeMillis();
-        mStartX = startX;
-        mStartY = startY;
+        mDuration = mPhysics.computeFlingDuration(velocity);
+        mDurationReciprocal = 1.0f / mDuration;
+        mStartTime = mTimeSource.currentTimeMillis();
+        mStartXf = startX;
+        mStartYf = startY;
+        mStartX = Math.round(startX);
+        mStartY = Math.round(startY);
 
         float coeffX = velocity == 0 ? 1.0f : velocityX / velocity;
         float coeffY = velocity == 0 ? 1.0f : velocityY / velocity;
 
-        int totalDistance =
-                (int) (ALPHA * Math.exp(DECELERATION_RATE / (DECELERATION_RATE - 1.0) * l));
+        int totalDistance = mPhysics.computeFlingDistance(velocity);
         
         mMinX = minX;
         mMaxX = maxX;
         mMinY = minY;
         mMaxY = maxY;
 
-        mFinalX = startX + Math.round(totalDistance * coeffX);
+        mFinalXf = startX + totalDistance * coeffX;
         // Pin to mMinX <= mFinalX <= mMaxX
-        mFinalX = Math.min(mFinalX, mMaxX);
-        mFinalX = Math.max(mFinalX, mMinX);
+        mFinalXf = Math.min(mFinalXf, mMaxX);
+        mFinalXf = Math.max(mFinalXf, mMinX);
+        mFinalX = Math.round(mFinalXf);
         
-        mFinalY = startY + Math.round(totalDistance * coeffY);
+        mFinalYf = startY + totalDistance * coeffY;
         // Pin to mMinY <= mFinalY <= mMaxY
-        mFinalY = Math.min(mFinalY, mMaxY);
-        mFinalY = Math.max(mFinalY, mMinY);
+        mFinalYf = Math.min(mFinalYf, mMaxY);
+        mFinalYf = Math.max(mFinalYf, mMinY);
+        mFinalY = Math.round(mFinalYf);
+
+        // 开启回弹时,fling曲线按原本的距离走完,越过边界的部分交给弹簧
+        mFlingEndXf = mSpringBackEnabled ? startX + totalDistance * coeffX : mFinalXf;
+        mFlingEndYf = mSpringBackEnabled ? startY + totalDistance * coeffY : mFinalYf;
+    }
+
+    /**
+     * 按吸附点fling.先按速率算出fling本来会停下的位置,再在有序的吸附点数组里用二分查找选出离它最近的点
+     * (但不会选到起点后面去,除非那个方向上已经没有吸附点),然后反推时长,让曲线正好停在这个点上,
+     * 起始速率和手指离开时的速率一致.时长最多几秒,速率很小而吸附点很远时起始速率会比手指快;
+     * 吸附点在fling方向的反方向时,按走完这段距离的自然fling速率掉头.不需要再调用setFinalX/extendDuration去修正终点,动画是连续的.
+     * 数组为null的轴保持不动.吸附点同时作为边界.
+     *
+     * Start a fling that comes to rest exactly on one of the given snap points. The
+     * natural end of the fling is computed from the velocity, the nearest snap point is
+     * chosen with a binary search (never one behind the start in the direction of the
+     * fling while there is one ahead), and the duration is solved so that the curve
+     * lands on it with an initial speed matching the given velocity. The duration is
+     * capped at a few seconds, so a very slow fling towards a far point starts faster
+     * than the finger. A point behind the fling, chosen only when none lies ahead, is
+     * reached by reversing with the duration of a natural fling over that distance.
+     * This replaces the usual fling, {@link #setFinalX(int)} and
+     * {@link #extendDuration(int)} sequence, which changes the end point without
+     * adjusting the curve. The flywheel is not applied.
+     *
+     * @param startX Starting point of the scroll (X)
+     * @param startY Starting point of the scroll (Y)
+     * @param velocityX Initial velocity of the fling (X) measured in pixels per second.
+     * @param velocityY Initial velocity of the fling (Y) measured in pixels per second.
+     * @param snapPointsX Snap points on the X axis, sorted in ascending order, or null
+     *        to keep X at <code>startX</code>. The first and last points act as bounds.
+     * @param snapPointsY Snap points on the Y axis, sorted in ascending order, or null
+     *        to keep Y at <code>startY</code>. The first and last points act as bounds.
+     */
+    public void flingToSnapPoints(int startX, int startY, int velocityX, int velocityY,
+            int[] snapPointsX, int[] snapPointsY) {
+        final float velocity = FloatMath.sqrt((float) velocityX * velocityX
+                + (float) velocityY * velocityY);
+        final int distance = velocity == 0 ? 0 : mPhysics.computeFlingDistance(velocity);
+
+        int targetX = startX;
+        int minX = startX;
+        int maxX = startX;
+        if (snapPointsX != null && snapPointsX.length > 0) {
+            final int naturalX = velocity == 0 ? startX
+                    : startX + Math.round(distance * velocityX / velocity);
+            targetX = findSnapPoint(snapPointsX, startX, naturalX, velocityX);
+            minX = Math.min(startX, snapPointsX[0]);
+            maxX = Math.max(startX, snapPointsX[snapPointsX.length - 1]);
+        }
+        int targetY = startY;
+        int minY = startY;
+        int maxY = startY;
+        if (snapPointsY != null && snapPointsY.length > 0) {
+            final int naturalY = velocity == 0 ? startY
+                    : startY + Math.round(distance * velocityY / velocity);
+            targetY = findSnapPoint(snapPointsY, startY, naturalY, velocityY);
+            minY = Math.min(startY, snapPointsY[0]);
+            maxY = Math.max(startY, snapPointsY[snapPointsY.length - 1]);
+        }
+        startSnappedFling(startX, startY, velocityX, velocityY, targetX, targetY,
+                minX, maxX, minY, maxY);
+    }
+
+    /**
+     * 按吸附函数fling.和{@link #flingToSnapPoints}一样,只是由调用者的函数决定终点.
+     * 函数为null的轴按普通fling停下.终点会被限制在边界之内.
+     *
+     * Start a fling whose resting position on each axis is chosen by a snap function,
+     * with the duration solved so that the curve lands exactly on it. An axis with a
+     * null function ends where a regular fling would. Targets are clamped to the bounds.
+     *
+     * @param startX Starting point of the scroll (X)
+     * @param startY Starting point of the scroll (Y)
+     * @param velocityX Initial velocity of the fling (X) measured in pixels per second.
+     * @param velocityY Initial velocity of the fling (Y) measured in pixels per second.
+     * @param minX Minimum X value. The scroller will not scroll past this point.
+     * @param maxX Maximum X value. The scroller will not scroll past this point.
+     * @param minY Minimum Y value. The scroller will not scroll past this point.
+     * @param maxY Maximum Y value. The scroller will not scroll past this point.
+     * @param snapX Chooses the final X position, or null.
+     * @param snapY Chooses the final Y position, or null.
+     * @see #flingToSnapPoints(int, int, int, int, int[], int[])
+     */
+    public void flingToSnap(int startX, int startY, int velocityX, int velocityY,
+            int minX, int maxX, int minY, int maxY, SnapFunction snapX, SnapFunction snapY) {
+        final float velocity = FloatMath.sqrt((float) velocityX * velocityX
+                + (float) velocityY * velocityY);
+        final int distance = velocity == 0 ? 0 : mPhysics.computeFlingDistance(velocity);
+        int targetX = velocity == 0 ? startX
+                : startX + Math.round(distance * velocityX / velocity);
+        int targetY = velocity == 0 ? startY
+                : startY + Math.round(distance * velocityY / velocity);
+        if (snapX != null) {
+            targetX = snapX.snap(startX, targetX, velocityX);
+        }
+        if (snapY != null) {
+            targetY = snapY.snap(startY, targetY, velocityY);
+        }
+        targetX = Math.max(minX, Math.min(maxX, targetX));
+        targetY = Math.max(minY, Math.min(maxY, targetY));
+        startSnappedFling(startX, startY, velocityX, velocityY, targetX, targetY,
+                minX, maxX, minY, maxY);
+    }
+
+    // 在有序数组里找离natural最近的吸附点.如果它在起点的反方向上,而fling方向上还有吸附点,就取方向上的第一个.
+    private static int findSnapPoint(int[] points, int start, int natural, int velocity) {
+        int index = Arrays.binarySearch(points, natural);
+        if (index < 0) {
+            final int insertion = -index - 1;
+            if (insertion == 0) {
+                index = 0;
+            } else if (insertion == points.length) {
+                index = points.length - 1;
+            } else {
+                final int below = points[insertion - 1];
+                final int above = points[insertion];
+                index = natural - below <= above - natural ? insertion - 1 : insertion;
+            }
+        }
+        if (velocity > 0 && points[index] < start && index + 1 < points.length) {
+            index = nextAtOrAfter(points, start);
+        } else if (velocity < 0 && points[index] > start && index > 0) {
+            index = nextAtOrAfter(points, start + 1) - 1;
+        }
+        return points[Math.max(0, Math.min(points.length - 1, index))];
+    }
+
+    // 返回第一个不小于value的吸附点的下标,都小于value时返回points.length.
+    private static int nextAtOrAfter(int[] points, int value) {
+        final int index = Arrays.binarySearch(points, value);
+        if (index >= 0) {
+            // binarySearch does not guarantee the first of equal elements
+            int i = index;
+            while (i > 0 && points[i - 1] == value) i--;
+            return i;
+        }
+        return -index - 1;
+    }
+
+    /**
+     * 从起点fling到给定的终点.fling曲线在起点的斜率是1 / 起始张力(默认2.5),所以时长取斜率 * 距离 / 速率,
+     * 曲线的初速度就和手指的速率一致.这个时长限制在1ms到MAX_SNAP_DURATION之间(正好走完这段距离的
+     * 自然fling更长时取自然时长).终点在速度方向的反面,或者速率为0时,没有可以对上的速率,取自然时长.
+     */
+    private void startSnappedFling(int startX, int startY, int velocityX, int velocityY,
+            int targetX, int targetY, int minX, int maxX, int minY, int maxY) {
+        mMode = FLING_MODE;
+        mFlingAnalytic = mAnalyticFling;
+        mFinished = false;
+        mHasLastPresentationTime = false;
+        resetSpring();
+
+        final float dx = targetX - startX;
+        final float dy = targetY - startY;
+        final float distance = FloatMath.sqrt(dx * dx + dy * dy);
+        final float velocity = FloatMath.sqrt((float) velocityX * velocityX
+                + (float) velocityY * velocityY);
+        final float slope = 1000.0f * mPhysics.getFlingSlope();
+        int duration = 0;
+        if (distance > 0) {
+            final int natural = mPhysics.computeFlingDurationForDistance(distance);
+            // A target behind the fling cannot be reached at the finger's speed
+            final boolean ahead = dx * velocityX + dy * velocityY > 0;
+            if (velocity > 0 && ahead) {
+                final float matched = slope * distance / velocity;
+                duration = (int) Math.min(matched, Math.max(MAX_SNAP_DURATION, natural));
+            } else {
+                duration = natural;
+            }
+            duration = Math.max(1, duration);
+        }
+
+        mDuration = duration;
+        mDurationReciprocal = 1.0f / mDuration;
+        // Initial speed of the solved curve, so getCurrVelocity() matches the motion
+        mVelocity = duration == 0 ? 0 : slope * distance / duration;
+        mStartTime = mTimeSource.currentTimeMillis();
+        mStartX = startX;
+        mStartY = startY;
+        mStartXf = startX;
+        mStartYf = startY;
+        mMinX = minX;
+        mMaxX = maxX;
+        mMinY = minY;
+        mMaxY = maxY;
+        mFinalX = targetX;
+        mFinalY = targetY;
+        mFinalXf = targetX;
+        mFinalYf = targetY;
+        mFlingEndXf = targetX;
+        mFlingEndYf = targetY;
+    }
+
+    /**
+     * 如果起点在给定的范围之外,就以临界阻尼弹簧的方式回到范围内最近的边界.
+     * 在范围内的轴保持不动.
+     *
+     * Call this when you want to bounce back into a valid range. If the start
+     * position lies outside the bounds on an axis, that axis springs back to the
+     * nearest bound with a critically damped spring; an axis already in range stays put.
+     *
+     * @param startX Starting X coordinate
+     * @param startY Starting Y coordinate
+     * @param minX Minimum valid X value
+     * @param maxX Maximum valid X value
+     * @param minY Minimum valid Y value
+     * @param maxY Maximum valid Y value
+     * @return true if a spring-back was started, false if the start position was
+     *         already valid and there is nothing to animate.
+     */
+    public boolean springBack(int startX, int startY, int minX, int maxX, int minY, int maxY) {
+        final boolean outX = startX < minX || startX > maxX;
+        final boolean outY = startY < minY || startY > maxY;
+        if (!outX && !outY) {
+            return false;
+        }
+
+        mMode = SPRING_MODE;
+        mFinished = false;
+        mHasLastPresentationTime = false;
+        resetSpring();
+        mDuration = 0;
+        mDurationReciprocal = 0;
+        mVelocity = 0;
+        mStartTime = mTimeSource.currentTimeMillis();
+        mMinX = minX;
+        mMaxX = maxX;
+        mMinY = minY;
+        mMaxY = maxY;
+        mStartX = startX;
+        mStartY = startY;
+        mStartXf = startX;
+        mStartYf = startY;
+        mFinalX = Math.max(minX, Math.min(maxX, startX));
+        mFinalY = Math.max(minY, Math.min(maxY, startY));
+        mFinalXf = mFinalX;
+        mFinalYf = mFinalY;
+        mFlingEndXf = startX;
+        mFlingEndYf = startY;
+        mCurrX = startX;
+        mCurrY = startY;
+        mCurrXf = startX;
+        mCurrYf = startY;
+        if (outX) {
+            startAxisSpring(0, mFinalX, startX - mFinalX, 0, mStartTime);
+        } else {
+            mSpringSettled[0] = true;
+        }
+        if (outY) {
+            startAxisSpring(1, mFinalY, startY - mFinalY, 0, mStartTime);
+        } else {
+            mSpringSettled[1] = true;
+        }
+        return true;
+    }
+
+    private void resetSpring() {
+        mSpringing[0] = mSpringing[1] = false;
+        mSpringSettled[0] = mSpringSettled[1] = false;
     }
     
+    // 下面两个方法按默认的物理参数,根据初始速率算出fling的时长和距离.
+    static int computeFlingDuration(float velocity) {
+        return ScrollerPhysics.DEFAULT.computeFlingDuration(velocity);
+    }
+
+    static int computeFlingDistance(float velocity) {
+        return ScrollerPhysics.DEFAULT.computeFlingDistance(velocity);
+    }
+
+    /**
+     * 批量预测fling的终点和时长,结果写入调用者提供的数组.这是纯函数,不读写任何Scroller实例,也不分配内存.
+     * 和{@link #fling}用的是同一个对数模型,只是把Math.log/Math.exp换成了快速的log2/exp2多项式近似,
+     * 一次pow同时得到距离和时长.在1到50000 px/s的速率范围内,距离和时长的相对误差不超过5e-4,
+     * 和{@link #fling}相比最多差3个像素,1毫秒.适合在一次手势里为几百个候选目标(比如吸附点)做预测.
+     *
+     * Predicts where flings with the given velocities would end and how long they would
+     * take, without touching any Scroller instance and without allocating. This uses the
+     * same log-based model as {@link #fling} along a single axis, with Math.log and
+     * Math.exp replaced by polynomial log2/exp2 approximations and a single power
+     * evaluation shared by distance and duration. For velocities from 1 to 50000 pixels
+     * per second the relative error of both distance and duration stays below 5e-4, and
+     * results are within three pixels and one millisecond of {@link #fling}.
+     * Bounds are not applied; clamp the results if needed.
+     *
+     * @param start Starting position of every fling, in pixels.
+     * @param velocities Signed initial velocities in pixels per second.
+     * @param count Number of velocities to process.
+     * @param outFinal Receives <code>start</code> plus the signed fling distance.
+     * @param outDuration Receives the fling duration in milliseconds.
+     */
+    public static void predictFlings(int start, float[] velocities, int count,
+            int[] outFinal, int[] outDuration) {
+        predictFlings(ScrollerPhysics.DEFAULT, start, velocities, count, outFinal, outDuration);
+    }
+
+    /**
+     * 和{@link #predictFlings(int, float[], int, int[], int[])}一样,只是使用指定的物理参数.
+     * Same as {@link #predictFlings(int, float[], int, int[], int[])}, with the fling
+     * model of the given preset.
+     */
+    public static void predictFlings(ScrollerPhysics physics, int start, float[] velocities,
+            int count, int[] outFinal, int[] outDuration) {
+        // duration (s) = u^e, distance = ALPHA * u^(1 + e), with u = START_TENSION * v / ALPHA
+        final float alpha = physics.getAlpha();
+        final float exponent = (float) (1.0 / (physics.getDecelerationRate() - 1.0));
+        final float scale = physics.getStartTension() / alpha;
+        for (int i = 0; i < count; i++) {
+            final float velocity = velocities[i];
+            final float u = Math.abs(velocity) * scale;
+            if (u == 0) {
+                outFinal[i] = start;
+                outDuration[i] = 0;
+                continue;
+            }
+            final float p = fastExp2(exponent * fastLog2(u));
+            final int distance = (int) (alpha * u * p);
+            outFinal[i] = velocity < 0 ? start - distance : start + distance;
+            outDuration[i] = (int) (1000.0f * p);
+        }
+    }
+
+    // log2(x)的多项式近似,x必须是正的规格化浮点数.尾数部分的绝对误差约1.2e-4.
+    static float fastLog2(float x) {
+        final int bits = Float.floatToRawIntBits(x);
+        final int exponent = ((bits >>> 23) & 0xff) - 127;
+        final float t = Float.intBitsToFloat((bits & 0x007fffff) | 0x3f800000) - 1.0f;
+        return exponent + t * (1.4425341f + t * (-0.7161158f + t * (0.43957095f
+                + t * (-0.22512294f + t * 0.059249935f))));
+    }
+
+    // 2^y的多项式近似,小数部分的相对误差约3e-5.
+    static float fastExp2(float y) {
+        if (y < -126.0f) return 0.0f;
+        if (y > 127.0f) y = 127.0f;
+        final int i = (int) Math.floor(y);
+        final float f = y - i;
+        final float p = 1.0f + f * (0.6931225f + f * (0.24071342f + f * (0.05336880f
+                + f * 0.012768957f)));
+        return Float.intBitsToFloat(Float.floatToRawIntBits(p) + (i << 23));
+    }
+
     static float viscousFluid(float x)
     {
-        x *= sViscousFluidScale;
-        if (x < 1.0f) {
-            x -= (1.0f - (float)Math.exp(-x));
-        } else {
-            float start = 0.36787944117f;   // 1/e == exp(-1)
-            x = 1.0f - (float)Math.exp(1.0f - x);
-            x = start + x * (1.0f - start);
-        }
-        x *= sViscousFluidNormalize;
-        return x;
+        return ScrollerPhysics.DEFAULT.viscousFluid(x);
     }
     
     /**
@@ -462,6 +1500,8 @@ public class Scroller  {
     public void abortAnimation() {
         mCurrX = mFinalX;
         mCurrY = mFinalY;
+        mCurrXf = mFinalXf;
+        mCurrYf = mFinalYf;
         mFinished = true;
     }
     
@@ -488,7 +1528,7 @@ public class Scroller  {
      * @return The elapsed time in milliseconds.
      */
     public int timePassed() {
-        return (int)(AnimationUtils.currentAnimationTimeMillis() - mStartTime);
+        return (int)(mTimeSource.currentTimeMillis() - mStartTime);
     }
 
     /**
@@ -501,7 +1541,9 @@ public class Scroller  {
      */
     public void setFinalX(int newX) {
         mFinalX = newX;
-        mDeltaX = mFinalX - mStartX;
+        mFinalXf = newX;
+        mFlingEndXf = newX;
+        mDeltaX = mFinalXf - mStartXf;
         mFinished = false;
     }
 
@@ -515,7 +1557,9 @@ public class Scroller  {
      */
     public void setFinalY(int newY) {
         mFinalY = newY;
-        mDeltaY = mFinalY - mStartY;
+        mFinalYf = newY;
+        mFlingEndYf = newY;
+        mDeltaY = mFinalYf - mStartYf;
         mFinished = false;
     }
 
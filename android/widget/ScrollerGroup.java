@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.util.FloatMath;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
+
+/**
+ * 一次驱动大量滑动动画的工具类.每个"scroller"只是一个下标,它的状态分别存放在几组平行的基本类型数组里
+ * (structure-of-arrays),而不是一个个Scroller对象.每帧调用一次{@link #computeScrollOffsets(long)},
+ * 用同一个时间戳在一个循环里推进所有正在运行的scroller,已经结束的会被移出活动列表,整个过程不分配内存.
+ *
+ * Drives a fixed number of scroll animations at once. Each scroller is identified by an
+ * index in <code>[0, capacity)</code> and its state lives in parallel primitive arrays.
+ * {@link #computeScrollOffsets(long)} advances every running scroller against a single
+ * timestamp in one loop; finished scrollers leave the active list and no memory is
+ * allocated per frame. The scroll and fling curves match {@link Scroller}.
+ */
+public class ScrollerGroup {
+    private static final int DEFAULT_DURATION = 250;
+    private static final int SCROLL_MODE = 0;
+    private static final int FLING_MODE = 1;
+
+    private final int mCapacity;
+    private final Interpolator mInterpolator;
+    private Scroller.TimeSource mTimeSource;
+    private ScrollerPhysics mPhysics = ScrollerPhysics.DEFAULT;
+
+    private final int[] mMode;
+    private final int[] mStartX;
+    private final int[] mStartY;
+    private final int[] mFinalX;
+    private final int[] mFinalY;
+    private final int[] mMinX;
+    private final int[] mMaxX;
+    private final int[] mMinY;
+    private final int[] mMaxY;
+    private final int[] mCurrX;
+    private final int[] mCurrY;
+    private final long[] mStartTime;
+    private final int[] mDuration;
+    private final float[] mDurationReciprocal;
+    private final float[] mDeltaX;
+    private final float[] mDeltaY;
+
+    // 活动列表:mActive[0..mActiveCount)是正在运行的scroller,mActivePosition记录每个scroller在列表中的位置
+    private final int[] mActive;
+    private final int[] mActivePosition;
+    private int mActiveCount;
+
+    // 本帧被更新过的scroller(包括这一帧刚结束的)
+    private final int[] mUpdated;
+    private int mUpdatedCount;
+
+    /**
+     * 创建一个容量为capacity的ScrollerGroup,滑动模式使用默认的(viscous)插值器.
+     * Create a group holding <code>capacity</code> scrollers using the default
+     * (viscous) interpolator.
+     */
+    public ScrollerGroup(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * 创建一个容量为capacity的ScrollerGroup.如果插值器为空,则会使用默认的插值器.
+     * Create a group holding <code>capacity</code> scrollers. If the interpolator is
+     * null, the default (viscous) interpolator will be used for scrolls.
+     */
+    public ScrollerGroup(int capacity, Interpolator interpolator) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        mCapacity = capacity;
+        mInterpolator = interpolator;
+        mMode = new int[capacity];
+        mStartX = new int[capacity];
+        mStartY = new int[capacity];
+        mFinalX = new int[capacity];
+        mFinalY = new int[capacity];
+        mMinX = new int[capacity];
+        mMaxX = new int[capacity];
+        mMinY = new int[capacity];
+        mMaxY = new int[capacity];
+        mCurrX = new int[capacity];
+        mCurrY = new int[capacity];
+        mStartTime = new long[capacity];
+        mDuration = new int[capacity];
+        mDurationReciprocal = new float[capacity];
+        mDeltaX = new float[capacity];
+        mDeltaY = new float[capacity];
+        mActive = new int[capacity];
+        mActivePosition = new int[capacity];
+        mUpdated = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            mActivePosition[i] = -1;
+        }
+    }
+
+    /**
+     * 设置开始滑动时读取时间的时间源,传入null则使用{@link AnimationUtils#currentAnimationTimeMillis()}.
+     * Sets the clock read when a scroll or fling starts. Passing null restores
+     * {@link AnimationUtils#currentAnimationTimeMillis()}.
+     *
+     * @see Scroller#setTimeSource(Scroller.TimeSource)
+     */
+    public void setTimeSource(Scroller.TimeSource timeSource) {
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * 设置物理参数预设,传入null恢复默认值.要在没有滑动在运行时设置.
+     * Sets the physics preset of the group. Passing null restores
+     * {@link ScrollerPhysics#DEFAULT}. Set it while no scroller is running, since
+     * running animations would switch to the new curves part way through.
+     *
+     * @see Scroller#setPhysics(ScrollerPhysics)
+     */
+    public void setPhysics(ScrollerPhysics physics) {
+        mPhysics = physics != null ? physics : ScrollerPhysics.DEFAULT;
+    }
+
+    /**
+     * @return The physics preset used by this group.
+     */
+    public ScrollerPhysics getPhysics() {
+        return mPhysics;
+    }
+
+    private long currentTimeMillis() {
+        return mTimeSource != null ? mTimeSource.currentTimeMillis()
+                : AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    /**
+     * 返回可容纳的scroller数量.
+     * @return The number of scrollers in this group.
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * 返回正在运行的scroller数量.
+     * @return The number of scrollers that have not finished.
+     */
+    public int getActiveCount() {
+        return mActiveCount;
+    }
+
+    /**
+     * 返回第i个正在运行的scroller的下标.
+     * @param i Position in the active list, in <code>[0, getActiveCount())</code>
+     * @return The index of the scroller at that position.
+     */
+    public int getActiveScroller(int i) {
+        return mActive[i];
+    }
+
+    /**
+     * 返回上一次{@link #computeScrollOffsets(long)}更新过的scroller数量,包括在那一帧结束的scroller.
+     * @return The number of scrollers whose position was updated by the last call to
+     *         {@link #computeScrollOffsets(long)}, including those that finished in it.
+     */
+    public int getUpdatedCount() {
+        return mUpdatedCount;
+    }
+
+    /**
+     * 返回上一帧第i个被更新的scroller的下标.
+     * @param i Position in the updated list, in <code>[0, getUpdatedCount())</code>
+     * @return The index of the scroller at that position.
+     */
+    public int getUpdatedScroller(int i) {
+        return mUpdated[i];
+    }
+
+    public final boolean isFinished(int index) {
+        return mActivePosition[index] < 0;
+    }
+
+    public final int getCurrX(int index) {
+        return mCurrX[index];
+    }
+
+    public final int getCurrY(int index) {
+        return mCurrY[index];
+    }
+
+    public final int getFinalX(int index) {
+        return mFinalX[index];
+    }
+
+    public final int getFinalY(int index) {
+        return mFinalY[index];
+    }
+
+    public final int getDuration(int index) {
+        return mDuration[index];
+    }
+
+    /**
+     * 用默认的250ms开始第index个scroller的滑动.
+     * Start scrolling scroller <code>index</code> using the default duration of
+     * 250 milliseconds.
+     *
+     * @see Scroller#startScroll(int, int, int, int)
+     */
+    public void startScroll(int index, int startX, int startY, int dx, int dy) {
+        startScroll(index, startX, startY, dx, dy, DEFAULT_DURATION);
+    }
+
+    /**
+     * 开始第index个scroller的滑动,参数含义和{@link Scroller#startScroll(int, int, int, int, int)}一样.
+     * Start scrolling scroller <code>index</code> by providing a starting point, the
+     * distance to travel and the duration.
+     *
+     * @see Scroller#startScroll(int, int, int, int, int)
+     */
+    public void startScroll(int index, int startX, int startY, int dx, int dy, int duration) {
+        mMode[index] = SCROLL_MODE;
+        mDuration[index] = duration;
+        mDurationReciprocal[index] = 1.0f / (float) duration;
+        mStartTime[index] = currentTimeMillis();
+        mStartX[index] = startX;
+        mStartY[index] = startY;
+        mFinalX[index] = startX + dx;
+        mFinalY[index] = startY + dy;
+        mDeltaX[index] = dx;
+        mDeltaY[index] = dy;
+        mCurrX[index] = startX;
+        mCurrY[index] = startY;
+        activate(index);
+    }
+
+    /**
+     * 基于fling手势开始第index个scroller的滑动,参数含义和Scroller的fling一样.
+     * Start scroller <code>index</code> based on a fling gesture.
+     *
+     * @see Scroller#fling(int, int, int, int, int, int, int, int)
+     */
+    public void fling(int index, int startX, int startY, int velocityX, int velocityY,
+            int minX, int maxX, int minY, int maxY) {
+        // 在float里平方:平方和超出int范围时会溢出,例如两个轴都是32768像素/秒
+        final float velocity = FloatMath.sqrt((float) velocityX * velocityX
+                + (float) velocityY * velocityY);
+        final int duration = mPhysics.computeFlingDuration(velocity);
+        final int totalDistance = mPhysics.computeFlingDistance(velocity);
+        final float coeffX = velocity == 0 ? 1.0f : velocityX / velocity;
+        final float coeffY = velocity == 0 ? 1.0f : velocityY / velocity;
+
+        mMode[index] = FLING_MODE;
+        mDuration[index] = duration;
+        mDurationReciprocal[index] = 1.0f / duration;
+        mStartTime[index] = currentTimeMillis();
+        mStartX[index] = startX;
+        mStartY[index] = startY;
+        mMinX[index] = minX;
+        mMaxX[index] = maxX;
+        mMinY[index] = minY;
+        mMaxY[index] = maxY;
+        // Pin to min <= final <= max
+        final int finalX = startX + Math.round(totalDistance * coeffX);
+        final int finalY = startY + Math.round(totalDistance * coeffY);
+        mFinalX[index] = Math.max(minX, Math.min(maxX, finalX));
+        mFinalY[index] = Math.max(minY, Math.min(maxY, finalY));
+        mCurrX[index] = startX;
+        mCurrY[index] = startY;
+        activate(index);
+    }
+
+    /**
+     * 中止第index个scroller的动画,并移动到结束位置.
+     * Stops the animation of scroller <code>index</code> and moves it to its final position.
+     */
+    public void abortAnimation(int index) {
+        mCurrX[index] = mFinalX[index];
+        mCurrY[index] = mFinalY[index];
+        deactivate(index);
+    }
+
+    /**
+     * 强制结束第index个scroller,位置保持不变.
+     * Stops the animation of scroller <code>index</code> where it is.
+     */
+    public void forceFinished(int index) {
+        deactivate(index);
+    }
+
+    /**
+     * 用同一个时间戳推进所有正在运行的scroller.结束的scroller会在这一帧被移到结束位置并移出活动列表.
+     * 被更新的scroller可以通过{@link #getUpdatedScroller(int)}遍历.
+     *
+     * Advance every running scroller to <code>currentTimeMillis</code>, expressed in the
+     * time base of the group's time source. Scrollers that reach
+     * their end are moved to their final position and leave the active list. The
+     * scrollers touched by this call can be iterated with {@link #getUpdatedScroller(int)}.
+     *
+     * @param currentTimeMillis The frame time shared by all scrollers.
+     * @return The number of scrollers still running after this frame.
+     */
+    public int computeScrollOffsets(long currentTimeMillis) {
+        final Interpolator interpolator = mInterpolator;
+        final ScrollerPhysics physics = mPhysics;
+        final ScrollerSpline spline = physics.getSpline();
+        mUpdatedCount = 0;
+        int i = 0;
+        while (i < mActiveCount) {
+            final int s = mActive[i];
+            mUpdated[mUpdatedCount++] = s;
+
+            final int timePassed = (int) (currentTimeMillis - mStartTime[s]);
+            boolean finished = false;
+            if (timePassed < mDuration[s]) {
+                if (mMode[s] == SCROLL_MODE) {
+                    float x = timePassed * mDurationReciprocal[s];
+                    if (interpolator == null) {
+                        x = physics.viscousFluid(x);
+                    } else {
+                        x = interpolator.getInterpolation(x);
+                    }
+                    mCurrX[s] = mStartX[s] + Math.round(x * mDeltaX[s]);
+                    mCurrY[s] = mStartY[s] + Math.round(x * mDeltaY[s]);
+                } else {
+                    final float distanceCoef =
+                            spline.getPosition(timePassed * mDurationReciprocal[s]);
+                    int x = mStartX[s] + Math.round(distanceCoef * (mFinalX[s] - mStartX[s]));
+                    int y = mStartY[s] + Math.round(distanceCoef * (mFinalY[s] - mStartY[s]));
+                    x = Math.max(mMinX[s], Math.min(mMaxX[s], x));
+                    y = Math.max(mMinY[s], Math.min(mMaxY[s], y));
+                    mCurrX[s] = x;
+                    mCurrY[s] = y;
+                    finished = x == mFinalX[s] && y == mFinalY[s];
+                }
+            } else {
+                mCurrX[s] = mFinalX[s];
+                mCurrY[s] = mFinalY[s];
+                finished = true;
+            }
+
+            if (finished) {
+                // 和最后一个交换位置后移除,i不变,下一轮处理换过来的那个
+                removeActiveAt(i);
+            } else {
+                i++;
+            }
+        }
+        return mActiveCount;
+    }
+
+    private void activate(int index) {
+        if (mActivePosition[index] < 0) {
+            mActivePosition[index] = mActiveCount;
+            mActive[mActiveCount++] = index;
+        }
+    }
+
+    private void deactivate(int index) {
+        final int position = mActivePosition[index];
+        if (position >= 0) {
+            removeActiveAt(position);
+        }
+    }
+
+    private void removeActiveAt(int position) {
+        final int index = mActive[position];
+        final int last = mActive[--mActiveCount];
+        mActive[position] = last;
+        mActivePosition[last] = position;
+        mActivePosition[index] = -1;
+    }
+}
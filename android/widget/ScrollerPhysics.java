@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.view.ViewConfiguration;
+import android.view.animation.Interpolator;
+
+import java.util.HashMap;
+
+/**
+ * Scroller的物理参数预设.原来这些参数(减速率,ALPHA,起始张力,粘性流体系数)都是Scroller里的静态常量,
+ * 想换一种手感只能复制整个类.现在用{@link Builder}构造一个不可变的预设,再通过
+ * {@link Scroller#setPhysics(ScrollerPhysics)}设置给Scroller.由参数推导出的表(fling曲线的采样表,
+ * 粘性流体曲线的查找表)每个预设只算一次,参数相同的采样表在所有预设之间共享,Scroller实例本身不持有任何表.
+ *
+ * Immutable set of tuning constants for {@link Scroller} and {@link ScrollerGroup}:
+ * friction, the log-based fling model (deceleration rate and ALPHA), the spline's start
+ * tension, the viscous fluid scale and the spline sample count. Presets are built with
+ * a {@link Builder}. Tables derived from a preset are computed once and cached;
+ * presets with the same spline parameters share one table, and scrollers using a
+ * preset only hold a reference to it.
+ */
+public final class ScrollerPhysics {
+    private static final float DEFAULT_DECELERATION_RATE =
+            (float) (Math.log(0.75) / Math.log(0.9));
+    private static final float DEFAULT_ALPHA = 800; // pixels / seconds
+    private static final float DEFAULT_VISCOUS_FLUID_SCALE = 8.0f;
+
+    // 参数相同的采样表在所有预设之间共享,键是采样数和起始张力
+    private static final HashMap<Long, ScrollerSpline> sSplineCache =
+            new HashMap<Long, ScrollerSpline>();
+
+    /**
+     * 和原来Scroller的静态常量一致的默认预设.
+     * The preset matching the historical Scroller constants.
+     */
+    public static final ScrollerPhysics DEFAULT = new Builder().build();
+
+    private final float mFriction;
+    private final float mDecelerationRate;
+    private final float mAlpha;
+    private final float mStartTension;
+    private final float mViscousFluidScale;
+    private final int mSampleCount;
+
+    private final ScrollerSpline mSpline;
+    private final float mViscousFluidNormalize;
+    private final double mDurationExponent;
+    private final double mDistanceExponent;
+    private InterpolatorTable mViscousFluidTable;
+
+    private ScrollerPhysics(Builder builder) {
+        mFriction = builder.mFriction;
+        mDecelerationRate = builder.mDecelerationRate;
+        mAlpha = builder.mAlpha;
+        mStartTension = builder.mStartTension;
+        mViscousFluidScale = builder.mViscousFluidScale;
+        mSampleCount = builder.mSampleCount;
+
+        mSpline = getSpline(mSampleCount, mStartTension);
+        mDurationExponent = 1.0 / (mDecelerationRate - 1.0);
+        mDistanceExponent = mDecelerationRate / (mDecelerationRate - 1.0);
+        mViscousFluidNormalize = 1.0f / viscousFluid(1.0f, mViscousFluidScale, 1.0f);
+    }
+
+    private static ScrollerSpline getSpline(int sampleCount, float startTension) {
+        if (sampleCount == ScrollerSpline.DEFAULT_SAMPLE_COUNT
+                && startTension == ScrollerSpline.DEFAULT_START_TENSION) {
+            return ScrollerSpline.getDefault();
+        }
+        final Long key = ((long) sampleCount << 32)
+                | (Float.floatToIntBits(startTension) & 0xffffffffL);
+        synchronized (sSplineCache) {
+            ScrollerSpline spline = sSplineCache.get(key);
+            if (spline == null) {
+                spline = ScrollerSpline.compute(sampleCount, startTension);
+                sSplineCache.put(key, spline);
+            }
+            return spline;
+        }
+    }
+
+    /**
+     * @return The friction used for the velocity reported during a fling.
+     * @see Scroller#setFriction(float)
+     */
+    public float getFriction() {
+        return mFriction;
+    }
+
+    /**
+     * @return The deceleration rate of the log-based fling model.
+     */
+    public float getDecelerationRate() {
+        return mDecelerationRate;
+    }
+
+    /**
+     * @return The ALPHA constant of the log-based fling model, in pixels per second.
+     */
+    public float getAlpha() {
+        return mAlpha;
+    }
+
+    /**
+     * @return The tension at the start of the fling spline.
+     */
+    public float getStartTension() {
+        return mStartTension;
+    }
+
+    /**
+     * @return How strong the viscous fluid effect of the default scroll curve is.
+     */
+    public float getViscousFluidScale() {
+        return mViscousFluidScale;
+    }
+
+    /**
+     * @return The number of intervals in the fling spline table.
+     */
+    public int getSampleCount() {
+        return mSampleCount;
+    }
+
+    ScrollerSpline getSpline() {
+        return mSpline;
+    }
+
+    /**
+     * fling曲线在起点的斜率(归一化距离对归一化时间的导数),等于1 / 起始张力.也是解析曲线的指数.
+     * Slope of the fling curve at its start, <code>1 / startTension</code>. It is also the
+     * exponent of the closed-form fling curve.
+     */
+    float getFlingSlope() {
+        return 1.0f / mStartTension;
+    }
+
+    /**
+     * 返回粘性流体曲线的查找表,第一次调用时生成.
+     * Returns the lookup table of this preset's viscous fluid curve, built on first use.
+     */
+    synchronized InterpolatorTable getViscousFluidTable() {
+        if (mViscousFluidTable == null) {
+            mViscousFluidTable = InterpolatorTable.compile(new Interpolator() {
+                public float getInterpolation(float input) {
+                    return viscousFluid(input);
+                }
+            }, InterpolatorTable.DEFAULT_SIZE);
+        }
+        return mViscousFluidTable;
+    }
+
+    int computeFlingDuration(float velocity) {
+        final double l = Math.log(mStartTension * velocity / mAlpha);
+        return (int) (1000.0 * Math.exp(mDurationExponent * l));
+    }
+
+    int computeFlingDistance(float velocity) {
+        final double l = Math.log(mStartTension * velocity / mAlpha);
+        return (int) (mAlpha * Math.exp(mDistanceExponent * l));
+    }
+
+    // computeFlingDistance的反函数:正好走完distance的fling需要的时长.
+    int computeFlingDurationForDistance(float distance) {
+        return (int) (1000.0 * Math.pow(distance / mAlpha, 1.0 / mDecelerationRate));
+    }
+
+    float viscousFluid(float x) {
+        return viscousFluid(x, mViscousFluidScale, mViscousFluidNormalize);
+    }
+
+    private static float viscousFluid(float x, float scale, float normalize) {
+        x *= scale;
+        if (x < 1.0f) {
+            x -= (1.0f - (float)Math.exp(-x));
+        } else {
+            float start = 0.36787944117f;   // 1/e == exp(-1)
+            x = 1.0f - (float)Math.exp(1.0f - x);
+            x = start + x * (1.0f - start);
+        }
+        x *= normalize;
+        return x;
+    }
+
+    /**
+     * 构造{@link ScrollerPhysics}.没有设置的参数使用默认值.
+     * Builds {@link ScrollerPhysics} presets. Parameters that are not set keep the
+     * defaults of {@link ScrollerPhysics#DEFAULT}.
+     */
+    public static final class Builder {
+        private float mFriction = ViewConfiguration.getScrollFriction();
+        private float mDecelerationRate = DEFAULT_DECELERATION_RATE;
+        private float mAlpha = DEFAULT_ALPHA;
+        private float mStartTension = ScrollerSpline.DEFAULT_START_TENSION;
+        private float mViscousFluidScale = DEFAULT_VISCOUS_FLUID_SCALE;
+        private int mSampleCount = ScrollerSpline.DEFAULT_SAMPLE_COUNT;
+
+        public Builder() {
+        }
+
+        /**
+         * 以一个已有的预设为基础.
+         * Starts from the values of an existing preset.
+         */
+        public Builder(ScrollerPhysics physics) {
+            mFriction = physics.mFriction;
+            mDecelerationRate = physics.mDecelerationRate;
+            mAlpha = physics.mAlpha;
+            mStartTension = physics.mStartTension;
+            mViscousFluidScale = physics.mViscousFluidScale;
+            mSampleCount = physics.mSampleCount;
+        }
+
+        /**
+         * @param friction Dimensionless coefficient of friction, must be positive.
+         * @see Scroller#setFriction(float)
+         */
+        public Builder setFriction(float friction) {
+            if (!(friction > 0)) {
+                throw new IllegalArgumentException("friction must be positive: " + friction);
+            }
+            mFriction = friction;
+            return this;
+        }
+
+        /**
+         * 减速率,越大fling走得越短,停得越快.必须大于1.
+         * @param rate Deceleration rate of the fling model, must be greater than 1.
+         *        Larger values give shorter flings.
+         */
+        public Builder setDecelerationRate(float rate) {
+            if (!(rate > 1.0f)) {
+                throw new IllegalArgumentException("deceleration rate must be > 1: " + rate);
+            }
+            mDecelerationRate = rate;
+            return this;
+        }
+
+        /**
+         * @param alpha Reference speed of the fling model in pixels per second, must be
+         *        positive.
+         */
+        public Builder setAlpha(float alpha) {
+            if (!(alpha > 0)) {
+                throw new IllegalArgumentException("alpha must be positive: " + alpha);
+            }
+            mAlpha = alpha;
+            return this;
+        }
+
+        /**
+         * 起始张力,越小fling开始得越猛,尾巴越长.
+         * @param tension Tension at the start of the fling spline, in (0, 1).
+         */
+        public Builder setStartTension(float tension) {
+            if (!(tension > 0.0f && tension < 1.0f)) {
+                throw new IllegalArgumentException("start tension must be in (0, 1): "
+                        + tension);
+            }
+            mStartTension = tension;
+            return this;
+        }
+
+        /**
+         * @param scale How strong the viscous fluid effect of the default scroll curve
+         *        is, must be positive.
+         */
+        public Builder setViscousFluidScale(float scale) {
+            if (!(scale > 0)) {
+                throw new IllegalArgumentException("viscous fluid scale must be positive: "
+                        + scale);
+            }
+            mViscousFluidScale = scale;
+            return this;
+        }
+
+        /**
+         * @param sampleCount Number of intervals in the fling spline table, at least 1.
+         */
+        public Builder setSampleCount(int sampleCount) {
+            if (sampleCount < 1) {
+                throw new IllegalArgumentException("sampleCount must be positive: "
+                        + sampleCount);
+            }
+            mSampleCount = sampleCount;
+            return this;
+        }
+
+        public ScrollerPhysics build() {
+            return new ScrollerPhysics(this);
+        }
+    }
+}
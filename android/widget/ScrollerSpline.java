@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+/**
+ * fling曲线的采样表.原来Scroller在类加载时用二分法算出101个采样点,每帧再在两点之间线性插值.
+ * 这里把采样点的位置和斜率(即速度)都保存下来,每帧用三次Hermite插值,同样的采样数下精度更高,
+ * 而且不需要除法.默认的表在编译前由{@link #main(String[])}生成,直接作为常量加载,类初始化时不再做二分.
+ *
+ * Sampled spline used by {@link Scroller} to evaluate fling curves. Each sample stores
+ * both the normalized distance and its derivative with respect to normalized time, so
+ * that a frame can be evaluated with cubic Hermite interpolation instead of a linear
+ * blend. The default table is generated ahead of time by {@link #main(String[])} and
+ * loaded as a constant; other sample counts and tensions are computed on demand.
+ */
+final class ScrollerSpline {
+    static final int DEFAULT_SAMPLE_COUNT = 100;
+    static final float DEFAULT_START_TENSION = 0.4f;
+
+    // Generated by ScrollerSpline.main() for 100 samples and a start tension of 0.4.
+    private static final float[] DEFAULT_POSITION = {
+            0.0f, 0.024894962f, 0.04957632f, 0.07403872f, 0.09827671f,
+            0.12228474f, 0.14605717f, 0.1695883f, 0.19287229f, 0.21590327f,
+            0.2386753f, 0.26118237f, 0.28341845f, 0.30537736f, 0.32705304f,
+            0.3484393f, 0.36952996f, 0.39031884f, 0.4107998f, 0.4309667f,
+            0.45081347f, 0.47033414f, 0.48952273f, 0.50837344f, 0.52688056f,
+            0.5450385f, 0.56284195f, 0.5802856f, 0.5973646f, 0.61407405f,
+            0.6304096f, 0.64636695f, 0.6619423f, 0.67713207f, 0.69193304f,
+            0.70634246f, 0.7203579f, 0.73397744f, 0.74719954f, 0.7600232f,
+            0.77244776f, 0.78447336f, 0.7961004f, 0.8073298f, 0.8181631f,
+            0.8286025f, 0.8386505f, 0.84831035f, 0.8575856f, 0.8664806f,
+            0.875f, 0.8831491f, 0.8909336f, 0.89835966f, 0.90543395f,
+            0.9121635f, 0.91855586f, 0.9246188f, 0.9303604f, 0.9357892f,
+            0.940914f, 0.9457436f, 0.9502874f, 0.95455456f, 0.9585547f,
+            0.9622974f, 0.96579224f, 0.96904904f, 0.97207755f, 0.9748874f,
+            0.97748834f, 0.97989f, 0.9821018f, 0.9841333f, 0.9859937f,
+            0.98769206f, 0.9892375f, 0.99063873f, 0.9919044f, 0.99304277f,
+            0.9940621f, 0.9949704f, 0.9957753f, 0.99648434f, 0.9971048f,
+            0.99764377f, 0.99810785f, 0.99850374f, 0.99883777f, 0.9991159f,
+            0.999344f, 0.99952775f, 0.9996724f, 0.9997833f, 0.99986523f,
+            0.999923f, 0.9999611f, 0.9999838f, 0.99999523f, 0.9999994f,
+            1.0f,
+    };
+
+    // Generated by ScrollerSpline.main() for 100 samples and a start tension of 0.4.
+    private static final float[] DEFAULT_VELOCITY = {
+            2.5f, 2.4789045f, 2.4572783f, 2.4351113f, 2.4123943f,
+            2.389118f, 2.3652735f, 2.3408525f, 2.3158474f, 2.2902508f,
+            2.2640564f, 2.2372584f, 2.209852f, 2.181833f, 2.153199f,
+            2.1239479f, 2.0940795f, 2.0635943f, 2.032495f, 2.0007856f,
+            1.9684714f, 1.93556f, 1.9020605f, 1.8679844f, 1.8333449f,
+            1.7981577f, 1.7624406f, 1.7262138f, 1.6894997f, 1.6523237f,
+            1.6147131f, 1.5766978f, 1.5383106f, 1.4995865f, 1.4605626f,
+            1.421279f, 1.3817775f, 1.3421025f, 1.3023001f, 1.2624183f,
+            1.2225065f, 1.182616f, 1.1427989f, 1.1031082f, 1.0635978f,
+            1.0243217f, 0.98533404f, 0.9466886f, 0.9084386f, 0.8706365f,
+            0.8333333f, 0.7965787f, 0.7604204f, 0.7249042f, 0.69007343f,
+            0.655969f, 0.622629f, 0.59008855f, 0.5583797f, 0.52753145f,
+            0.49756932f, 0.46851566f, 0.4403894f, 0.4132062f, 0.38697833f,
+            0.3617149f, 0.3374219f, 0.31410217f, 0.2917558f, 0.27037993f,
+            0.24996926f, 0.23051594f, 0.2120099f, 0.19443898f, 0.17778912f,
+            0.16204451f, 0.14718787f, 0.13320051f, 0.120062575f, 0.10775322f,
+            0.09625071f, 0.08553267f, 0.075576134f, 0.06635774f, 0.057853818f,
+            0.050040558f, 0.04289407f, 0.036390495f, 0.030506106f, 0.025217373f,
+            0.020501038f, 0.016334182f, 0.012694267f, 0.0095591955f, 0.006907345f,
+            0.0047175977f, 0.0029693753f, 0.0016426563f, 7.1799423E-4f, 1.7652976E-4f,
+            0.0f,
+    };
+
+    private static final ScrollerSpline DEFAULT =
+            new ScrollerSpline(DEFAULT_SAMPLE_COUNT, DEFAULT_POSITION, DEFAULT_VELOCITY);
+
+    private final int mSampleCount;
+    private final float[] mPosition;
+    private final float[] mVelocity;
+
+    private ScrollerSpline(int sampleCount, float[] position, float[] velocity) {
+        mSampleCount = sampleCount;
+        mPosition = position;
+        mVelocity = velocity;
+    }
+
+    /**
+     * 返回默认的表(100个采样点,起始张力0.4),和原来Scroller里的SPLINE对应.
+     * Returns the precomputed table matching the historical Scroller constants.
+     */
+    static ScrollerSpline getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 按指定的采样数和起始张力计算一张新的表.
+     * Computes a table with the given number of samples and start tension.
+     *
+     * @param sampleCount Number of intervals in the table; the table holds
+     *        <code>sampleCount + 1</code> samples.
+     * @param startTension Tension at the start of the curve, in (0, 1).
+     */
+    static ScrollerSpline compute(int sampleCount, float startTension) {
+        if (sampleCount < 1) {
+            throw new IllegalArgumentException("sampleCount must be positive: " + sampleCount);
+        }
+        if (startTension <= 0.0f || startTension >= 1.0f) {
+            throw new IllegalArgumentException("startTension must be in (0, 1): "
+                    + startTension);
+        }
+        final double startT = startTension;
+        final double endT = 1.0 - startT;
+        final float[] position = new float[sampleCount + 1];
+        final float[] velocity = new float[sampleCount + 1];
+        double xMin = 0.0;
+        for (int i = 0; i <= sampleCount; i++) {
+            final double t = (double) i / sampleCount;
+            double xMax = 1.0;
+            double x = 0.0;
+            // Solve t(x) == t by bisection; t(x) is monotonic on [0, 1].
+            for (int iter = 0; iter < 64; iter++) {
+                x = xMin + (xMax - xMin) / 2.0;
+                final double tx = 3.0 * x * (1.0 - x) * ((1.0 - x) * startT + x * endT)
+                        + x * x * x;
+                if (Math.abs(tx - t) < 1E-9) break;
+                if (tx > t) xMax = x;
+                else xMin = x;
+            }
+            final double ox = 1.0 - x;
+            // d(x) = 3x(1-x) + x^3, so dd/dx = 3(1-x)^2.
+            final double dd = 3.0 * ox * ox;
+            final double dt = 3.0 * startT * ox * (1.0 - 3.0 * x)
+                    + 3.0 * endT * x * (2.0 - 3.0 * x) + 3.0 * x * x;
+            position[i] = (float) (3.0 * x * ox + x * x * x);
+            velocity[i] = (float) (dd / dt);
+        }
+        position[0] = 0.0f;
+        position[sampleCount] = 1.0f;
+        velocity[sampleCount] = 0.0f;
+        return new ScrollerSpline(sampleCount, position, velocity);
+    }
+
+    int getSampleCount() {
+        return mSampleCount;
+    }
+
+    /**
+     * 返回归一化时间t(0到1)对应的归一化位移.
+     * Returns the normalized distance travelled at normalized time <code>t</code>.
+     */
+    float getPosition(float t) {
+        final int n = mSampleCount;
+        final float s = t * n;
+        final int index = (int) s;
+        if (index >= n) {
+            return mPosition[n];
+        }
+        if (index < 0) {
+            return mPosition[0];
+        }
+        final float u = s - index;
+        final float u2 = u * u;
+        final float u3 = u2 * u;
+        final float h = 1.0f / n;
+        return (2 * u3 - 3 * u2 + 1) * mPosition[index]
+                + (u3 - 2 * u2 + u) * h * mVelocity[index]
+                + (3 * u2 - 2 * u3) * mPosition[index + 1]
+                + (u3 - u2) * h * mVelocity[index + 1];
+    }
+
+    /**
+     * 返回归一化时间t对应的归一化速度(位移对时间的导数).
+     * Returns the derivative of the normalized distance with respect to normalized time.
+     */
+    float getVelocity(float t) {
+        final int n = mSampleCount;
+        final float s = t * n;
+        final int index = (int) s;
+        if (index >= n) {
+            return mVelocity[n];
+        }
+        if (index < 0) {
+            return mVelocity[0];
+        }
+        final float u = s - index;
+        final float u2 = u * u;
+        return (6 * u2 - 6 * u) * n * (mPosition[index] - mPosition[index + 1])
+                + (3 * u2 - 4 * u + 1) * mVelocity[index]
+                + (3 * u2 - 2 * u) * mVelocity[index + 1];
+    }
+
+    /**
+     * 生成默认表的Java源码,输出到标准输出.参数依次为采样数和起始张力(可省略).
+     * Prints the Java source of a table so it can be pasted in as a constant.
+     * Usage: <code>ScrollerSpline [sampleCount [startTension]]</code>
+     */
+    public static void main(String[] args) {
+        final int sampleCount = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_SAMPLE_COUNT;
+        final float startTension = args.length > 1 ? Float.parseFloat(args[1])
+                : DEFAULT_START_TENSION;
+        final ScrollerSpline spline = compute(sampleCount, startTension);
+        printTable("DEFAULT_POSITION", spline.mPosition);
+        printTable("DEFAULT_VELOCITY", spline.mVelocity);
+    }
+
+    private static void printTable(String name, float[] table) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("    private static final float[] ").append(name).append(" = {\n");
+        for (int i = 0; i < table.length; i++) {
+            if (i % 5 == 0) sb.append("           ");
+            sb.append(' ').append(table[i]).append('f').append(',');
+            if (i % 5 == 4 || i == table.length - 1) sb.append('\n');
+        }
+        sb.append("    };\n");
+        System.out.print(sb);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2006 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Scroller的轨迹记录器.通过{@link Scroller#setTrace(ScrollerTrace)}挂到Scroller上后,每次
+ * computeScrollOffset都会记下(时间,模式,X,Y,速率).内部是预先分配好的环形缓冲区,记录时不分配内存,
+ * 满了以后覆盖最早的记录.可以用{@link #writeTo(OutputStream)}导出成紧凑的二进制文件,
+ * 再在电脑上用{@link #main(String[])}分析帧间隔,位移和速率的突变.
+ *
+ * Ring buffer of Scroller samples for diagnosing janky flings. Once attached with
+ * {@link Scroller#setTrace(ScrollerTrace)}, every computeScrollOffset call records
+ * its time, mode, position and speed into preallocated arrays without allocating;
+ * when full, the oldest samples are overwritten. The buffer can be written to a
+ * compact binary file with {@link #writeTo(OutputStream)} and analyzed offline with
+ * {@link #main(String[])}.
+ */
+public class ScrollerTrace {
+    private static final int MAGIC = 0x53435452; // "SCTR"
+    private static final int VERSION = 1;
+
+    // Samples further apart than this start a new animation in the analysis
+    private static final long SEGMENT_GAP_MILLIS = 250;
+    private static final float DEFAULT_VELOCITY_JUMP = 1000.0f;
+
+    private final long[] mTime;
+    private final byte[] mMode;
+    private final float[] mX;
+    private final float[] mY;
+    private final float[] mVelocity;
+    private int mHead;
+    private int mCount;
+
+    /**
+     * @param capacity Maximum number of samples kept; older samples are overwritten.
+     */
+    public ScrollerTrace(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        mTime = new long[capacity];
+        mMode = new byte[capacity];
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mVelocity = new float[capacity];
+    }
+
+    /**
+     * 记录一个采样.由Scroller调用,不分配内存.
+     * Records one sample, overwriting the oldest one when the buffer is full.
+     */
+    public void record(long timeMillis, int mode, float x, float y, float velocity) {
+        final int i = mHead;
+        mTime[i] = timeMillis;
+        mMode[i] = (byte) mode;
+        mX[i] = x;
+        mY[i] = y;
+        mVelocity[i] = velocity;
+        mHead = i + 1 == mTime.length ? 0 : i + 1;
+        if (mCount < mTime.length) {
+            mCount++;
+        }
+    }
+
+    /**
+     * @return The number of samples currently held.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return The maximum number of samples held.
+     */
+    public int getCapacity() {
+        return mTime.length;
+    }
+
+    /**
+     * 清空所有记录.
+     * Discards every recorded sample.
+     */
+    public void clear() {
+        mHead = 0;
+        mCount = 0;
+    }
+
+    /**
+     * 把记录按从旧到新的顺序写成二进制格式:魔数,版本,个数,然后每个采样依次是
+     * long时间,byte模式,float X,float Y,float速率.
+     *
+     * Writes the samples, oldest first, as a big-endian header of magic, version and
+     * count followed by one record per sample of time (long), mode (byte), x, y and
+     * velocity (floats).
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(mCount);
+        final int capacity = mTime.length;
+        int i = mCount < capacity ? 0 : mHead;
+        for (int n = 0; n < mCount; n++) {
+            data.writeLong(mTime[i]);
+            data.writeByte(mMode[i]);
+            data.writeFloat(mX[i]);
+            data.writeFloat(mY[i]);
+            data.writeFloat(mVelocity[i]);
+            i = i + 1 == capacity ? 0 : i + 1;
+        }
+        data.flush();
+    }
+
+    /**
+     * 读取{@link #writeTo(OutputStream)}写出的数据.
+     * Reads samples written by {@link #writeTo(OutputStream)}.
+     */
+    public static ScrollerTrace readFrom(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a scroller trace");
+        }
+        final int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported scroller trace version " + version);
+        }
+        final int count = data.readInt();
+        final ScrollerTrace trace = new ScrollerTrace(Math.max(1, count));
+        for (int n = 0; n < count; n++) {
+            final long time = data.readLong();
+            final int mode = data.readByte();
+            final float x = data.readFloat();
+            final float y = data.readFloat();
+            trace.record(time, mode, x, y, data.readFloat());
+        }
+        return trace;
+    }
+
+    /**
+     * 命令行分析工具.用法: <code>ScrollerTrace &lt;trace文件&gt; [速率突变阈值px/s]</code>.
+     * 输出帧间隔的统计,每帧位移的统计,以及相邻两帧速率变化超过阈值的位置.
+     *
+     * Command line analyzer. Usage:
+     * <code>ScrollerTrace &lt;trace file&gt; [velocity jump threshold in px/s]</code>.
+     * Reports frame interval statistics, per-frame position deltas, and every pair of
+     * consecutive samples whose speed differs by more than the threshold (1000 px/s by
+     * default). Samples more than 250ms apart are treated as separate animations.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ScrollerTrace <trace file> [velocity jump px/s]");
+            System.exit(1);
+        }
+        final float jump = args.length > 1 ? Float.parseFloat(args[1]) : DEFAULT_VELOCITY_JUMP;
+        final ScrollerTrace trace;
+        final InputStream in = new BufferedInputStream(new FileInputStream(args[0]));
+        try {
+            trace = readFrom(in);
+        } finally {
+            in.close();
+        }
+        trace.analyze(jump);
+    }
+
+    private void analyze(float velocityJump) {
+        final int count = mCount;
+        System.out.println("samples: " + count);
+        if (count < 2) {
+            return;
+        }
+        // The buffer returned by readFrom is never wrapped, so index order is time order
+        final long[] intervals = new long[count - 1];
+        int intervalCount = 0;
+        int segments = 1;
+        float maxDelta = 0;
+        double sumDelta = 0;
+        int jumps = 0;
+        for (int i = 1; i < count; i++) {
+            final long dt = mTime[i] - mTime[i - 1];
+            if (dt == 0) {
+                // Evaluated twice in one frame
+                continue;
+            }
+            if (dt < 0 || dt > SEGMENT_GAP_MILLIS) {
+                segments++;
+                continue;
+            }
+            intervals[intervalCount++] = dt;
+            final float dx = mX[i] - mX[i - 1];
+            final float dy = mY[i] - mY[i - 1];
+            final float delta = (float) Math.sqrt(dx * dx + dy * dy);
+            sumDelta += delta;
+            if (delta > maxDelta) {
+                maxDelta = delta;
+            }
+            final float dv = Math.abs(mVelocity[i] - mVelocity[i - 1]);
+            if (dv > velocityJump) {
+                jumps++;
+                System.out.println("velocity jump at t=" + mTime[i] + "ms: "
+                        + mVelocity[i - 1] + " -> " + mVelocity[i] + " px/s (mode "
+                        + mMode[i - 1] + " -> " + mMode[i] + ")");
+            }
+        }
+        System.out.println("animations: " + segments);
+        if (intervalCount == 0) {
+            return;
+        }
+        Arrays.sort(intervals, 0, intervalCount);
+        final long median = intervals[intervalCount / 2];
+        long sum = 0;
+        int longFrames = 0;
+        for (int i = 0; i < intervalCount; i++) {
+            sum += intervals[i];
+            if (intervals[i] * 2 > median * 3) {
+                longFrames++;
+            }
+        }
+        System.out.println("frame interval ms: min " + intervals[0] + ", median " + median
+                + ", mean " + ((float) sum / intervalCount) + ", max "
+                + intervals[intervalCount - 1]);
+        System.out.println("frames longer than 1.5x median: " + longFrames);
+        System.out.println("position delta px: mean " + (float) (sumDelta / intervalCount)
+                + ", max " + maxDelta);
+        System.out.println("velocity jumps over " + velocityJump + " px/s: " + jumps);
+    }
+}
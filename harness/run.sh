@@ -0,0 +1,61 @@
+#!/bin/sh
+#
+# 在普通JVM上编译并运行harness.把本仓库的android/widget和android/support/v4/widget源码
+# 和harness/stubs里的替身类,harness/src里的驱动一起编译,然后运行指定的主类(默认全部).
+#
+# Compiles this tree's android/widget and android/support/v4/widget sources together
+# with the stand-ins in harness/stubs and the drivers in harness/src, then runs the
+# given main classes, or all of them. Needs only a JDK (7 or newer).
+#
+# Usage: harness/run.sh [main-class ...]
+#        OUT=/some/dir harness/run.sh     keep the compiled classes in /some/dir
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+DRIVERS="
+android.support.v4.widget.DragBenchmark
+android.support.v4.widget.LayoutListenerCheck
+android.support.v4.widget.InterceptBenchmark
+android.support.v4.widget.HitCacheCheck
+android.support.v4.widget.PointerSlotCheck
+android.support.v4.widget.CoalescingCheck
+android.support.v4.widget.HistoryCaptureCheck
+android.support.v4.widget.EdgeBenchmark
+android.support.v4.widget.VelocityBenchmark
+android.support.v4.widget.AnchorDensityCheck
+android.support.v4.widget.MultiCaptureCheck
+android.support.v4.widget.SettleSchedulerCheck
+android.widget.SplineBenchmark
+android.widget.ScrollerGroupCheck
+android.widget.FrameReplayCheck
+android.widget.FlingReplay
+android.widget.AnalyticFlingBenchmark
+android.widget.FlingPredictionCheck
+android.widget.SnapFlingCheck
+android.widget.InterpolatorTableBenchmark
+android.widget.TraceSpeedCheck
+android.widget.PredictionCheck
+android.widget.SpringBackCheck
+android.widget.MultiAxisFlingCheck
+"
+
+OUT=${OUT:-$(mktemp -d)}
+SRC="$OUT/src"
+mkdir -p "$SRC" "$OUT/classes"
+
+# Some sources start with a UTF-8 byte order mark, which javac rejects
+for f in $(find android/widget android/support/v4/widget harness/stubs harness/src -name '*.java'); do
+    mkdir -p "$SRC/$(dirname "$f")"
+    sed '1s/^\xEF\xBB\xBF//' "$f" > "$SRC/$f"
+done
+
+javac -encoding UTF-8 -nowarn -d "$OUT/classes" $(find "$SRC" -name '*.java')
+
+if [ $# -eq 0 ]; then
+    set -- $DRIVERS
+fi
+for main in "$@"; do
+    java -cp "$OUT/classes" "$main"
+done
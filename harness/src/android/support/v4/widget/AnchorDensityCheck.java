@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.Scroller;
+import android.widget.ScrollerPhysics;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 检查锚点预测和屏幕密度无关:同一个以dp计的手势,在不同密度的屏幕上预测的像素距离和密度成正比,
+ * settleCapturedViewAtAnchor选中的是同一个锚点.同时给出不换算时(直接用像素速度套dp模型)的预测作对比.
+ * 支持库里的{@link FlingProjection}还要和平台Scroller的fling预测一致.
+ *
+ * Checks that anchor prediction does not depend on the display density: the same
+ * gesture in dp projects a pixel distance proportional to the density, and
+ * settleCapturedViewAtAnchor picks the same anchor on every screen. Also reports
+ * where the unscaled model, fed pixel velocities, would have come to rest. The support
+ * package's {@link FlingProjection} must also agree with the platform Scroller's fling
+ * prediction.
+ */
+public class AnchorDensityCheck {
+    private static final float[] DENSITIES = { 1.0f, 1.5f, 2.0f, 3.0f, 4.0f };
+    private static final int[] ANCHORS_DP = { 0, 300, 600, 900 };
+    private static final int MOVES = 12;
+    private static final int INTERVAL_MS = 8;
+    // 12 dp every 8 ms is 1500 dp/s
+    private static final float STEP_DP = 12;
+
+    public static void main(String[] args) {
+        System.out.println("AnchorDensityCheck");
+        final float velocityDp = STEP_DP * 1000 / INTERVAL_MS;
+        final int[] fine = new int[20001];
+        for (int i = 0; i < fine.length; i++) {
+            fine[i] = i;
+        }
+        final int nominal = projectDp(1.0f, velocityDp, fine);
+        for (float density : DENSITIES) {
+            Check.near("density " + density + ": projected distance in dp",
+                    projectDp(density, velocityDp, fine), nominal, nominal * 0.01);
+        }
+
+        // The support package's model must agree with the platform Scroller's flings
+        final FlingProjection projection = new FlingProjection(1.0f);
+        final float[] velocity = new float[1];
+        final int[] scrollerFinal = new int[1];
+        final int[] scrollerDuration = new int[1];
+        int worst = 0;
+        for (int v = -20000; v <= 20000; v += 7) {
+            velocity[0] = v;
+            Scroller.predictFlings(ScrollerPhysics.DEFAULT, 0, velocity, 1, scrollerFinal,
+                    scrollerDuration);
+            final int projected = projection.projectFinal(0, v);
+            worst = Math.max(worst, Math.abs(projected - scrollerFinal[0])
+                    - (int) Math.ceil(Math.abs(projected) * 5e-4));
+        }
+        Check.that(worst <= 1, "projection matches Scroller.predictFlings within 5e-4 + 1 px");
+
+        int expected = -1;
+        for (float density : DENSITIES) {
+            final int picked = settle(density);
+            if (expected < 0) {
+                expected = picked;
+            }
+            // The model at density 1 fed pixel velocities is the unscaled model
+            final int unscaled = projection.projectFinal((int) (MOVES * STEP_DP * density),
+                    velocityDp * density);
+            Bench.report("density " + density + ", anchor picked", String.format(
+                    "%d dp; unscaled model rests at %.0f dp", picked, unscaled / density));
+            Check.that(picked == expected,
+                    "density " + density + ": the same gesture settles at the same anchor");
+        }
+        Check.finish();
+    }
+
+    // 在给定密度下预测速度velocityDp的fling走多远,换算回dp
+    private static int projectDp(float density, float velocityDp, int[] anchors) {
+        final DragScene scene = new DragScene(density, 100, 100, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return false;
+            }
+        });
+        return Math.round(scene.helper.predictSettleTarget(0, velocityDp * density, anchors)
+                / density);
+    }
+
+    // 拖曳一个子view然后松手,在onViewReleased里settle到预测的锚点,返回停下的位置(dp)
+    private static int settle(final float density) {
+        final int[] anchors = new int[ANCHORS_DP.length];
+        for (int i = 0; i < anchors.length; i++) {
+            anchors[i] = (int) (ANCHORS_DP[i] * density + 0.5f);
+        }
+        final ViewDragHelper[] helper = new ViewDragHelper[1];
+        final DragScene scene = new DragScene(density, (int) (2000 * density),
+                (int) (400 * density), new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return true;
+            }
+
+            @Override
+            public int getViewHorizontalDragRange(View child) {
+                return anchors[anchors.length - 1];
+            }
+
+            @Override
+            public int clampViewPositionHorizontal(View child, int left, int dx) {
+                return left;
+            }
+
+            @Override
+            public void onViewReleased(View releasedChild, float xvel, float yvel) {
+                helper[0].settleCapturedViewAtAnchor(anchors, null);
+            }
+        });
+        helper[0] = scene.helper;
+        final View child = scene.addChild(0, 0, (int) (100 * density), (int) (100 * density));
+        final MotionEvent[] events = DragScene.drag(1000, 50 * density, 50 * density,
+                STEP_DP * density, 0, MOVES, INTERVAL_MS);
+        scene.play(events);
+        scene.settle();
+        return Math.round(child.getLeft() / density);
+    }
+}
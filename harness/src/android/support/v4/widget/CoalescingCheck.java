@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import harness.Check;
+
+/**
+ * 检查按帧合并拖曳:240Hz的移动事件配60Hz的帧,同一帧里的四个移动事件只移动一次view,
+ * 只回调一次onViewPositionChanged,位移一个像素都不少;两个计数和回调次数一致;
+ * 抬起时还没应用的位移在onViewReleased之前应用,之后的帧不再移动view.
+ * 帧由{@link android.view.TestWindow#doFrame(long)}执行postOnAnimation安排的回调.
+ *
+ * Checks frame-coalesced dragging with move events at 240 Hz and frames at 60 Hz:
+ * the four moves of a frame move the view once, with one onViewPositionChanged and
+ * no pixel lost; both counters agree with the callbacks; motion still pending at the
+ * up event is applied before onViewReleased, and later frames no longer move the
+ * view. Frames run the callbacks posted with postOnAnimation through
+ * {@link android.view.TestWindow#doFrame(long)}.
+ */
+public class CoalescingCheck {
+    private static final int MOVES_PER_FRAME = 4;
+    private static final int FRAMES = 10;
+    private static final int STEP = 3;
+
+    private static View sChild;
+    private static int sPositionChanges;
+    private static int sLeftAtRelease = -1;
+    private static int sChangesAtRelease = -1;
+
+    public static void main(String[] args) {
+        System.out.println("CoalescingCheck");
+        final DragScene scene = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return true;
+            }
+
+            @Override
+            public int clampViewPositionHorizontal(View child, int left, int dx) {
+                return left;
+            }
+
+            @Override
+            public void onViewPositionChanged(View child, int left, int top, int dx, int dy) {
+                sPositionChanges++;
+            }
+
+            @Override
+            public void onViewReleased(View child, float xvel, float yvel) {
+                sLeftAtRelease = child.getLeft();
+                sChangesAtRelease = sPositionChanges;
+            }
+        });
+        sChild = scene.addChild(0, 0, 100, 100);
+        final ViewDragHelper helper = scene.helper;
+        helper.setDragCoalescingEnabled(true);
+        final int slop = helper.getTouchSlop();
+
+        // Press and cross the slop to capture, then let a frame apply whatever is pending
+        long time = 1000;
+        float x = 50;
+        send(helper, MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, x, 50, 0));
+        x += slop + 4;
+        time += 4;
+        send(helper, MotionEvent.obtain(1000, time, MotionEvent.ACTION_MOVE, x, 50, 0));
+        Check.that(helper.getViewDragState() == ViewDragHelper.STATE_DRAGGING,
+                "the child is captured");
+        long frame = 1016;
+        scene.window.doFrame(frame);
+        helper.resetDragCounters();
+        sPositionChanges = 0;
+
+        int wrongFrames = 0;
+        int movedBeforeFrame = 0;
+        for (int f = 0; f < FRAMES; f++) {
+            final int changesBefore = sPositionChanges;
+            final int leftBefore = sChild.getLeft();
+            for (int m = 0; m < MOVES_PER_FRAME; m++) {
+                x += STEP;
+                time += 4;
+                send(helper, MotionEvent.obtain(1000, time, MotionEvent.ACTION_MOVE, x, 50, 0));
+            }
+            if (sChild.getLeft() != leftBefore || sPositionChanges != changesBefore) {
+                movedBeforeFrame++;
+            }
+            frame += 16;
+            scene.window.doFrame(frame);
+            if (sPositionChanges != changesBefore + 1
+                    || sChild.getLeft() != leftBefore + MOVES_PER_FRAME * STEP) {
+                wrongFrames++;
+            }
+        }
+        Check.that(movedBeforeFrame == 0, "moves within a frame do not move the view");
+        Check.that(wrongFrames == 0,
+                "four moves in a frame give one onViewPositionChanged with their whole motion");
+        Check.that(helper.getDispatchedDragCount() == sPositionChanges
+                && sPositionChanges == FRAMES, "dispatched drags match the callbacks");
+        Check.that(helper.getCoalescedDragEventCount() == FRAMES * (MOVES_PER_FRAME - 1),
+                "coalesced events count every merged move");
+
+        // Two moves, then up before the next frame
+        final int leftBefore = sChild.getLeft();
+        final int changesBefore = sPositionChanges;
+        for (int m = 0; m < 2; m++) {
+            x += STEP;
+            time += 4;
+            send(helper, MotionEvent.obtain(1000, time, MotionEvent.ACTION_MOVE, x, 50, 0));
+        }
+        send(helper, MotionEvent.obtain(1000, time, MotionEvent.ACTION_UP, x, 50, 0));
+        Check.that(sLeftAtRelease == leftBefore + 2 * STEP
+                && sChangesAtRelease == changesBefore + 1,
+                "pending motion is applied before onViewReleased");
+        scene.window.doFrame(frame + 16);
+        Check.that(sPositionChanges == changesBefore + 1 && sChild.getLeft() == sLeftAtRelease,
+                "frames after the release do not move the view");
+        Check.finish();
+    }
+
+    private static void send(ViewDragHelper helper, MotionEvent event) {
+        SystemClock.setUptimeMillis(event.getEventTime());
+        helper.processTouchEvent(event);
+    }
+}
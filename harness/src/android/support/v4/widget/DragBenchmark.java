@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 在普通JVM上驱动ViewDragHelper:拖曳后松手settle,拖曳后fling,先检查结果正确,再测量
+ * processTouchEvent和continueSettling的耗时.
+ *
+ * Drives {@link ViewDragHelper} on a plain JVM through drag then settle and drag then
+ * fling sequences. It first checks where the views end up, then times
+ * processTouchEvent and continueSettling.
+ */
+public class DragBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int CHILD_SIZE = 300;
+    private static final int MOVES = 30;
+
+    static final int RELEASE_SETTLE = 0;
+    static final int RELEASE_FLING = 1;
+
+    /**
+     * Drags any child horizontally; on release either settles it back to the left
+     * or flings it within the parent.
+     */
+    static class HorizontalCallback extends ViewDragHelper.Callback {
+        ViewDragHelper helper;
+        int release = RELEASE_SETTLE;
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            return true;
+        }
+
+        @Override
+        public int getViewHorizontalDragRange(View child) {
+            return WIDTH - child.getWidth();
+        }
+
+        @Override
+        public int clampViewPositionHorizontal(View child, int left, int dx) {
+            return Math.max(0, Math.min(left, WIDTH - child.getWidth()));
+        }
+
+        @Override
+        public int clampViewPositionVertical(View child, int top, int dy) {
+            return child.getTop();
+        }
+
+        @Override
+        public void onViewReleased(View child, float xvel, float yvel) {
+            if (release == RELEASE_SETTLE) {
+                helper.settleCapturedViewAt(0, child.getTop());
+            } else {
+                helper.flingCapturedView(0, child.getTop(), WIDTH - child.getWidth(),
+                        child.getTop());
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        final HorizontalCallback callback = new HorizontalCallback();
+        final DragScene scene = new DragScene(3.0f, WIDTH, HEIGHT, callback);
+        callback.helper = scene.helper;
+        final View[] children = new View[4];
+        for (int i = 0; i < children.length; i++) {
+            final int top = i * (CHILD_SIZE + 20);
+            children[i] = scene.addChild(0, top, CHILD_SIZE, top + CHILD_SIZE);
+        }
+        final View child = children[1];
+        final float x = CHILD_SIZE / 2;
+        final float y = child.getTop() + CHILD_SIZE / 2;
+        // 20 px every 8 ms is 2500 px/s, a fast swipe at density 3
+        final MotionEvent[] swipe = DragScene.drag(1000, x, y, 20, 0, MOVES, 8);
+
+        System.out.println("DragBenchmark");
+        callback.release = RELEASE_SETTLE;
+        scene.play(swipe);
+        Check.that(scene.helper.getViewDragState() == ViewDragHelper.STATE_SETTLING,
+                "release should start a settle");
+        final int settleFrames = scene.settle();
+        Check.that(child.getLeft() == 0, "settle should end at 0, was " + child.getLeft());
+        Check.that(settleFrames > 1, "settle should take several frames");
+
+        callback.release = RELEASE_FLING;
+        scene.play(swipe);
+        final int flingFrames = scene.settle();
+        Check.that(child.getLeft() == WIDTH - CHILD_SIZE,
+                "fast fling should reach the right bound, was " + child.getLeft());
+        Check.that(scene.helper.getViewDragState() == ViewDragHelper.STATE_IDLE,
+                "helper should be idle after the fling");
+        Check.that(flingFrames > 1, "fling should take several frames");
+        child.offsetLeftAndRight(-child.getLeft());
+
+        // The public factory works off-device too, through the stand-in Context
+        final ViewDragHelper created = ViewDragHelper.create(scene.parent, callback);
+        Check.that(created.getTouchSlop() == scene.helper.getTouchSlop(),
+                "create() should read the same touch slop from the stand-in configuration");
+
+        final int events = swipe.length;
+        callback.release = RELEASE_SETTLE;
+        final double dragOnly = Bench.run("drag gesture, processTouchEvent x" + events, 2000,
+                new Bench.Op() {
+                    public long run(int iteration) {
+                        scene.play(swipe);
+                        scene.helper.abort();
+                        final int left = child.getLeft();
+                        child.offsetLeftAndRight(-left);
+                        return left;
+                    }
+                });
+        Bench.print("  per event", dragOnly / events);
+        Bench.run("drag, release, settle to rest", 2000, new Bench.Op() {
+            public long run(int iteration) {
+                scene.play(swipe);
+                return scene.settle();
+            }
+        });
+        callback.release = RELEASE_FLING;
+        Bench.run("drag, release, fling to rest", 2000, new Bench.Op() {
+            public long run(int iteration) {
+                scene.play(swipe);
+                final int frames = scene.settle();
+                child.offsetLeftAndRight(-child.getLeft());
+                return frames;
+            }
+        });
+        Check.finish();
+    }
+}
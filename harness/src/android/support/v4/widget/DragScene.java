@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.TestWindow;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+/**
+ * harness驱动共用的场景:一个附加到{@link TestWindow}的父view,以及用不依赖Context配置的构造方法
+ * 创建的ViewDragHelper.手势事件可以预先生成,重放时按事件时间设置时钟,所以每次重放的结果都一样,
+ * 而且重放本身不分配对象.
+ *
+ * Scene shared by the harness drivers: a parent attached to a {@link TestWindow}
+ * and a {@link ViewDragHelper} built with the configuration-free constructor.
+ * Gestures can be generated up front; replaying one sets the clock from each event's
+ * time, so every replay behaves the same and replaying allocates nothing.
+ */
+final class DragScene {
+    static final int FRAME_MS = 16;
+    private static final int EDGE_SIZE_DP = 20;
+
+    final Context context;
+    final TestWindow window = new TestWindow();
+    final ViewGroup parent;
+    final ViewDragHelper helper;
+
+    DragScene(float density, int width, int height, ViewDragHelper.Callback callback) {
+        context = new Context(density);
+        parent = new ViewGroup(context);
+        parent.layout(0, 0, width, height);
+        window.attach(parent);
+        final ViewConfiguration vc = ViewConfiguration.get(context);
+        helper = new ViewDragHelper(parent, callback,
+                ScrollerCompat.create(context, ViewDragHelper.sInterpolator),
+                vc.getScaledTouchSlop(), vc.getScaledMinimumFlingVelocity(),
+                vc.getScaledMaximumFlingVelocity(), (int) (EDGE_SIZE_DP * density + 0.5f),
+                density);
+    }
+
+    View addChild(int left, int top, int right, int bottom) {
+        final View child = new View(context);
+        child.layout(left, top, right, bottom);
+        parent.addView(child);
+        return child;
+    }
+
+    /**
+     * 生成一个单指手势:按下,moves次移动,每次(dx, dy),然后抬起.
+     * Builds a one-finger gesture: down at (x, y), <code>moves</code> moves of
+     * (dx, dy) every <code>intervalMs</code>, then up.
+     */
+    static MotionEvent[] drag(long startTime, float x, float y, float dx, float dy,
+            int moves, int intervalMs) {
+        final MotionEvent[] events = new MotionEvent[moves + 2];
+        events[0] = MotionEvent.obtain(startTime, startTime, MotionEvent.ACTION_DOWN, x, y, 0);
+        for (int i = 1; i <= moves; i++) {
+            events[i] = MotionEvent.obtain(startTime, startTime + i * intervalMs,
+                    MotionEvent.ACTION_MOVE, x + i * dx, y + i * dy, 0);
+        }
+        events[moves + 1] = MotionEvent.obtain(startTime, startTime + moves * intervalMs,
+                MotionEvent.ACTION_UP, x + moves * dx, y + moves * dy, 0);
+        return events;
+    }
+
+    /**
+     * Feeds <code>events</code> to {@link ViewDragHelper#processTouchEvent(MotionEvent)}.
+     */
+    void play(MotionEvent[] events) {
+        for (int i = 0; i < events.length; i++) {
+            SystemClock.setUptimeMillis(events[i].getEventTime());
+            helper.processTouchEvent(events[i]);
+        }
+    }
+
+    /**
+     * Feeds <code>events</code> to
+     * {@link ViewDragHelper#shouldInterceptTouchEvent(MotionEvent)}, switching to
+     * processTouchEvent once it intercepts, like a parent's onInterceptTouchEvent and
+     * onTouchEvent would.
+     */
+    void playIntercepted(MotionEvent[] events) {
+        boolean intercepted = false;
+        for (int i = 0; i < events.length; i++) {
+            SystemClock.setUptimeMillis(events[i].getEventTime());
+            if (intercepted) {
+                helper.processTouchEvent(events[i]);
+            } else {
+                intercepted = helper.shouldInterceptTouchEvent(events[i]);
+            }
+        }
+    }
+
+    /**
+     * 像父view的computeScroll一样每帧调用continueSettling,直到settle结束.
+     * Calls continueSettling once per frame, as a parent's computeScroll would,
+     * until the settle ends.
+     *
+     * @return The number of frames it took
+     */
+    int settle() {
+        long now = SystemClock.uptimeMillis();
+        int frames = 0;
+        while (helper.getViewDragState() == ViewDragHelper.STATE_SETTLING) {
+            now += FRAME_MS;
+            window.doFrame(now);
+            helper.continueSettling(false);
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.MotionEvent;
+import android.view.TestWindow;
+import android.view.View;
+
+import java.util.Random;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 在追踪全部四个边缘时用随机的单击经过shouldInterceptTouchEvent:统计父view边界getter的调用次数,
+ * 检查命中的边缘和原来每次按下都读父view边界的公式一致,并且父view布局或者在分离期间移动后边缘跟着更新.
+ * 同时检查只追踪边缘时布局监听只在附加期间注册,以及设置了不同边缘大小后getEdgeSize的返回值.
+ * 替身的getter只是读字段,单击的耗时只说明两种情况一样快,衡量的是getter的调用次数.
+ *
+ * Taps at random points through shouldInterceptTouchEvent with all four edges
+ * tracked, counting calls to the parent's bounds getters and checking the edges hit
+ * against the old formula, which read the parent's bounds on every down. Edges must
+ * follow the parent after a layout and after a move while detached. Also checks that
+ * edge tracking alone keeps its layout listener only while attached, and what
+ * getEdgeSize returns once the edges have different sizes. The stand-in's getters
+ * are plain field reads, so the tap timings only show that a tap costs the same
+ * either way; the getter count is the measure.
+ */
+public class EdgeBenchmark {
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 1600;
+    private static final int TAPS = 1000;
+
+    /**
+     * Keeps the edges reported to onEdgeTouched; captures nothing.
+     */
+    static class EdgeCallback extends ViewDragHelper.Callback {
+        int edges;
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            return false;
+        }
+
+        @Override
+        public void onEdgeTouched(int edgeFlags, int pointerId) {
+            edges = edgeFlags;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("EdgeBenchmark");
+        final EdgeCallback callback = new EdgeCallback();
+        final DragScene scene = new DragScene(2.0f, WIDTH, HEIGHT, callback);
+        final ViewDragHelper helper = scene.helper;
+        final View parent = scene.parent;
+        final int edgeSize = helper.getEdgeSize();
+
+        helper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_ALL);
+        Check.that(listeners(scene.window) == 1, "edge tracking listens while attached");
+        final MotionEvent[][] taps = taps(new Random(1), WIDTH, HEIGHT);
+        tap(helper, callback, taps[0]);
+
+        int reads = parent.getBoundsReadCount();
+        final int attachedMismatches = tapAll(helper, callback, taps, 0, 0, WIDTH, HEIGHT,
+                edgeSize);
+        final int attachedReads = parent.getBoundsReadCount() - reads;
+        Bench.report("attached, parent getter calls", attachedReads + " in " + TAPS
+                + " taps, old formula " + 4 * TAPS);
+        Check.that(attachedReads == 0, "no parent getter calls while attached");
+        Check.that(attachedMismatches == 0, "attached: edges match the old formula");
+
+        // A layout moves the right and bottom edges
+        parent.layout(0, 0, WIDTH / 2, HEIGHT / 2);
+        scene.window.performLayout();
+        Check.that(tapAll(helper, callback, taps, 0, 0, WIDTH / 2, HEIGHT / 2, edgeSize) == 0,
+                "edges follow a layout");
+
+        scene.window.detach();
+        Check.that(listeners(scene.window) == 0, "nothing left on the window after a detach");
+        // Moved while detached, where no layout pass is seen
+        parent.layout(0, 0, WIDTH, HEIGHT);
+        reads = parent.getBoundsReadCount();
+        final int detachedMismatches = tapAll(helper, callback, taps, 0, 0, WIDTH, HEIGHT,
+                edgeSize);
+        final int detachedReads = parent.getBoundsReadCount() - reads;
+        Bench.report("detached, parent getter calls", detachedReads + " in " + TAPS + " taps");
+        Check.that(detachedReads == 4 * TAPS, "detached: bounds read once per gesture");
+        Check.that(detachedMismatches == 0, "detached: edges follow a move without layout");
+
+        final TestWindow next = new TestWindow();
+        next.attach(scene.parent);
+        Check.that(listeners(next) == 1, "registered again on attach");
+        helper.setEdgeTrackingEnabled(0);
+        Check.that(listeners(next) == 0, "removed when edge tracking is turned off");
+        helper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_ALL);
+        Check.that(listeners(next) == 1, "registered when edge tracking is turned on");
+
+        // getEdgeSize reports the largest edge once the sizes differ
+        helper.setEdgeSize(ViewDragHelper.EDGE_LEFT, edgeSize * 3);
+        Check.that(helper.getEdgeSize() == edgeSize * 3, "getEdgeSize sees a larger edge");
+        Check.that(helper.getEdgeSize(ViewDragHelper.EDGE_RIGHT) == edgeSize,
+                "other edges keep their size");
+        helper.setEdgeSize(ViewDragHelper.EDGE_ALL, edgeSize / 2);
+        Check.that(helper.getEdgeSize() == edgeSize / 2, "getEdgeSize sees a smaller size");
+        helper.setEdgeSize(ViewDragHelper.EDGE_ALL, edgeSize);
+
+        Bench.run("attached, tap", TAPS, new Bench.Op() {
+            public long run(int iteration) {
+                return tap(helper, callback, taps[iteration % TAPS]);
+            }
+        });
+        next.detach();
+        Bench.run("detached, tap", TAPS, new Bench.Op() {
+            public long run(int iteration) {
+                return tap(helper, callback, taps[iteration % TAPS]);
+            }
+        });
+        Check.finish();
+    }
+
+    // 依次单击,返回命中的边缘和原来公式不一致的次数
+    private static int tapAll(ViewDragHelper helper, EdgeCallback callback,
+            MotionEvent[][] taps, int left, int top, int right, int bottom, int edgeSize) {
+        int mismatches = 0;
+        for (MotionEvent[] events : taps) {
+            final int x = (int) events[0].getX();
+            final int y = (int) events[0].getY();
+            int expected = 0;
+            if (x < left + edgeSize) expected |= ViewDragHelper.EDGE_LEFT;
+            if (y < top + edgeSize) expected |= ViewDragHelper.EDGE_TOP;
+            if (x > right - edgeSize) expected |= ViewDragHelper.EDGE_RIGHT;
+            if (y > bottom - edgeSize) expected |= ViewDragHelper.EDGE_BOTTOM;
+            if (tap(helper, callback, events) != expected) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static int tap(ViewDragHelper helper, EdgeCallback callback, MotionEvent[] events) {
+        callback.edges = 0;
+        helper.shouldInterceptTouchEvent(events[0]);
+        helper.shouldInterceptTouchEvent(events[1]);
+        return callback.edges;
+    }
+
+    // 按下和抬起.一半的点落在离某条边缘不远的带状区域里,这样每条边缘都有命中和没命中的点
+    private static MotionEvent[][] taps(Random random, int width, int height) {
+        final MotionEvent[][] taps = new MotionEvent[TAPS][];
+        for (int i = 0; i < TAPS; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            if (i % 2 == 0) {
+                switch (random.nextInt(4)) {
+                    case 0: x = random.nextInt(100); break;
+                    case 1: y = random.nextInt(100); break;
+                    case 2: x = width - 1 - random.nextInt(100); break;
+                    default: y = height - 1 - random.nextInt(100); break;
+                }
+            }
+            final long time = 1000 + i * 100;
+            taps[i] = new MotionEvent[] {
+                MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, x, y, 0),
+                MotionEvent.obtain(time, time + 50, MotionEvent.ACTION_UP, x, y, 0)
+            };
+        }
+        return taps;
+    }
+
+    private static int listeners(TestWindow window) {
+        return window.getViewTreeObserver().getGlobalLayoutListenerCount();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import harness.Check;
+
+/**
+ * 检查批量送来的历史采样在拦截和处理两条路径上都参与捕获:一次很快的轻扫在同一个事件里越过触摸阈值
+ * 并离开子view时,仍然捕获越过阈值那一点下面的子view.
+ *
+ * Checks that samples batched into a move event take part in capture on both the
+ * intercept and the touch path: a flick that crosses the touch slop over a child and
+ * leaves it within one event still captures the child under the crossing point.
+ */
+public class HistoryCaptureCheck {
+
+    public static void main(String[] args) {
+        System.out.println("HistoryCaptureCheck");
+        final View[] draggable = new View[1];
+        final DragScene scene = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return child == draggable[0];
+            }
+
+            @Override
+            public int getViewHorizontalDragRange(View child) {
+                return 1000;
+            }
+
+            @Override
+            public int clampViewPositionHorizontal(View child, int left, int dx) {
+                return left;
+            }
+        });
+        draggable[0] = scene.addChild(0, 0, 100, 100);
+        final ViewDragHelper helper = scene.helper;
+        final int slop = helper.getTouchSlop();
+
+        for (int path = 0; path < 2; path++) {
+            final String what = path == 0 ? "intercept" : "touch";
+            final MotionEvent[] events = flick(slop);
+            if (path == 0) {
+                scene.playIntercepted(new MotionEvent[] { events[0], events[1] });
+            } else {
+                scene.play(new MotionEvent[] { events[0], events[1] });
+            }
+            Check.that(helper.getViewDragState() == ViewDragHelper.STATE_DRAGGING
+                    && helper.getCapturedView() == draggable[0],
+                    what + ": captures the child under the slop crossing");
+            SystemClock.setUptimeMillis(events[2].getEventTime());
+            helper.processTouchEvent(events[2]);
+            helper.abort();
+            draggable[0].offsetLeftAndRight(-draggable[0].getLeft());
+        }
+
+        // Without the batched sample, the final position alone misses the child
+        final MotionEvent down = flick(slop)[0];
+        final MotionEvent jump = MotionEvent.obtain(1000, 1008, MotionEvent.ACTION_MOVE,
+                400, 50, 0);
+        scene.playIntercepted(new MotionEvent[] { down, jump });
+        Check.that(helper.getViewDragState() == ViewDragHelper.STATE_IDLE,
+                "a single sample off the child captures nothing");
+        helper.cancel();
+        Check.finish();
+    }
+
+    // 按下,然后一个移动事件:历史采样刚越过阈值,还在子view上;当前采样已经离开子view.最后抬起.
+    private static MotionEvent[] flick(int slop) {
+        final int[] ids = { 0 };
+        final MotionEvent down = MotionEvent.obtain(1000, 1000, MotionEvent.ACTION_DOWN,
+                50, 50, 0);
+        final MotionEvent move = MotionEvent.obtain(1004, MotionEvent.ACTION_MOVE, ids,
+                new float[] { 50 + slop + 2 }, new float[] { 50 });
+        move.addBatch(1008, new float[] { 400 }, new float[] { 50 });
+        final MotionEvent up = MotionEvent.obtain(1000, 1012, MotionEvent.ACTION_UP,
+                400, 50, 0);
+        return new MotionEvent[] { down, move, up };
+    }
+}
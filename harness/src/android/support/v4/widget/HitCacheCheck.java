@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Random;
+
+import harness.Check;
+
+/**
+ * 检查每个pointer缓存的命中测试:一个点在很多互相重叠的子view上随机游走,每一步的结果都要和逐个遍历子view
+ * 的结果一致,中途有子view被settle移动,或者被其他代码移动后调用invalidateChildIndex.遍历子view和网格索引
+ * 两种命中测试都检查一遍,并且点留在同一个子view上时大部分查询直接使用缓存.
+ *
+ * Checks the hit test each pointer caches. A point walks randomly over many
+ * overlapping children; at every step the result must equal a walk over all
+ * children, also after a child is moved by a settle, or moved by other code followed
+ * by invalidateChildIndex. Runs with the linear hit test and with the grid index, and
+ * checks that most queries reuse the cache while the point stays over one child.
+ */
+public class HitCacheCheck {
+    private static final int SIZE = 1000;
+    private static final int CHILDREN = 300;
+    private static final int STEPS = 20000;
+
+    public static void main(String[] args) {
+        System.out.println("HitCacheCheck");
+        final InterceptBenchmark.CountingCallback callback =
+                new InterceptBenchmark.CountingCallback();
+        final DragScene scene = new DragScene(2.0f, SIZE, SIZE, callback);
+        final Random random = new Random(3);
+        for (int i = 0; i < CHILDREN; i++) {
+            final int x = random.nextInt(SIZE - 100);
+            final int y = random.nextInt(SIZE - 100);
+            scene.addChild(x, y, x + 20 + random.nextInt(80), y + 20 + random.nextInt(80));
+        }
+        final ViewDragHelper helper = scene.helper;
+        final ViewGroup parent = scene.parent;
+
+        for (int indexed = 0; indexed < 2; indexed++) {
+            final String what = indexed == 1 ? "index: " : "linear: ";
+            helper.setChildIndexEnabled(indexed == 1);
+            int x = SIZE / 2;
+            int y = SIZE / 2;
+            int mismatches = 0;
+            // Build the index outside the count
+            helper.findTopChildUnderPointer(0, x, y);
+            callback.calls = 0;
+            for (int step = 0; step < STEPS; step++) {
+                if (step % 1000 == 500) {
+                    // A settle moves some child under the helper's eyes
+                    final View child = parent.getChildAt(random.nextInt(CHILDREN));
+                    helper.smoothSlideViewTo(child, random.nextInt(SIZE - 100),
+                            random.nextInt(SIZE - 100));
+                    scene.settle();
+                } else if (step % 1000 == 0) {
+                    // Other code moves a child and says so
+                    final View child = parent.getChildAt(random.nextInt(CHILDREN));
+                    child.offsetLeftAndRight(random.nextInt(41) - 20);
+                    child.offsetTopAndBottom(random.nextInt(41) - 20);
+                    helper.invalidateChildIndex();
+                }
+                if (random.nextInt(50) == 0) {
+                    x = random.nextInt(SIZE);
+                    y = random.nextInt(SIZE);
+                } else {
+                    x = Math.max(0, Math.min(SIZE - 1, x + random.nextInt(5) - 2));
+                    y = Math.max(0, Math.min(SIZE - 1, y + random.nextInt(5) - 2));
+                }
+                if (helper.findTopChildUnderPointer(0, x, y) != topChildUnder(parent, x, y)) {
+                    mismatches++;
+                }
+            }
+            Check.that(mismatches == 0, what + "cached hit tests match a walk over all children");
+            final double perQuery = (double) callback.calls / STEPS;
+            System.out.println("  " + what + String.format("%.1f", perQuery)
+                    + " callbacks per query");
+            if (indexed == 0) {
+                Check.that(perQuery < CHILDREN / 10,
+                        what + "most queries reuse the cached region");
+            }
+        }
+        Check.finish();
+    }
+
+    private static View topChildUnder(ViewGroup parent, int x, int y) {
+        for (int i = parent.getChildCount() - 1; i >= 0; i--) {
+            final View child = parent.getChildAt(i);
+            if (x >= child.getLeft() && x < child.getRight()
+                    && y >= child.getTop() && y < child.getBottom()) {
+                return child;
+            }
+        }
+        return null;
+    }
+}
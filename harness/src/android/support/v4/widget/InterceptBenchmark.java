@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Random;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 五指手势在2000个子view上经过shouldInterceptTouchEvent:统计每个移动事件的回调次数和耗时,
+ * 分别在遍历子view和网格索引两种命中测试下.两个手指移动,另外三个手指在阈值内或者阈值外抖动,
+ * 路径相同;阈值外抖动时每个pointer都做完整检查,也就是没有阈值内快速路径时的开销.
+ * 同时检查越过阈值的手指仍然能捕获view.
+ *
+ * Runs five-finger gestures over 2000 children through shouldInterceptTouchEvent and
+ * counts callbacks and time per move event, with the linear hit test and with the
+ * child grid index. Two fingers move while three jitter either within or past the
+ * touch slop along the same paths; jitter past the slop makes every pointer do the
+ * full check, which is what each event cost before pointers within the slop were
+ * skipped. Also checks that a finger leaving the slop still captures a view.
+ */
+public class InterceptBenchmark {
+    private static final int SIZE = 2000;
+    private static final int CHILDREN = 2000;
+    private static final int POINTERS = 5;
+    private static final int MOVES = 60;
+
+    /**
+     * Counts every callback; captures only when asked to.
+     */
+    static class CountingCallback extends ViewDragHelper.Callback {
+        long calls;
+        boolean capture;
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            calls++;
+            return capture;
+        }
+
+        @Override
+        public int getViewHorizontalDragRange(View child) {
+            calls++;
+            return 100;
+        }
+
+        @Override
+        public int getViewVerticalDragRange(View child) {
+            calls++;
+            return 100;
+        }
+
+        @Override
+        public int clampViewPositionHorizontal(View child, int left, int dx) {
+            calls++;
+            return left;
+        }
+
+        @Override
+        public int clampViewPositionVertical(View child, int top, int dy) {
+            calls++;
+            return top;
+        }
+
+        @Override
+        public int getOrderedChildIndex(int index) {
+            calls++;
+            return index;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("InterceptBenchmark");
+        final CountingCallback callback = new CountingCallback();
+        final DragScene scene = new DragScene(2.0f, SIZE, SIZE, callback);
+        final Random random = new Random(1);
+        for (int i = 0; i < CHILDREN; i++) {
+            final int x = random.nextInt(SIZE - 50);
+            final int y = random.nextInt(SIZE - 50);
+            scene.addChild(x, y, x + 10 + random.nextInt(80), y + 10 + random.nextInt(80));
+        }
+        final ViewDragHelper helper = scene.helper;
+
+        final String[] names = {
+            "3 fingers jittering within slop",
+            "3 fingers jittering past slop",
+            "5 fingers past slop, then held still"
+        };
+        // Same paths in the first two; only the jitter amplitude differs
+        final int slop = helper.getTouchSlop();
+        final MotionEvent[][] gestures = {
+            gesture(2, 1, MOVES), gesture(2, slop + 4, MOVES), gesture(5, 0, 10)
+        };
+
+        // A finger that leaves the slop still captures, with either hit test
+        callback.capture = true;
+        for (int indexed = 0; indexed < 2; indexed++) {
+            helper.setChildIndexEnabled(indexed == 1);
+            final MotionEvent[] events = gestures[0];
+            boolean intercepted = false;
+            for (int i = 0; i < events.length - 1 && !intercepted; i++) {
+                SystemClock.setUptimeMillis(events[i].getEventTime());
+                intercepted = helper.shouldInterceptTouchEvent(events[i]);
+            }
+            final String what = indexed == 1 ? "index" : "linear";
+            Check.that(intercepted && helper.getViewDragState() == ViewDragHelper.STATE_DRAGGING,
+                    what + ": a moving finger captures a view");
+            Check.that(helper.getActivePointerId() <= 1,
+                    what + ": the capturing pointer is one of the moving ones");
+            helper.cancel();
+            helper.setDragState(ViewDragHelper.STATE_IDLE);
+        }
+        callback.capture = false;
+
+        final long[][] calls = new long[2][gestures.length];
+        for (int indexed = 0; indexed < 2; indexed++) {
+            helper.setChildIndexEnabled(indexed == 1);
+            final String path = indexed == 1 ? "index" : "linear";
+            for (int g = 0; g < gestures.length; g++) {
+                final MotionEvent[] events = gestures[g];
+                // Leave the one-off index build out of the count
+                intercept(helper, events);
+                callback.calls = 0;
+                intercept(helper, events);
+                calls[indexed][g] = callback.calls / MOVES;
+                Bench.report(path + ", " + names[g], calls[indexed][g] + " callbacks/event");
+                final double perGesture = Bench.run(path + ", " + names[g], 200,
+                        new Bench.Op() {
+                            public long run(int iteration) {
+                                intercept(helper, events);
+                                return helper.getViewDragState();
+                            }
+                        });
+                Bench.print("  per move event", perGesture / MOVES);
+            }
+        }
+        for (int indexed = 0; indexed < 2; indexed++) {
+            Check.that(calls[indexed][0] < calls[indexed][1],
+                    "pointers within the slop should skip their callbacks");
+        }
+        for (int g = 0; g < gestures.length; g++) {
+            Check.that(calls[1][g] < calls[0][g],
+                    names[g] + ": the index should need fewer callbacks");
+        }
+        Check.finish();
+    }
+
+    private static void intercept(ViewDragHelper helper, MotionEvent[] events) {
+        for (int i = 0; i < events.length; i++) {
+            SystemClock.setUptimeMillis(events[i].getEventTime());
+            helper.shouldInterceptTouchEvent(events[i]);
+        }
+    }
+
+    /**
+     * 五指按下,前moving个手指每个事件移动(3, 2),其余手指在按下的位置左右来回抖动jitter个像素;
+     * 移动了movingEvents个事件后所有手指保持不动,共MOVES个移动事件,最后全部抬起.
+     *
+     * Five fingers go down. The first <code>moving</code> fingers move by (3, 2) per
+     * event, the others alternate <code>jitter</code> pixels either side of where they
+     * went down. After <code>movingEvents</code> events every finger holds still, for
+     * MOVES move events in all, then all fingers lift.
+     */
+    private static MotionEvent[] gesture(int moving, int jitter, int movingEvents) {
+        final MotionEvent[] events = new MotionEvent[POINTERS + MOVES + 1];
+        final int[] ids = new int[POINTERS];
+        final float[] xs = new float[POINTERS];
+        final float[] ys = new float[POINTERS];
+        final float[] downXs = new float[POINTERS];
+        long time = 1000;
+        for (int p = 0; p < POINTERS; p++) {
+            ids[p] = p;
+            xs[p] = 200 + p * 300;
+            ys[p] = 200 + p * 250;
+            downXs[p] = xs[p];
+            final int count = p + 1;
+            final int action = p == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_POINTER_DOWN
+                    | (p << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+            events[p] = MotionEvent.obtain(time, action, copy(ids, count), copy(xs, count),
+                    copy(ys, count));
+            time += 8;
+        }
+        for (int k = 0; k < MOVES; k++) {
+            if (k < movingEvents) {
+                for (int p = 0; p < POINTERS; p++) {
+                    if (p < moving) {
+                        xs[p] += 3;
+                        ys[p] += 2;
+                    } else {
+                        xs[p] = downXs[p] + (k % 2 == 0 ? jitter : -jitter);
+                    }
+                }
+            }
+            events[POINTERS + k] = MotionEvent.obtain(time, MotionEvent.ACTION_MOVE, ids, xs, ys);
+            time += 8;
+        }
+        events[POINTERS + MOVES] = MotionEvent.obtain(time, MotionEvent.ACTION_UP, ids, xs, ys);
+        return events;
+    }
+
+    private static int[] copy(int[] values, int count) {
+        final int[] result = new int[count];
+        System.arraycopy(values, 0, result, 0, count);
+        return result;
+    }
+
+    private static float[] copy(float[] values, int count) {
+        final float[] result = new float[count];
+        System.arraycopy(values, 0, result, 0, count);
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.TestWindow;
+import android.view.View;
+
+import harness.Check;
+
+/**
+ * 检查子view索引的布局监听只在父view附加到window期间注册:分离后window的ViewTreeObserver
+ * 不再持有helper,重新附加(包括附加到新的window)后监听恢复,分离期间子view的移动也能被看到.
+ *
+ * Checks that the child index's layout listener is only registered while the parent
+ * is attached: after a detach the window's ViewTreeObserver no longer holds the
+ * helper, a reattach, also to a new window, registers it again, and children moved
+ * while detached are found at their new place.
+ */
+public class LayoutListenerCheck {
+
+    public static void main(String[] args) {
+        System.out.println("LayoutListenerCheck");
+        final DragScene scene = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return true;
+            }
+        });
+        final View child = scene.addChild(0, 0, 100, 100);
+        final ViewDragHelper helper = scene.helper;
+
+        helper.setChildIndexEnabled(true);
+        Check.that(listeners(scene.window) == 1, "registered while attached");
+        Check.that(helper.findTopChildUnder(50, 50) == child, "index finds the child");
+
+        scene.window.detach();
+        Check.that(listeners(scene.window) == 0, "removed from the window on detach");
+
+        // Moved while detached, where no layout pass is seen
+        child.layout(500, 500, 600, 600);
+        final TestWindow next = new TestWindow();
+        next.attach(scene.parent);
+        Check.that(listeners(next) == 1, "registered with the new window on attach");
+        Check.that(listeners(scene.window) == 0, "nothing left on the old window");
+        Check.that(helper.findTopChildUnder(550, 550) == child,
+                "index rebuilt after a reattach");
+
+        helper.setChildIndexEnabled(false);
+        Check.that(listeners(next) == 0, "removed when the index is disabled");
+        next.detach();
+        next.attach(scene.parent);
+        Check.that(listeners(next) == 0, "not registered again once disabled");
+
+        // Enabled while detached: registered only when attached
+        next.detach();
+        helper.setChildIndexEnabled(true);
+        Check.that(listeners(next) == 0, "not registered while detached");
+        next.attach(scene.parent);
+        Check.that(listeners(next) == 1, "registered on attach");
+        child.layout(200, 200, 300, 300);
+        next.performLayout();
+        Check.that(helper.findTopChildUnder(250, 250) == child, "layouts seen once attached");
+        helper.setChildIndexEnabled(false);
+        Check.that(listeners(next) == 0, "removed again");
+        Check.finish();
+    }
+
+    private static int listeners(TestWindow window) {
+        return window.getViewTreeObserver().getGlobalLayoutListenerCount();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Arrays;
+
+import harness.Check;
+
+/**
+ * 检查多view拖曳:两个pointer各自按在一个view上,两个view都跟着拖曳;先抬起的pointer释放的view用
+ * {@link ViewDragHelper#flingCapturedView(int, int, int, int)} fling,另一个用
+ * {@link ViewDragHelper#settleCapturedViewAt(int, int)} settle,两个view在同一批帧里一起推进并停在
+ * 各自的终点.自己调用continueSettling和挂在共用的驱动器上各检查一遍.
+ *
+ * Checks multi-view capture: two pointers each press one view and both views follow
+ * their drags. The view released first is flung with
+ * {@link ViewDragHelper#flingCapturedView(int, int, int, int)}, the other settled with
+ * {@link ViewDragHelper#settleCapturedViewAt(int, int)}; both advance in the same
+ * frames and come to rest at their targets. Runs once with continueSettling and once
+ * on a shared settle scheduler.
+ */
+public class MultiCaptureCheck {
+    private static final int MOVES = 20;
+    private static final int STEP = 10;
+    private static final int FLING_MAX_LEFT = 900;
+
+    private static ViewDragHelper sHelper;
+    private static View sSettled;
+    private static View sFlung;
+    private static int sReleased;
+    private static int sSettledMoves;
+    private static int sFlungMoves;
+
+    public static void main(String[] args) {
+        System.out.println("MultiCaptureCheck");
+        run(false);
+        run(true);
+        Check.finish();
+    }
+
+    private static void run(boolean scheduled) {
+        final String what = scheduled ? "scheduler: " : "continueSettling: ";
+        final DragScene scene = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return true;
+            }
+
+            @Override
+            public int getViewHorizontalDragRange(View child) {
+                return 1000;
+            }
+
+            @Override
+            public int clampViewPositionHorizontal(View child, int left, int dx) {
+                return left;
+            }
+
+            @Override
+            public void onViewPositionChanged(View child, int left, int top, int dx, int dy) {
+                if (sReleased == 0) {
+                    return;
+                }
+                if (child == sSettled) {
+                    sSettledMoves++;
+                } else if (child == sFlung) {
+                    sFlungMoves++;
+                }
+            }
+
+            @Override
+            public void onViewReleased(View child, float xvel, float yvel) {
+                sReleased++;
+                final ViewDragHelper helper = sHelper;
+                if (child == sFlung) {
+                    helper.flingCapturedView(0, child.getTop(), FLING_MAX_LEFT, child.getTop());
+                } else {
+                    helper.settleCapturedViewAt(0, child.getTop());
+                }
+            }
+        });
+        final ViewDragHelper helper = scene.helper;
+        sHelper = helper;
+        helper.setMultiCaptureEnabled(true);
+        final ViewDragSettleScheduler scheduler = scheduled ? new ViewDragSettleScheduler() : null;
+        helper.setSettleScheduler(scheduler);
+        sSettled = scene.addChild(0, 0, 100, 100);
+        sFlung = scene.addChild(0, 200, 100, 300);
+        sReleased = 0;
+        sSettledMoves = 0;
+        sFlungMoves = 0;
+
+        final MotionEvent[] events = twoPointerDrag(1000);
+        scene.play(Arrays.copyOf(events, events.length - 2));
+        Check.that(helper.getCapturedViewCount() == 2
+                && helper.getCapturedView(0) == sSettled && helper.getCapturedView(1) == sFlung,
+                what + "each pointer captures its own view");
+        Check.that(sSettled.getLeft() > 100 && sSettled.getLeft() == sFlung.getLeft(),
+                what + "both views follow their drags");
+
+        // The second pointer lifts first and flings its view
+        scene.play(new MotionEvent[] { events[events.length - 2] });
+        final int flungFrom = sFlung.getLeft();
+        Check.that(sReleased == 1 && helper.getCapturedViewCount() == 1
+                && helper.getViewDragState() == ViewDragHelper.STATE_DRAGGING,
+                what + "fling of one view while the other is still dragged");
+
+        scene.play(new MotionEvent[] { events[events.length - 1] });
+        Check.that(sReleased == 2 && helper.getViewDragState() == ViewDragHelper.STATE_SETTLING,
+                what + "both released views settle");
+        final int frames = scene.settle();
+        Check.that(frames > 1 && sSettledMoves > 1 && sFlungMoves > 1,
+                what + "both views move over the settle frames");
+        Check.that(sSettled.getLeft() == 0, what + "settled view rests at its target");
+        Check.that(sFlung.getLeft() > flungFrom && sFlung.getLeft() <= FLING_MAX_LEFT,
+                what + "flung view travels on and stays in its range");
+        Check.that(helper.getViewDragState() == ViewDragHelper.STATE_IDLE,
+                what + "helper goes idle");
+        if (scheduler != null) {
+            Check.that(scheduler.getActiveHelperCount() == 0, what + "helper leaves the scheduler");
+        }
+    }
+
+    // pointer 0按在(50, 50),pointer 1按在(50, 250),一起向右移动,然后先抬起pointer 1,再抬起pointer 0
+    private static MotionEvent[] twoPointerDrag(long start) {
+        final int[] ids = { 0, 1 };
+        final MotionEvent[] events = new MotionEvent[MOVES + 4];
+        events[0] = MotionEvent.obtain(start, start, MotionEvent.ACTION_DOWN, 50, 50, 0);
+        events[1] = MotionEvent.obtain(start, MotionEvent.ACTION_POINTER_DOWN
+                | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT), ids,
+                new float[] { 50, 50 }, new float[] { 50, 250 });
+        float x = 50;
+        for (int i = 1; i <= MOVES; i++) {
+            x += STEP;
+            events[i + 1] = MotionEvent.obtain(start + i * 8, MotionEvent.ACTION_MOVE, ids,
+                    new float[] { x, x }, new float[] { 50, 250 });
+        }
+        final long end = start + MOVES * 8;
+        events[MOVES + 2] = MotionEvent.obtain(end, MotionEvent.ACTION_POINTER_UP
+                | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT), ids,
+                new float[] { x, x }, new float[] { 50, 250 });
+        events[MOVES + 3] = MotionEvent.obtain(end, MotionEvent.ACTION_UP, new int[] { 0 },
+                new float[] { x }, new float[] { 50 });
+        return events;
+    }
+}
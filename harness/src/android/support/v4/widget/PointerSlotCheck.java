@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import harness.Check;
+
+/**
+ * 检查pointer的槽位表:按下id为0,40,63的pointer,抬起再按下,槽位被复用;
+ * {@link ViewDragHelper#isPointerDown(int)}和{@link ViewDragHelper#checkTouchSlop(int, int)}
+ * 对任意大小的id都正确;手势过程中槽位表不重新分配,只有同时按下的pointer比槽位多时才扩容一次.
+ *
+ * Checks the pointer slot table. Pointers with ids 0, 40 and 63 go down, lift and go
+ * down again, reusing their slots. {@link ViewDragHelper#isPointerDown(int)} and
+ * {@link ViewDragHelper#checkTouchSlop(int, int)} are right for ids of any size. The
+ * table is never reallocated during a gesture; it grows once, only when more
+ * pointers are down at once than it has slots.
+ */
+public class PointerSlotCheck {
+    private static ViewDragHelper sHelper;
+    private static long sTime = 1000;
+    private static int sCount;
+    private static final int[] sIds = new int[32];
+    private static final float[] sXs = new float[32];
+    private static final float[] sYs = new float[32];
+
+    public static void main(String[] args) {
+        System.out.println("PointerSlotCheck");
+        final DragScene scene = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+            @Override
+            public boolean tryCaptureView(View child, int pointerId) {
+                return false;
+            }
+        });
+        scene.addChild(0, 0, 1000, 1000);
+        final ViewDragHelper helper = scene.helper;
+        sHelper = helper;
+        final int capacity = helper.getPointerSlotCapacity();
+        final int slop = helper.getTouchSlop();
+
+        down(0, 100, 100);
+        down(40, 300, 100);
+        down(63, 500, 100);
+        final int slot0 = helper.slotForPointer(0);
+        final int slot40 = helper.slotForPointer(40);
+        final int slot63 = helper.slotForPointer(63);
+        Check.that(slot0 >= 0 && slot40 >= 0 && slot63 >= 0
+                && slot0 != slot40 && slot40 != slot63 && slot0 != slot63,
+                "ids 0, 40 and 63 each take their own slot");
+        Check.that(helper.isPointerDown(0) && helper.isPointerDown(40) && helper.isPointerDown(63)
+                && !helper.isPointerDown(1) && !helper.isPointerDown(41)
+                && !helper.isPointerDown(64), "isPointerDown reports exactly the pointers down");
+
+        move(0, slop + 5, 0);
+        move(40, 0, slop + 5);
+        Check.that(helper.checkTouchSlop(ViewDragHelper.DIRECTION_HORIZONTAL, 0)
+                && !helper.checkTouchSlop(ViewDragHelper.DIRECTION_VERTICAL, 0)
+                && helper.checkTouchSlop(ViewDragHelper.DIRECTION_VERTICAL, 40)
+                && !helper.checkTouchSlop(ViewDragHelper.DIRECTION_HORIZONTAL, 40)
+                && !helper.checkTouchSlop(ViewDragHelper.DIRECTION_ALL, 63),
+                "checkTouchSlop follows each pointer's own motion");
+        Check.that(!helper.checkTouchSlop(ViewDragHelper.DIRECTION_ALL, 41),
+                "checkTouchSlop is false for a pointer that is not down");
+
+        up(40);
+        Check.that(!helper.isPointerDown(40) && helper.slotForPointer(40) < 0,
+                "a lifted pointer gives its slot up");
+        down(40, 700, 700);
+        Check.that(helper.slotForPointer(40) == slot40
+                && !helper.checkTouchSlop(ViewDragHelper.DIRECTION_ALL, 40),
+                "pressing again reuses the slot with fresh motion");
+        up(63);
+        down(7, 800, 800);
+        Check.that(helper.slotForPointer(7) == slot63, "a new id takes the freed slot");
+        Check.that(helper.checkTouchSlop(ViewDragHelper.DIRECTION_HORIZONTAL, 0),
+                "other pointers keep their state");
+        upAll();
+        Check.that(!helper.isPointerDown(0) && !helper.isPointerDown(7)
+                && !helper.isPointerDown(40), "the last pointer up releases every slot");
+
+        down(63, 100, 100);
+        Check.that(helper.slotForPointer(63) == 0, "the next gesture starts from the first slot");
+        upAll();
+        Check.that(helper.getPointerSlotCapacity() == capacity,
+                "no reallocation while at most " + capacity + " pointers are down");
+
+        // More pointers at once than slots: the table grows once and then stays
+        for (int id = 0; id <= capacity; id++) {
+            down(id * 5, 50 + id * 40, 500);
+        }
+        final int grown = helper.getPointerSlotCapacity();
+        boolean allDown = true;
+        for (int id = 0; id <= capacity; id++) {
+            allDown &= helper.isPointerDown(id * 5);
+        }
+        Check.that(grown > capacity && allDown, "the table grows to hold every pointer down");
+        upAll();
+        for (int round = 0; round < 3; round++) {
+            for (int id = 0; id <= capacity; id++) {
+                down(id * 7, 50 + id * 40, 500);
+            }
+            upAll();
+        }
+        Check.that(helper.getPointerSlotCapacity() == grown,
+                "later gestures do not reallocate");
+        Check.finish();
+    }
+
+    private static void down(int id, float x, float y) {
+        sIds[sCount] = id;
+        sXs[sCount] = x;
+        sYs[sCount] = y;
+        sCount++;
+        final int action = sCount == 1 ? MotionEvent.ACTION_DOWN
+                : MotionEvent.ACTION_POINTER_DOWN
+                        | ((sCount - 1) << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+        dispatch(action);
+    }
+
+    private static void move(int id, float dx, float dy) {
+        final int index = indexOf(id);
+        sXs[index] += dx;
+        sYs[index] += dy;
+        dispatch(MotionEvent.ACTION_MOVE);
+    }
+
+    private static void up(int id) {
+        final int index = indexOf(id);
+        dispatch(MotionEvent.ACTION_POINTER_UP
+                | (index << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+        sCount--;
+        System.arraycopy(sIds, index + 1, sIds, index, sCount - index);
+        System.arraycopy(sXs, index + 1, sXs, index, sCount - index);
+        System.arraycopy(sYs, index + 1, sYs, index, sCount - index);
+    }
+
+    private static void upAll() {
+        while (sCount > 1) {
+            up(sIds[sCount - 1]);
+        }
+        dispatch(MotionEvent.ACTION_UP);
+        sCount = 0;
+    }
+
+    private static int indexOf(int id) {
+        for (int i = 0; i < sCount; i++) {
+            if (sIds[i] == id) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("pointer " + id + " is not down");
+    }
+
+    private static void dispatch(int action) {
+        sTime += 8;
+        SystemClock.setUptimeMillis(sTime);
+        final int[] ids = new int[sCount];
+        final float[] xs = new float[sCount];
+        final float[] ys = new float[sCount];
+        System.arraycopy(sIds, 0, ids, 0, sCount);
+        System.arraycopy(sXs, 0, xs, 0, sCount);
+        System.arraycopy(sYs, 0, ys, 0, sCount);
+        sHelper.processTouchEvent(MotionEvent.obtain(sTime, action, ids, xs, ys));
+    }
+}
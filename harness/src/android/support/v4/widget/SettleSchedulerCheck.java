@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+
+import harness.Check;
+
+/**
+ * 检查共用的settle驱动器:几个helper挂在同一个驱动器上,两帧之间在不同时刻开始的两个相同的settle
+ * 从上一次tick的时间算起,之后每帧位置完全相同;每次tick只报告这一帧真正移动过view的父view;
+ * settle结束的helper回到空闲状态并离开驱动器的列表.
+ *
+ * Checks the shared settle scheduler with several helpers attached. Two identical
+ * settles started at different moments between two frames both count from the last
+ * tick and stay at the same position on every frame. Each tick reports exactly the
+ * parents whose children moved, and helpers whose settles end go idle and leave the
+ * scheduler.
+ */
+public class SettleSchedulerCheck {
+    private static final int FRAME = DragScene.FRAME_MS;
+
+    public static void main(String[] args) {
+        System.out.println("SettleSchedulerCheck");
+        final ViewDragSettleScheduler scheduler = new ViewDragSettleScheduler();
+        final DragScene[] scenes = new DragScene[4];
+        final View[] children = new View[scenes.length];
+        for (int i = 0; i < scenes.length; i++) {
+            scenes[i] = new DragScene(2.0f, 1000, 1000, new ViewDragHelper.Callback() {
+                @Override
+                public boolean tryCaptureView(View child, int pointerId) {
+                    return true;
+                }
+
+                @Override
+                public int getViewHorizontalDragRange(View child) {
+                    return 1000;
+                }
+            });
+            scenes[i].helper.setSettleScheduler(scheduler);
+            children[i] = scenes[i].addChild(0, 0, 100, 100);
+        }
+
+        // 0 starts while the scheduler is idle, and one tick runs
+        long frame = 1000;
+        SystemClock.setUptimeMillis(frame);
+        scenes[0].helper.smoothSlideViewTo(children[0], 300, 0);
+        frame += FRAME;
+        scheduler.tick(frame);
+        Check.that(children[0].getLeft() > 0 && scheduler.getDirtyParentCount() == 1
+                && scheduler.getDirtyParent(0) == scenes[0].parent,
+                "first tick moves and reports the only settling parent");
+
+        // 1 and 2 start the same settle at different moments before the next frame,
+        // 3 a slide of 2 px that only moves on a few frames
+        SystemClock.setUptimeMillis(frame + 4);
+        scenes[1].helper.smoothSlideViewTo(children[1], 300, 0);
+        SystemClock.setUptimeMillis(frame + 9);
+        scenes[2].helper.smoothSlideViewTo(children[2], 300, 0);
+        scenes[3].helper.smoothSlideViewTo(children[3], 2, 0);
+        Check.that(scheduler.getActiveHelperCount() == 4, "every settling helper is tracked");
+
+        final int[] lastLeft = new int[scenes.length];
+        int apart = 0;
+        int wrongDirty = 0;
+        int wrongActive = 0;
+        int cleanWhileSettling = 0;
+        boolean shrank = false;
+        while (scheduler.isRunning()) {
+            for (int i = 0; i < scenes.length; i++) {
+                lastLeft[i] = children[i].getLeft();
+            }
+            frame += FRAME;
+            SystemClock.setUptimeMillis(frame);
+            scheduler.tick(frame);
+            if (children[1].getLeft() != children[2].getLeft()) {
+                apart++;
+            }
+            int settling = 0;
+            for (int i = 0; i < scenes.length; i++) {
+                final boolean moved = children[i].getLeft() != lastLeft[i];
+                if (moved != isDirty(scheduler, scenes[i].parent)) {
+                    wrongDirty++;
+                }
+                if (scenes[i].helper.getViewDragState() == ViewDragHelper.STATE_SETTLING) {
+                    settling++;
+                    if (!moved) {
+                        cleanWhileSettling++;
+                    }
+                }
+            }
+            if (settling != scheduler.getActiveHelperCount()) {
+                wrongActive++;
+            }
+            if (settling > 0 && settling < scenes.length) {
+                shrank = true;
+            }
+        }
+        Check.that(apart == 0, "settles started between frames share one timeline");
+        Check.that(wrongDirty == 0, "each tick reports exactly the parents that moved");
+        Check.that(cleanWhileSettling > 0, "a settling helper that did not move stays clean");
+        Check.that(wrongActive == 0 && shrank,
+                "helpers leave the scheduler as their settles end");
+        Check.that(scheduler.getActiveHelperCount() == 0 && !scheduler.tick(frame + FRAME)
+                && scheduler.getDirtyParentCount() == 0,
+                "an idle scheduler tracks no helper and reports nothing");
+        int idle = 0;
+        for (int i = 0; i < scenes.length; i++) {
+            if (scenes[i].helper.getViewDragState() == ViewDragHelper.STATE_IDLE) {
+                idle++;
+            }
+        }
+        Check.that(idle == scenes.length, "every helper goes idle");
+        Check.that(children[0].getLeft() == 300 && children[1].getLeft() == 300
+                && children[2].getLeft() == 300 && children[3].getLeft() == 2,
+                "every view rests at its target");
+        Check.finish();
+    }
+
+    private static boolean isDirty(ViewDragSettleScheduler scheduler, ViewGroup parent) {
+        for (int i = 0; i < scheduler.getDirtyParentCount(); i++) {
+            if (scheduler.getDirtyParent(i) == parent) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 比较ViewDragHelper内置的{@link PointerVelocityEstimator}和VelocityTracker:松手速度的准确性,
+ * VelocityTracker的obtain/recycle在对象池不够用时(比如三个嵌套的helper同时收到事件)分配的对象数,
+ * 以及一次拖曳手势的耗时.VelocityTracker用的是harness的Java替身,耗时只能做相对比较.
+ *
+ * Compares ViewDragHelper's built-in {@link PointerVelocityEstimator} with the
+ * VelocityTracker path: accuracy of the release velocity, trackers allocated by
+ * obtain and recycle once the pool of two runs out (three nested helpers seeing the
+ * same gesture), and the cost of a drag gesture. The VelocityTracker is the
+ * harness's Java stand-in, so its timings only compare relatively.
+ */
+public class VelocityBenchmark {
+    private static final int MOVES = 24;
+    private static final int INTERVAL_MS = 8;
+    private static final int NESTED_HELPERS = 3;
+    private static final int GESTURES = 1000;
+
+    /**
+     * Drags any child horizontally and keeps the release velocity.
+     */
+    static class ReleaseCallback extends ViewDragHelper.Callback {
+        float releasedVelocity;
+
+        @Override
+        public boolean tryCaptureView(View child, int pointerId) {
+            return true;
+        }
+
+        @Override
+        public int getViewHorizontalDragRange(View child) {
+            return 10000;
+        }
+
+        @Override
+        public int clampViewPositionHorizontal(View child, int left, int dx) {
+            return left;
+        }
+
+        @Override
+        public void onViewReleased(View child, float xvel, float yvel) {
+            releasedVelocity = xvel;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("VelocityBenchmark");
+        final ReleaseCallback callback = new ReleaseCallback();
+        final DragScene scene = new DragScene(2.0f, 4000, 1000, callback);
+        final View child = scene.addChild(0, 0, 200, 200);
+
+        // 8 px every 8 ms is 1000 px/s; x = 2000 t^2 moves at 4000 t px/s
+        final MotionEvent[] linear = DragScene.drag(1000, 100, 100, 8, 0, MOVES, INTERVAL_MS);
+        final MotionEvent[] accelerating = accelerating(1000, 100, 100);
+        final float endSpeed = 4000 * (MOVES * INTERVAL_MS / 1000f);
+        for (int estimator = 0; estimator < 2; estimator++) {
+            scene.helper.setVelocityEstimatorEnabled(estimator == 1);
+            final String path = estimator == 1 ? "estimator" : "VelocityTracker";
+            final float linearVelocity = release(scene, child, callback, linear);
+            final float acceleratingVelocity = release(scene, child, callback, accelerating);
+            Bench.report(path + ", release velocity", String.format(
+                    "%.1f (1000 expected), %.1f (%.0f expected)",
+                    linearVelocity, acceleratingVelocity, endSpeed));
+            Check.near(path + ": linear release velocity", linearVelocity, 1000, 1000 * 0.02);
+            Check.near(path + ": accelerating release velocity", acceleratingVelocity,
+                    endSpeed, endSpeed * 0.02);
+        }
+
+        // Nested helpers all see the gesture, like two drawer edges around a sliding pane
+        final ViewDragHelper[] helpers = new ViewDragHelper[NESTED_HELPERS];
+        for (int i = 0; i < NESTED_HELPERS; i++) {
+            helpers[i] = new DragScene(2.0f, 4000, 1000, callback).helper;
+        }
+        for (int estimator = 0; estimator < 2; estimator++) {
+            final String path = estimator == 1 ? "estimator" : "VelocityTracker";
+            for (ViewDragHelper helper : helpers) {
+                helper.setVelocityEstimatorEnabled(estimator == 1);
+            }
+            final int created = VelocityTracker.getCreatedCount();
+            for (int g = 0; g < GESTURES; g++) {
+                for (int e = 0; e < linear.length; e++) {
+                    for (ViewDragHelper helper : helpers) {
+                        helper.shouldInterceptTouchEvent(linear[e]);
+                    }
+                }
+            }
+            final int allocated = VelocityTracker.getCreatedCount() - created;
+            Bench.report(path + ", trackers allocated", allocated + " in " + GESTURES
+                    + " gestures, " + NESTED_HELPERS + " helpers");
+            if (estimator == 1) {
+                Check.that(allocated == 0, "the estimator should not allocate trackers");
+            }
+        }
+
+        for (int estimator = 0; estimator < 2; estimator++) {
+            scene.helper.setVelocityEstimatorEnabled(estimator == 1);
+            final String path = estimator == 1 ? "estimator" : "VelocityTracker";
+            final double perGesture = Bench.run(path + ", drag and release", 2000,
+                    new Bench.Op() {
+                        public long run(int iteration) {
+                            return (long) release(scene, child, callback, linear);
+                        }
+                    });
+            Bench.print("  per event", perGesture / linear.length);
+        }
+
+        final PointerVelocityEstimator estimator = new PointerVelocityEstimator(4);
+        Bench.run("estimator addSample", 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                estimator.addSample(iteration & 3, iteration, iteration, 0);
+                return iteration;
+            }
+        });
+        Bench.run("estimator computeCurrentVelocity, 4 slots", 100000, new Bench.Op() {
+            public long run(int iteration) {
+                estimator.computeCurrentVelocity(4, 8000);
+                return (long) estimator.getXVelocity(iteration & 3);
+            }
+        });
+        Check.finish();
+    }
+
+    // 重放手势,返回松手时的X速度,然后把子view放回原处.
+    private static float release(DragScene scene, View child, ReleaseCallback callback,
+            MotionEvent[] events) {
+        callback.releasedVelocity = Float.NaN;
+        scene.play(events);
+        child.offsetLeftAndRight(-child.getLeft());
+        return callback.releasedVelocity;
+    }
+
+    // x = 2000 t^2的拖曳,每INTERVAL_MS一个移动事件
+    private static MotionEvent[] accelerating(long startTime, float x, float y) {
+        final MotionEvent[] events = new MotionEvent[MOVES + 2];
+        events[0] = MotionEvent.obtain(startTime, startTime, MotionEvent.ACTION_DOWN, x, y, 0);
+        float lastX = x;
+        for (int i = 1; i <= MOVES; i++) {
+            final float t = i * INTERVAL_MS / 1000f;
+            lastX = x + 2000 * t * t;
+            events[i] = MotionEvent.obtain(startTime, startTime + i * INTERVAL_MS,
+                    MotionEvent.ACTION_MOVE, lastX, y, 0);
+        }
+        events[MOVES + 1] = MotionEvent.obtain(startTime, startTime + MOVES * INTERVAL_MS,
+                MotionEvent.ACTION_UP, lastX, y, 0);
+        return events;
+    }
+}
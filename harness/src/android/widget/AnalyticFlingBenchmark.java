@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 比较fling的解析曲线和样条曲线:两条曲线的最大偏差,每帧computeScrollOffset的耗时,
+ * 以及fling进行中切换设置时位置不跳变.
+ *
+ * Compares the analytic fling curve with the spline: the largest gap between the two,
+ * the cost of computeScrollOffset per frame, and that toggling the setting during a
+ * fling does not make the position jump.
+ */
+public class AnalyticFlingBenchmark {
+    private static final int VELOCITY = 4000;
+    private static final int MAX = 1000000;
+
+    static final class Clock implements Scroller.TimeSource {
+        long now;
+
+        public long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("AnalyticFlingBenchmark");
+        final Clock clock = new Clock();
+        final Scroller spline = newScroller(clock, false);
+        final Scroller analytic = newScroller(clock, true);
+
+        clock.now = 0;
+        spline.fling(0, 0, 0, VELOCITY, 0, 0, 0, MAX);
+        analytic.fling(0, 0, 0, VELOCITY, 0, 0, 0, MAX);
+        Check.that(spline.getDuration() == analytic.getDuration(), "durations should match");
+        Check.that(spline.getFinalY() == analytic.getFinalY(), "distances should match");
+        final float distance = spline.getFinalY();
+        double gap = 0;
+        for (int t = 0; t <= spline.getDuration(); t++) {
+            gap = Math.max(gap, Math.abs(positionAt(spline, t) - positionAt(analytic, t)));
+        }
+        Bench.report("max gap between curves", String.format("%.2f%% of distance",
+                100 * gap / distance));
+        Check.that(gap <= 0.06 * distance, "curves should stay within 6% of the distance");
+
+        // A fling in progress keeps its curve when the setting changes
+        clock.now = 0;
+        analytic.fling(0, 0, 0, VELOCITY, 0, 0, 0, MAX);
+        final int mid = analytic.getDuration() / 3;
+        clock.now = mid;
+        final int before = positionAt(analytic, mid);
+        final float velocityBefore = analytic.getCurrVelocity();
+        analytic.setAnalyticFlingEnabled(false);
+        Check.that(positionAt(analytic, mid) == before,
+                "toggling mid-fling should not move the position");
+        Check.that(analytic.getCurrVelocity() == velocityBefore,
+                "toggling mid-fling should not change the velocity");
+        analytic.setAnalyticFlingEnabled(true);
+
+        final ScrollerSpline table = ScrollerSpline.getDefault();
+        Bench.run("curve only, spline getPosition", 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                return Float.floatToIntBits(table.getPosition((iteration % 1000) * 0.001f));
+            }
+        });
+        Bench.run("curve only, 1 - (1 - t)^2.5", 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                final float w = 1.0f - (iteration % 1000) * 0.001f;
+                return Float.floatToIntBits(1.0f - w * w * (float) Math.sqrt(w));
+            }
+        });
+        timeFrames("per frame, spline fling", spline, clock);
+        timeFrames("per frame, analytic fling", analytic, clock);
+        Check.finish();
+    }
+
+    private static Scroller newScroller(Clock clock, boolean analytic) {
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        scroller.setAnalyticFlingEnabled(analytic);
+        return scroller;
+    }
+
+    // Evaluates the fling at time t, in milliseconds since it started
+    private static int positionAt(Scroller scroller, int t) {
+        scroller.computeScrollOffset(t);
+        return scroller.getCurrY();
+    }
+
+    // Evaluates one fling at every millisecond of its duration, over and over
+    private static void timeFrames(String name, final Scroller scroller, final Clock clock) {
+        clock.now = 0;
+        scroller.fling(0, 0, 0, VELOCITY, 0, 0, 0, MAX);
+        final int duration = scroller.getDuration();
+        Bench.run(name, 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                final int t = iteration % duration;
+                if (t == 0) {
+                    clock.now = 0;
+                    scroller.fling(0, 0, 0, VELOCITY, 0, 0, 0, MAX);
+                }
+                scroller.computeScrollOffset(t);
+                return scroller.getCurrY();
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 验证{@link Scroller#predictFlings}文档里的误差上限:在1到50000 px/s的每一个整数速率上,
+ * 和精确的对数模型相比相对误差不超过5e-4,和{@link Scroller#fling}相比不超过3像素,1毫秒.
+ * 同时检查fastLog2和fastExp2各自的误差,并测量批量预测和逐个调用fling的耗时.
+ *
+ * Checks the error bounds documented on {@link Scroller#predictFlings}: for every
+ * integer velocity from 1 to 50000 px/s, the relative error against the exact log
+ * model stays below 5e-4, and results are within three pixels and one millisecond of
+ * {@link Scroller#fling}. Also checks fastLog2 and fastExp2 on their own and times a
+ * batch prediction against calling fling once per candidate.
+ */
+public class FlingPredictionCheck {
+    private static final int MAX_VELOCITY = 50000;
+    private static final double RELATIVE_BOUND = 5e-4;
+    private static final int PIXEL_BOUND = 3;
+    private static final int MILLIS_BOUND = 1;
+
+    public static void main(String[] args) {
+        System.out.println("FlingPredictionCheck");
+        checkFastMath();
+
+        final ScrollerPhysics physics = ScrollerPhysics.DEFAULT;
+        final float[] velocities = new float[2 * MAX_VELOCITY];
+        for (int v = 1; v <= MAX_VELOCITY; v++) {
+            velocities[2 * (v - 1)] = v;
+            velocities[2 * (v - 1) + 1] = -v;
+        }
+        final int count = velocities.length;
+        final int[] finals = new int[count];
+        final int[] durations = new int[count];
+        Scroller.predictFlings(0, velocities, count, finals, durations);
+
+        final double alpha = physics.getAlpha();
+        final double rate = physics.getDecelerationRate();
+        final double tension = physics.getStartTension();
+        double worstDistance = 0;
+        double worstDuration = 0;
+        int worstPixels = 0;
+        int worstMillis = 0;
+        for (int i = 0; i < count; i++) {
+            final float velocity = velocities[i];
+            final double l = Math.log(tension * Math.abs(velocity) / alpha);
+            final double distance = alpha * Math.exp(rate / (rate - 1.0) * l);
+            final double duration = 1000.0 * Math.exp(1.0 / (rate - 1.0) * l);
+            final int predicted = Math.abs(finals[i]);
+            worstDistance = Math.max(worstDistance, relative(predicted, distance));
+            worstDuration = Math.max(worstDuration, relative(durations[i], duration));
+            Check.that(velocity > 0 ? finals[i] >= 0 : finals[i] <= 0,
+                    "sign of the final position at " + velocity);
+
+            final float speed = Math.abs(velocity);
+            final int pixels = Math.abs(predicted - physics.computeFlingDistance(speed));
+            final int millis = Math.abs(durations[i] - physics.computeFlingDuration(speed));
+            worstPixels = Math.max(worstPixels, pixels);
+            worstMillis = Math.max(worstMillis, millis);
+        }
+
+        // Against fling() itself, on a sample of the sweep
+        final Scroller scroller = new Scroller(new Context(1.0f));
+        for (int i = 0; i < count; i += 97) {
+            scroller.fling(0, 0, 0, (int) velocities[i], 0, 0, -10000000, 10000000);
+            worstPixels = Math.max(worstPixels, Math.abs(finals[i] - scroller.getFinalY()));
+            worstMillis = Math.max(worstMillis, Math.abs(durations[i] - scroller.getDuration()));
+            scroller.abortAnimation();
+        }
+        Bench.report("worst relative error, distance", String.format("%.2e", worstDistance));
+        Bench.report("worst relative error, duration", String.format("%.2e", worstDuration));
+        Check.that(worstDistance <= RELATIVE_BOUND, "relative distance error " + worstDistance);
+        Check.that(worstDuration <= RELATIVE_BOUND, "relative duration error " + worstDuration);
+        Bench.report("worst difference from fling()", worstPixels + " px, " + worstMillis + " ms");
+        Check.that(worstPixels <= PIXEL_BOUND, "fling distance off by " + worstPixels + " px");
+        Check.that(worstMillis <= MILLIS_BOUND, "fling duration off by " + worstMillis + " ms");
+
+        final int batch = 256;
+        Bench.run("predictFlings, batch of " + batch, 2000, new Bench.Op() {
+            public long run(int iteration) {
+                Scroller.predictFlings(0, velocities, batch, finals, durations);
+                return finals[batch - 1];
+            }
+        });
+        Bench.run("fling() x" + batch, 2000, new Bench.Op() {
+            public long run(int iteration) {
+                long sum = 0;
+                for (int i = 0; i < batch; i++) {
+                    scroller.fling(0, 0, 0, (int) velocities[i], 0, 0, -10000000, 10000000);
+                    sum += scroller.getFinalY();
+                }
+                return sum;
+            }
+        });
+        Check.finish();
+    }
+
+    private static void checkFastMath() {
+        double log2Error = 0;
+        for (int i = 0; i <= 1000000; i++) {
+            final float x = 1.0f + i / 1000000f;
+            log2Error = Math.max(log2Error,
+                    Math.abs(Scroller.fastLog2(x) - Math.log(x) / Math.log(2)));
+        }
+        double exp2Error = 0;
+        for (int i = 0; i <= 1000000; i++) {
+            final float y = -20.0f + 40.0f * i / 1000000f;
+            final double exact = Math.pow(2, y);
+            exp2Error = Math.max(exp2Error, Math.abs(Scroller.fastExp2(y) - exact) / exact);
+        }
+        Bench.report("fastLog2 max absolute error", String.format("%.2e", log2Error));
+        Bench.report("fastExp2 max relative error", String.format("%.2e", exp2Error));
+        Check.that(log2Error < 1.5e-4, "fastLog2 error " + log2Error);
+        Check.that(exp2Error < 5e-5, "fastExp2 error " + exp2Error);
+    }
+
+    // Relative error beyond the one unit lost when the result is truncated to an int
+    private static double relative(double actual, double expected) {
+        return Math.max(0, Math.abs(actual - expected) - 1) / expected;
+    }
+}
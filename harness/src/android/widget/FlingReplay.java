@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Bench;
+import harness.Check;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 用注入的时间源重放记录下来的滑动会话,不需要设备,也不需要等待真实时间.
+ * 会话是一个文本文件,每行一条命令(时间单位毫秒,同一会话内单调不减):
+ *
+ * Replays recorded scroll sessions through a {@link Scroller} driven by an injected
+ * {@link Scroller.TimeSource}, off-device and faster than real time. A session is a
+ * text file with one command per line; times are in milliseconds and never decrease:
+ *
+ * <pre>
+ * fling  time startX startY velocityX velocityY minX maxX minY maxY
+ * scroll time startX startY dx dy duration
+ * abort  time
+ * frame  time
+ * </pre>
+ *
+ * <p>Each frame evaluates the scroller at its time and folds the position into a
+ * checksum. The driver replays every session twice, checks that both replays agree
+ * and reports how much faster than real time the replay ran. Without arguments it
+ * replays a generated session of 200 flings.</p>
+ *
+ * Usage: FlingReplay [session-file ...]
+ */
+public class FlingReplay {
+    private static final int FLING = 0;
+    private static final int SCROLL = 1;
+    private static final int ABORT = 2;
+    private static final int FRAME = 3;
+
+    /**
+     * A session parsed into flat arrays, so that replaying it allocates nothing.
+     */
+    static final class Session {
+        final String name;
+        int count;
+        int[] op = new int[64];
+        long[] time = new long[64];
+        int[][] args = new int[64][];
+
+        Session(String name) {
+            this.name = name;
+        }
+
+        void add(int command, long at, int... values) {
+            if (count == op.length) {
+                op = Arrays.copyOf(op, count * 2);
+                time = Arrays.copyOf(time, count * 2);
+                args = Arrays.copyOf(args, count * 2);
+            }
+            op[count] = command;
+            time[count] = at;
+            args[count] = values;
+            count++;
+        }
+
+        long duration() {
+            return count == 0 ? 0 : time[count - 1] - time[0];
+        }
+    }
+
+    /**
+     * 手动推进的时钟.
+     * Clock the replay moves by hand.
+     */
+    static final class ReplayClock implements Scroller.TimeSource {
+        long now;
+
+        public long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("FlingReplay");
+        final ArrayList<Session> sessions = new ArrayList<Session>();
+        if (args.length == 0) {
+            sessions.add(generate(200, 42));
+        }
+        for (String path : args) {
+            sessions.add(parse(path));
+        }
+
+        final ReplayClock clock = new ReplayClock();
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        for (final Session session : sessions) {
+            final long first = replay(session, scroller, clock);
+            final long second = replay(session, scroller, clock);
+            Check.that(first == second, session.name + ": replays should be identical");
+            final double nanos = Bench.run(session.name + ", " + session.count + " commands", 5,
+                    new Bench.Op() {
+                        public long run(int iteration) {
+                            return replay(session, scroller, clock);
+                        }
+                    });
+            final double speedup = session.duration() * 1e6 / nanos;
+            Bench.report("  faster than real time", String.format("%.0fx", speedup));
+            Check.that(speedup > 1, session.name + ": replay should beat real time");
+        }
+        Check.finish();
+    }
+
+    /**
+     * @return Checksum of every position evaluated by the frames of the session
+     */
+    static long replay(Session session, Scroller scroller, ReplayClock clock) {
+        scroller.abortAnimation();
+        long checksum = 0;
+        for (int i = 0; i < session.count; i++) {
+            clock.now = session.time[i];
+            final int[] a = session.args[i];
+            switch (session.op[i]) {
+                case FLING:
+                    scroller.fling(a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]);
+                    break;
+                case SCROLL:
+                    scroller.startScroll(a[0], a[1], a[2], a[3], a[4]);
+                    break;
+                case ABORT:
+                    scroller.abortAnimation();
+                    break;
+                case FRAME:
+                    scroller.computeScrollOffset(clock.now);
+                    checksum = checksum * 31 + scroller.getCurrX();
+                    checksum = checksum * 31 + scroller.getCurrY();
+                    break;
+            }
+        }
+        return checksum;
+    }
+
+    // A list being flung again and again, with a frame every 16 ms in between
+    static Session generate(int flings, long seed) {
+        final Session session = new Session("generated session");
+        final Random random = new Random(seed);
+        long now = 0;
+        int y = 0;
+        for (int i = 0; i < flings; i++) {
+            final int velocity = (random.nextBoolean() ? 1 : -1) * (500 + random.nextInt(7500));
+            session.add(FLING, now, 0, y, 0, velocity, 0, 0, 0, 100000);
+            final int frames = 20 + random.nextInt(100);
+            for (int f = 0; f < frames; f++) {
+                now += 16;
+                session.add(FRAME, now);
+            }
+            y = Math.max(0, Math.min(100000, y + velocity / 4));
+            if (random.nextInt(4) == 0) {
+                session.add(ABORT, now);
+            }
+        }
+        return session;
+    }
+
+    static Session parse(String path) throws IOException {
+        final Session session = new Session(path);
+        final BufferedReader reader = new BufferedReader(new FileReader(path));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] parts = line.split("\\s+");
+                final int[] values = new int[parts.length - 2];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Integer.parseInt(parts[i + 2]);
+                }
+                final long at = Long.parseLong(parts[1]);
+                if ("fling".equals(parts[0]) && values.length == 8) {
+                    session.add(FLING, at, values);
+                } else if ("scroll".equals(parts[0]) && values.length == 5) {
+                    session.add(SCROLL, at, values);
+                } else if ("abort".equals(parts[0]) && values.length == 0) {
+                    session.add(ABORT, at);
+                } else if ("frame".equals(parts[0]) && values.length == 0) {
+                    session.add(FRAME, at);
+                } else {
+                    throw new IOException(path + ": bad command: " + line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return session;
+    }
+}
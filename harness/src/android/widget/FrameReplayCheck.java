@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Check;
+
+/**
+ * 重放一次有晚到帧的fling,检查{@link Scroller#computeScrollOffsetForFrame(long, long)}:
+ * 位置按显示时间计算;显示时间的间隔为2倍,3倍帧间隔时分别记1个和2个掉帧,1.5倍不算掉帧;
+ * 外推距离等于当前时间和显示时间两个位置之间的距离,按显示时间计算时为0;
+ * 新的fling开始时和结束之后都不多记掉帧,resetFrameMetrics清空统计.
+ *
+ * Replays a fling with late frames through
+ * {@link Scroller#computeScrollOffsetForFrame(long, long)}. Positions follow the
+ * presentation time. Gaps of two and three frame intervals count one and two dropped
+ * frames, a gap of one and a half intervals counts none. The look-ahead is the
+ * distance between the positions at the current time and at the presentation time,
+ * and zero when the two are the same. No drops are counted when a new fling starts or
+ * after the end, and resetFrameMetrics clears the metrics.
+ */
+public class FrameReplayCheck {
+    private static final long FRAME = 16;
+    private static final int BOUND = 1000000;
+    // 相对上一帧的显示时间间隔,以及这一间隔记的掉帧数
+    // Presentation gaps from the previous frame, and the drops each one counts
+    private static final long[] GAPS = { 16, 16, 16, 32, 48, 24, 25, 16, 64, 16 };
+    private static final int[] DROPS = { 0, 0, 0, 1, 2, 0, 1, 0, 3, 0 };
+    // 计算帧时比显示时间早多少毫秒
+    private static final long EARLY = 10;
+
+    public static void main(String[] args) {
+        System.out.println("FrameReplayCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final Scroller scroller = newScroller(clock);
+        final Scroller atPresentation = newScroller(clock);
+        final Scroller atNow = newScroller(clock);
+        clock.now = 0;
+        fling(scroller, atPresentation, atNow);
+
+        long presentation = 0;
+        int expectedDrops = 0;
+        int dropMismatches = 0;
+        int positionMismatches = 0;
+        float worstLookAheadGap = 0;
+        float maxLookAhead = 0;
+        int frames = 0;
+        for (int f = 0; !scroller.isFinished(); f++) {
+            if (f < GAPS.length) {
+                presentation += GAPS[f];
+                expectedDrops += DROPS[f];
+            } else {
+                presentation += FRAME;
+            }
+            clock.now = presentation - EARLY;
+            scroller.computeScrollOffsetForFrame(presentation, FRAME);
+            frames++;
+            if (scroller.getDroppedFrameCount() != expectedDrops) {
+                dropMismatches++;
+            }
+            atPresentation.computeScrollOffset(presentation);
+            if (scroller.getCurrX() != atPresentation.getCurrX()
+                    || scroller.getCurrY() != atPresentation.getCurrY()) {
+                positionMismatches++;
+            }
+            if (!atNow.isFinished()) {
+                atNow.computeScrollOffset(clock.now);
+            }
+            final float dx = atPresentation.getCurrX() - atNow.getCurrX();
+            final float dy = atPresentation.getCurrY() - atNow.getCurrY();
+            final float lookAhead = (float) Math.sqrt(dx * dx + dy * dy);
+            worstLookAheadGap = Math.max(worstLookAheadGap,
+                    Math.abs(scroller.getLastFrameLookAhead() - lookAhead));
+            maxLookAhead = Math.max(maxLookAhead, scroller.getLastFrameLookAhead());
+        }
+        Check.that(dropMismatches == 0, "late frames count the dropped frames in their gaps");
+        Check.near("dropped frames", scroller.getDroppedFrameCount(), expectedDrops, 0);
+        Check.that(positionMismatches == 0, "positions follow the presentation time");
+        // 两个轴的位置各取整,差最多1px
+        Check.near("worst look-ahead gap", worstLookAheadGap, 0, 1.5);
+        Check.that(maxLookAhead > 0 && scroller.getMaxFrameLookAhead() == maxLookAhead,
+                "the largest look-ahead is kept");
+        Check.that(scroller.getFrameCount() == frames, "every frame is counted");
+
+        // 结束之后直接在很久之后开始新的fling,第一帧不把空闲的时间算成掉帧;
+        // 按显示时间计算时外推距离为0
+        final int drops = scroller.getDroppedFrameCount();
+        clock.now = presentation + 5000;
+        fling(scroller, atPresentation, atNow);
+        presentation = clock.now + FRAME;
+        clock.now = presentation;
+        scroller.computeScrollOffsetForFrame(presentation, FRAME);
+        Check.that(scroller.getDroppedFrameCount() == drops,
+                "a new fling does not count the idle time as dropped frames");
+        Check.near("look-ahead computed at the presentation time",
+                scroller.getLastFrameLookAhead(), 0, 0);
+
+        scroller.abortAnimation();
+        presentation += 10 * FRAME;
+        clock.now = presentation;
+        Check.that(!scroller.computeScrollOffsetForFrame(presentation, FRAME)
+                && scroller.getFrameCount() == frames + 1
+                && scroller.getDroppedFrameCount() == drops,
+                "a finished scroller counts no frames");
+
+        scroller.resetFrameMetrics();
+        Check.that(scroller.getDroppedFrameCount() == 0 && scroller.getFrameCount() == 0
+                && scroller.getLastFrameLookAhead() == 0 && scroller.getMaxFrameLookAhead() == 0,
+                "resetFrameMetrics clears the metrics");
+        Check.finish();
+    }
+
+    private static Scroller newScroller(FlingReplay.ReplayClock clock) {
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        return scroller;
+    }
+
+    private static void fling(Scroller... scrollers) {
+        for (Scroller scroller : scrollers) {
+            scroller.fling(100, 200, 4000, -3000, -BOUND, BOUND, -BOUND, BOUND);
+        }
+    }
+}
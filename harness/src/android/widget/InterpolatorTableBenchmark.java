@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+import java.lang.ref.WeakReference;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 比较{@link InterpolatorTable}和直接调用插值器:常用插值器和默认粘性流体曲线的误差,求值1000次的耗时
+ * (单一插值器的调用点和几种插值器混用的调用点),并检查缓存按对象身份查找,插值器被回收后表也被释放.
+ *
+ * Compares {@link InterpolatorTable} with calling the interpolator directly: error
+ * and cost of 1000 evaluations for the common interpolators and the default viscous
+ * fluid curve, at a call site that sees one interpolator and at one that sees all of
+ * them. Also checks that the cache looks interpolators up by identity and lets them be
+ * collected.
+ */
+public class InterpolatorTableBenchmark {
+    // Each timed operation evaluates STEPS points, so the results are per STEPS calls
+    private static final int STEPS = 1000;
+    private static final int ROUNDS = 200;
+
+    /**
+     * 按配置比较相等的插值器,像equals被覆盖的平台类那样.
+     * Interpolator that is equal to any other of its class, like a platform class that
+     * compares configurations in equals.
+     */
+    static final class PowerInterpolator implements Interpolator {
+        private final float mPower;
+
+        PowerInterpolator(float power) {
+            mPower = power;
+        }
+
+        public float getInterpolation(float t) {
+            return (float) Math.pow(t, mPower);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PowerInterpolator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("InterpolatorTableBenchmark");
+        checkCache();
+
+        final ScrollerPhysics physics = ScrollerPhysics.DEFAULT;
+        final Interpolator viscous = new Interpolator() {
+            public float getInterpolation(float t) {
+                return physics.viscousFluid(t);
+            }
+        };
+        final String[] names = {
+            "linear", "accelerate-decelerate", "decelerate", "overshoot", "viscous fluid"
+        };
+        final Interpolator[] interpolators = {
+            new LinearInterpolator(), new AccelerateDecelerateInterpolator(),
+            new DecelerateInterpolator(), new OvershootInterpolator(), viscous
+        };
+        final InterpolatorTable[] tables = new InterpolatorTable[interpolators.length];
+        for (int i = 0; i < interpolators.length; i++) {
+            tables[i] = i == interpolators.length - 1 ? physics.getViscousFluidTable()
+                    : InterpolatorTable.forInterpolator(interpolators[i]);
+            double linear = 0;
+            double cubic = 0;
+            for (int k = 0; k <= 100000; k++) {
+                final float t = k / 100000f;
+                final float expected = interpolators[i].getInterpolation(t);
+                linear = Math.max(linear, Math.abs(tables[i].getLinear(t) - expected));
+                cubic = Math.max(cubic, Math.abs(tables[i].getCubic(t) - expected));
+            }
+            Bench.report("max error, " + names[i],
+                    String.format("linear %.1e, cubic %.1e", linear, cubic));
+            // The viscous fluid curve has a kink, so its error is the largest
+            Check.that(cubic < 1e-4 && cubic <= linear,
+                    names[i] + ": cubic error should stay below 1e-4 and the linear error");
+        }
+
+        for (int i = 0; i < interpolators.length; i++) {
+            final Interpolator interpolator = interpolators[i];
+            final InterpolatorTable table = tables[i];
+            Bench.run(names[i] + ", direct", ROUNDS, new Bench.Op() {
+                public long run(int round) {
+                    float sum = 0;
+                    for (int k = 0; k < STEPS; k++) {
+                        sum += interpolator.getInterpolation(t(k));
+                    }
+                    return Float.floatToIntBits(sum);
+                }
+            });
+            Bench.run(names[i] + ", table linear", ROUNDS, new Bench.Op() {
+                public long run(int round) {
+                    float sum = 0;
+                    for (int k = 0; k < STEPS; k++) {
+                        sum += table.getLinear(t(k));
+                    }
+                    return Float.floatToIntBits(sum);
+                }
+            });
+            Bench.run(names[i] + ", table cubic", ROUNDS, new Bench.Op() {
+                public long run(int round) {
+                    float sum = 0;
+                    for (int k = 0; k < STEPS; k++) {
+                        sum += table.getCubic(t(k));
+                    }
+                    return Float.floatToIntBits(sum);
+                }
+            });
+        }
+
+        // Every Scroller in an app shares one call site, which then sees several classes
+        final int count = interpolators.length;
+        Bench.run("mixed, direct", ROUNDS, new Bench.Op() {
+            public long run(int round) {
+                float sum = 0;
+                for (int k = 0; k < STEPS; k++) {
+                    sum += interpolators[k % count].getInterpolation(t(k));
+                }
+                return Float.floatToIntBits(sum);
+            }
+        });
+        Bench.run("mixed, table cubic", ROUNDS, new Bench.Op() {
+            public long run(int round) {
+                float sum = 0;
+                for (int k = 0; k < STEPS; k++) {
+                    sum += tables[k % count].getCubic(t(k));
+                }
+                return Float.floatToIntBits(sum);
+            }
+        });
+        Check.finish();
+    }
+
+    private static float t(int i) {
+        return (float) i / STEPS;
+    }
+
+    // 缓存按对象身份查找,并且不会让插值器一直活着.
+    private static void checkCache() {
+        final PowerInterpolator square = new PowerInterpolator(2.0f);
+        final PowerInterpolator cube = new PowerInterpolator(3.0f);
+        final InterpolatorTable squareTable = InterpolatorTable.forInterpolator(square);
+        final InterpolatorTable cubeTable = InterpolatorTable.forInterpolator(cube);
+        Check.that(squareTable == InterpolatorTable.forInterpolator(square),
+                "the same instance should reuse its table");
+        Check.near("equal instances get their own table", cubeTable.getLinear(0.5f),
+                0.125, 1e-4);
+
+        WeakReference<Interpolator> interpolator = new WeakReference<Interpolator>(
+                new PowerInterpolator(4.0f));
+        WeakReference<InterpolatorTable> table = new WeakReference<InterpolatorTable>(
+                InterpolatorTable.forInterpolator(interpolator.get()));
+        for (int i = 0; i < 20 && (interpolator.get() != null || table.get() != null); i++) {
+            System.gc();
+            // A lookup drops the entries whose interpolator has been collected
+            InterpolatorTable.forInterpolator(square);
+        }
+        Check.that(interpolator.get() == null, "the cache should not keep interpolators alive");
+        Check.that(table.get() == null, "a table should be released with its interpolator");
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Check;
+
+/**
+ * 检查{@link MultiAxisScroller}的fling:没有边界时和{@link Scroller#fling}逐帧一致;
+ * 有边界时每个轴按原本的距离走曲线,碰到边界之前和没有边界时完全一样,之后停在边界上,
+ * 其他轴不受影响;所有轴都停在边界上时fling提前结束.
+ *
+ * Checks {@link MultiAxisScroller} flings. Without bounds they match
+ * {@link Scroller#fling} frame by frame. With bounds, each axis follows the curve of
+ * its natural distance: identical to the unbounded fling until it reaches its bound,
+ * then pinned there, without affecting the other axes. Once every axis is pinned the
+ * fling finishes early.
+ */
+public class MultiAxisFlingCheck {
+    private static final long FRAME = 16;
+    private static final float VX = 3000;
+    private static final float VY = -4000;
+
+    public static void main(String[] args) {
+        System.out.println("MultiAxisFlingCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+
+        // Unbounded, against Scroller
+        final Scroller scroller = new Scroller(new Context(1.0f));
+        scroller.setTimeSource(clock);
+        final MultiAxisScroller free = newScroller(clock);
+        clock.now = 0;
+        scroller.fling(0, 0, (int) VX, (int) VY, -100000, 100000, -100000, 100000);
+        free.fling(new float[] { 0, 0 }, new float[] { VX, VY }, null, null);
+        Check.that(free.getDuration() == scroller.getDuration(), "durations match Scroller");
+        double worst = 0;
+        for (clock.now = 0; scroller.computeScrollOffset(clock.now); clock.now += FRAME) {
+            free.computeScrollOffset(clock.now);
+            worst = Math.max(worst, Math.abs(free.getCurr(0) - scroller.getCurrXf()));
+            worst = Math.max(worst, Math.abs(free.getCurr(1) - scroller.getCurrYf()));
+        }
+        Check.near("unbounded: worst gap to Scroller", worst, 0, 0.5);
+
+        // X bounded at half its natural distance, Y free
+        clock.now = 0;
+        free.fling(new float[] { 0, 0 }, new float[] { VX, VY }, null, null);
+        final float naturalX = free.getFinal(0);
+        final float naturalY = free.getFinal(1);
+        final float maxX = naturalX / 2;
+        final MultiAxisScroller bounded = newScroller(clock);
+        bounded.fling(new float[] { 0, 0 }, new float[] { VX, VY },
+                new float[] { -100000, -100000 }, new float[] { maxX, 100000 });
+        Check.that(bounded.getFinal(0) == maxX, "bounded: X ends on its bound");
+        Check.that(bounded.getFinal(1) == naturalY, "bounded: Y keeps its natural end");
+        int beforeBound = 0;
+        int pinned = 0;
+        int mismatched = 0;
+        for (clock.now = 0; bounded.computeScrollOffset(clock.now); clock.now += FRAME) {
+            free.computeScrollOffset(clock.now);
+            final float x = bounded.getCurr(0);
+            if (free.getCurr(0) < maxX) {
+                beforeBound++;
+                if (x != free.getCurr(0)
+                        || bounded.getCurrVelocity(0) != free.getCurrVelocity(0)) {
+                    mismatched++;
+                }
+            } else {
+                pinned++;
+                if (x != maxX || bounded.getCurrVelocity(0) != 0) {
+                    mismatched++;
+                }
+            }
+            if (bounded.getCurr(1) != free.getCurr(1)) {
+                mismatched++;
+            }
+        }
+        Check.that(beforeBound > 1 && pinned > 1, "bounded: X runs, then is pinned");
+        Check.that(mismatched == 0,
+                "bounded: X follows the natural curve until pinned, Y is unaffected");
+        Check.that(bounded.getCurr(0) == maxX && bounded.getCurr(1) == naturalY,
+                "bounded: ends at the pinned X and the natural Y");
+
+        // Both axes bounded: the fling finishes once both are pinned
+        clock.now = 0;
+        bounded.fling(new float[] { 0, 0 }, new float[] { VX, VY },
+                new float[] { -100000, naturalY / 2 }, new float[] { maxX, 100000 });
+        for (clock.now = 0; bounded.computeScrollOffset(clock.now); clock.now += FRAME) {
+        }
+        Check.that(clock.now < bounded.getDuration(),
+                "both pinned: finishes before the fling's duration");
+        Check.that(bounded.getCurr(0) == maxX && bounded.getCurr(1) == naturalY / 2,
+                "both pinned: rests on both bounds");
+        Check.finish();
+    }
+
+    private static MultiAxisScroller newScroller(FlingReplay.ReplayClock clock) {
+        final MultiAxisScroller scroller = new MultiAxisScroller(2);
+        scroller.setTimeSource(clock);
+        return scroller;
+    }
+}
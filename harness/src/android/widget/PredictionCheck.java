@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+import android.view.animation.DecelerateInterpolator;
+
+import harness.Check;
+
+/**
+ * 检查{@link Scroller#getPositionXAt}和{@link Scroller#getVelocityAt}的预测:越界回弹的fling
+ * 在曲线越过边界之前做的预测,到了fling时长之后回弹还要继续,不能直接跳到边界上;
+ * 滑动和fling的速率用同一个定义,都等于预测位置的差分,并且不为负.
+ *
+ * Checks the predictions of {@link Scroller#getPositionXAt} and
+ * {@link Scroller#getVelocityAt}. For flings that spring back, positions predicted
+ * before the curve crosses the bound must follow the spring on past the fling's
+ * duration instead of jumping to the bound. Scroll and fling speeds share one
+ * definition: the difference of predicted positions, never negative.
+ */
+public class PredictionCheck {
+    private static final long FRAME = 16;
+
+    public static void main(String[] args) {
+        System.out.println("PredictionCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        scroller.setSpringBackEnabled(true);
+
+        final int velocity = 4000;
+        final int natural = ScrollerPhysics.DEFAULT.computeFlingDistance(velocity);
+        final double[] fractions = { 0.5, 0.9, 0.99, 0.995, 0.999 };
+        for (double fraction : fractions) {
+            final int bound = (int) (natural * fraction);
+            final String what = "bound at " + fraction + " of the natural end";
+            clock.now = 0;
+            scroller.fling(0, 0, velocity, 0, 0, bound, 0, 0);
+            final int duration = scroller.getDuration();
+            final int frames = (int) ((duration + 1000) / FRAME);
+            final float[] predicted = new float[frames];
+            for (int i = 0; i < frames; i++) {
+                predicted[i] = scroller.getPositionXAt(i * FRAME);
+            }
+            // The spring runs on past the end of the fling curve without a jump
+            final float before = scroller.getPositionXAt(duration - 1);
+            final float at = scroller.getPositionXAt(duration);
+            final float after = scroller.getPositionXAt(duration + 1);
+            Check.near(what + ": motion across the end of the fling", at - before,
+                    after - at, 0.05);
+            double worst = 0;
+            for (int i = 0; i < frames; i++) {
+                clock.now = i * FRAME;
+                scroller.computeScrollOffset(clock.now);
+                worst = Math.max(worst, Math.abs(scroller.getCurrXf() - predicted[i]));
+            }
+            // The committed and the predicted spring both start at the exact millisecond
+            Check.near(what + ": worst gap to the frames", worst, 0, 0.5);
+            Check.that(scroller.isFinished() && scroller.getCurrX() == bound,
+                    what + ": comes to rest on the bound");
+        }
+
+        // One definition of speed for scrolls and flings
+        final Scroller scroll = new Scroller(new Context(2.0f), new DecelerateInterpolator());
+        scroll.setTimeSource(clock);
+        clock.now = 0;
+        scroll.startScroll(0, 0, -800, 0, 400);
+        checkSpeed(scroll, "scroll");
+        clock.now = 0;
+        scroller.setSpringBackEnabled(false);
+        scroller.fling(0, 0, -velocity, 0, -100000, 0, 0, 0);
+        checkSpeed(scroller, "fling");
+        Check.finish();
+    }
+
+    // getVelocityAt应该等于预测位置前后1毫秒的差分,而且不为负.
+    private static void checkSpeed(Scroller scroller, String what) {
+        int mismatched = 0;
+        for (int t = 1; t < scroller.getDuration(); t += 7) {
+            final float speed = scroller.getVelocityAt(t);
+            final float expected = Math.abs(scroller.getPositionXAt(t + 1)
+                    - scroller.getPositionXAt(t - 1)) * 500.0f;
+            if (speed < 0 || Math.abs(speed - expected) > 1e-3f * expected + 1e-3f) {
+                mismatched++;
+            }
+        }
+        Check.that(mismatched == 0, what + ": speed is the difference of predicted positions");
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Check;
+
+/**
+ * 检查{@link ScrollerGroup}和同样输入的{@link Scroller}逐帧一致:各种速度的fling,包括平方和超出int范围的速度,
+ * 以及滑动;和Scroller一样在时长之内结束(两者可能只差最后一个像素时不在同一帧结束);
+ * 结束的scroller在结束的那一帧离开活动列表,活动列表里只有还在运行的scroller.
+ *
+ * Checks that {@link ScrollerGroup} follows {@link Scroller} frame by frame for the
+ * same inputs: flings at many velocities, including ones whose squares overflow an
+ * int, and scrolls. Like Scroller they finish within their duration; the two may end
+ * on different frames only when within the last pixel. Finished scrollers leave the
+ * active list on the frame they end, and the active list holds exactly the scrollers
+ * still running.
+ */
+public class ScrollerGroupCheck {
+    private static final long FRAME = 16;
+    private static final int[][] FLINGS = {
+        { 0, 0 }, { 300, 0 }, { 0, -2500 }, { 4000, 3000 }, { -8000, 6000 },
+        { 24000, -18000 }, { 40000, 30000 }, { -46000, -46000 }, { 60000, 1 }
+    };
+    private static final int BOUND = 1000000;
+
+    public static void main(String[] args) {
+        System.out.println("ScrollerGroupCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final int count = FLINGS.length + 2;
+        final ScrollerGroup group = new ScrollerGroup(count);
+        group.setTimeSource(clock);
+        final Scroller[] scrollers = new Scroller[count];
+        clock.now = 0;
+        for (int i = 0; i < count; i++) {
+            scrollers[i] = new Scroller(new Context(2.0f));
+            scrollers[i].setTimeSource(clock);
+            if (i < FLINGS.length) {
+                final int vx = FLINGS[i][0];
+                final int vy = FLINGS[i][1];
+                group.fling(i, 100, 200, vx, vy, -BOUND, BOUND, -BOUND, BOUND);
+                scrollers[i].fling(100, 200, vx, vy, -BOUND, BOUND, -BOUND, BOUND);
+            } else {
+                final int duration = i == FLINGS.length ? 250 : 900;
+                group.startScroll(i, 0, 0, 700, -300, duration);
+                scrollers[i].startScroll(0, 0, 700, -300, duration);
+            }
+        }
+
+        int durationMismatches = 0;
+        int finalMismatches = 0;
+        for (int i = 0; i < count; i++) {
+            if (group.getDuration(i) != scrollers[i].getDuration()) {
+                durationMismatches++;
+            }
+            if (group.getFinalX(i) != scrollers[i].getFinalX()
+                    || group.getFinalY(i) != scrollers[i].getFinalY()) {
+                finalMismatches++;
+            }
+        }
+        Check.that(durationMismatches == 0, "durations match Scroller");
+        Check.that(finalMismatches == 0, "final positions match Scroller");
+        Check.that(group.getFinalX(6) > 100 && group.getFinalY(6) > 200,
+                "a fling with an overflowing velocity square heads along its velocity");
+
+        int worst = 0;
+        int finishMismatches = 0;
+        int activeMismatches = 0;
+        int lastActive = group.getActiveCount();
+        boolean shrankWhileRunning = false;
+        for (clock.now = FRAME; group.getActiveCount() > 0; clock.now += FRAME) {
+            group.computeScrollOffsets(clock.now);
+            int running = 0;
+            for (int i = 0; i < count; i++) {
+                final Scroller scroller = scrollers[i];
+                if (!scroller.isFinished()) {
+                    scroller.computeScrollOffset(clock.now);
+                }
+                worst = Math.max(worst, Math.abs(group.getCurrX(i) - scroller.getCurrX()));
+                worst = Math.max(worst, Math.abs(group.getCurrY(i) - scroller.getCurrY()));
+                // Both stop once the rounded position reaches the end, so they may
+                // disagree on the frame only within the last pixel
+                if (group.isFinished(i) != scroller.isFinished()
+                        && (Math.abs(scroller.getCurrX() - scroller.getFinalX()) > 1
+                                || Math.abs(scroller.getCurrY() - scroller.getFinalY()) > 1)) {
+                    finishMismatches++;
+                }
+                if (!group.isFinished(i) && clock.now >= group.getDuration(i)) {
+                    finishMismatches++;
+                }
+                if (!group.isFinished(i)) {
+                    running++;
+                }
+            }
+            if (running != group.getActiveCount()) {
+                activeMismatches++;
+            }
+            for (int a = 0; a < group.getActiveCount(); a++) {
+                if (group.isFinished(group.getActiveScroller(a))) {
+                    activeMismatches++;
+                }
+            }
+            if (group.getActiveCount() < lastActive && group.getActiveCount() > 0) {
+                shrankWhileRunning = true;
+            }
+            lastActive = group.getActiveCount();
+            if (clock.now > 100000) {
+                break;
+            }
+        }
+        Check.near("worst gap to Scroller", worst, 0, 1);
+        Check.that(finishMismatches == 0,
+                "scrollers finish by their duration, with Scroller up to the last pixel");
+        Check.that(activeMismatches == 0, "the active list holds exactly the running scrollers");
+        Check.that(shrankWhileRunning, "finished scrollers leave while others still run");
+        Check.that(group.getActiveCount() == 0 && group.computeScrollOffsets(clock.now) == 0
+                && group.getUpdatedCount() == 0, "a finished group updates nothing");
+        Check.finish();
+    }
+}
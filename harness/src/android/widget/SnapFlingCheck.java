@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import harness.Check;
+
+/**
+ * 检查{@link Scroller#flingToSnapPoints}的时长:吸附点在前方时起始速率和手指一致(包括比自然终点
+ * 更远的点),时长有上限,吸附点在反方向时按自然时长掉头,并且每次都正好停在吸附点上.
+ *
+ * Checks the duration chosen by {@link Scroller#flingToSnapPoints}: with the snap point
+ * ahead, the curve starts at the finger's speed, also for a point past the natural end;
+ * the duration is capped; a point behind the fling is reached by reversing over the
+ * natural duration; and every fling lands exactly on its point.
+ */
+public class SnapFlingCheck {
+    private static final double SPEED_TOLERANCE = 0.02;
+
+    public static void main(String[] args) {
+        System.out.println("SnapFlingCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        final ScrollerPhysics physics = ScrollerPhysics.DEFAULT;
+        final float slope = 1000.0f * physics.getFlingSlope();
+
+        // Natural end of a 2000 px/s fling, then single points short of it and past it
+        final int natural = physics.computeFlingDistance(2000);
+        final int[] speeds = { 300, 800, 2000, 5000, 12000 };
+        final int[] points = { natural / 3, natural, natural * 2 };
+        for (int speed : speeds) {
+            for (int point : points) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    final int target = sign * point;
+                    scroller.flingToSnapPoints(0, 0, sign * speed, 0, new int[] { target }, null);
+                    final String what = "speed " + sign * speed + " to " + scroller.getFinalX();
+                    final float distance = Math.abs(scroller.getFinalX());
+                    final int expected = (int) Math.min(slope * distance / speed,
+                            Math.max(3000, physics.computeFlingDurationForDistance(distance)));
+                    Check.near(what + ": duration", scroller.getDuration(), expected, 1);
+                    if (expected < 3000) {
+                        Check.near(what + ": initial speed",
+                                initialSpeed(scroller, clock), speed, speed * SPEED_TOLERANCE);
+                    }
+                    checkLanding(scroller, clock, what);
+                }
+            }
+        }
+
+        // Only a point behind the fling: reverse over the natural duration for the distance
+        for (int speed : speeds) {
+            scroller.flingToSnapPoints(0, 0, speed, 0, new int[] { -600, -300 }, null);
+            final String what = "speed " + speed + " back to " + scroller.getFinalX();
+            Check.that(scroller.getFinalX() == -300, what + ": nearest point behind");
+            Check.near(what + ": duration", scroller.getDuration(),
+                    physics.computeFlingDurationForDistance(300), 0);
+            checkLanding(scroller, clock, what);
+        }
+
+        // Diagonal fling, target behind on one axis only: still ahead overall
+        scroller.flingToSnapPoints(0, 0, 3000, 4000, new int[] { -100, 0 }, new int[] { 0, 2000 });
+        Check.near("diagonal: initial speed", initialSpeed(scroller, clock), 5000,
+                5000 * SPEED_TOLERANCE);
+        checkLanding(scroller, clock, "diagonal");
+
+        // No velocity: the natural duration for the distance
+        scroller.flingToSnapPoints(0, 0, 0, 0, new int[] { 0, 500 }, null);
+        Check.that(scroller.isFinished() || scroller.getFinalX() == 0, "zero velocity stays");
+        Check.finish();
+    }
+
+    // 用第一毫秒的位移(浮点位置)估计起始速率(px/s),然后把时钟拨回起点.
+    private static double initialSpeed(Scroller scroller, FlingReplay.ReplayClock clock) {
+        final long start = clock.now;
+        clock.now = start + 1;
+        scroller.computeScrollOffset(clock.now);
+        final double dx = scroller.getCurrXf() - scroller.getStartX();
+        final double dy = scroller.getCurrYf() - scroller.getStartY();
+        clock.now = start;
+        return Math.sqrt(dx * dx + dy * dy) * 1000.0;
+    }
+
+    // 逐帧推进到结束:每帧都朝终点方向走,不越过终点,最后正好停在终点.
+    private static void checkLanding(Scroller scroller, FlingReplay.ReplayClock clock,
+            String what) {
+        final int finalX = scroller.getFinalX();
+        final int finalY = scroller.getFinalY();
+        int lastX = scroller.getStartX();
+        int lastY = scroller.getStartY();
+        boolean monotonic = true;
+        while (scroller.computeScrollOffset(clock.now)) {
+            final int x = scroller.getCurrX();
+            final int y = scroller.getCurrY();
+            monotonic &= Math.abs(finalX - x) <= Math.abs(finalX - lastX)
+                    && Math.abs(finalY - y) <= Math.abs(finalY - lastY);
+            lastX = x;
+            lastY = y;
+            clock.now += 16;
+        }
+        Check.that(monotonic, what + ": moves towards the target on every frame");
+        Check.that(scroller.getCurrX() == finalX && scroller.getCurrY() == finalY,
+                what + ": lands on the target");
+    }
+}
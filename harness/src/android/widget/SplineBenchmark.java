@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import harness.Bench;
+import harness.Check;
+
+/**
+ * 比较预先生成的Hermite样条表和原来Scroller里类加载时二分计算,线性插值的SPLINE:
+ * 类初始化的耗时,每次求值的耗时,以及相对20000个采样点的参考曲线的误差.
+ *
+ * Compares the precomputed Hermite {@link ScrollerSpline} with the table Scroller used
+ * to build by bisection at class-load time and interpolate linearly: class
+ * initialization cost, cost per evaluation and error against a 20000-sample
+ * reference curve.
+ */
+public class SplineBenchmark {
+    private static final int NB_SAMPLES = 100;
+    private static final float START_TENSION = 0.4f;
+    private static final float END_TENSION = 1.0f - START_TENSION;
+
+    public static void main(String[] args) {
+        System.out.println("SplineBenchmark");
+        // Must be the first use of ScrollerSpline in this JVM
+        final long initStart = System.nanoTime();
+        final ScrollerSpline spline = ScrollerSpline.getDefault();
+        final long initNanos = System.nanoTime() - initStart;
+        final long legacyStart = System.nanoTime();
+        final float[] legacy = legacyTable();
+        final long legacyNanos = System.nanoTime() - legacyStart;
+        Bench.report("ScrollerSpline first use (load + init), cold", initNanos + " ns");
+        Bench.report("legacy bisection table, cold (interpreted)", legacyNanos + " ns");
+
+        final ScrollerSpline reference = ScrollerSpline.compute(20000, START_TENSION);
+        double hermiteError = 0;
+        double linearError = 0;
+        for (int k = 0; k <= 100000; k++) {
+            final float t = k / 100000f;
+            final float expected = reference.getPosition(t);
+            hermiteError = Math.max(hermiteError, Math.abs(spline.getPosition(t) - expected));
+            linearError = Math.max(linearError, Math.abs(legacyPosition(legacy, t) - expected));
+        }
+        Bench.report("max error, legacy linear", String.format("%.2e", linearError));
+        Bench.report("max error, Hermite", String.format("%.2e", hermiteError));
+        Check.that(hermiteError < 1e-6, "Hermite error should stay below 1e-6: " + hermiteError);
+        Check.that(hermiteError < linearError / 10,
+                "Hermite should be much closer to the reference than linear");
+
+        Bench.run("legacy bisection table (warm)", 200, new Bench.Op() {
+            public long run(int iteration) {
+                return Float.floatToIntBits(legacyTable()[50]);
+            }
+        });
+        Bench.run("ScrollerSpline.compute(100, 0.4) (warm)", 200, new Bench.Op() {
+            public long run(int iteration) {
+                return ScrollerSpline.compute(NB_SAMPLES, START_TENSION).getSampleCount();
+            }
+        });
+        Bench.run("per frame, legacy linear lookup", 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                final float t = (iteration % 1000) * 0.001f;
+                return Float.floatToIntBits(legacyPosition(legacy, t));
+            }
+        });
+        Bench.run("per frame, Hermite getPosition", 1000000, new Bench.Op() {
+            public long run(int iteration) {
+                return Float.floatToIntBits(spline.getPosition((iteration % 1000) * 0.001f));
+            }
+        });
+        Check.finish();
+    }
+
+    // The static initializer Scroller had before the table was precomputed
+    private static float[] legacyTable() {
+        final float[] spline = new float[NB_SAMPLES + 1];
+        float xMin = 0.0f;
+        for (int i = 0; i <= NB_SAMPLES; i++) {
+            final float t = (float) i / NB_SAMPLES;
+            float xMax = 1.0f;
+            float x, tx, coef;
+            while (true) {
+                x = xMin + (xMax - xMin) / 2.0f;
+                coef = 3.0f * x * (1.0f - x);
+                tx = coef * ((1.0f - x) * START_TENSION + x * END_TENSION) + x * x * x;
+                if (Math.abs(tx - t) < 1E-5) break;
+                if (tx > t) xMax = x;
+                else xMin = x;
+            }
+            spline[i] = coef + x * x * x;
+        }
+        spline[NB_SAMPLES] = 1.0f;
+        return spline;
+    }
+
+    // The per-frame lookup Scroller had in FLING_MODE
+    private static float legacyPosition(float[] spline, float t) {
+        final int index = Math.min((int) (NB_SAMPLES * t), NB_SAMPLES - 1);
+        final float tInf = (float) index / NB_SAMPLES;
+        final float tSup = (float) (index + 1) / NB_SAMPLES;
+        return spline[index] + (t - tInf) / (tSup - tInf) * (spline[index + 1] - spline[index]);
+    }
+}
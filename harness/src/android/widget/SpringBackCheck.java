@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+import java.util.Arrays;
+
+import harness.Check;
+
+/**
+ * 检查越界回弹从fling曲线越过边界的那一毫秒开始,和帧的时间无关:每16ms一帧,每50ms一帧,
+ * 以及第一帧在fling时长之后才到,回弹的轨迹都要和每毫秒一帧的参考轨迹一致,最后停在边界上.
+ *
+ * Checks that a fling's spring-back starts at the millisecond the curve crosses the
+ * bound, whatever the frame timing. With frames every 16 ms, every 50 ms, and with
+ * the first frame arriving only after the fling's duration, the spring must follow
+ * the trajectory of a reference evaluated every millisecond and come to rest on the
+ * bound.
+ */
+public class SpringBackCheck {
+    private static final int VELOCITY = 4000;
+
+    public static void main(String[] args) {
+        System.out.println("SpringBackCheck");
+        final int natural = ScrollerPhysics.DEFAULT.computeFlingDistance(VELOCITY);
+        final double[] fractions = { 0.5, 0.9, 0.999 };
+        for (double fraction : fractions) {
+            final int bound = (int) (natural * fraction);
+            final String what = "bound at " + fraction + " of the natural end";
+            final float[] reference = run(bound, 0, 1, null, what + ", every 1 ms");
+            run(bound, 0, 16, reference, what + ", every 16 ms");
+            run(bound, 0, 50, reference, what + ", every 50 ms");
+            final int duration = newScroller(new FlingReplay.ReplayClock(), bound).getDuration();
+            run(bound, duration + 40, 16, reference, what + ", first frame after the fling");
+        }
+        Check.finish();
+    }
+
+    private static Scroller newScroller(FlingReplay.ReplayClock clock, int bound) {
+        final Scroller scroller = new Scroller(new Context(2.0f));
+        scroller.setTimeSource(clock);
+        scroller.setSpringBackEnabled(true);
+        clock.now = 0;
+        scroller.fling(0, 0, VELOCITY, 0, 0, bound, 0, 0);
+        return scroller;
+    }
+
+    // 从firstFrame开始每interval毫秒算一帧直到结束.reference不为null时和它比较.
+    // 返回每毫秒的位置,结束之后都是边界
+    private static float[] run(int bound, long firstFrame, long interval, float[] reference,
+            String what) {
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final Scroller scroller = newScroller(clock, bound);
+        final float[] positions = new float[scroller.getDuration() + 5000];
+        Arrays.fill(positions, bound);
+        double worst = 0;
+        int frames = 0;
+        for (clock.now = firstFrame; scroller.computeScrollOffset(clock.now);
+                clock.now += interval) {
+            final float x = scroller.getCurrXf();
+            if (clock.now < positions.length) {
+                positions[(int) clock.now] = x;
+            }
+            if (reference != null) {
+                final float expected = reference[(int) Math.min(clock.now, reference.length - 1)];
+                worst = Math.max(worst, Math.abs(x - expected));
+            }
+            frames++;
+        }
+        Check.that(frames < positions.length, what + ": finishes");
+        Check.that(scroller.getCurrX() == bound, what + ": comes to rest on the bound");
+        if (reference != null) {
+            Check.near(what + ": worst gap to the 1 ms reference", worst, 0, 0.5);
+        }
+        return positions;
+    }
+}
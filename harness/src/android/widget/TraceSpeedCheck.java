@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.widget;
+
+import android.content.Context;
+import android.view.animation.LinearInterpolator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import harness.Check;
+
+/**
+ * 检查{@link ScrollerTrace}里记录的速率就是画面上的运动速率:fling(样条曲线和解析曲线),越界回弹,
+ * 以及线性插值的滑动,相邻两帧之间的平均速率要和两端记录的速率吻合,滑动最后一帧也不能是0.
+ *
+ * Checks that the speed recorded into a {@link ScrollerTrace} is the speed of the
+ * motion on screen: for spline and closed-form flings, a fling that springs back and
+ * a linear scroll, the mean speed between two frames must agree with the speeds
+ * recorded at either end, and the last frame of the scroll must not read zero.
+ */
+public class TraceSpeedCheck {
+    private static final long FRAME = 16;
+
+    /**
+     * 从trace里读出的采样.
+     * Samples read back from a trace.
+     */
+    static final class Samples {
+        int count;
+        long[] time;
+        float[] x;
+        float[] y;
+        float[] speed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("TraceSpeedCheck");
+        final FlingReplay.ReplayClock clock = new FlingReplay.ReplayClock();
+        final Context context = new Context(2.0f);
+
+        final Scroller fling = new Scroller(context);
+        fling.setTimeSource(clock);
+        for (int analytic = 0; analytic < 2; analytic++) {
+            fling.setAnalyticFlingEnabled(analytic == 1);
+            final String what = analytic == 1 ? "analytic fling" : "spline fling";
+            fling.fling(0, 0, 3000, -4000, -100000, 100000, -100000, 100000);
+            final Samples samples = run(fling, clock);
+            Check.near(what + ": speed at the start", samples.speed[0], 5000, 5000 * 0.02);
+            checkConsistent(samples, what);
+        }
+
+        fling.setAnalyticFlingEnabled(false);
+        fling.setSpringBackEnabled(true);
+        fling.fling(0, 0, 6000, 0, 0, 500, 0, 0);
+        checkConsistent(run(fling, clock), "fling with spring-back");
+
+        final Scroller scroll = new Scroller(context, new LinearInterpolator());
+        scroll.setTimeSource(clock);
+        scroll.startScroll(0, 0, 1000, 0, 500);
+        final Samples samples = run(scroll, clock);
+        for (int i = 0; i < samples.count; i++) {
+            Check.near("linear scroll: speed at " + (samples.time[i] - samples.time[0]) + " ms",
+                    samples.speed[i], 2000, 2000 * 0.01);
+        }
+        Check.finish();
+    }
+
+    // 从当前时刻开始每16ms算一帧直到结束,返回记录下来的采样.
+    private static Samples run(Scroller scroller, FlingReplay.ReplayClock clock)
+            throws IOException {
+        final ScrollerTrace trace = new ScrollerTrace(1024);
+        scroller.setTrace(trace);
+        while (scroller.computeScrollOffset(clock.now)) {
+            clock.now += FRAME;
+        }
+        scroller.setTrace(null);
+        clock.now += 1000;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+        final DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(out.toByteArray()));
+        in.readInt();
+        in.readInt();
+        final Samples samples = new Samples();
+        samples.count = in.readInt();
+        samples.time = new long[samples.count];
+        samples.x = new float[samples.count];
+        samples.y = new float[samples.count];
+        samples.speed = new float[samples.count];
+        for (int i = 0; i < samples.count; i++) {
+            samples.time[i] = in.readLong();
+            in.readByte();
+            samples.x[i] = in.readFloat();
+            samples.y[i] = in.readFloat();
+            samples.speed[i] = in.readFloat();
+        }
+        return samples;
+    }
+
+    // 帧i - 1到i和帧i到i + 1的位移方向相反时返回true.
+    private static boolean turns(Samples s, int a, int b) {
+        if (a < 1 || b >= s.count) {
+            return false;
+        }
+        final double dot = (s.x[a] - s.x[a - 1]) * (s.x[b] - s.x[b - 1])
+                + (s.y[a] - s.y[a - 1]) * (s.y[b] - s.y[b - 1]);
+        return dot < 0;
+    }
+
+    // 相邻两帧的平均速率应该落在两端速率之间(留一点余量,曲线在两帧之间不一定单调).
+    private static void checkConsistent(Samples s, String what) {
+        Check.that(s.count > 10, what + ": enough frames recorded");
+        int inconsistent = 0;
+        for (int i = 1; i < s.count; i++) {
+            final double dx = s.x[i] - s.x[i - 1];
+            final double dy = s.y[i] - s.y[i - 1];
+            final long interval = s.time[i] - s.time[i - 1];
+            final double mean = Math.sqrt(dx * dx + dy * dy) * 1000.0 / interval;
+            final double low = Math.min(s.speed[i - 1], s.speed[i]);
+            final double high = Math.max(s.speed[i - 1], s.speed[i]);
+            // 回弹在离边界半个像素以内时直接停到边界上,最后一帧可以多走半个像素
+            final double settle = i == s.count - 1 ? 0.5 * 1000.0 / interval : 0;
+            final double slack = 0.05 * high + 20 + settle;
+            // A spring turning round within the frame moves slower than either end
+            final boolean turning = turns(s, i - 1, i) || turns(s, i, i + 1);
+            if (!turning && mean < low - slack || mean > high + slack) {
+                inconsistent++;
+                System.out.println("  " + what + ": frame " + i + " moved at " + (int) mean
+                        + " px/s, recorded " + (int) s.speed[i - 1] + " and " + (int) s.speed[i]);
+            }
+        }
+        Check.that(inconsistent == 0, what + ": recorded speeds match the motion");
+    }
+}
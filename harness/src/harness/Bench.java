@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package harness;
+
+import java.util.Arrays;
+
+/**
+ * harness的计时循环.没有JMH时用它:先预热若干轮,再测量若干轮,报告每轮平均每次耗时的中位数和最小值.
+ * 每次调用的返回值累加到{@link #sink},防止JIT把被测代码当成死代码删掉.
+ *
+ * Timing loop for the harness drivers, used in place of JMH. It warms up for a number
+ * of rounds, measures more and reports the median and the fastest round's time per
+ * operation. Results are folded into {@link #sink} so the JIT cannot drop the
+ * measured code.
+ */
+public final class Bench {
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 15;
+
+    /**
+     * One measured operation.
+     */
+    public interface Op {
+        /**
+         * @param iteration Index of the operation within its round
+         * @return Any value derived from the work done
+         */
+        long run(int iteration);
+    }
+
+    public static volatile long sink;
+
+    private Bench() {
+    }
+
+    /**
+     * 运行op并打印每次的耗时.
+     * Runs <code>op</code> and prints its cost.
+     *
+     * @param name Label printed with the result
+     * @param opsPerRound Operations per timed round
+     * @param op Operation to measure
+     * @return The median round's time per operation in nanoseconds
+     */
+    public static double run(String name, int opsPerRound, Op op) {
+        final long[] times = new long[MEASURED_ROUNDS];
+        long acc = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < opsPerRound; i++) {
+                acc += op.run(i);
+            }
+            final long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                times[round - WARMUP_ROUNDS] = elapsed;
+            }
+        }
+        sink += acc;
+        Arrays.sort(times);
+        final double median = (double) times[MEASURED_ROUNDS / 2] / opsPerRound;
+        final double best = (double) times[0] / opsPerRound;
+        print(name, median, best);
+        return median;
+    }
+
+    /**
+     * 按run的格式打印一个由调用者算出的结果.
+     * Prints a derived result in the same format as {@link #run(String, int, Op)}.
+     */
+    public static void print(String name, double nsPerOp) {
+        System.out.println(String.format("  %-48s %12.1f ns/op", name, nsPerOp));
+    }
+
+    /**
+     * 打印一个不是计时结果的数值,比如误差或者计数.
+     * Prints a labelled value that is not a timing, such as an error or a count.
+     */
+    public static void report(String name, String value) {
+        System.out.println(String.format("  %-48s %12s", name, value));
+    }
+
+    private static void print(String name, double median, double best) {
+        System.out.println(String.format("  %-48s %12.1f ns/op (min %.1f)", name, median, best));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package harness;
+
+/**
+ * harness驱动里的断言.失败时打印原因并继续,{@link #finish()}在有失败时以非0退出.
+ *
+ * Assertions for the harness drivers. A failure is printed and counted;
+ * {@link #finish()} exits with a non-zero status if anything failed.
+ */
+public final class Check {
+    private static int sChecks;
+    private static int sFailures;
+
+    private Check() {
+    }
+
+    public static void that(boolean condition, String message) {
+        sChecks++;
+        if (!condition) {
+            sFailures++;
+            System.out.println("  FAIL: " + message);
+        }
+    }
+
+    /**
+     * Checks that <code>actual</code> is within <code>tolerance</code> of
+     * <code>expected</code>.
+     */
+    public static void near(String what, double actual, double expected, double tolerance) {
+        that(Math.abs(actual - expected) <= tolerance, what + ": expected " + expected
+                + " +/- " + tolerance + ", was " + actual);
+    }
+
+    public static void finish() {
+        if (sFailures > 0) {
+            System.out.println("  " + sFailures + " of " + sChecks + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("  " + sChecks + " checks passed");
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.content;
+
+import android.content.pm.ApplicationInfo;
+import android.content.res.Resources;
+
+/**
+ * harness用的Context替身,只提供Scroller和ViewDragHelper会读取的显示密度和targetSdkVersion.
+ *
+ * Harness stand-in for Context. It only carries what Scroller and ViewDragHelper
+ * read from a real one: the display density and the target SDK version.
+ */
+public class Context {
+    private final Resources mResources;
+    private final ApplicationInfo mApplicationInfo = new ApplicationInfo();
+
+    /**
+     * Creates a context for an mdpi (density 1.0) display.
+     */
+    public Context() {
+        this(1.0f);
+    }
+
+    /**
+     * @param density Display density, 1.0 for mdpi, 2.0 for xhdpi and so on
+     */
+    public Context(float density) {
+        mResources = new Resources(density);
+        mApplicationInfo.targetSdkVersion = 19;
+    }
+
+    public Resources getResources() {
+        return mResources;
+    }
+
+    public ApplicationInfo getApplicationInfo() {
+        return mApplicationInfo;
+    }
+}
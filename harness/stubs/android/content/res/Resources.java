@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * Harness stand-in for Resources. Only the display metrics are available.
+ */
+public class Resources {
+    private final DisplayMetrics mMetrics = new DisplayMetrics();
+
+    public Resources(float density) {
+        mMetrics.density = density;
+        mMetrics.densityDpi = (int) (density * DisplayMetrics.DENSITY_DEFAULT);
+    }
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mMetrics;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * Harness stand-in for Build. The harness reports itself as API 19.
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 19;
+    }
+
+    public static class VERSION_CODES {
+        public static final int HONEYCOMB = 11;
+        public static final int HONEYCOMB_MR1 = 12;
+        public static final int ICE_CREAM_SANDWICH = 14;
+        public static final int JELLY_BEAN = 16;
+        public static final int KITKAT = 19;
+    }
+}
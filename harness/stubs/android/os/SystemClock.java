@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * harness用的SystemClock替身.时间不会自己走,由harness设置,这样模拟的手势和动画可以比真实时间快,
+ * 而且每次运行结果都一样.
+ *
+ * Harness stand-in for SystemClock. Time does not advance on its own; the harness
+ * sets it, so simulated gestures and animations run faster than real time and
+ * every run is deterministic.
+ */
+public final class SystemClock {
+    private static long sUptimeMillis;
+
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return sUptimeMillis;
+    }
+
+    /**
+     * Harness only: sets the value returned by {@link #uptimeMillis()}.
+     */
+    public static void setUptimeMillis(long uptimeMillis) {
+        sUptimeMillis = uptimeMillis;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.view;
+
+import android.view.MotionEvent;
+
+/**
+ * Harness stand-in for MotionEventCompat. Every call goes straight to the event.
+ */
+public class MotionEventCompat {
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    public static int getActionMasked(MotionEvent event) {
+        return event.getAction() & ACTION_MASK;
+    }
+
+    public static int getActionIndex(MotionEvent event) {
+        return (event.getAction() & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public static int findPointerIndex(MotionEvent event, int pointerId) {
+        return event.findPointerIndex(pointerId);
+    }
+
+    public static int getPointerId(MotionEvent event, int pointerIndex) {
+        return event.getPointerId(pointerIndex);
+    }
+
+    public static float getX(MotionEvent event, int pointerIndex) {
+        return event.getX(pointerIndex);
+    }
+
+    public static float getY(MotionEvent event, int pointerIndex) {
+        return event.getY(pointerIndex);
+    }
+
+    public static int getPointerCount(MotionEvent event) {
+        return event.getPointerCount();
+    }
+
+    public static float getHistoricalX(MotionEvent event, int pointerIndex, int pos) {
+        return event.getHistoricalX(pointerIndex, pos);
+    }
+
+    public static float getHistoricalY(MotionEvent event, int pointerIndex, int pos) {
+        return event.getHistoricalY(pointerIndex, pos);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.view;
+
+import android.view.View;
+
+/**
+ * harness用的ViewCompat替身.替身View不能滚动,postOnAnimation交给view所在的TestWindow.
+ * Harness stand-in for ViewCompat. Stand-in views never scroll, and animation
+ * callbacks go to the view's TestWindow.
+ */
+public class ViewCompat {
+    public static boolean canScrollHorizontally(View v, int direction) {
+        return false;
+    }
+
+    public static boolean canScrollVertically(View v, int direction) {
+        return false;
+    }
+
+    public static void postOnAnimation(View view, Runnable action) {
+        view.postOnAnimation(action);
+    }
+
+    public static void postInvalidateOnAnimation(View view) {
+        view.invalidate();
+    }
+}
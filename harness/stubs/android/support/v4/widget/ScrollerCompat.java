@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v4.widget;
+
+import android.content.Context;
+import android.view.animation.Interpolator;
+import android.widget.Scroller;
+
+/**
+ * harness用的ScrollerCompat替身,直接包装本仓库的{@link Scroller},所以benchmark驱动的settle和fling
+ * 走的是真实的Scroller代码.
+ *
+ * Harness stand-in for ScrollerCompat. It wraps this tree's {@link Scroller}, so
+ * settles and flings driven by the benchmarks run the real Scroller code.
+ */
+public class ScrollerCompat {
+    private final Scroller mScroller;
+
+    ScrollerCompat(Context context, Interpolator interpolator) {
+        mScroller = new Scroller(context, interpolator);
+    }
+
+    public static ScrollerCompat create(Context context) {
+        return create(context, null);
+    }
+
+    public static ScrollerCompat create(Context context, Interpolator interpolator) {
+        return new ScrollerCompat(context, interpolator);
+    }
+
+    public boolean isFinished() {
+        return mScroller.isFinished();
+    }
+
+    public int getCurrX() {
+        return mScroller.getCurrX();
+    }
+
+    public int getCurrY() {
+        return mScroller.getCurrY();
+    }
+
+    public int getFinalX() {
+        return mScroller.getFinalX();
+    }
+
+    public int getFinalY() {
+        return mScroller.getFinalY();
+    }
+
+    public float getCurrVelocity() {
+        return mScroller.getCurrVelocity();
+    }
+
+    public boolean computeScrollOffset() {
+        return mScroller.computeScrollOffset();
+    }
+
+    public void startScroll(int startX, int startY, int dx, int dy) {
+        mScroller.startScroll(startX, startY, dx, dy);
+    }
+
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        mScroller.startScroll(startX, startY, dx, dy, duration);
+    }
+
+    public void fling(int startX, int startY, int velocityX, int velocityY,
+            int minX, int maxX, int minY, int maxY) {
+        mScroller.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY);
+    }
+
+    public void abortAnimation() {
+        mScroller.abortAnimation();
+    }
+}
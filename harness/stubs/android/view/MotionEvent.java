@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+/**
+ * harness用的MotionEvent替身.保存每个pointer的id和坐标,以及批量(历史)采样,
+ * action的编码和平台一致(低8位是动作,高8位是pointer下标).
+ *
+ * Harness stand-in for MotionEvent. It holds the id and position of each pointer
+ * plus batched historical samples. Actions are encoded like the platform's: the low
+ * byte is the action and the next byte the pointer index.
+ */
+public final class MotionEvent {
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_OUTSIDE = 4;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    private static final int INITIAL_SAMPLES = 4;
+
+    private long mDownTime;
+    private int mAction;
+    private int mPointerCount;
+    private int[] mPointerIds;
+    // 第s个采样的第p个pointer在下标s * mPointerCount + p,最后一个采样是当前的位置
+    private int mSampleCount;
+    private long[] mSampleTimes = new long[INITIAL_SAMPLES];
+    private float[] mSampleX;
+    private float[] mSampleY;
+
+    private MotionEvent() {
+    }
+
+    /**
+     * Creates a single pointer event with pointer id 0, like the platform method of
+     * the same signature.
+     */
+    public static MotionEvent obtain(long downTime, long eventTime, int action,
+            float x, float y, int metaState) {
+        final MotionEvent ev = obtain(eventTime, action, new int[] {0},
+                new float[] {x}, new float[] {y});
+        ev.mDownTime = downTime;
+        return ev;
+    }
+
+    /**
+     * Harness only: creates an event for several pointers. <code>action</code> must
+     * already carry the pointer index for pointer up and down actions.
+     */
+    public static MotionEvent obtain(long eventTime, int action, int[] pointerIds,
+            float[] xs, float[] ys) {
+        final int count = pointerIds.length;
+        final MotionEvent ev = new MotionEvent();
+        ev.mDownTime = eventTime;
+        ev.mAction = action;
+        ev.mPointerCount = count;
+        ev.mPointerIds = pointerIds.clone();
+        ev.mSampleX = new float[INITIAL_SAMPLES * count];
+        ev.mSampleY = new float[INITIAL_SAMPLES * count];
+        ev.addBatch(eventTime, xs, ys);
+        return ev;
+    }
+
+    /**
+     * 加入一个新的采样,之前的当前位置变成历史采样.
+     * Harness only: appends a sample for every pointer. The previous current
+     * position becomes the newest historical sample.
+     */
+    public void addBatch(long eventTime, float[] xs, float[] ys) {
+        final int count = mPointerCount;
+        if (mSampleCount == mSampleTimes.length) {
+            final int size = mSampleCount * 2;
+            final long[] times = new long[size];
+            final float[] x = new float[size * count];
+            final float[] y = new float[size * count];
+            System.arraycopy(mSampleTimes, 0, times, 0, mSampleCount);
+            System.arraycopy(mSampleX, 0, x, 0, mSampleCount * count);
+            System.arraycopy(mSampleY, 0, y, 0, mSampleCount * count);
+            mSampleTimes = times;
+            mSampleX = x;
+            mSampleY = y;
+        }
+        mSampleTimes[mSampleCount] = eventTime;
+        System.arraycopy(xs, 0, mSampleX, mSampleCount * count, count);
+        System.arraycopy(ys, 0, mSampleY, mSampleCount * count, count);
+        mSampleCount++;
+    }
+
+    public void recycle() {
+    }
+
+    public final int getAction() {
+        return mAction;
+    }
+
+    public final int getActionMasked() {
+        return mAction & ACTION_MASK;
+    }
+
+    public final int getActionIndex() {
+        return (mAction & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public final void setAction(int action) {
+        mAction = action;
+    }
+
+    public final long getDownTime() {
+        return mDownTime;
+    }
+
+    public final long getEventTime() {
+        return mSampleTimes[mSampleCount - 1];
+    }
+
+    public final int getPointerCount() {
+        return mPointerCount;
+    }
+
+    public final int getPointerId(int pointerIndex) {
+        return mPointerIds[pointerIndex];
+    }
+
+    public final int findPointerIndex(int pointerId) {
+        for (int i = 0; i < mPointerCount; i++) {
+            if (mPointerIds[i] == pointerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public final float getX() {
+        return getX(0);
+    }
+
+    public final float getY() {
+        return getY(0);
+    }
+
+    public final float getX(int pointerIndex) {
+        return mSampleX[(mSampleCount - 1) * mPointerCount + pointerIndex];
+    }
+
+    public final float getY(int pointerIndex) {
+        return mSampleY[(mSampleCount - 1) * mPointerCount + pointerIndex];
+    }
+
+    public final int getHistorySize() {
+        return mSampleCount - 1;
+    }
+
+    public final long getHistoricalEventTime(int pos) {
+        return mSampleTimes[pos];
+    }
+
+    public final float getHistoricalX(int pos) {
+        return getHistoricalX(0, pos);
+    }
+
+    public final float getHistoricalY(int pos) {
+        return getHistoricalY(0, pos);
+    }
+
+    public final float getHistoricalX(int pointerIndex, int pos) {
+        return mSampleX[pos * mPointerCount + pointerIndex];
+    }
+
+    public final float getHistoricalY(int pointerIndex, int pos) {
+        return mSampleY[pos * mPointerCount + pointerIndex];
+    }
+}
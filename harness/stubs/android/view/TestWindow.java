@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+import android.os.IBinder;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+/**
+ * harness里代替ViewRootImpl和Choreographer的window.view树附加到window后才有window token和
+ * 共用的ViewTreeObserver;post和postOnAnimation的任务在harness调用{@link #runMessages()}和
+ * {@link #doFrame(long)}时才执行.这个类在平台上不存在.
+ *
+ * Stands in for ViewRootImpl and Choreographer in the harness. A view tree gets a
+ * window token and the shared ViewTreeObserver once attached here. Actions posted
+ * with post and postOnAnimation only run when the harness calls
+ * {@link #runMessages()} and {@link #doFrame(long)}. This class does not exist on
+ * the platform.
+ */
+public class TestWindow {
+    private final IBinder mToken = new IBinder() {
+    };
+    private final ViewTreeObserver mTreeObserver = new ViewTreeObserver();
+    private final ArrayList<Runnable> mMessages = new ArrayList<Runnable>();
+    private final ArrayList<Runnable> mAnimationCallbacks = new ArrayList<Runnable>();
+    private final ArrayList<Runnable> mRunning = new ArrayList<Runnable>();
+    private View mRoot;
+
+    public void attach(View root) {
+        if (mRoot != null) {
+            throw new IllegalStateException("Window already has a root view");
+        }
+        mRoot = root;
+        root.dispatchAttachedToWindow(this);
+    }
+
+    public void detach() {
+        if (mRoot != null) {
+            mRoot.dispatchDetachedFromWindow();
+            mRoot = null;
+        }
+        mMessages.clear();
+        mAnimationCallbacks.clear();
+    }
+
+    public ViewTreeObserver getViewTreeObserver() {
+        return mTreeObserver;
+    }
+
+    IBinder getToken() {
+        return mToken;
+    }
+
+    /**
+     * 模拟一次布局完成,通知全局布局监听.
+     * Simulates the end of a layout pass by dispatching the global layout listeners.
+     */
+    public void performLayout() {
+        mTreeObserver.dispatchOnGlobalLayout();
+    }
+
+    /**
+     * Runs the actions queued with {@link View#post(Runnable)} so far.
+     */
+    public void runMessages() {
+        runAll(mMessages);
+    }
+
+    /**
+     * 把时间设置为frameTimeMillis,执行上一帧安排的动画回调,然后执行消息队列.
+     * Sets the clock to <code>frameTimeMillis</code>, runs the animation callbacks
+     * posted before this frame and then the message queue.
+     */
+    public void doFrame(long frameTimeMillis) {
+        SystemClock.setUptimeMillis(frameTimeMillis);
+        runAll(mAnimationCallbacks);
+        runMessages();
+    }
+
+    /**
+     * @return true if anything is waiting for {@link #doFrame(long)} or
+     *         {@link #runMessages()}
+     */
+    public boolean hasPendingWork() {
+        return !mMessages.isEmpty() || !mAnimationCallbacks.isEmpty();
+    }
+
+    boolean post(Runnable action) {
+        mMessages.add(action);
+        return true;
+    }
+
+    void postOnAnimation(Runnable action) {
+        mAnimationCallbacks.add(action);
+    }
+
+    boolean removeCallbacks(Runnable action) {
+        boolean removed = false;
+        while (mMessages.remove(action)) {
+            removed = true;
+        }
+        while (mAnimationCallbacks.remove(action)) {
+            removed = true;
+        }
+        return removed;
+    }
+
+    // 只执行调用时已经在队列里的任务,执行中新加的留到下一次
+    private void runAll(ArrayList<Runnable> queue) {
+        mRunning.addAll(queue);
+        queue.clear();
+        for (int i = 0; i < mRunning.size(); i++) {
+            mRunning.get(i).run();
+        }
+        mRunning.clear();
+    }
+}
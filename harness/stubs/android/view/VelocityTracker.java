@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+/**
+ * harness用的VelocityTracker替身.平台的实现在native层,这里用Java实现同样的默认策略:
+ * 对每个pointer最近100毫秒内的采样做二次最小二乘拟合(采样不够时一次).obtain和recycle
+ * 和平台一样经过一个大小为2的对象池.计时结果不代表native实现的开销,只用来和
+ * ViewDragHelper内置的估计器做相对比较.
+ *
+ * Harness stand-in for VelocityTracker. The platform implementation is native; this
+ * one runs the same default strategy in Java: a least-squares quadratic fit (linear
+ * with too few samples) over each pointer's last 100 ms of samples.
+ * {@link #obtain()} and {@link #recycle()} go through a pool of two like the
+ * platform's. Timings do not reflect the native tracker's cost and are only meant
+ * for relative comparisons.
+ */
+public final class VelocityTracker {
+    private static final int MAX_POINTER_ID = 31;
+    private static final int HISTORY_SIZE = 20;
+    private static final long HORIZON_MS = 100;
+
+    private static final VelocityTracker[] sPool = new VelocityTracker[2];
+    private static int sPoolSize;
+    private static int sCreatedCount;
+
+    private final long[] mTime = new long[(MAX_POINTER_ID + 1) * HISTORY_SIZE];
+    private final float[] mX = new float[(MAX_POINTER_ID + 1) * HISTORY_SIZE];
+    private final float[] mY = new float[(MAX_POINTER_ID + 1) * HISTORY_SIZE];
+    private final int[] mHead = new int[MAX_POINTER_ID + 1];
+    private final int[] mCount = new int[MAX_POINTER_ID + 1];
+    private final float[] mVelocityX = new float[MAX_POINTER_ID + 1];
+    private final float[] mVelocityY = new float[MAX_POINTER_ID + 1];
+    private int mActivePointerId = -1;
+    // 拟合时的临时数组,和native实现一样不在computeCurrentVelocity里分配
+    private final double[] mFitT = new double[HISTORY_SIZE];
+    private final double[] mFitX = new double[HISTORY_SIZE];
+    private final double[] mFitY = new double[HISTORY_SIZE];
+
+    private VelocityTracker() {
+        sCreatedCount++;
+    }
+
+    public static VelocityTracker obtain() {
+        if (sPoolSize > 0) {
+            final VelocityTracker tracker = sPool[--sPoolSize];
+            sPool[sPoolSize] = null;
+            return tracker;
+        }
+        return new VelocityTracker();
+    }
+
+    /**
+     * Harness only: the number of trackers allocated because the pool was empty.
+     */
+    public static int getCreatedCount() {
+        return sCreatedCount;
+    }
+
+    public void recycle() {
+        clear();
+        if (sPoolSize < sPool.length) {
+            sPool[sPoolSize++] = this;
+        }
+    }
+
+    public void clear() {
+        for (int id = 0; id <= MAX_POINTER_ID; id++) {
+            mCount[id] = 0;
+            mVelocityX[id] = 0;
+            mVelocityY[id] = 0;
+        }
+        mActivePointerId = -1;
+    }
+
+    public void addMovement(MotionEvent event) {
+        final int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            clear();
+        }
+        final int pointerCount = event.getPointerCount();
+        if (mActivePointerId < 0 || event.findPointerIndex(mActivePointerId) < 0) {
+            mActivePointerId = event.getPointerId(0);
+        }
+        final int historySize = event.getHistorySize();
+        for (int h = 0; h <= historySize; h++) {
+            final long time = h < historySize ? event.getHistoricalEventTime(h)
+                    : event.getEventTime();
+            for (int i = 0; i < pointerCount; i++) {
+                final int id = event.getPointerId(i);
+                if (id < 0 || id > MAX_POINTER_ID) {
+                    continue;
+                }
+                final float x = h < historySize ? event.getHistoricalX(i, h) : event.getX(i);
+                final float y = h < historySize ? event.getHistoricalY(i, h) : event.getY(i);
+                add(id, time, x, y);
+            }
+        }
+    }
+
+    public void computeCurrentVelocity(int units) {
+        computeCurrentVelocity(units, Float.MAX_VALUE);
+    }
+
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        for (int id = 0; id <= MAX_POINTER_ID; id++) {
+            if (mCount[id] < 2) {
+                mVelocityX[id] = 0;
+                mVelocityY[id] = 0;
+            } else {
+                compute(id, units, maxVelocity);
+            }
+        }
+    }
+
+    public float getXVelocity() {
+        return mActivePointerId >= 0 ? mVelocityX[mActivePointerId] : 0;
+    }
+
+    public float getYVelocity() {
+        return mActivePointerId >= 0 ? mVelocityY[mActivePointerId] : 0;
+    }
+
+    public float getXVelocity(int id) {
+        return id >= 0 && id <= MAX_POINTER_ID ? mVelocityX[id] : 0;
+    }
+
+    public float getYVelocity(int id) {
+        return id >= 0 && id <= MAX_POINTER_ID ? mVelocityY[id] : 0;
+    }
+
+    private void add(int id, long time, float x, float y) {
+        final int base = id * HISTORY_SIZE;
+        int head = mHead[id];
+        if (mCount[id] > 0) {
+            head = head + 1 == HISTORY_SIZE ? 0 : head + 1;
+        } else {
+            head = 0;
+        }
+        mHead[id] = head;
+        mTime[base + head] = time;
+        mX[base + head] = x;
+        mY[base + head] = y;
+        if (mCount[id] < HISTORY_SIZE) {
+            mCount[id]++;
+        }
+    }
+
+    private void compute(int id, int units, float maxVelocity) {
+        final int base = id * HISTORY_SIZE;
+        int index = mHead[id];
+        final long newest = mTime[base + index];
+        final int count = mCount[id];
+        final double[] t = mFitT;
+        final double[] x = mFitX;
+        final double[] y = mFitY;
+        int n = 0;
+        for (int k = 0; k < count; k++) {
+            final long time = mTime[base + index];
+            if (newest - time > HORIZON_MS) {
+                break;
+            }
+            t[n] = (time - newest) * 0.001;
+            x[n] = mX[base + index];
+            y[n] = mY[base + index];
+            n++;
+            index = index == 0 ? HISTORY_SIZE - 1 : index - 1;
+        }
+        final float scale = units / 1000f;
+        mVelocityX[id] = clamp((float) slope(t, x, n) * scale, maxVelocity);
+        mVelocityY[id] = clamp((float) slope(t, y, n) * scale, maxVelocity);
+    }
+
+    // 拟合值对时间的一次项系数,也就是t = 0(最新采样)处的导数
+    private static double slope(double[] t, double[] v, int n) {
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0, sv = 0, stv = 0, st2v = 0;
+        for (int i = 0; i < n; i++) {
+            final double ti = t[i];
+            final double t2 = ti * ti;
+            s1 += ti;
+            s2 += t2;
+            s3 += t2 * ti;
+            s4 += t2 * t2;
+            sv += v[i];
+            stv += ti * v[i];
+            st2v += t2 * v[i];
+        }
+        if (n >= 3) {
+            final double det = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s2 * s3)
+                    + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-18) {
+                return (n * (stv * s4 - s3 * st2v) - sv * (s1 * s4 - s2 * s3)
+                        + s2 * (s1 * st2v - s2 * stv)) / det;
+            }
+        }
+        final double det = n * s2 - s1 * s1;
+        return n >= 2 && det > 1e-12 ? (n * stv - s1 * sv) / det : 0;
+    }
+
+    private static float clamp(float value, float max) {
+        return value > max ? max : value < -max ? -max : value;
+    }
+}
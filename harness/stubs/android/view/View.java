@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+import android.content.Context;
+import android.os.IBinder;
+
+import java.util.ArrayList;
+
+/**
+ * harness用的View替身.只保存边界,父view,可见性和是否附加到{@link TestWindow}上,
+ * 不测量,不绘制,也不分发触摸事件.
+ *
+ * Harness stand-in for View. It keeps its bounds, parent, visibility and the
+ * {@link TestWindow} it is attached to; it does not measure, draw or dispatch touches.
+ */
+public class View {
+    public static final int VISIBLE = 0x00000000;
+    public static final int INVISIBLE = 0x00000004;
+    public static final int GONE = 0x00000008;
+
+    /**
+     * 附加到window和从window移除时的回调.
+     * Interface definition for a callback to be invoked when this view is attached
+     * or detached from its window.
+     */
+    public interface OnAttachStateChangeListener {
+        void onViewAttachedToWindow(View v);
+
+        void onViewDetachedFromWindow(View v);
+    }
+
+    private final Context mContext;
+    int mLeft;
+    int mTop;
+    int mRight;
+    int mBottom;
+    private int mVisibility = VISIBLE;
+    ViewParent mParent;
+
+    TestWindow mWindow;
+    private ViewTreeObserver mFloatingTreeObserver;
+    private ArrayList<OnAttachStateChangeListener> mAttachListeners;
+    private int mInvalidateCount;
+    private int mBoundsReads;
+
+    public View(Context context) {
+        mContext = context;
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public final int getLeft() {
+        mBoundsReads++;
+        return mLeft;
+    }
+
+    public final int getTop() {
+        mBoundsReads++;
+        return mTop;
+    }
+
+    public final int getRight() {
+        mBoundsReads++;
+        return mRight;
+    }
+
+    public final int getBottom() {
+        mBoundsReads++;
+        return mBottom;
+    }
+
+    /**
+     * Harness only: the number of getLeft, getTop, getRight and getBottom calls so
+     * far, for drivers that count bounds reads on a hot path.
+     */
+    public int getBoundsReadCount() {
+        return mBoundsReads;
+    }
+
+    public final int getWidth() {
+        return mRight - mLeft;
+    }
+
+    public final int getHeight() {
+        return mBottom - mTop;
+    }
+
+    public final int getScrollX() {
+        return 0;
+    }
+
+    public final int getScrollY() {
+        return 0;
+    }
+
+    /**
+     * Assigns the bounds of this view. The harness has no measure pass, so this is
+     * the only way a view gets its size.
+     */
+    public void layout(int l, int t, int r, int b) {
+        mLeft = l;
+        mTop = t;
+        mRight = r;
+        mBottom = b;
+    }
+
+    public void offsetLeftAndRight(int offset) {
+        mLeft += offset;
+        mRight += offset;
+    }
+
+    public void offsetTopAndBottom(int offset) {
+        mTop += offset;
+        mBottom += offset;
+    }
+
+    public final ViewParent getParent() {
+        return mParent;
+    }
+
+    public int getVisibility() {
+        return mVisibility;
+    }
+
+    public void setVisibility(int visibility) {
+        mVisibility = visibility;
+    }
+
+    public void invalidate() {
+        mInvalidateCount++;
+    }
+
+    /**
+     * Harness only: the number of {@link #invalidate()} calls so far.
+     */
+    public int getInvalidateCount() {
+        return mInvalidateCount;
+    }
+
+    /**
+     * 附加到window时放进window的消息队列.没有附加时直接丢弃并返回false,这是和真实View不同的地方.
+     * Queues <code>action</code> on the window's message queue. Unlike a real view,
+     * a detached view drops the action and returns false.
+     */
+    public boolean post(Runnable action) {
+        return mWindow != null && mWindow.post(action);
+    }
+
+    public boolean removeCallbacks(Runnable action) {
+        return mWindow != null && mWindow.removeCallbacks(action);
+    }
+
+    /**
+     * Like {@link #post(Runnable)}, but runs <code>action</code> on the next frame.
+     */
+    public void postOnAnimation(Runnable action) {
+        if (mWindow != null) {
+            mWindow.postOnAnimation(action);
+        }
+    }
+
+    public IBinder getWindowToken() {
+        return mWindow != null ? mWindow.getToken() : null;
+    }
+
+    /**
+     * 附加到window后返回window的ViewTreeObserver;没有附加时返回一个临时的,
+     * 附加时临时observer里的监听会合并到window的observer里.
+     *
+     * Returns the window's observer while attached. A detached view hands out a
+     * floating observer whose listeners are merged into the window's on attach.
+     */
+    public ViewTreeObserver getViewTreeObserver() {
+        if (mWindow != null) {
+            return mWindow.getViewTreeObserver();
+        }
+        if (mFloatingTreeObserver == null) {
+            mFloatingTreeObserver = new ViewTreeObserver();
+        }
+        return mFloatingTreeObserver;
+    }
+
+    public void addOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+        if (mAttachListeners == null) {
+            mAttachListeners = new ArrayList<OnAttachStateChangeListener>();
+        }
+        mAttachListeners.add(listener);
+    }
+
+    public void removeOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+        if (mAttachListeners != null) {
+            mAttachListeners.remove(listener);
+        }
+    }
+
+    void dispatchAttachedToWindow(TestWindow window) {
+        mWindow = window;
+        if (mFloatingTreeObserver != null) {
+            window.getViewTreeObserver().merge(mFloatingTreeObserver);
+            mFloatingTreeObserver = null;
+        }
+        if (mAttachListeners != null) {
+            for (OnAttachStateChangeListener listener
+                    : new ArrayList<OnAttachStateChangeListener>(mAttachListeners)) {
+                listener.onViewAttachedToWindow(this);
+            }
+        }
+    }
+
+    void dispatchDetachedFromWindow() {
+        // Like the platform, listeners run while the view can still reach the window
+        if (mAttachListeners != null) {
+            for (OnAttachStateChangeListener listener
+                    : new ArrayList<OnAttachStateChangeListener>(mAttachListeners)) {
+                listener.onViewDetachedFromWindow(this);
+            }
+        }
+        mWindow = null;
+    }
+}
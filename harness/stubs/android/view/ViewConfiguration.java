@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+import android.content.Context;
+
+/**
+ * harness用的ViewConfiguration替身,数值和平台的默认值一致,按Context的密度缩放.
+ * Harness stand-in for ViewConfiguration. Values are the platform defaults scaled by
+ * the context's density.
+ */
+public class ViewConfiguration {
+    private static final int TOUCH_SLOP = 8;
+    private static final int MINIMUM_FLING_VELOCITY = 50;
+    private static final int MAXIMUM_FLING_VELOCITY = 8000;
+    private static final float SCROLL_FRICTION = 0.015f;
+
+    private final int mTouchSlop;
+    private final int mMinimumFlingVelocity;
+    private final int mMaximumFlingVelocity;
+
+    private ViewConfiguration(float density) {
+        mTouchSlop = (int) (density * TOUCH_SLOP + 0.5f);
+        mMinimumFlingVelocity = (int) (density * MINIMUM_FLING_VELOCITY + 0.5f);
+        mMaximumFlingVelocity = (int) (density * MAXIMUM_FLING_VELOCITY + 0.5f);
+    }
+
+    public static ViewConfiguration get(Context context) {
+        return new ViewConfiguration(context.getResources().getDisplayMetrics().density);
+    }
+
+    public static float getScrollFriction() {
+        return SCROLL_FRICTION;
+    }
+
+    public int getScaledTouchSlop() {
+        return mTouchSlop;
+    }
+
+    public int getScaledMinimumFlingVelocity() {
+        return mMinimumFlingVelocity;
+    }
+
+    public int getScaledMaximumFlingVelocity() {
+        return mMaximumFlingVelocity;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+
+/**
+ * harness用的ViewGroup替身.子view按添加顺序保存,最后添加的在最上层.
+ * Harness stand-in for ViewGroup. Children are kept in the order they were added,
+ * the last one on top.
+ */
+public class ViewGroup extends View implements ViewParent {
+    private final ArrayList<View> mChildren = new ArrayList<View>();
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public void addView(View child) {
+        addView(child, -1);
+    }
+
+    public void addView(View child, int index) {
+        if (child.mParent != null) {
+            throw new IllegalStateException("The specified child already has a parent.");
+        }
+        if (index < 0) {
+            mChildren.add(child);
+        } else {
+            mChildren.add(index, child);
+        }
+        child.mParent = this;
+        if (mWindow != null) {
+            child.dispatchAttachedToWindow(mWindow);
+        }
+    }
+
+    public void removeView(View child) {
+        if (mChildren.remove(child)) {
+            if (mWindow != null) {
+                child.dispatchDetachedFromWindow();
+            }
+            child.mParent = null;
+        }
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public View getChildAt(int index) {
+        return index >= 0 && index < mChildren.size() ? mChildren.get(index) : null;
+    }
+
+    public int indexOfChild(View child) {
+        return mChildren.indexOf(child);
+    }
+
+    @Override
+    void dispatchAttachedToWindow(TestWindow window) {
+        super.dispatchAttachedToWindow(window);
+        for (int i = 0; i < mChildren.size(); i++) {
+            mChildren.get(i).dispatchAttachedToWindow(window);
+        }
+    }
+
+    @Override
+    void dispatchDetachedFromWindow() {
+        for (int i = 0; i < mChildren.size(); i++) {
+            mChildren.get(i).dispatchDetachedFromWindow();
+        }
+        super.dispatchDetachedFromWindow();
+    }
+}
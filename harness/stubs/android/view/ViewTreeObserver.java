@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view;
+
+import java.util.ArrayList;
+
+/**
+ * Harness stand-in for ViewTreeObserver, limited to global layout listeners.
+ */
+public final class ViewTreeObserver {
+    public interface OnGlobalLayoutListener {
+        void onGlobalLayout();
+    }
+
+    private ArrayList<OnGlobalLayoutListener> mOnGlobalLayoutListeners =
+            new ArrayList<OnGlobalLayoutListener>();
+    private boolean mAlive = true;
+
+    public void addOnGlobalLayoutListener(OnGlobalLayoutListener listener) {
+        checkIsAlive();
+        mOnGlobalLayoutListeners.add(listener);
+    }
+
+    /**
+     * @deprecated Use {@link #removeOnGlobalLayoutListener(OnGlobalLayoutListener)}
+     */
+    @Deprecated
+    public void removeGlobalOnLayoutListener(OnGlobalLayoutListener victim) {
+        removeOnGlobalLayoutListener(victim);
+    }
+
+    public void removeOnGlobalLayoutListener(OnGlobalLayoutListener victim) {
+        checkIsAlive();
+        mOnGlobalLayoutListeners.remove(victim);
+    }
+
+    public boolean isAlive() {
+        return mAlive;
+    }
+
+    public final void dispatchOnGlobalLayout() {
+        final ArrayList<OnGlobalLayoutListener> listeners =
+                new ArrayList<OnGlobalLayoutListener>(mOnGlobalLayoutListeners);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onGlobalLayout();
+        }
+    }
+
+    /**
+     * Harness only: the number of registered global layout listeners, so that a
+     * driver can check that nothing is left behind on the window.
+     */
+    public int getGlobalLayoutListenerCount() {
+        return mOnGlobalLayoutListeners.size();
+    }
+
+    // 把临时observer的监听合并进来,之后临时observer不能再使用
+    void merge(ViewTreeObserver observer) {
+        mOnGlobalLayoutListeners.addAll(observer.mOnGlobalLayoutListeners);
+        observer.mOnGlobalLayoutListeners.clear();
+        observer.mAlive = false;
+    }
+
+    private void checkIsAlive() {
+        if (!mAlive) {
+            throw new IllegalStateException("This ViewTreeObserver is not alive, call "
+                    + "getViewTreeObserver() again");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.view.animation;
+
+/**
+ * Harness copy of the platform DecelerateInterpolator.
+ */
+public class DecelerateInterpolator implements Interpolator {
+    private final float mFactor;
+
+    public DecelerateInterpolator() {
+        this(1.0f);
+    }
+
+    public DecelerateInterpolator(float factor) {
+        mFactor = factor;
+    }
+
+    public float getInterpolation(float input) {
+        if (mFactor == 1.0f) {
+            return 1.0f - (1.0f - input) * (1.0f - input);
+        }
+        return (float) (1.0f - Math.pow((1.0f - input), 2 * mFactor));
+    }
+}